@@ -20,8 +20,11 @@ import de.adorsys.datasafe.storage.api.RegexDelegatingStorage;
 import de.adorsys.datasafe.storage.api.StorageService;
 import de.adorsys.datasafe.storage.api.UriBasedAuthStorageService;
 import de.adorsys.datasafe.storage.impl.fs.FileSystemStorageService;
+import de.adorsys.datasafe.storage.impl.s3.PooledS3StorageService;
+import de.adorsys.datasafe.storage.impl.s3.S3ClientPool;
 import de.adorsys.datasafe.storage.impl.s3.S3ClientFactory;
-import de.adorsys.datasafe.storage.impl.s3.S3StorageService;
+import de.adorsys.datasafe.storage.impl.s3.S3StorageConfig;
+import de.adorsys.datasafe.storage.impl.s3.StaticBucketRouter;
 import de.adorsys.datasafe.types.api.context.BaseOverridesRegistry;
 import de.adorsys.datasafe.types.api.context.overrides.OverridesRegistry;
 import de.adorsys.datasafe.types.api.types.ReadStorePassword;
@@ -31,6 +34,7 @@ import lombok.experimental.UtilityClass;
 import lombok.extern.slf4j.Slf4j;
 
 import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
 import java.util.regex.Pattern;
 
 @Slf4j
@@ -38,6 +42,7 @@ import java.util.regex.Pattern;
 public class DatasafeFactory {
 
     public static DefaultDatasafeServices datasafe(Path fsRoot, ReadStorePassword systemPassword) {
+        S3StorageConfig s3Config = S3StorageConfig.builder().build();
         OverridesRegistry registry = new BaseOverridesRegistry();
         DefaultDatasafeServices multiDfsDatasafe = DaggerDefaultDatasafeServices
                 .builder()
@@ -46,9 +51,9 @@ public class DatasafeFactory {
                         new RegexDelegatingStorage(
                                 ImmutableMap.<Pattern, StorageService>builder()
                                         .put(Pattern.compile("file:/.+"), localFs(fsRoot))
-                                        .put(Pattern.compile("s3://.+"), amazonS3())
-                                        .put(Pattern.compile("http://.+"), httpS3())
-                                        .put(Pattern.compile("https://.+"), httpS3())
+                                        .put(Pattern.compile("s3://.+"), amazonS3(s3Config))
+                                        .put(Pattern.compile("http://.+"), httpS3(s3Config))
+                                        .put(Pattern.compile("https://.+"), httpS3(s3Config))
                                         .build()
                         )
                 )
@@ -66,29 +71,35 @@ public class DatasafeFactory {
         return new FileSystemStorageService(fsRoot);
     }
 
-    private static StorageService httpS3() {
+    private static StorageService httpS3(S3StorageConfig s3Config) {
+        S3ClientPool clients = new S3ClientPool(
+                key -> httpClient(key.getAccessKey(), key.getSecretKey(), key.getEndpoint(), key.getRegion())
+        );
+        ExecutorService executorService = ExecutorServiceUtil.submitterExecutesOnStarvationExecutingService();
         return new UriBasedAuthStorageService(
-                acc -> getStorageService(
-                        acc.getAccessKey(),
-                        acc.getSecretKey(),
-                        acc.getEndpoint(),
-                        acc.getRegion(),
-                        acc.getBucketName()
+                acc -> new PooledS3StorageService(
+                        clients,
+                        S3ClientPool.ClientKey.forAccess(acc),
+                        new StaticBucketRouter(acc.getBucketName()),
+                        executorService,
+                        s3Config
                 )
         );
     }
 
-    private static StorageService amazonS3() {
+    private static StorageService amazonS3(S3StorageConfig s3Config) {
+        S3ClientPool clients = new S3ClientPool(
+                key -> S3ClientFactory.getAmazonClient(key.getRegion(), key.getAccessKey(), key.getSecretKey())
+        );
+        ExecutorService executorService = ExecutorServiceUtil.submitterExecutesOnStarvationExecutingService();
         return new UriBasedAuthStorageService(
-                acc -> new S3StorageService(
-                        S3ClientFactory.getAmazonClient(
-                                acc.getRegion(),
-                                acc.getAccessKey(),
-                                acc.getSecretKey()
-                        ),
+                acc -> new PooledS3StorageService(
+                        clients,
+                        S3ClientPool.ClientKey.forAccess(acc),
                         // Bucket name is encoded in first path segment
-                        acc.getBucketName(),
-                        ExecutorServiceUtil.submitterExecutesOnStarvationExecutingService()
+                        new StaticBucketRouter(acc.getBucketName()),
+                        executorService,
+                        s3Config
                 ),
                 uri -> (uri.getHost() + "/" + uri.getPath().replaceFirst("^/", "")).split("/")
         );
@@ -105,8 +116,7 @@ public class DatasafeFactory {
         }
     }
 
-    private static S3StorageService getStorageService(String accessKey, String secretKey, String url, String region,
-                                                      String bucket) {
+    private static AmazonS3 httpClient(String accessKey, String secretKey, String url, String region) {
         AmazonS3ClientBuilder amazonS3ClientBuilder = AmazonS3ClientBuilder.standard()
                 .withCredentials(
                         new AWSStaticCredentialsProvider(
@@ -130,17 +140,6 @@ public class DatasafeFactory {
             amazonS3ClientBuilder.withClientConfiguration(clientConfig);
         }
 
-        AmazonS3 amazons3 = amazonS3ClientBuilder.build();
-
-        return new S3StorageService(
-                amazons3,
-                bucket,
-                ExecutorServiceUtil
-                        .submitterExecutesOnStarvationExecutingService(
-                                5,
-                                5
-                        )
-        );
+        return amazonS3ClientBuilder.build();
     }
 }
-
@@ -18,10 +18,13 @@ import de.adorsys.datasafe.storage.api.actions.StorageRemoveService;
 import de.adorsys.datasafe.types.api.context.annotations.RuntimeDelegate;
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
 import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.inject.Inject;
+import java.util.Arrays;
 import java.util.Objects;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 @Slf4j
@@ -72,7 +75,7 @@ public class ProfileRemovalServiceImpl implements ProfileRemovalService {
         removeAllIn(userID, privateProfile.getInboxWithFullAccess());
         removeAllIn(userID, privateProfile.getDocumentVersionStorage());
 
-        Streams.concat(
+        removeService.removeAll(Streams.concat(
                 Stream.of(
                         privateProfile.getKeystore(),
                         privateProfile.getInboxWithFullAccess(),
@@ -83,16 +86,19 @@ public class ProfileRemovalServiceImpl implements ProfileRemovalService {
         )
         .filter(Objects::nonNull)
         .map(AbsoluteLocation::getResource)
-        .map(it -> access.privateAccessFor(userID, it)).forEach(removeService::remove);
+        .map(it -> access.privateAccessFor(userID, it))
+        .collect(Collectors.toList()));
 
         removeService.remove(access.withSystemAccess(publicProfile.getPublicKeys()));
 
         removeUserProfileFiles(userID.getUserID());
 
         // remove everything else associated with user - i.e. parent folder of profile
-        privateProfile.getAssociatedResources().stream()
-                .map(it -> access.privateAccessFor(userID, it.getResource()))
-                .forEach(removeService::remove);
+        removeService.removeAll(
+                privateProfile.getAssociatedResources().stream()
+                        .map(it -> access.privateAccessFor(userID, it.getResource()))
+                        .collect(Collectors.toList())
+        );
 
         cleanupProfileCache(userID.getUserID());
         keyStoreCache.remove(userID.getUserID());
@@ -102,8 +108,10 @@ public class ProfileRemovalServiceImpl implements ProfileRemovalService {
     }
 
     protected void removeUserProfileFiles(UserID forUser) {
-        removeService.remove(access.withSystemAccess(dfsConfig.privateProfile(forUser)));
-        removeService.remove(access.withSystemAccess(dfsConfig.publicProfile(forUser)));
+        removeService.removeAll(Arrays.asList(
+                access.withSystemAccess(dfsConfig.privateProfile(forUser)),
+                access.withSystemAccess(dfsConfig.publicProfile(forUser))
+        ));
     }
 
     protected void cleanupProfileCache(UserID forUser) {
@@ -116,8 +124,10 @@ public class ProfileRemovalServiceImpl implements ProfileRemovalService {
             return;
         }
 
-        listService.list(
+        try (Stream<AbsoluteLocation<ResolvedResource>> listing = listService.list(
                 access.privateAccessFor(userID, location.getResource())
-        ).forEach(removeService::remove);
+        )) {
+            removeService.removeAll(listing.collect(Collectors.toList()));
+        }
     }
 }
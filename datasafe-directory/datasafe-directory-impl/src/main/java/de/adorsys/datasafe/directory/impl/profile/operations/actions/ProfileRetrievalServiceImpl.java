@@ -19,6 +19,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import javax.inject.Inject;
 import java.io.InputStream;
+import java.util.Arrays;
 
 @Slf4j
 @RuntimeDelegate
@@ -75,8 +76,10 @@ public class ProfileRetrievalServiceImpl implements ProfileRetrievalService {
      */
     @Override
     public boolean userExists(UserID ofUser) {
-        return checkService.objectExists(access.withSystemAccess(dfsConfig.privateProfile(ofUser))) &&
-                checkService.objectExists(access.withSystemAccess(dfsConfig.publicProfile((ofUser))));
+        return checkService.existsAll(Arrays.asList(
+                access.withSystemAccess(dfsConfig.privateProfile(ofUser)),
+                access.withSystemAccess(dfsConfig.publicProfile(ofUser))
+        )).stream().allMatch(Boolean::booleanValue);
     }
 
     @SneakyThrows
@@ -5,6 +5,7 @@ import de.adorsys.datasafe.directory.api.profile.keys.PrivateKeyService;
 import de.adorsys.datasafe.encrypiton.api.cmsencryption.CMSEncryptionService;
 import de.adorsys.datasafe.encrypiton.api.document.EncryptedDocumentReadService;
 import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
+import de.adorsys.datasafe.storage.api.RangeInputStream;
 import de.adorsys.datasafe.storage.api.actions.StorageReadService;
 import de.adorsys.datasafe.types.api.actions.ReadRequest;
 import de.adorsys.datasafe.types.api.context.annotations.RuntimeDelegate;
@@ -36,6 +37,10 @@ public class CMSDocumentReadService implements EncryptedDocumentReadService {
         this.cms = cms;
     }
 
+    /**
+     * CMS envelope can't be decrypted starting at arbitrary position, so requested range is applied to decrypted
+     * content - bytes before range are decrypted and skipped, and reading from storage stops at range end.
+     */
     @Override
     @SneakyThrows
     public InputStream read(ReadRequest<UserIDAuth, AbsoluteLocation<PrivateResource>> request) {
@@ -46,7 +51,12 @@ public class CMSDocumentReadService implements EncryptedDocumentReadService {
                 keyId -> privateKeyService.keysByIds(request.getOwner(), keyId)
         );
 
-        return new CloseCoordinatingStream(encryptionSource, ImmutableList.of(encryptionSource, dfsSource));
+        InputStream decrypted = new CloseCoordinatingStream(
+                encryptionSource,
+                ImmutableList.of(encryptionSource, dfsSource)
+        );
+
+        return null == request.getRange() ? decrypted : new RangeInputStream(decrypted, request.getRange());
     }
 
     /**
@@ -75,6 +75,7 @@ public class CMSDocumentWriteService implements EncryptedDocumentWriteService {
                 WithCallback.<AbsoluteLocation, ResourceWriteCallback>builder()
                         .wrapped(locationWithCallback.getWrapped())
                         .callbacks(locationWithCallback.getCallbacks())
+                        .expectedSize(locationWithCallback.getExpectedSize())
                         .build()
         );
 
@@ -36,6 +36,7 @@ public class ReadFromInboxImpl implements ReadFromInbox {
                 .location(resolver.resolveRelativeToPrivateInbox(request.getOwner(), request.getLocation()))
                 .owner(request.getOwner())
                 .storageIdentifier(request.getStorageIdentifier())
+                .range(request.getRange())
                 .build()
         );
     }
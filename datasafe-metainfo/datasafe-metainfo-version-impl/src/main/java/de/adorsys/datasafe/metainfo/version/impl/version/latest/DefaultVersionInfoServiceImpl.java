@@ -72,9 +72,12 @@ public class DefaultVersionInfoServiceImpl implements VersionInfoService<DFSVers
                 );
 
         // TODO: This can be cached - latest links for resource version.
-        AbsoluteLocation<ResolvedResource> resolved = listPrivate
-                .list(request.toBuilder().location(latestLink.getResource()).build())
-                .findFirst().orElse(null);
+        AbsoluteLocation<ResolvedResource> resolved;
+        // listing is not consumed till the end, so it must be closed to release storage resources
+        try (Stream<AbsoluteLocation<ResolvedResource>> latest = listPrivate
+                .list(request.toBuilder().location(latestLink.getResource()).build())) {
+            resolved = latest.findFirst().orElse(null);
+        }
 
         // no latest found - it is possibly outdated, user needs to validate timestamp.
         if (null == resolved) {
@@ -23,6 +23,7 @@ import de.adorsys.datasafe.types.api.resource.Versioned;
 import lombok.Getter;
 
 import javax.inject.Inject;
+import java.util.List;
 import java.util.stream.Stream;
 
 /**
@@ -78,6 +79,12 @@ public class LatestPrivateSpaceImpl<V extends LatestDFSVersion> implements Versi
         // password clearance is done in removeService
     }
 
+    @Override
+    public void removeAll(List<RemoveRequest<UserIDAuth, PrivateResource>> requests) {
+        removeService.removeAll(requests);
+        // password clearance is done in removeService
+    }
+
     @Override
     public void makeSurePasswordClearanceIsDone() {
 
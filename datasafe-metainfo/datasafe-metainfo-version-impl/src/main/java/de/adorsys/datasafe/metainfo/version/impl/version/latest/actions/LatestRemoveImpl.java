@@ -12,6 +12,8 @@ import de.adorsys.datasafe.types.api.resource.PrivateResource;
 import lombok.Getter;
 
 import javax.inject.Inject;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Default versioned resource remove action that simply removes document returned by {@link EncryptedLatestLinkService}
@@ -38,6 +40,23 @@ public class LatestRemoveImpl<V extends LatestDFSVersion> implements VersionedRe
 
     @Override
     public void remove(RemoveRequest<UserIDAuth, PrivateResource> request) {
+        removeFromPrivate.remove(toLatestLink(request));
+        request.getOwner().getReadKeyPassword().clear();
+    }
+
+    @Override
+    public void removeAll(List<RemoveRequest<UserIDAuth, PrivateResource>> requests) {
+        removeFromPrivate.removeAll(requests.stream().map(this::toLatestLink).collect(Collectors.toList()));
+        requests.forEach(it -> it.getOwner().getReadKeyPassword().clear());
+    }
+
+    @Override
+    public void makeSurePasswordClearanceIsDone() {
+
+    }
+
+    private RemoveRequest<UserIDAuth, PrivateResource> toLatestLink(
+            RemoveRequest<UserIDAuth, PrivateResource> request) {
         AbsoluteLocation<PrivateResource> latestSnapshotLink =
                 latestVersionLinkLocator.resolveLatestLinkLocation(
                         request.getOwner(),
@@ -45,15 +64,8 @@ public class LatestRemoveImpl<V extends LatestDFSVersion> implements VersionedRe
                         request.getStorageIdentifier()
                 );
 
-        removeFromPrivate.remove(request.toBuilder()
+        return request.toBuilder()
                 .location(latestSnapshotLink.getResource())
-                .build()
-        );
-        request.getOwner().getReadKeyPassword().clear();
-    }
-
-    @Override
-    public void makeSurePasswordClearanceIsDone() {
-
+                .build();
     }
 }
@@ -4,6 +4,8 @@ import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
 import de.adorsys.datasafe.types.api.actions.RemoveRequest;
 import de.adorsys.datasafe.types.api.resource.PrivateResource;
 
+import java.util.List;
+
 /**
  * Removes users' file from privatespace.
  */
@@ -14,5 +16,11 @@ public interface RemoveFromPrivate {
      * @param request Resource location (relative or absolute)
      */
     void remove(RemoveRequest<UserIDAuth, PrivateResource> request);
+
+    /**
+     * Deletes users' files inside users' privatespace, storage removes them using batch requests if it can.
+     * @param requests Resource locations (relative or absolute)
+     */
+    void removeAll(List<RemoveRequest<UserIDAuth, PrivateResource>> requests);
     void makeSurePasswordClearanceIsDone(); // this abstract method will make sure new implementations dont forget to handle password clearance
 }
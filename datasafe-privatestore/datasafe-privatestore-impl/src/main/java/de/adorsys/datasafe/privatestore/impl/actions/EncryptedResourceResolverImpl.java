@@ -53,6 +53,10 @@ public class EncryptedResourceResolverImpl implements EncryptedResourceResolver
         return resource -> {
             Uri encryptedPart = computeEncryptedPart(root, resource);
             Uri decryptedPart = decryptor.apply(encryptedPart);
+            // directory that was returned by shallow list stays directory after decryption
+            if (encryptedPart.isDir()) {
+                decryptedPart = decryptedPart.asDir();
+            }
             return new AbsoluteLocation<>(
                     resolver.resolveRelativeToPrivate(auth, resource, identifier)
                         .getResource().resolve(encryptedPart, decryptedPart)
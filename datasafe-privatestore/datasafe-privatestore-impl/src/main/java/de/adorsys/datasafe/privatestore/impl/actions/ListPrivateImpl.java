@@ -8,8 +8,10 @@ import de.adorsys.datasafe.storage.api.actions.StorageListService;
 import de.adorsys.datasafe.types.api.actions.ListRequest;
 import de.adorsys.datasafe.types.api.context.annotations.RuntimeDelegate;
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocationWithCapability;
 import de.adorsys.datasafe.types.api.resource.PrivateResource;
 import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.resource.StorageCapability;
 
 import javax.inject.Inject;
 import java.util.function.Function;
@@ -18,6 +20,7 @@ import java.util.function.Function;
  * Default listing service that encrypts the location of where to list files using {@link EncryptedResourceResolver}
  * and delegates request to {@link StorageListService} after that it decrypts obtained resources to retrieve
  * logical resource path (decrypted path) within users' privatespace.
+ * Shallow list request is passed to storage as {@link StorageCapability#LIST_SHALLOW}.
  */
 @RuntimeDelegate
 public class ListPrivateImpl implements ListPrivate {
@@ -45,7 +48,10 @@ public class ListPrivateImpl implements ListPrivate {
                 request.getOwner(), listDir.getResource(), request.getStorageIdentifier()
         );
 
-        return new PasswordClearingStream<>(listService.list(listDir).map(it -> {
+        AbsoluteLocation<PrivateResource> toList = request.isShallow() ?
+                new AbsoluteLocationWithCapability<>(listDir.getResource(), StorageCapability.LIST_SHALLOW) : listDir;
+
+        return new PasswordClearingStream<>(listService.list(toList).map(it -> {
             AbsoluteLocation<PrivateResource> decrypted = decryptingResolver.apply(it.getResource().asPrivate());
             return new AbsoluteLocation<>(it.getResource().withResource(decrypted.getResource()));
         }), request.getOwner().getReadKeyPassword());
@@ -47,6 +47,7 @@ public class ReadFromPrivateImpl implements ReadFromPrivate {
                         request.getStorageIdentifier()
                 ))
                 .storageIdentifier(request.getStorageIdentifier())
+                .range(request.getRange())
                 .build();
     }
 
@@ -9,6 +9,8 @@ import de.adorsys.datasafe.types.api.context.annotations.RuntimeDelegate;
 import de.adorsys.datasafe.types.api.resource.PrivateResource;
 
 import javax.inject.Inject;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Default removal service that locates resource to remove using {@link EncryptedResourceResolver} and
@@ -36,6 +38,16 @@ public class RemoveFromPrivateImpl implements RemoveFromPrivate {
         request.getOwner().getReadKeyPassword().clear();
     }
 
+    @Override
+    public void removeAll(List<RemoveRequest<UserIDAuth, PrivateResource>> requests) {
+        // Access check is implicit - on keystore access in EncryptedResourceResolver
+        remover.removeAll(requests.stream()
+                .map(it -> resolver.encryptAndResolvePath(it.getOwner(), it.getLocation(), it.getStorageIdentifier()))
+                .collect(Collectors.toList())
+        );
+        requests.forEach(it -> it.getOwner().getReadKeyPassword().clear());
+    }
+
     @Override
     public void makeSurePasswordClearanceIsDone() {
 
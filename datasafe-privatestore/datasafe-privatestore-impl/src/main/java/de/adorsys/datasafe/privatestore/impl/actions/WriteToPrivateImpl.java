@@ -48,7 +48,9 @@ public class WriteToPrivateImpl implements WriteToPrivate {
                                 request.getOwner(),
                                 request.getLocation(),
                                 request.getStorageIdentifier())
-                        ).callbacks(request.getCallbacks()).build(),
+                        ).callbacks(request.getCallbacks())
+                        .expectedSize(request.getExpectedSize())
+                        .build(),
                 keySpec
         ), request.getOwner().getReadKeyPassword());
     }
@@ -6,9 +6,11 @@ import de.adorsys.datasafe.privatestore.api.actions.EncryptedResourceResolver;
 import de.adorsys.datasafe.storage.api.actions.StorageListService;
 import de.adorsys.datasafe.types.api.actions.ListRequest;
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocationWithCapability;
 import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
 import de.adorsys.datasafe.types.api.resource.PrivateResource;
 import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.resource.StorageCapability;
 import de.adorsys.datasafe.types.api.resource.Uri;
 import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
 import de.adorsys.datasafe.types.api.utils.ReadKeyPasswordTestFactory;
@@ -21,6 +23,7 @@ import java.net.URI;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.when;
 
 class ListPrivateImplTest extends BaseMockitoTest {
@@ -65,4 +68,26 @@ class ListPrivateImplTest extends BaseMockitoTest {
 
         assertThat(privateService.list(request)).hasSize(1);
     }
+
+    @Test
+    void listShallow() {
+        AbsoluteLocation<PrivateResource> resource = BasePrivateResource.forAbsolutePrivate(ABSOLUTE_PATH);
+        when(resolvedResource.asPrivate()).thenReturn(resource.getResource());
+        when(resolvedResource.withResource(resource.getResource())).thenReturn(resolvedResource);
+        ListRequest<UserIDAuth, PrivateResource> request = ListRequest.forDefaultPrivate(auth, PATH)
+                .toBuilder()
+                .shallow(true)
+                .build();
+        when(resolver.encryptAndResolvePath(request.getOwner(), request.getLocation(), request.getStorageIdentifier()))
+                .thenReturn(resource);
+        when(resolver.decryptingResolver(request.getOwner(), resource.getResource(), request.getStorageIdentifier()))
+                .thenReturn(path -> resource);
+        when(listService.list(argThat(it ->
+                it instanceof AbsoluteLocationWithCapability
+                        && StorageCapability.LIST_SHALLOW == ((AbsoluteLocationWithCapability) it).getCapability()
+                        && it.getResource().equals(resource.getResource())
+        ))).thenReturn(Stream.of(absoluteResolvedResource));
+
+        assertThat(privateService.list(request)).hasSize(1);
+    }
 }
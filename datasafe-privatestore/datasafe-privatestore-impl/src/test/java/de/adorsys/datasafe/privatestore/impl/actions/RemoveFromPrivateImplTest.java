@@ -0,0 +1,68 @@
+package de.adorsys.datasafe.privatestore.impl.actions;
+
+import de.adorsys.datasafe.encrypiton.api.types.UserID;
+import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
+import de.adorsys.datasafe.privatestore.api.actions.EncryptedResourceResolver;
+import de.adorsys.datasafe.storage.api.actions.StorageRemoveService;
+import de.adorsys.datasafe.types.api.actions.RemoveRequest;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import de.adorsys.datasafe.types.api.utils.ReadKeyPasswordTestFactory;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+
+import java.util.Arrays;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RemoveFromPrivateImplTest extends BaseMockitoTest {
+
+    private UserIDAuth auth = new UserIDAuth(new UserID(""), ReadKeyPasswordTestFactory.getForString(""));
+
+    @Mock
+    private EncryptedResourceResolver resolver;
+
+    @Mock
+    private StorageRemoveService remover;
+
+    @InjectMocks
+    private RemoveFromPrivateImpl removeFromPrivate;
+
+    @Test
+    void remove() {
+        RemoveRequest<UserIDAuth, PrivateResource> request = request("file.txt");
+        AbsoluteLocation<PrivateResource> resource = resolved(request, "s3://encrypted");
+
+        removeFromPrivate.remove(request);
+
+        verify(remover).remove(resource);
+    }
+
+    @Test
+    void removeAllResolvesEachPathAndRemovesThemInOneBatch() {
+        RemoveRequest<UserIDAuth, PrivateResource> first = request("first.txt");
+        RemoveRequest<UserIDAuth, PrivateResource> second = request("second.txt");
+        AbsoluteLocation<PrivateResource> firstResource = resolved(first, "s3://encrypted/first");
+        AbsoluteLocation<PrivateResource> secondResource = resolved(second, "s3://encrypted/second");
+
+        removeFromPrivate.removeAll(Arrays.asList(first, second));
+
+        verify(remover).removeAll(Arrays.asList(firstResource, secondResource));
+    }
+
+    private RemoveRequest<UserIDAuth, PrivateResource> request(String path) {
+        return RemoveRequest.forPrivate(auth, BasePrivateResource.forPrivate(path));
+    }
+
+    private AbsoluteLocation<PrivateResource> resolved(RemoveRequest<UserIDAuth, PrivateResource> request,
+                                                       String encryptedPath) {
+        AbsoluteLocation<PrivateResource> resource = BasePrivateResource.forAbsolutePrivate(encryptedPath);
+        when(resolver.encryptAndResolvePath(request.getOwner(), request.getLocation(), request.getStorageIdentifier()))
+                .thenReturn(resource);
+        return resource;
+    }
+}
@@ -29,11 +29,16 @@ import de.adorsys.datasafe.storage.impl.db.DatabaseCredentials;
 import de.adorsys.datasafe.storage.impl.db.DatabaseStorageService;
 import de.adorsys.datasafe.storage.impl.fs.FileSystemStorageService;
 import de.adorsys.datasafe.storage.impl.s3.BucketNameRemovingRouter;
+import de.adorsys.datasafe.storage.impl.s3.PooledS3StorageService;
+import de.adorsys.datasafe.storage.impl.s3.S3ClientPool;
+import de.adorsys.datasafe.storage.impl.s3.S3StorageConfig;
 import de.adorsys.datasafe.storage.impl.s3.S3StorageService;
+import de.adorsys.datasafe.storage.metrics.MeteredStorageService;
 import de.adorsys.datasafe.types.api.context.BaseOverridesRegistry;
 import de.adorsys.datasafe.types.api.context.overrides.OverridesRegistry;
 import de.adorsys.datasafe.types.api.types.ReadStorePassword;
 import de.adorsys.datasafe.types.api.utils.ExecutorServiceUtil;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.experimental.Delegate;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -128,12 +133,17 @@ public class DatasafeConfig {
 
     @Bean
     @ConditionalOnProperty(value = CLIENT_CREDENTIALS, havingValue = "true")
-    StorageService clientCredentials(AmazonS3 s3, S3Factory factory, DatasafeProperties properties) {
+    StorageService clientCredentials(AmazonS3 s3, S3Factory factory, DatasafeProperties properties,
+                                     Optional<MeterRegistry> meterRegistry) {
         ExecutorService executorService = ExecutorServiceUtil.submitterExecutesOnStarvationExecutingService();
-        S3StorageService basicStorage = new S3StorageService(
-            s3,
-            properties.getBucketName(),
-            executorService
+        StorageService basicStorage = metered(
+            new S3StorageService(s3, properties.getBucketName(), executorService),
+            "s3",
+            properties,
+            meterRegistry
+        );
+        S3ClientPool clients = new S3ClientPool(
+            key -> factory.getClient(key.getEndpoint(), key.getRegion(), key.getAccessKey(), key.getSecretKey())
         );
 
         return new RegexDelegatingStorage(
@@ -143,17 +153,19 @@ public class DatasafeConfig {
                 // will be tried first
                 .put(
                     Pattern.compile(".+"),
-                    new UriBasedAuthStorageService(
-                        acc -> new S3StorageService(
-                                factory.getClient(
-                                acc.getEndpoint(),
-                                acc.getRegion(),
-                                acc.getAccessKey(),
-                                acc.getSecretKey()
-                            ),
-                            new BucketNameRemovingRouter(acc.getBucketName()),
-                            executorService
-                        )
+                    metered(
+                        new UriBasedAuthStorageService(
+                            acc -> new PooledS3StorageService(
+                                clients,
+                                S3ClientPool.ClientKey.forAccess(acc),
+                                new BucketNameRemovingRouter(acc.getBucketName()),
+                                executorService,
+                                S3StorageConfig.builder().build()
+                            )
+                        ),
+                        "s3-client-credentials",
+                        properties,
+                        meterRegistry
                     )
                 ).build()
         );
@@ -169,12 +181,13 @@ public class DatasafeConfig {
      */
     @Bean
     @ConditionalOnProperty(FILESYSTEM_ENV)
-    StorageService singleStorageServiceFilesystem(DatasafeProperties properties) {
+    StorageService singleStorageServiceFilesystem(DatasafeProperties properties,
+                                                  Optional<MeterRegistry> meterRegistry) {
         String root = System.getenv(FILESYSTEM_ENV);
         log.info("==================== FILESYSTEM");
         log.info("build DFS to FILESYSTEM with root " + root);
         properties.setSystemRoot(root);
-        return new FileSystemStorageService(Paths.get(root));
+        return metered(new FileSystemStorageService(Paths.get(root)), "fs", properties, meterRegistry);
     }
 
     /**
@@ -182,11 +195,17 @@ public class DatasafeConfig {
      */
     @Bean
     @ConditionalOnProperty(name = DATASAFE_S3_STORAGE, havingValue = "true")
-    StorageService singleStorageServiceS3(AmazonS3 s3, DatasafeProperties properties) {
-        return new S3StorageService(
-            s3,
-            properties.getBucketName(),
-            ExecutorServiceUtil.submitterExecutesOnStarvationExecutingService()
+    StorageService singleStorageServiceS3(AmazonS3 s3, DatasafeProperties properties,
+                                          Optional<MeterRegistry> meterRegistry) {
+        return metered(
+            new S3StorageService(
+                s3,
+                properties.getBucketName(),
+                ExecutorServiceUtil.submitterExecutesOnStarvationExecutingService()
+            ),
+            "s3",
+            properties,
+            meterRegistry
         );
     }
 
@@ -196,7 +215,7 @@ public class DatasafeConfig {
      */
     @Bean
     @ConditionalOnMissingBean(StorageService.class)
-    StorageService multiStorageService(DatasafeProperties properties) {
+    StorageService multiStorageService(DatasafeProperties properties, Optional<MeterRegistry> meterRegistry) {
         StorageService db = new DatabaseStorageService(ALLOWED_TABLES, new DatabaseConnectionRegistry(
                 ImmutableMap.of(properties.getDbUrl(),
                         new DatabaseCredentials(properties.getDbUsername(), properties.getDbPassword()))
@@ -209,8 +228,8 @@ public class DatasafeConfig {
 
         return new SchemeDelegatingStorage(
                 ImmutableMap.of(
-                        "s3", s3StorageService,
-                        "jdbc-mysql", db
+                        "s3", metered(s3StorageService, "s3", properties, meterRegistry),
+                        "jdbc-mysql", metered(db, "db", properties, meterRegistry)
                 )
         );
     }
@@ -249,6 +268,23 @@ public class DatasafeConfig {
         return amazonS3;
     }
 
+    /**
+     * @return Storage that records Micrometer metrics tagged with {@code backend} if they are enabled
+     */
+    private static StorageService metered(StorageService storage, String backend, DatasafeProperties properties,
+                                          Optional<MeterRegistry> meterRegistry) {
+        if (!properties.isStorageMetrics()) {
+            return storage;
+        }
+
+        if (!meterRegistry.isPresent()) {
+            log.warn("Storage metrics are enabled, but there is no MeterRegistry bean, {} is not metered", backend);
+            return storage;
+        }
+
+        return new MeteredStorageService(storage, meterRegistry.get(), backend);
+    }
+
     private static class WithAccessCredentials extends BucketAccessServiceImpl {
 
         @Delegate
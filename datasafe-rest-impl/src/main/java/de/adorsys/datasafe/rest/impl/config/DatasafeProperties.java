@@ -38,5 +38,12 @@ public class DatasafeProperties {
      */
     private String staticResources;
 
+    /**
+     * Record Micrometer metrics (latency, transferred bytes, errors, in-flight count) of each storage backend
+     * into meter registry bean - Spring Boot actuator provides in-memory one, or registry of added
+     * {@code micrometer-registry-*} dependency (i.e. Prometheus).
+     */
+    private boolean storageMetrics = true;
+
     private MutableEncryptionConfig encryption = new MutableEncryptionConfig();
 }
@@ -4,12 +4,15 @@ import com.amazonaws.services.s3.model.AmazonS3Exception;
 import de.adorsys.datasafe.business.impl.service.DefaultDatasafeServices;
 import de.adorsys.datasafe.encrypiton.api.types.UserID;
 import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
+import de.adorsys.datasafe.rest.impl.dto.DocumentMetadataDTO;
 import de.adorsys.datasafe.rest.impl.exceptions.UnauthorizedException;
 import de.adorsys.datasafe.types.api.actions.ListRequest;
 import de.adorsys.datasafe.types.api.actions.ReadRequest;
 import de.adorsys.datasafe.types.api.actions.RemoveRequest;
 import de.adorsys.datasafe.types.api.actions.WriteRequest;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
 import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
 import de.adorsys.datasafe.types.api.resource.StorageIdentifier;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -34,9 +37,11 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 import static org.springframework.http.MediaType.APPLICATION_OCTET_STREAM_VALUE;
 import static org.springframework.http.MediaType.MULTIPART_FORM_DATA_VALUE;
 
@@ -117,20 +122,25 @@ public class DocumentController {
                                       @RequestHeader(defaultValue = StorageIdentifier.DEFAULT_ID) String storageId,
                                       @ApiParam(defaultValue = ".")
                                       @PathVariable(required = false) String path) {
-        UserIDAuth userIDAuth = new UserIDAuth(new UserID(user), ReadKeyPasswordHelper.getForString(password));
-        path = Optional.ofNullable(path)
-                .map(it -> it.replaceAll("^\\.$", ""))
-                .orElse("./");
-        try {
-            List<String> documentList = datasafeService.privateService().list(
-                ListRequest.forPrivate(userIDAuth, new StorageIdentifier(storageId), path))
-                    .map(e -> e.getResource().asPrivate().decryptedPath().asString())
-                    .collect(Collectors.toList());
-            log.debug("List for path {} returned {} items", path, documentList.size());
-            return documentList;
-        } catch (AmazonS3Exception e) { // for list this exception most likely means that user credentials wrong
-            throw new UnauthorizedException("Unauthorized", e);
-        }
+        return list(user, password, storageId, path, e -> e.getResource().asPrivate().decryptedPath().asString());
+    }
+
+    /**
+     * lists files in user's private space with their size and modification date, as provided by storage listing.
+     */
+    @GetMapping(value = "/documents-metadata/{path:.*}", produces = APPLICATION_JSON_VALUE)
+    @ApiOperation("List documents in user's private space with their metadata")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "List command successfully completed"),
+            @ApiResponse(code = 401, message = "Unauthorised")
+    })
+    public List<DocumentMetadataDTO> listDocumentsMetadata(
+            @RequestHeader String user,
+            @RequestHeader String password,
+            @RequestHeader(defaultValue = StorageIdentifier.DEFAULT_ID) String storageId,
+            @ApiParam(defaultValue = ".")
+            @PathVariable(required = false) String path) {
+        return list(user, password, storageId, path, DocumentMetadataDTO::from);
     }
 
     /**
@@ -151,4 +161,22 @@ public class DocumentController {
         datasafeService.privateService().remove(request);
         log.debug("User: {}, delete private file: {}", user, path);
     }
+
+    private <T> List<T> list(String user, String password, String storageId, String path,
+                             Function<AbsoluteLocation<ResolvedResource>, T> mapper) {
+        UserIDAuth userIDAuth = new UserIDAuth(new UserID(user), ReadKeyPasswordHelper.getForString(password));
+        String listPath = Optional.ofNullable(path)
+                .map(it -> it.replaceAll("^\\.$", ""))
+                .orElse("./");
+        try {
+            List<T> documentList = datasafeService.privateService().list(
+                ListRequest.forPrivate(userIDAuth, new StorageIdentifier(storageId), listPath))
+                    .map(mapper)
+                    .collect(Collectors.toList());
+            log.debug("List for path {} returned {} items", listPath, documentList.size());
+            return documentList;
+        } catch (AmazonS3Exception e) { // for list this exception most likely means that user credentials wrong
+            throw new UnauthorizedException("Unauthorized", e);
+        }
+    }
 }
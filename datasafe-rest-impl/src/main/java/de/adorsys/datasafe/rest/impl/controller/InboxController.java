@@ -4,13 +4,16 @@ import com.amazonaws.services.s3.model.AmazonS3Exception;
 import de.adorsys.datasafe.business.impl.service.DefaultDatasafeServices;
 import de.adorsys.datasafe.encrypiton.api.types.UserID;
 import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
+import de.adorsys.datasafe.rest.impl.dto.DocumentMetadataDTO;
 import de.adorsys.datasafe.rest.impl.exceptions.UnauthorizedException;
 import de.adorsys.datasafe.types.api.actions.ListRequest;
 import de.adorsys.datasafe.types.api.actions.ReadRequest;
 import de.adorsys.datasafe.types.api.actions.RemoveRequest;
 import de.adorsys.datasafe.types.api.actions.WriteRequest;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
 import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
 import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -35,6 +38,7 @@ import java.io.OutputStream;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
@@ -131,13 +135,34 @@ public class InboxController {
                                   @RequestHeader String password,
                                   @ApiParam(defaultValue = ".")
                                   @PathVariable(required = false) String path) {
+        return list(user, password, path, e -> e.getResource().asPrivate().decryptedPath().asString());
+    }
+
+    /**
+     * list files in users' INBOX with their size and modification date, as provided by storage listing.
+     */
+    @GetMapping(value = "/inbox/documents-metadata/{path:.*}", produces = APPLICATION_JSON_VALUE)
+    @ApiOperation("List files in inbox with their metadata")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "List command successfully completed"),
+            @ApiResponse(code = 401, message = "Unauthorised")
+    })
+    public List<DocumentMetadataDTO> listInboxMetadata(@RequestHeader String user,
+                                                       @RequestHeader String password,
+                                                       @ApiParam(defaultValue = ".")
+                                                       @PathVariable(required = false) String path) {
+        return list(user, password, path, DocumentMetadataDTO::from);
+    }
+
+    private <T> List<T> list(String user, String password, String path,
+                             Function<AbsoluteLocation<ResolvedResource>, T> mapper) {
         UserIDAuth userIDAuth = new UserIDAuth(new UserID(user), ReadKeyPasswordHelper.getForString(password));
-        path = Optional.ofNullable(path)
+        String listPath = Optional.ofNullable(path)
                 .map(it -> it.replaceAll("^\\.$", ""))
                 .orElse("./");
         try {
-            List<String> inboxList = dataSafeService.inboxService().list(ListRequest.forDefaultPrivate(userIDAuth, path))
-                    .map(e -> e.getResource().asPrivate().decryptedPath().asString())
+            List<T> inboxList = dataSafeService.inboxService().list(ListRequest.forDefaultPrivate(userIDAuth, listPath))
+                    .map(mapper)
                     .collect(Collectors.toList());
             log.debug("User's {} inbox contains {} items", user, inboxList.size());
             return inboxList;
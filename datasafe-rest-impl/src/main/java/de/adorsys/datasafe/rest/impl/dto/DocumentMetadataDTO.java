@@ -0,0 +1,32 @@
+package de.adorsys.datasafe.rest.impl.dto;
+
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Listed document with metadata from storage listing, {@code size} is the size of encrypted document,
+ * {@code size} and {@code etag} are {@code null} if storage doesn't provide them.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentMetadataDTO {
+
+    private String path;
+    private String modifiedAt;
+    private Long size;
+    private String etag;
+
+    public static DocumentMetadataDTO from(AbsoluteLocation<ResolvedResource> listed) {
+        ResolvedResource resource = listed.getResource();
+        return new DocumentMetadataDTO(
+            resource.asPrivate().decryptedPath().asString(),
+            null == resource.getModifiedAt() ? null : resource.getModifiedAt().toString(),
+            resource.getSize(),
+            resource.getETag()
+        );
+    }
+}
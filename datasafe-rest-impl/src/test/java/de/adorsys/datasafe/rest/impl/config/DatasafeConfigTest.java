@@ -5,6 +5,9 @@ import com.amazonaws.services.s3.model.S3Object;
 import de.adorsys.datasafe.storage.api.StorageService;
 import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
 import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,6 +21,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -46,6 +50,9 @@ class DatasafeConfigTest extends BaseMockitoTest {
     @Autowired
     private StorageService storageService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @MockBean
     private AmazonS3 amazonS3;
 
@@ -78,4 +85,19 @@ class DatasafeConfigTest extends BaseMockitoTest {
                 storageService.read(BasePrivateResource.forAbsolutePrivate(DATA_STORAGE_PATH))
         ).hasContent(DATA_STORAGE_ANSWER);
     }
+
+    @Test
+    @SneakyThrows
+    void recordsStorageMetrics() {
+        // read is measured until its stream is closed
+        try (InputStream read = storageService.read(BasePrivateResource.forAbsolutePrivate(BASIC_STORAGE_PATH))) {
+            assertThat(read).hasContent(BASIC_STORAGE_ANSWER);
+        }
+
+        // registry is auto-configured by Spring Boot actuator
+        assertThat(meterRegistry.find("datasafe.storage.bytes").tag("backend", "s3").counter())
+                .isNotNull()
+                .extracting(Counter::count)
+                .isEqualTo((double) BASIC_STORAGE_ANSWER.length());
+    }
 }
\ No newline at end of file
@@ -28,6 +28,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 import static org.springframework.http.MediaType.APPLICATION_OCTET_STREAM_VALUE;
 import static org.springframework.restdocs.headers.HeaderDocumentation.headerWithName;
 import static org.springframework.restdocs.headers.HeaderDocumentation.requestHeaders;
@@ -37,6 +38,7 @@ import static org.springframework.restdocs.mockmvc.RestDocumentationRequestBuild
 import static org.springframework.restdocs.request.RequestDocumentation.parameterWithName;
 import static org.springframework.restdocs.request.RequestDocumentation.pathParameters;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 class DocumentControllerTest extends BaseTokenDatasafeEndpointTest {
@@ -137,6 +139,42 @@ class DocumentControllerTest extends BaseTokenDatasafeEndpointTest {
         verify(privateSpaceService).list(any());
     }
 
+    @SneakyThrows
+    @Test
+    void listDocumentsMetadataTest() {
+        Uri location = new Uri("s3://bucket/user/path/to/file.txt");
+        PrivateResource privateResource = new BasePrivateResource(location)
+                .resolve(new Uri("/path/to/file.txt"), new Uri("/path/to/file.txt"));
+        AbsoluteLocation<ResolvedResource> resolvedPrivate = new AbsoluteLocation<>(
+                new BaseResolvedResource(privateResource, Instant.EPOCH, 42L, "etag")
+        );
+        when(dataSafeService.privateService().list(any()))
+                .thenReturn(new PasswordClearingStream<>(Stream.of(resolvedPrivate), null));
+
+        RestDocumentationResultHandler document = document("document-list-metadata-success",
+                pathParameters(
+                        parameterWithName("path").description("path to the directory")
+                ),
+                requestHeaders(
+                        headerWithName("token").description(TOKEN_DESCRIPTION),
+                        headerWithName("user").description(USER_DESCRIPTION),
+                        headerWithName("password").description(PASSWORD_DESCRIPTION)
+                )
+        );
+
+        mvc.perform(get("/documents-metadata/{path}", "path")
+                .header("user", TEST_USER)
+                .header("password", TEST_PASS)
+                .header("token", token)
+                .accept(APPLICATION_JSON_VALUE)
+        ).andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].path").value("/path/to/file.txt"))
+                .andExpect(jsonPath("$[0].modifiedAt").value("1970-01-01T00:00:00Z"))
+                .andExpect(jsonPath("$[0].size").value(42))
+                .andExpect(jsonPath("$[0].etag").value("etag"))
+                .andDo(document);
+    }
+
     @SneakyThrows
     @Test
     void removeDocumentTest() {
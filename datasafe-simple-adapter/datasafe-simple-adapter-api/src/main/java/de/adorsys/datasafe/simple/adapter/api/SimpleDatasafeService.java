@@ -3,6 +3,7 @@ package de.adorsys.datasafe.simple.adapter.api;
 import de.adorsys.datasafe.encrypiton.api.types.UserID;
 import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
 import de.adorsys.datasafe.simple.adapter.api.types.DSDocument;
+import de.adorsys.datasafe.simple.adapter.api.types.DSDocumentMetadata;
 import de.adorsys.datasafe.simple.adapter.api.types.DSDocumentStream;
 import de.adorsys.datasafe.simple.adapter.api.types.DocumentDirectoryFQN;
 import de.adorsys.datasafe.simple.adapter.api.types.DocumentFQN;
@@ -46,6 +47,10 @@ public interface SimpleDatasafeService {
 
     List<DocumentFQN> list(UserIDAuth userIDAuth, DocumentDirectoryFQN documentDirectoryFQN, ListRecursiveFlag recursiveFlag);
 
+    // Same as list, but also returns metadata of documents that storage provides in listing
+    List<DSDocumentMetadata> listWithMetadata(UserIDAuth userIDAuth, DocumentDirectoryFQN documentDirectoryFQN,
+                                              ListRecursiveFlag recursiveFlag);
+
     // deletes all users and their files from storage
     void cleanupDb();
 }
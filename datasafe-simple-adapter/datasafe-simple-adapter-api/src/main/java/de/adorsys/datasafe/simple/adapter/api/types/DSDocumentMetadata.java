@@ -0,0 +1,19 @@
+package de.adorsys.datasafe.simple.adapter.api.types;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Document with metadata provided by storage listing. Size is the size of stored (encrypted) document,
+ * size and entity tag are {@code null} if storage doesn't provide them.
+ */
+@Getter
+@AllArgsConstructor
+public class DSDocumentMetadata {
+    private final DocumentFQN documentFQN;
+    private final Instant modifiedAt;
+    private final Long size;
+    private final String eTag;
+}
@@ -20,6 +20,7 @@ import de.adorsys.datasafe.simple.adapter.api.types.AmazonS3DFSCredentials;
 import de.adorsys.datasafe.simple.adapter.api.types.DFSCredentials;
 import de.adorsys.datasafe.simple.adapter.api.types.DFSCredentialsFactory;
 import de.adorsys.datasafe.simple.adapter.api.types.DSDocument;
+import de.adorsys.datasafe.simple.adapter.api.types.DSDocumentMetadata;
 import de.adorsys.datasafe.simple.adapter.api.types.DSDocumentStream;
 import de.adorsys.datasafe.simple.adapter.api.types.DocumentContent;
 import de.adorsys.datasafe.simple.adapter.api.types.DocumentDirectoryFQN;
@@ -29,14 +30,18 @@ import de.adorsys.datasafe.simple.adapter.api.types.ListRecursiveFlag;
 import de.adorsys.datasafe.simple.adapter.impl.pathencryption.SwitchablePathEncryptionImpl;
 import de.adorsys.datasafe.storage.api.StorageService;
 import de.adorsys.datasafe.storage.impl.fs.FileSystemStorageService;
+import de.adorsys.datasafe.storage.impl.s3.S3StorageConfig;
 import de.adorsys.datasafe.storage.impl.s3.S3StorageService;
+import de.adorsys.datasafe.storage.impl.s3.StaticBucketRouter;
 import de.adorsys.datasafe.types.api.actions.ListRequest;
 import de.adorsys.datasafe.types.api.actions.ReadRequest;
 import de.adorsys.datasafe.types.api.actions.RemoveRequest;
 import de.adorsys.datasafe.types.api.actions.WriteRequest;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocationWithCapability;
 import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
 import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
 import de.adorsys.datasafe.types.api.resource.StorageCapability;
 import de.adorsys.datasafe.types.api.types.ReadKeyPassword;
 import de.adorsys.datasafe.types.api.types.ReadStorePassword;
@@ -52,6 +57,7 @@ import java.net.URI;
 import java.nio.file.FileSystems;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 public class SimpleDatasafeServiceImpl implements SimpleDatasafeService {
@@ -167,40 +173,76 @@ public class SimpleDatasafeServiceImpl implements SimpleDatasafeService {
 
     @Override
     public boolean documentExists(UserIDAuth userIDAuth, DocumentFQN documentFQN) {
-        return customlyBuiltDatasafeServices.privateService().list(ListRequest.forDefaultPrivate(userIDAuth, documentFQN.getDatasafePath())).count() == 1;
+        try (Stream<AbsoluteLocation<ResolvedResource>> found = customlyBuiltDatasafeServices.privateService()
+                .list(ListRequest.forDefaultPrivate(userIDAuth, documentFQN.getDatasafePath()))) {
+            return found.count() == 1;
+        }
     }
 
     @Override
     public void deleteFolder(UserIDAuth userIDAuth, DocumentDirectoryFQN documentDirectoryFQN) {
-        list(userIDAuth, documentDirectoryFQN, ListRecursiveFlag.TRUE).forEach(file -> {
-            PrivateResource resource = BasePrivateResource.forPrivate(file.getDatasafePath());
-            RemoveRequest<UserIDAuth, PrivateResource> request = RemoveRequest.forPrivate(userIDAuth, resource);
-            customlyBuiltDatasafeServices.privateService().remove(request);
-        });
+        ListRequest<UserIDAuth, PrivateResource> request = ListRequest
+                .forDefaultPrivate(userIDAuth, documentDirectoryFQN.getDatasafePath());
+
+        // found documents are removed in one batch
+        try (Stream<AbsoluteLocation<ResolvedResource>> files =
+                     customlyBuiltDatasafeServices.privateService().list(request)) {
+            customlyBuiltDatasafeServices.privateService().removeAll(files
+                    .map(it -> it.getResource().asPrivate().decryptedPath())
+                    .filter(it -> !it.isDir())
+                    .map(it -> RemoveRequest.forPrivate(userIDAuth, BasePrivateResource.forPrivate(it)))
+                    .collect(Collectors.toList())
+            );
+        }
     }
 
     @Override
     public List<DocumentFQN> list(UserIDAuth userIDAuth, DocumentDirectoryFQN documentDirectoryFQN, ListRecursiveFlag recursiveFlag) {
-        List<DocumentFQN> l = customlyBuiltDatasafeServices.privateService().list(
-                ListRequest.forDefaultPrivate(userIDAuth, documentDirectoryFQN.getDatasafePath()))
-                .map(it -> new DocumentFQN(it.getResource().asPrivate().decryptedPath().asString()))
+        return listWithMetadata(userIDAuth, documentDirectoryFQN, recursiveFlag).stream()
+                .map(DSDocumentMetadata::getDocumentFQN)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<DSDocumentMetadata> listWithMetadata(UserIDAuth userIDAuth, DocumentDirectoryFQN documentDirectoryFQN,
+                                                     ListRecursiveFlag recursiveFlag) {
+        boolean recursive = recursiveFlag.equals(ListRecursiveFlag.TRUE);
+        ListRequest<UserIDAuth, PrivateResource> request = ListRequest
+                .forDefaultPrivate(userIDAuth, documentDirectoryFQN.getDatasafePath())
+                .toBuilder()
+                .shallow(!recursive)
+                .build();
+
+        List<DSDocumentMetadata> l = customlyBuiltDatasafeServices.privateService().list(request)
+                // shallow listing returns directories too
+                .filter(it -> !it.getResource().asPrivate().decryptedPath().isDir())
+                .map(it -> new DSDocumentMetadata(
+                        new DocumentFQN(it.getResource().asPrivate().decryptedPath().asString()),
+                        it.getResource().getModifiedAt(),
+                        it.getResource().getSize(),
+                        it.getResource().getETag()
+                ))
                 .collect(Collectors.toList());
-        if (recursiveFlag.equals(ListRecursiveFlag.TRUE)) {
+        if (recursive) {
             return l;
         }
 
+        // storage may not support shallow listing, so deeper files are filtered out here
         int numberOfSlashesExpected = 1 + CharMatcher.is('/').countIn(documentDirectoryFQN.getDatasafePath());
         return l.stream()
-                .filter(el -> CharMatcher.is('/').countIn(el.getDatasafePath()) == numberOfSlashesExpected)
+                .filter(el -> CharMatcher.is('/').countIn(el.getDocumentFQN().getDatasafePath())
+                        == numberOfSlashesExpected)
                 .collect(Collectors.toList());
     }
 
     @Override
     public void cleanupDb() {
-        rootAndStorage.getStorageService()
-                .list(new AbsoluteLocationWithCapability<>(
-                        BasePrivateResource.forPrivate(rootAndStorage.getSystemRoot()), StorageCapability.LIST_RETURNS_DIR)
-                ).forEach(rootAndStorage.getStorageService()::remove);
+        StorageService storage = rootAndStorage.getStorageService();
+        try (Stream<AbsoluteLocation<ResolvedResource>> all = storage.list(new AbsoluteLocationWithCapability<>(
+                BasePrivateResource.forPrivate(rootAndStorage.getSystemRoot()), StorageCapability.LIST_RETURNS_DIR)
+        )) {
+            storage.removeAll(all.collect(Collectors.toList()));
+        }
     }
 
 
@@ -251,12 +293,13 @@ public class SimpleDatasafeServiceImpl implements SimpleDatasafeService {
         }
         StorageService storageService = new S3StorageService(
                 amazons3,
-                amazonS3DFSCredentials.getContainer(),
+                new StaticBucketRouter(amazonS3DFSCredentials.getContainer()),
                 ExecutorServiceUtil
                         .submitterExecutesOnStarvationExecutingService(
                                 amazonS3DFSCredentials.getThreadPoolSize(),
                                 amazonS3DFSCredentials.getQueueSize()
-                        )
+                        ),
+                S3StorageConfig.builder().build()
         );
         URI systemRoot = URI.create(S3_PREFIX + amazonS3DFSCredentials.getRootBucket());
         log.info("build DFS to S3 with root " + amazonS3DFSCredentials.getRootBucket() + " and url " + amazonS3DFSCredentials.getUrl());
@@ -7,6 +7,7 @@ import de.adorsys.datasafe.encrypiton.api.types.encryption.MutableEncryptionConf
 import de.adorsys.datasafe.simple.adapter.api.SimpleDatasafeService;
 import de.adorsys.datasafe.simple.adapter.api.types.DFSCredentials;
 import de.adorsys.datasafe.simple.adapter.api.types.DSDocument;
+import de.adorsys.datasafe.simple.adapter.api.types.DSDocumentMetadata;
 import de.adorsys.datasafe.simple.adapter.api.types.DSDocumentStream;
 import de.adorsys.datasafe.simple.adapter.api.types.DocumentContent;
 import de.adorsys.datasafe.simple.adapter.api.types.DocumentDirectoryFQN;
@@ -131,6 +132,25 @@ class SimpleDatasafeAdapterTest extends WithStorageProvider {
         log.info("the content read is ok");
     }
 
+    @ParameterizedTest
+    @MethodSource("storages")
+    void listWithMetadata(WithStorageProvider.StorageDescriptor descriptor) {
+        myinit(descriptor);
+        mystart();
+        String content = "content of document";
+        DocumentFQN path = new DocumentFQN("a/b/c.txt");
+        simpleDatasafeService.storeDocument(userIDAuth, new DSDocument(path, new DocumentContent(content.getBytes())));
+
+        List<DSDocumentMetadata> listed =
+                simpleDatasafeService.listWithMetadata(userIDAuth, new DocumentDirectoryFQN("a"), ListRecursiveFlag.TRUE);
+
+        assertThat(listed).hasSize(1);
+        assertThat(listed.get(0).getDocumentFQN()).isEqualTo(path);
+        assertThat(listed.get(0).getModifiedAt()).isNotNull();
+        // stored document is encrypted, so it is larger than its content
+        assertThat(listed.get(0).getSize()).isGreaterThan(content.length());
+    }
+
     @ParameterizedTest
     @MethodSource("storages")
     void writeAndReadFileWithPasswordChange(WithStorageProvider.StorageDescriptor descriptor) {
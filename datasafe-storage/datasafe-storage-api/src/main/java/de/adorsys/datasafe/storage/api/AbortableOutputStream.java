@@ -0,0 +1,30 @@
+package de.adorsys.datasafe.storage.api;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Implemented by streams returned from {@link StorageService#write} that can discard written content instead of
+ * storing it, so that failed write does not replace existing resource. Streams that don't implement it
+ * store written content on {@link java.io.OutputStream#close()} regardless of whether the write was completed.
+ */
+public interface AbortableOutputStream {
+
+    /**
+     * Closes the stream without storing written content. Existing resource is left as it was, unless storage
+     * writes it in place. Does nothing if the stream is already closed.
+     */
+    void abort() throws IOException;
+
+    /**
+     * Aborts {@code stream} if it is {@link AbortableOutputStream}, otherwise closes it (that stores written
+     * content). Decorators use it to pass abort to streams they wrap.
+     */
+    static void abortOrClose(OutputStream stream) throws IOException {
+        if (stream instanceof AbortableOutputStream) {
+            ((AbortableOutputStream) stream).abort();
+        } else {
+            stream.close();
+        }
+    }
+}
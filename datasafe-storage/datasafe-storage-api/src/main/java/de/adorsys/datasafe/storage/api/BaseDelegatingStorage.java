@@ -2,11 +2,18 @@ package de.adorsys.datasafe.storage.api;
 
 import de.adorsys.datasafe.types.api.callback.ResourceWriteCallback;
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.ByteRange;
 import de.adorsys.datasafe.types.api.resource.ResolvedResource;
 import de.adorsys.datasafe.types.api.resource.WithCallback;
 
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -29,15 +36,66 @@ public abstract class BaseDelegatingStorage implements StorageService {
         return service(location).read(location);
     }
 
+    @Override
+    public InputStream read(AbsoluteLocation location, ByteRange range) {
+        return service(location).read(location, range);
+    }
+
+    @Override
+    public boolean supportsRangeRead(AbsoluteLocation location) {
+        return service(location).supportsRangeRead(location);
+    }
+
     @Override
     public void remove(AbsoluteLocation location) {
         service(location).remove(location);
     }
 
+    /**
+     * Splits locations by storage that handles them, so that each storage can use its own batch requests.
+     */
+    @Override
+    public void removeAll(List<? extends AbsoluteLocation> locations) {
+        byService(locations).forEach((service, indexes) -> service.removeAll(select(locations, indexes)));
+    }
+
+    /**
+     * Splits locations by storage that handles them, so that each storage can use its own batch requests.
+     */
+    @Override
+    public List<Boolean> existsAll(List<? extends AbsoluteLocation> locations) {
+        Boolean[] result = new Boolean[locations.size()];
+        byService(locations).forEach((service, indexes) -> {
+            List<Boolean> exists = service.existsAll(select(locations, indexes));
+            for (int i = 0; i < indexes.size(); i++) {
+                result[indexes.get(i)] = exists.get(i);
+            }
+        });
+
+        return Arrays.asList(result);
+    }
+
     @Override
     public OutputStream write(WithCallback<AbsoluteLocation, ? extends ResourceWriteCallback> locationWithCallback) {
         return service(locationWithCallback.getWrapped()).write(locationWithCallback);
     }
 
+    /**
+     * Resolves storage for location, called on every operation - implementations that match location against many
+     * rules can use {@link StorageRouter} (i.e. {@link PatternStorageRouter}) to precompile and cache routing.
+     */
     protected abstract StorageService service(AbsoluteLocation location);
+
+    private Map<StorageService, List<Integer>> byService(List<? extends AbsoluteLocation> locations) {
+        Map<StorageService, List<Integer>> indexesByService = new IdentityHashMap<>();
+        for (int i = 0; i < locations.size(); i++) {
+            indexesByService.computeIfAbsent(service(locations.get(i)), it -> new ArrayList<>()).add(i);
+        }
+
+        return indexesByService;
+    }
+
+    private static List<AbsoluteLocation> select(List<? extends AbsoluteLocation> locations, List<Integer> indexes) {
+        return indexes.stream().map(locations::get).collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,398 @@
+package de.adorsys.datasafe.storage.api;
+
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Two-tier LRU cache of blobs: recently used blobs are kept in off-heap memory, blobs evicted from memory are
+ * moved to disk. Blob contents are copied in and out of the cache outside of its lock.
+ * Each key belongs to a stripe with generation counter that is incremented on invalidation, blob is only stored
+ * if generation of its stripe did not change since backing storage read has started, so that concurrent
+ * write can't be overwritten by stale content.
+ */
+@Slf4j
+class BlobCache implements AutoCloseable {
+
+    private static final String FILE_SUFFIX = ".blob";
+    private static final int STRIPES = 64;
+
+    private final long maxMemoryBytes;
+    private final long maxDiskBytes;
+    private final Path diskDirectory;
+    private final long timeToLiveMillis;
+    private final Clock clock;
+
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+    private final AtomicLong fileSequence = new AtomicLong();
+
+    // access-ordered, so eldest entries are least recently used ones
+    private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Entry> disk = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long memoryBytes;
+    private long diskBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    BlobCache(BlobCacheConfig config, Clock clock) {
+        if (config.getMaxMemoryBytes() < 0 || config.getMaxDiskBytes() < 0) {
+            throw new IllegalArgumentException("Cache size must be >= 0");
+        }
+
+        this.maxMemoryBytes = config.getMaxMemoryBytes();
+        this.maxDiskBytes = config.getMaxDiskBytes();
+        this.diskDirectory = config.getDiskDirectory();
+        this.timeToLiveMillis = null == config.getTimeToLive() ? 0 : config.getTimeToLive().toMillis();
+        this.clock = clock;
+
+        if (null != diskDirectory) {
+            cleanDiskDirectory();
+        }
+    }
+
+    /**
+     * @return Generation that must be passed to {@link #put} of blob that is read starting from now
+     */
+    long generation(String key) {
+        return generations.get(stripe(key));
+    }
+
+    /**
+     * @return Cached blob or {@code null} if there is none or it has expired
+     */
+    Entry get(String key) {
+        List<Path> deleted = new ArrayList<>();
+        Entry result;
+        synchronized (this) {
+            result = memory.get(key);
+            if (null == result) {
+                result = disk.get(key);
+            }
+
+            if (null != result && isExpired(result)) {
+                evictions++;
+                removeKey(key, deleted);
+                result = null;
+            }
+        }
+
+        deleteAll(deleted);
+        return result;
+    }
+
+    /**
+     * Opens cached blob content.
+     * @return Content or {@code null} if blob was evicted from disk concurrently
+     */
+    InputStream open(Entry entry) {
+        if (null != entry.buffer) {
+            return new ByteBufferInputStream(entry.buffer.asReadOnlyBuffer());
+        }
+
+        try {
+            return Files.newInputStream(entry.file);
+        } catch (NoSuchFileException ex) {
+            return null;
+        } catch (IOException ex) {
+            log.warn("Failed to read cached blob {}", entry.file, ex);
+            return null;
+        }
+    }
+
+    /**
+     * Stores blob in memory, unless {@code key} was invalidated after {@code generation} was obtained.
+     */
+    void put(String key, byte[] content, int length, Instant lastModified, long generation) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(length);
+        buffer.put(content, 0, length);
+        buffer.flip();
+
+        Entry entry = new Entry(key, length, lastModified, clock.millis(), generation, buffer, null);
+        List<Entry> demoted = new ArrayList<>();
+        List<Path> deleted = new ArrayList<>();
+        synchronized (this) {
+            if (generation(key) != generation) {
+                return;
+            }
+
+            removeKey(key, deleted);
+            memory.put(key, entry);
+            memoryBytes += length;
+            evictMemoryOverflow(demoted);
+        }
+
+        deleteAll(deleted);
+        demoted.forEach(this::demote);
+    }
+
+    void recordHit() {
+        synchronized (this) {
+            hits++;
+        }
+    }
+
+    void recordMiss() {
+        synchronized (this) {
+            misses++;
+        }
+    }
+
+    /**
+     * Drops blob with exactly this key.
+     */
+    void invalidate(String key) {
+        generations.incrementAndGet(stripe(key));
+        List<Path> deleted = new ArrayList<>();
+        synchronized (this) {
+            removeKey(key, deleted);
+        }
+
+        deleteAll(deleted);
+    }
+
+    /**
+     * Drops all blobs which keys start with {@code prefix}.
+     */
+    void invalidatePrefix(String prefix) {
+        for (int i = 0; i < STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+
+        List<Path> deleted = new ArrayList<>();
+        synchronized (this) {
+            List<String> keys = new ArrayList<>();
+            memory.keySet().stream().filter(it -> it.startsWith(prefix)).forEach(keys::add);
+            disk.keySet().stream().filter(it -> it.startsWith(prefix)).forEach(keys::add);
+            keys.forEach(it -> removeKey(it, deleted));
+        }
+
+        deleteAll(deleted);
+    }
+
+    BlobCacheStats stats() {
+        synchronized (this) {
+            return new BlobCacheStats(
+                    memory.size(), memoryBytes, disk.size(), diskBytes, hits, misses, evictions
+            );
+        }
+    }
+
+    /**
+     * Drops all cached blobs and removes their files.
+     */
+    @Override
+    public void close() {
+        List<Path> deleted = new ArrayList<>();
+        synchronized (this) {
+            disk.values().forEach(it -> deleted.add(it.file));
+            memory.clear();
+            disk.clear();
+            memoryBytes = 0;
+            diskBytes = 0;
+        }
+
+        deleteAll(deleted);
+    }
+
+    private void demote(Entry entry) {
+        if (null == diskDirectory) {
+            return;
+        }
+
+        Path file = diskDirectory.resolve(fileName(entry.key));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer content = entry.buffer.asReadOnlyBuffer();
+            while (content.hasRemaining()) {
+                channel.write(content);
+            }
+        } catch (IOException ex) {
+            log.warn("Failed to move blob to disk cache {}", file, ex);
+            deleteAll(Collections.singletonList(file));
+            return;
+        }
+
+        Entry onDisk = new Entry(
+                entry.key, entry.size, entry.lastModified, entry.storedAt, entry.generation, null, file
+        );
+        List<Path> deleted = new ArrayList<>();
+        synchronized (this) {
+            // key was invalidated or stored again while its file was written
+            if (generation(entry.key) != entry.generation || memory.containsKey(entry.key)) {
+                deleted.add(file);
+            } else {
+                Entry previous = disk.put(entry.key, onDisk);
+                if (null != previous) {
+                    diskBytes -= previous.size;
+                    deleted.add(previous.file);
+                }
+
+                diskBytes += entry.size;
+                evictDiskOverflow(deleted);
+            }
+        }
+
+        deleteAll(deleted);
+    }
+
+    private void evictMemoryOverflow(List<Entry> demoted) {
+        Iterator<Entry> eldest = memory.values().iterator();
+        while (memoryBytes > maxMemoryBytes && eldest.hasNext()) {
+            Entry entry = eldest.next();
+            eldest.remove();
+            memoryBytes -= entry.size;
+            if (null != diskDirectory && entry.size <= maxDiskBytes) {
+                demoted.add(entry);
+            } else {
+                evictions++;
+            }
+        }
+    }
+
+    private void evictDiskOverflow(List<Path> deleted) {
+        Iterator<Entry> eldest = disk.values().iterator();
+        while (diskBytes > maxDiskBytes && eldest.hasNext()) {
+            Entry entry = eldest.next();
+            eldest.remove();
+            diskBytes -= entry.size;
+            evictions++;
+            deleted.add(entry.file);
+        }
+    }
+
+    private void removeKey(String key, List<Path> deleted) {
+        Entry inMemory = memory.remove(key);
+        if (null != inMemory) {
+            memoryBytes -= inMemory.size;
+        }
+
+        Entry onDisk = disk.remove(key);
+        if (null != onDisk) {
+            diskBytes -= onDisk.size;
+            deleted.add(onDisk.file);
+        }
+    }
+
+    private boolean isExpired(Entry entry) {
+        return 0 != timeToLiveMillis && clock.millis() - entry.storedAt >= timeToLiveMillis;
+    }
+
+    private String fileName(String key) {
+        return sha256(key) + "-" + fileSequence.incrementAndGet() + FILE_SUFFIX;
+    }
+
+    @SneakyThrows
+    private void cleanDiskDirectory() {
+        Files.createDirectories(diskDirectory);
+        List<Path> stale = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(diskDirectory, "*" + FILE_SUFFIX)) {
+            files.forEach(stale::add);
+        }
+
+        deleteAll(stale);
+    }
+
+    private static void deleteAll(List<Path> files) {
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ex) {
+                log.warn("Failed to remove cached blob {}", file, ex);
+            }
+        }
+    }
+
+    private static int stripe(String key) {
+        return (key.hashCode() & Integer.MAX_VALUE) % STRIPES;
+    }
+
+    @SneakyThrows
+    private static String sha256(String key) {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+        StringBuilder hex = new StringBuilder(digest.length * 2);
+        for (byte value : digest) {
+            hex.append(Character.forDigit((value >> 4) & 0xF, 16)).append(Character.forDigit(value & 0xF, 16));
+        }
+
+        return hex.toString();
+    }
+
+    /**
+     * Cached blob, its content is either in {@link #buffer} or in {@link #file}.
+     */
+    @RequiredArgsConstructor
+    static final class Entry {
+
+        private final String key;
+        private final long size;
+        private final Instant lastModified;
+        private final long storedAt;
+        private final long generation;
+        private final ByteBuffer buffer;
+        private final Path file;
+
+        Instant getLastModified() {
+            return lastModified;
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int off, int len) {
+            if (0 == len) {
+                return 0;
+            }
+
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+
+            int count = Math.min(len, buffer.remaining());
+            buffer.get(bytes, off, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long count) {
+            int skipped = (int) Math.min(Math.max(count, 0), buffer.remaining());
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package de.adorsys.datasafe.storage.api;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Limits and validation policy of blob cache that is used by {@link CachingStorageService}.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class BlobCacheConfig {
+
+    /**
+     * Total size of blobs that are kept in off-heap memory, least recently used ones are moved to disk
+     * (if {@link #diskDirectory} is set) or evicted when exceeded. Limited by {@code -XX:MaxDirectMemorySize}.
+     */
+    @Builder.Default
+    private final long maxMemoryBytes = 64L * 1024 * 1024;
+
+    /**
+     * Blobs larger than this are read from backing storage directly and are never cached.
+     */
+    @Builder.Default
+    private final long maxEntryBytes = 1024L * 1024;
+
+    /**
+     * Directory for blobs that were evicted from memory, {@code null} disables disk cache. Files that are
+     * already in this directory are removed when cache is created.
+     */
+    private final Path diskDirectory;
+
+    /**
+     * Total size of blobs that are kept in {@link #diskDirectory}, least recently used ones are evicted
+     * when exceeded.
+     */
+    @Builder.Default
+    private final long maxDiskBytes = 1024L * 1024 * 1024;
+
+    /**
+     * Cached blob that is older than this is read again from backing storage, {@code null} means blobs do not
+     * expire. Bounds staleness if backing storage is modified bypassing the cache.
+     */
+    private final Duration timeToLive;
+
+    /**
+     * Compare last-modified date of cached blob with backing storage listing before serving it. Costs one list
+     * request per read (on S3 it is prefix listing, not cheaper than small GET), so it pays off only for
+     * documents that are large compared to list response, prefer {@link #timeToLive} for small ones.
+     * Blobs that are read by their storage version are immutable and never validated.
+     */
+    @Builder.Default
+    private final boolean validateLastModified = false;
+}
@@ -0,0 +1,45 @@
+package de.adorsys.datasafe.storage.api;
+
+import lombok.Value;
+
+/**
+ * Snapshot of {@link CachingStorageService} blob cache counters.
+ */
+@Value
+public class BlobCacheStats {
+
+    /**
+     * Count of blobs that are cached in memory.
+     */
+    private final int memoryEntries;
+
+    /**
+     * Size of blobs that are cached in memory.
+     */
+    private final long memoryBytes;
+
+    /**
+     * Count of blobs that are cached on disk.
+     */
+    private final int diskEntries;
+
+    /**
+     * Size of blobs that are cached on disk.
+     */
+    private final long diskBytes;
+
+    /**
+     * Count of reads that were served by cached blob.
+     */
+    private final long hits;
+
+    /**
+     * Count of reads that went to backing storage.
+     */
+    private final long misses;
+
+    /**
+     * Count of blobs that were dropped due to size limit or expiration.
+     */
+    private final long evictions;
+}
@@ -0,0 +1,388 @@
+package de.adorsys.datasafe.storage.api;
+
+import de.adorsys.datasafe.types.api.callback.ResourceWriteCallback;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.ByteRange;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.resource.StorageVersion;
+import de.adorsys.datasafe.types.api.resource.VersionedResourceLocation;
+import de.adorsys.datasafe.types.api.resource.WithCallback;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Read-through cache of blobs of backing storage (i.e. S3 or database), so that frequently read documents like
+ * profiles, public keys or latest version links are served without remote round trip. Since everything Datasafe
+ * stores is encrypted before it reaches storage, cached blobs are ciphertext only.
+ * Blobs are cached by location without credentials (and storage version if location has it). Write and remove
+ * through this service invalidate affected blobs, changes that bypass it are only noticed with
+ * {@link BlobCacheConfig#getTimeToLive()} or {@link BlobCacheConfig#isValidateLastModified()}.
+ * As cache key ignores credentials, cached blob is served (and counts as existing resource) to any caller that
+ * accesses same location, even if backing storage would reject caller credentials. Share one instance only
+ * between callers that may access the same resources.
+ */
+@Slf4j
+public class CachingStorageService implements StorageService, AutoCloseable {
+
+    private static final String VERSION_SEPARATOR = "#version=";
+
+    private final StorageService delegate;
+    private final BlobCache cache;
+    private final long maxEntryBytes;
+    private final boolean validateLastModified;
+
+    public CachingStorageService(StorageService delegate, BlobCacheConfig config) {
+        this(delegate, config, Clock.systemUTC());
+    }
+
+    CachingStorageService(StorageService delegate, BlobCacheConfig config, Clock clock) {
+        this.delegate = delegate;
+        this.cache = new BlobCache(config, clock);
+        this.maxEntryBytes = Math.min(config.getMaxEntryBytes(), Integer.MAX_VALUE - 8);
+        this.validateLastModified = config.isValidateLastModified();
+    }
+
+    /**
+     * Cached blob counts as existing resource unless its last-modified date should be validated.
+     */
+    @Override
+    public boolean objectExists(AbsoluteLocation location) {
+        if (!validateLastModified && null != cache.get(key(location))) {
+            return true;
+        }
+
+        return delegate.objectExists(location);
+    }
+
+    /**
+     * Only resources that are not cached are checked in backing storage.
+     */
+    @Override
+    public List<Boolean> existsAll(List<? extends AbsoluteLocation> locations) {
+        if (validateLastModified) {
+            return delegate.existsAll(locations);
+        }
+
+        List<Boolean> result = new ArrayList<>(locations.size());
+        List<AbsoluteLocation> uncached = new ArrayList<>();
+        for (AbsoluteLocation location : locations) {
+            boolean cached = null != cache.get(key(location));
+            result.add(cached ? Boolean.TRUE : null);
+            if (!cached) {
+                uncached.add(location);
+            }
+        }
+
+        if (uncached.isEmpty()) {
+            return result;
+        }
+
+        Iterator<Boolean> exists = delegate.existsAll(uncached).iterator();
+        for (int i = 0; i < result.size(); i++) {
+            if (null == result.get(i)) {
+                result.set(i, exists.next());
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public Stream<AbsoluteLocation<ResolvedResource>> list(AbsoluteLocation location) {
+        return delegate.list(location);
+    }
+
+    /**
+     * With {@link BlobCacheConfig#isValidateLastModified()} resource is listed once per read: listed date both
+     * validates cached blob and is cached with content that is read again if cached blob is stale.
+     */
+    @Override
+    public InputStream read(AbsoluteLocation location) {
+        String key = key(location);
+        boolean validate = needsValidation(location);
+
+        BlobCache.Entry cached = cache.get(key);
+        Instant lastModified = validate && null != cached ? lastModified(location) : null;
+        if (null != cached && (!validate || isCurrent(cached, lastModified, key))) {
+            InputStream content = cache.open(cached);
+            if (null != content) {
+                cache.recordHit();
+                return content;
+            }
+        }
+
+        cache.recordMiss();
+        long generation = cache.generation(key);
+        if (validate) {
+            if (null == cached) {
+                lastModified = lastModified(location);
+            }
+
+            if (null == lastModified) {
+                return delegate.read(location);
+            }
+        }
+
+        return new CachingInputStream(delegate.read(location), key, lastModified, generation);
+    }
+
+    /**
+     * Cached resources are sliced in memory, partial reads of other resources go to backing storage and are not
+     * cached.
+     */
+    @Override
+    public InputStream read(AbsoluteLocation location, ByteRange range) {
+        String key = key(location);
+        BlobCache.Entry cached = cache.get(key);
+        if (null != cached && (!needsValidation(location) || isCurrent(cached, lastModified(location), key))) {
+            InputStream content = cache.open(cached);
+            if (null != content) {
+                cache.recordHit();
+                return new RangeInputStream(content, range);
+            }
+        }
+
+        cache.recordMiss();
+        return delegate.read(location, range);
+    }
+
+    @Override
+    public boolean supportsRangeRead(AbsoluteLocation location) {
+        return delegate.supportsRangeRead(location);
+    }
+
+    @Override
+    public OutputStream write(WithCallback<AbsoluteLocation, ? extends ResourceWriteCallback> locationWithCallback) {
+        String key = key(locationWithCallback.getWrapped());
+        cache.invalidate(key);
+        return new InvalidatingOutputStream(delegate.write(locationWithCallback), key);
+    }
+
+    @Override
+    public void remove(AbsoluteLocation location) {
+        try {
+            delegate.remove(location);
+        } finally {
+            // removal also deletes nested resources and versions
+            cache.invalidatePrefix(uriKey(location));
+        }
+    }
+
+    @Override
+    public void removeAll(List<? extends AbsoluteLocation> locations) {
+        try {
+            delegate.removeAll(locations);
+        } finally {
+            locations.forEach(it -> cache.invalidatePrefix(uriKey(it)));
+        }
+    }
+
+    @Override
+    public Optional<Integer> flushChunkSize(AbsoluteLocation location) {
+        return delegate.flushChunkSize(location);
+    }
+
+    /**
+     * @return Cache counters snapshot
+     */
+    public BlobCacheStats cacheStats() {
+        return cache.stats();
+    }
+
+    /**
+     * Drops cached blobs and closes backing storage if it is {@link AutoCloseable}.
+     */
+    @Override
+    public void close() throws Exception {
+        cache.close();
+        if (delegate instanceof AutoCloseable) {
+            ((AutoCloseable) delegate).close();
+        }
+    }
+
+    private boolean needsValidation(AbsoluteLocation location) {
+        // resources that are read by storage version are immutable
+        return validateLastModified && null == version(location);
+    }
+
+    /**
+     * @param lastModified Last-modified date of resource in backing storage, {@code null} if it is not there
+     */
+    private boolean isCurrent(BlobCache.Entry cached, Instant lastModified, String key) {
+        if (null != lastModified && lastModified.equals(cached.getLastModified())) {
+            return true;
+        }
+
+        cache.invalidate(key);
+        return false;
+    }
+
+    /**
+     * @return Last-modified date of resource from backing storage listing, {@code null} if it is not listed
+     */
+    private Instant lastModified(AbsoluteLocation location) {
+        URI target = location.location().withoutAuthority();
+        try (Stream<AbsoluteLocation<ResolvedResource>> listed = delegate.list(location)) {
+            return listed
+                    .filter(it -> target.equals(it.location().withoutAuthority()))
+                    .map(it -> it.getResource().getModifiedAt())
+                    .findFirst()
+                    .orElse(null);
+        }
+    }
+
+    private static String key(AbsoluteLocation location) {
+        String version = version(location);
+        return null == version ? uriKey(location) : uriKey(location) + VERSION_SEPARATOR + version;
+    }
+
+    private static String uriKey(AbsoluteLocation location) {
+        return location.location().withoutAuthority().toString();
+    }
+
+    private static String version(AbsoluteLocation location) {
+        if (!(location.getResource() instanceof VersionedResourceLocation)) {
+            return null;
+        }
+
+        Object version = ((VersionedResourceLocation) location.getResource()).getVersion();
+        return version instanceof StorageVersion ? ((StorageVersion) version).getVersionId() : null;
+    }
+
+    /**
+     * Copies content that was read from backing storage and caches it if it was read till the end and fits
+     * into entry size limit.
+     */
+    private final class CachingInputStream extends FilterInputStream {
+
+        private final String key;
+        private final Instant lastModified;
+        private final long generation;
+
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        private boolean complete;
+
+        private CachingInputStream(InputStream in, String key, Instant lastModified, long generation) {
+            super(in);
+            this.key = key;
+            this.lastModified = lastModified;
+            this.generation = generation;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (-1 == value) {
+                complete = true;
+            } else if (null != copy) {
+                copy.write(value);
+                checkSize();
+            }
+
+            return value;
+        }
+
+        @Override
+        public int read(byte[] bytes, int off, int len) throws IOException {
+            int count = super.read(bytes, off, len);
+            if (-1 == count) {
+                complete = true;
+            } else if (null != copy) {
+                copy.write(bytes, off, count);
+                checkSize();
+            }
+
+            return count;
+        }
+
+        @Override
+        public long skip(long count) throws IOException {
+            copy = null;
+            return super.skip(count);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            super.close();
+            if (complete && null != copy) {
+                cache.put(key, copy.toByteArray(), copy.size(), lastModified, generation);
+            }
+
+            copy = null;
+        }
+
+        private void checkSize() {
+            if (copy.size() > maxEntryBytes) {
+                copy = null;
+            }
+        }
+    }
+
+    /**
+     * Invalidates blob again when content is written, so that reads that were started during write don't cache
+     * previous content.
+     */
+    private final class InvalidatingOutputStream extends FilterOutputStream implements AbortableOutputStream {
+
+        private final String key;
+
+        private boolean closed;
+
+        private InvalidatingOutputStream(OutputStream out, String key) {
+            super(out);
+            this.key = key;
+        }
+
+        @Override
+        public void write(byte[] bytes, int off, int len) throws IOException {
+            out.write(bytes, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            try {
+                super.close();
+            } finally {
+                cache.invalidate(key);
+            }
+        }
+
+        @Override
+        public void abort() throws IOException {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            try {
+                AbortableOutputStream.abortOrClose(out);
+            } finally {
+                cache.invalidate(key);
+            }
+        }
+    }
+}
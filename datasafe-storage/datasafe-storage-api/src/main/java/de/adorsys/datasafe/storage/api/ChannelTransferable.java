@@ -0,0 +1,17 @@
+package de.adorsys.datasafe.storage.api;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Implemented by streams returned from {@link StorageService#read} that are backed by file channel, so that
+ * callers that consume raw stored bytes can copy them to another channel without user-space copies.
+ */
+public interface ChannelTransferable {
+
+    /**
+     * Transfers all remaining bytes of the stream to {@code target}, stream is positioned at its end afterwards.
+     * @return Count of transferred bytes
+     */
+    long transferTo(WritableByteChannel target) throws IOException;
+}
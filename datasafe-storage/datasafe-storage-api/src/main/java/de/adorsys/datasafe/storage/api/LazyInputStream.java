@@ -0,0 +1,60 @@
+package de.adorsys.datasafe.storage.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Supplier;
+
+/**
+ * Stream that opens underlying stream on its first use, closing stream that was never used does not open it.
+ */
+public class LazyInputStream extends InputStream {
+
+    private final Supplier<InputStream> opener;
+
+    private InputStream delegate;
+    private boolean closed;
+
+    public LazyInputStream(Supplier<InputStream> opener) {
+        this.opener = opener;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return delegate().read();
+    }
+
+    @Override
+    public int read(byte[] bytes, int off, int len) throws IOException {
+        return delegate().read(bytes, off, len);
+    }
+
+    @Override
+    public long skip(long count) throws IOException {
+        return delegate().skip(count);
+    }
+
+    @Override
+    public int available() throws IOException {
+        return delegate().available();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        if (null != delegate) {
+            delegate.close();
+        }
+    }
+
+    private InputStream delegate() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+
+        if (null == delegate) {
+            delegate = opener.get();
+        }
+
+        return delegate;
+    }
+}
@@ -0,0 +1,23 @@
+package de.adorsys.datasafe.storage.api;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Thrown by batch removal when storage has removed only some of the objects, other objects were removed.
+ */
+@Getter
+public class PartialRemoveException extends RuntimeException {
+
+    /**
+     * Storage keys of objects that were not removed.
+     */
+    private final List<String> failedKeys;
+
+    public PartialRemoveException(List<String> failedKeys, String firstErrorCode, Throwable cause) {
+        super("Failed to remove " + failedKeys.size() + " objects, first error: " + firstErrorCode, cause);
+        this.failedKeys = Collections.unmodifiableList(failedKeys);
+    }
+}
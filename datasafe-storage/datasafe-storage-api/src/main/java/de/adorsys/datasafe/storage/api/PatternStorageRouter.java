@@ -0,0 +1,174 @@
+package de.adorsys.datasafe.storage.api;
+
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.regex.Pattern;
+
+/**
+ * Routes location to the storage of first pattern (in map iteration order) that matches whole decoded location
+ * string, same as {@link RegexDelegatingStorage} did by testing each pattern.
+ * Patterns are compiled once into a trie of their literal prefixes, so that only patterns whose literal prefix
+ * matches the location are evaluated. Resolved storage is cached by the same decoded location string that patterns
+ * are matched on, so credentials in location authority are not kept in cache. Cache is bounded and evicts oldest
+ * entry when full (in constant time, even if locations outnumber the cache), so lookups stay lock-free.
+ */
+public class PatternStorageRouter implements StorageRouter {
+
+    public static final int DEFAULT_CACHE_SIZE = 4096;
+
+    private static final String QUANTIFIERS = "?*{+";
+    private static final String META = "\\.[]{}()*+?^$|";
+
+    private final Pattern[] patterns;
+    private final StorageService[] services;
+    private final TrieNode root = new TrieNode();
+    private final int cacheSize;
+    private final Map<String, StorageService> cache;
+    // Cached locations in insertion order
+    private final Queue<String> cacheOrder = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param storageByPattern Storage by regex it handles, iteration order defines pattern priority
+     * @param cacheSize Maximum count of cached routes, {@code 0} disables caching
+     */
+    public PatternStorageRouter(Map<Pattern, StorageService> storageByPattern, int cacheSize) {
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("Cache size must be >= 0: " + cacheSize);
+        }
+
+        this.patterns = new Pattern[storageByPattern.size()];
+        this.services = new StorageService[storageByPattern.size()];
+        this.cacheSize = cacheSize;
+        this.cache = new ConcurrentHashMap<>();
+
+        int index = 0;
+        for (Map.Entry<Pattern, StorageService> entry : storageByPattern.entrySet()) {
+            patterns[index] = entry.getKey();
+            services[index] = entry.getValue();
+            root.insert(literalPrefix(entry.getKey()), index);
+            index++;
+        }
+    }
+
+    @Override
+    public StorageService route(AbsoluteLocation location) {
+        String key = location.location().asString();
+        StorageService cached = cache.get(key);
+        if (null != cached) {
+            return cached;
+        }
+
+        StorageService resolved = resolve(key);
+        if (null != resolved && 0 != cacheSize) {
+            cacheRoute(key, resolved);
+        }
+
+        return resolved;
+    }
+
+    /**
+     * @return Count of cached routes
+     */
+    public int cachedRoutes() {
+        return cache.size();
+    }
+
+    private StorageService resolve(String uri) {
+        BitSet candidates = new BitSet(patterns.length);
+        TrieNode node = root;
+        candidates.or(node.patterns);
+        for (int i = 0; i < uri.length() && null != node; i++) {
+            node = node.children.get(uri.charAt(i));
+            if (null != node) {
+                candidates.or(node.patterns);
+            }
+        }
+
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            if (patterns[i].matcher(uri).matches()) {
+                return services[i];
+            }
+        }
+
+        return null;
+    }
+
+    private void cacheRoute(String key, StorageService service) {
+        if (null != cache.putIfAbsent(key, service)) {
+            return;
+        }
+
+        cacheOrder.add(key);
+        // iterating map to find entry to evict would scan more and more empty bins as entries are removed
+        while (cache.size() > cacheSize) {
+            String oldest = cacheOrder.poll();
+            if (null == oldest) {
+                return;
+            }
+
+            cache.remove(oldest);
+        }
+    }
+
+    /**
+     * Extracts string that any input matching {@code pattern} must start with. It is conservative: patterns with
+     * flags, alternation or constructs that are not plain (or escaped) literals end the prefix.
+     */
+    static String literalPrefix(Pattern pattern) {
+        String regex = pattern.pattern();
+        if (0 != pattern.flags() || regex.indexOf('|') >= 0) {
+            return "";
+        }
+
+        List<Character> literals = new ArrayList<>();
+        int pos = regex.startsWith("^") ? 1 : 0;
+        while (pos < regex.length()) {
+            char current = regex.charAt(pos);
+            if ('\\' == current) {
+                if (pos + 1 >= regex.length() || Character.isLetterOrDigit(regex.charAt(pos + 1))) {
+                    break;
+                }
+
+                literals.add(regex.charAt(pos + 1));
+                pos += 2;
+            } else if (META.indexOf(current) >= 0) {
+                break;
+            } else {
+                literals.add(current);
+                pos++;
+            }
+        }
+
+        // last literal is optional or repeated if followed by quantifier
+        if (pos < regex.length() && QUANTIFIERS.indexOf(regex.charAt(pos)) >= 0 && !literals.isEmpty()) {
+            literals.remove(literals.size() - 1);
+        }
+
+        StringBuilder prefix = new StringBuilder(literals.size());
+        literals.forEach(prefix::append);
+        return prefix.toString();
+    }
+
+    private static final class TrieNode {
+
+        private final Map<Character, TrieNode> children = new HashMap<>();
+        private final BitSet patterns = new BitSet();
+
+        void insert(String prefix, int patternIndex) {
+            TrieNode node = this;
+            for (int i = 0; i < prefix.length(); i++) {
+                node = node.children.computeIfAbsent(prefix.charAt(i), it -> new TrieNode());
+            }
+
+            node.patterns.set(patternIndex);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package de.adorsys.datasafe.storage.api;
+
+import de.adorsys.datasafe.types.api.resource.ByteRange;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Returns only bytes of {@link ByteRange} from wrapped stream: skips bytes before range on first access and ends
+ * stream after range, so that the rest of wrapped stream is not read. Closes wrapped stream on close.
+ */
+public class RangeInputStream extends FilterInputStream {
+
+    private long toSkip;
+    private long remaining;
+
+    /**
+     * @param source Stream to read range from, positioned at start of resource
+     * @param range Range to return
+     */
+    public RangeInputStream(InputStream source, ByteRange range) {
+        this(source, range.getOffset(), range.getLength());
+    }
+
+    /**
+     * @param source Stream to read from
+     * @param skip Count of bytes to skip
+     * @param limit Count of bytes to return after skipped ones, {@code null} returns everything
+     */
+    public RangeInputStream(InputStream source, long skip, Long limit) {
+        super(source);
+        this.toSkip = skip;
+        this.remaining = null == limit ? Long.MAX_VALUE : limit;
+    }
+
+    @Override
+    public int read() throws IOException {
+        skipToStart();
+        if (remaining <= 0) {
+            return -1;
+        }
+
+        int result = in.read();
+        if (result >= 0) {
+            remaining--;
+        }
+
+        return result;
+    }
+
+    @Override
+    public int read(byte[] bytes, int off, int len) throws IOException {
+        skipToStart();
+        if (remaining <= 0) {
+            return -1;
+        }
+
+        int read = in.read(bytes, off, (int) Math.min(len, remaining));
+        if (read > 0) {
+            remaining -= read;
+        }
+
+        return read;
+    }
+
+    @Override
+    public long skip(long count) throws IOException {
+        skipToStart();
+        long skipped = in.skip(Math.min(count, remaining));
+        remaining -= skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        if (toSkip > 0) {
+            return 0;
+        }
+
+        return (int) Math.min(in.available(), remaining);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readLimit) {
+        // mark is not supported
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("Mark is not supported");
+    }
+
+    private void skipToStart() throws IOException {
+        while (toSkip > 0) {
+            long skipped = in.skip(toSkip);
+            if (skipped <= 0) {
+                // skip may return 0 before end of stream, read tells if there is more data
+                if (in.read() < 0) {
+                    toSkip = 0;
+                    remaining = 0;
+                    return;
+                }
+
+                skipped = 1;
+            }
+
+            toSkip -= skipped;
+        }
+    }
+}
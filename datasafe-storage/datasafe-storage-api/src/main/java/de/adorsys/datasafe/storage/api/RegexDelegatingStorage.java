@@ -14,24 +14,31 @@ import java.util.regex.Pattern;
  */
 public class RegexDelegatingStorage extends BaseDelegatingStorage {
 
-    private final Map<Pattern, StorageService> storageByPattern;
+    private final StorageRouter router;
 
     /**
      * Registers declared storage providers
      * @param storageByPattern Storage operation handler by its matching regex.
      */
     public RegexDelegatingStorage(Map<Pattern, StorageService> storageByPattern) {
-        this.storageByPattern = storageByPattern;
+        this(new PatternStorageRouter(storageByPattern, PatternStorageRouter.DEFAULT_CACHE_SIZE));
+    }
+
+    /**
+     * Uses custom routing of URI to storage provider.
+     * @param router Resolves storage operation handler by location.
+     */
+    public RegexDelegatingStorage(StorageRouter router) {
+        this.router = router;
     }
 
     @Override
     protected StorageService service(AbsoluteLocation location) {
-        String uri = location.location().asString();
-        return storageByPattern.entrySet()
-                .stream()
-                .filter(it -> it.getKey().matcher(uri).matches())
-                .map(Map.Entry::getValue)
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException("Storage backing URI " + uri + " not found"));
+        StorageService service = router.route(location);
+        if (null == service) {
+            throw new IllegalArgumentException("Storage backing URI " + location.location().asString() + " not found");
+        }
+
+        return service;
     }
 }
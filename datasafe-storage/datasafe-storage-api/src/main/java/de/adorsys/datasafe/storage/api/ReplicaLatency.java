@@ -0,0 +1,41 @@
+package de.adorsys.datasafe.storage.api;
+
+import java.util.Arrays;
+
+/**
+ * Sliding window of most recent read latencies of single replica.
+ */
+class ReplicaLatency {
+
+    private final long[] samples;
+    private int count;
+    private int next;
+
+    ReplicaLatency(int window) {
+        this.samples = new long[window];
+    }
+
+    synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+    }
+
+    synchronized int size() {
+        return count;
+    }
+
+    /**
+     * @return Latency quantile in nanoseconds, {@code 0} if there are no samples
+     */
+    synchronized long quantile(double quantile) {
+        if (0 == count) {
+            return 0;
+        }
+
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(quantile * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))];
+    }
+}
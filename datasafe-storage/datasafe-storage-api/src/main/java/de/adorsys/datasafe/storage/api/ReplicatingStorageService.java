@@ -0,0 +1,628 @@
+package de.adorsys.datasafe.storage.api;
+
+import de.adorsys.datasafe.types.api.callback.ResourceWriteCallback;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.ByteRange;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.resource.WithCallback;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the same data in several storages (i.e. S3-compatible clusters), each replica should resolve location
+ * to its own copy. Writes and removals are sent to all replicas, operation fails if any replica fails.
+ * Reads are hedged - they are sent to replica with lowest observed latency and if it hasn't responded within
+ * {@link ReplicationConfig#getHedgeQuantile()} of its latency, same read is sent to next replica and the first
+ * response wins, response that comes later is closed. Failed read is retried on next replica.
+ * Callbacks of write (i.e. physical version) are called only by first replica, storage versions are not
+ * portable between replicas, so versioned reads succeed only on replicas that have such version.
+ * Each read waits for its response in thread of {@code executor} and each open write stream occupies one thread
+ * of {@code executor} per replica, so it should not be too small.
+ */
+@Slf4j
+public class ReplicatingStorageService implements StorageService {
+
+    // Small writes are collected into chunks of this size before they are handed to replica writers
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int QUEUED_CHUNKS = 16;
+
+    // Markers that are compared by identity
+    private static final byte[] FLUSH = new byte[0];
+    private static final byte[] DRAIN = new byte[0];
+    private static final byte[] COMMIT = new byte[0];
+    private static final byte[] ABORT = new byte[0];
+
+    private final List<Replica> replicas;
+    private final ExecutorService executor;
+    private final ReplicationConfig config;
+
+    public ReplicatingStorageService(List<StorageService> replicas, ExecutorService executor) {
+        this(replicas, executor, ReplicationConfig.builder().build());
+    }
+
+    /**
+     * @param replicas Storages that hold copies of data, first replica is primary one for write callbacks
+     * @param executor Executor that runs reads, writes and removals of replicas
+     * @param config Hedged read policy
+     */
+    public ReplicatingStorageService(List<StorageService> replicas, ExecutorService executor,
+                                     ReplicationConfig config) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("At least one replica is required");
+        }
+
+        this.replicas = replicas.stream()
+                .map(it -> new Replica(it, new ReplicaLatency(config.getLatencyWindow())))
+                .collect(Collectors.toList());
+        this.executor = executor;
+        this.config = config;
+    }
+
+    @Override
+    public boolean objectExists(AbsoluteLocation location) {
+        return firstAvailable(it -> it.objectExists(location));
+    }
+
+    @Override
+    public List<Boolean> existsAll(List<? extends AbsoluteLocation> locations) {
+        return firstAvailable(it -> it.existsAll(locations));
+    }
+
+    @Override
+    public Stream<AbsoluteLocation<ResolvedResource>> list(AbsoluteLocation location) {
+        return firstAvailable(it -> it.list(location));
+    }
+
+    @Override
+    public InputStream read(AbsoluteLocation location) {
+        return hedged(it -> it.read(location));
+    }
+
+    @Override
+    public InputStream read(AbsoluteLocation location, ByteRange range) {
+        return hedged(it -> it.read(location, range));
+    }
+
+    @Override
+    public boolean supportsRangeRead(AbsoluteLocation location) {
+        return replicas.stream().allMatch(it -> it.storage.supportsRangeRead(location));
+    }
+
+    @Override
+    public void remove(AbsoluteLocation location) {
+        onAll(it -> it.remove(location));
+    }
+
+    @Override
+    public void removeAll(List<? extends AbsoluteLocation> locations) {
+        onAll(it -> it.removeAll(locations));
+    }
+
+    /**
+     * Content is written to streams of all replicas in parallel, they are closed (that completes upload) in
+     * parallel as well. If write to some replica can't be started or fails, streams of other replicas are
+     * aborted if they are {@link AbortableOutputStream} and closed otherwise.
+     */
+    @Override
+    public OutputStream write(WithCallback<AbsoluteLocation, ? extends ResourceWriteCallback> locationWithCallback) {
+        WithCallback<AbsoluteLocation, ? extends ResourceWriteCallback> withoutCallbacks =
+                locationWithCallback.toBuilder().clearCallbacks().build();
+
+        List<ReplicaWriter> writers = new ArrayList<>(replicas.size());
+        try {
+            for (int i = 0; i < replicas.size(); i++) {
+                writers.add(new ReplicaWriter(
+                        replicas.get(i).storage.write(0 == i ? locationWithCallback : withoutCallbacks)
+                ));
+            }
+
+            writers.forEach(ReplicaWriter::start);
+        } catch (RuntimeException ex) {
+            writers.forEach(ReplicaWriter::discard);
+            throw ex;
+        }
+
+        return new ReplicatingOutputStream(writers);
+    }
+
+    @Override
+    public Optional<Integer> flushChunkSize(AbsoluteLocation location) {
+        return replicas.get(0).storage.flushChunkSize(location);
+    }
+
+    @SneakyThrows
+    private InputStream hedged(Function<StorageService, InputStream> read) {
+        List<Replica> order = readOrder();
+        HedgedRead hedge = new HedgedRead(read);
+        hedge.launch(order.get(0));
+        int next = 1;
+        boolean hedgeSent = false;
+        try {
+            while (true) {
+                boolean canHedge = !hedgeSent && next < order.size();
+                InputStream winner = hedge.await(canHedge ? hedgeDelayNanos(order.get(next - 1)) : Long.MAX_VALUE);
+                if (null != winner) {
+                    return winner;
+                }
+
+                if (!hedge.isRunning()) {
+                    if (next == order.size()) {
+                        throw hedge.failure();
+                    }
+
+                    hedge.launch(order.get(next++));
+                    continue;
+                }
+
+                log.debug("Read was not completed within hedge delay, sending it to next replica");
+                hedge.launch(order.get(next++));
+                hedgeSent = true;
+            }
+        } finally {
+            hedge.finish();
+        }
+    }
+
+    /**
+     * Replicas ordered by their median read latency, replicas without samples come first so that they get some.
+     */
+    private List<Replica> readOrder() {
+        List<Replica> order = new ArrayList<>(replicas);
+        order.sort(Comparator.comparingLong(it -> it.latency.quantile(0.5)));
+        return order;
+    }
+
+    private long hedgeDelayNanos(Replica replica) {
+        if (replica.latency.size() < config.getMinLatencySamples()) {
+            return config.getInitialHedgeDelay().toNanos();
+        }
+
+        return Math.max(config.getMinHedgeDelay().toNanos(), replica.latency.quantile(config.getHedgeQuantile()));
+    }
+
+    private <T> T firstAvailable(Function<StorageService, T> operation) {
+        RuntimeException failure = null;
+        for (Replica replica : readOrder()) {
+            try {
+                return operation.apply(replica.storage);
+            } catch (RuntimeException ex) {
+                log.debug("Replica failed, trying next one", ex);
+                failure = addFailure(failure, ex);
+            }
+        }
+
+        throw failure;
+    }
+
+    private void onAll(Consumer<StorageService> operation) {
+        List<CompletableFuture<Void>> sent = replicas.stream()
+                .map(it -> CompletableFuture.runAsync(() -> operation.accept(it.storage), executor))
+                .collect(Collectors.toList());
+
+        RuntimeException failure = null;
+        for (CompletableFuture<Void> operationOnReplica : sent) {
+            try {
+                operationOnReplica.join();
+            } catch (CompletionException ex) {
+                failure = addFailure(failure, ex.getCause() instanceof RuntimeException
+                        ? (RuntimeException) ex.getCause() : ex);
+            }
+        }
+
+        if (null != failure) {
+            throw failure;
+        }
+    }
+
+    private static <T extends Throwable> T addFailure(T failure, T ex) {
+        if (null == failure) {
+            return ex;
+        }
+
+        if (failure != ex) {
+            failure.addSuppressed(ex);
+        }
+
+        return failure;
+    }
+
+    private static final class Replica {
+
+        private final StorageService storage;
+        private final ReplicaLatency latency;
+
+        private Replica(StorageService storage, ReplicaLatency latency) {
+            this.storage = storage;
+            this.latency = latency;
+        }
+    }
+
+    /**
+     * Read that is sent to several replicas, keeps first successful response and closes later ones.
+     */
+    private final class HedgedRead {
+
+        private final Function<StorageService, InputStream> read;
+
+        private InputStream winner;
+        private RuntimeException failure;
+        private int running;
+        private boolean finished;
+
+        private HedgedRead(Function<StorageService, InputStream> read) {
+            this.read = read;
+        }
+
+        private synchronized void launch(Replica replica) {
+            running++;
+            executor.execute(() -> attempt(replica));
+        }
+
+        private synchronized boolean isRunning() {
+            return running > 0;
+        }
+
+        private synchronized RuntimeException failure() {
+            return failure;
+        }
+
+        /**
+         * Waits until some replica responds successfully, all replicas that were asked fail or timeout passes.
+         * @return Winning response, {@code null} if there is none yet
+         */
+        private synchronized InputStream await(long timeoutNanos) throws InterruptedException {
+            long start = System.nanoTime();
+            while (null == winner && running > 0) {
+                if (Long.MAX_VALUE == timeoutNanos) {
+                    wait();
+                    continue;
+                }
+
+                long left = timeoutNanos - (System.nanoTime() - start);
+                if (left <= 0) {
+                    return null;
+                }
+
+                TimeUnit.NANOSECONDS.timedWait(this, left);
+            }
+
+            return winner;
+        }
+
+        /**
+         * Responses that come after this call are closed.
+         */
+        private synchronized void finish() {
+            finished = true;
+        }
+
+        private void attempt(Replica replica) {
+            long start = System.nanoTime();
+            InputStream response;
+            try {
+                response = read.apply(replica.storage);
+            } catch (RuntimeException ex) {
+                // failing replica should not look fast
+                replica.latency.record(Math.max(System.nanoTime() - start, config.getInitialHedgeDelay().toNanos()));
+                failed(ex);
+                return;
+            }
+
+            replica.latency.record(System.nanoTime() - start);
+            if (!succeeded(response)) {
+                closeQuietly(response);
+            }
+        }
+
+        private synchronized boolean succeeded(InputStream response) {
+            running--;
+            if (null != winner || finished) {
+                return false;
+            }
+
+            winner = response;
+            notifyAll();
+            return true;
+        }
+
+        private synchronized void failed(RuntimeException ex) {
+            running--;
+            failure = addFailure(failure, ex);
+            notifyAll();
+        }
+
+        private void closeQuietly(InputStream response) {
+            try {
+                response.close();
+            } catch (IOException ex) {
+                log.debug("Failed to close response of hedged read", ex);
+            }
+        }
+    }
+
+    private static IOException asIOException(Throwable ex) {
+        return ex instanceof IOException ? (IOException) ex : new IOException(ex);
+    }
+
+    /**
+     * Writes chunks of content to stream of single replica in thread of {@code executor}. Chunks are queued
+     * in bounded queue, so that slow replica holds the writer back only when it falls behind by whole queue.
+     * Failed replica keeps taking chunks (and drops them), so that writer is never blocked by it.
+     * Write is completed in two steps: all replicas write queued chunks first, then their streams are either
+     * closed or - if some replica failed - aborted.
+     */
+    private final class ReplicaWriter {
+
+        private final OutputStream stream;
+        private final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(QUEUED_CHUNKS);
+
+        private final CompletableFuture<Void> drained = new CompletableFuture<>();
+
+        private CompletableFuture<Void> done;
+        private volatile Throwable failure;
+
+        private ReplicaWriter(OutputStream stream) {
+            this.stream = stream;
+        }
+
+        private void start() {
+            done = CompletableFuture.runAsync(this::copy, executor);
+        }
+
+        private Throwable failure() {
+            return failure;
+        }
+
+        private void send(byte[] chunk) throws InterruptedIOException {
+            try {
+                chunks.put(chunk);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for replica write");
+            }
+        }
+
+        /**
+         * @return Future that completes when all queued chunks are written (or dropped by failed replica)
+         */
+        private CompletableFuture<Void> drain() throws InterruptedIOException {
+            send(DRAIN);
+            return drained;
+        }
+
+        /**
+         * Stream is closed or aborted after all queued chunks are taken.
+         * @return Future that completes when stream is closed
+         */
+        private CompletableFuture<Void> finish(boolean abort) throws InterruptedIOException {
+            send(abort ? ABORT : COMMIT);
+            return done;
+        }
+
+        /**
+         * Aborts write that has nothing queued, i.e. because writes to other replicas couldn't be started.
+         */
+        private void discard() {
+            try {
+                if (null == done) {
+                    AbortableOutputStream.abortOrClose(stream);
+                } else {
+                    finish(true);
+                }
+            } catch (IOException | RuntimeException ex) {
+                log.debug("Failed to abort write to replica", ex);
+            }
+        }
+
+        @SneakyThrows
+        private void copy() {
+            byte[] chunk;
+            try {
+                while (COMMIT != (chunk = chunks.take()) && ABORT != chunk) {
+                    write(chunk);
+                }
+            } finally {
+                // writer that waits for drained replicas must not hang if this one was interrupted
+                drained.complete(null);
+            }
+
+            if (null != failure || ABORT == chunk) {
+                AbortableOutputStream.abortOrClose(stream);
+            } else {
+                stream.close();
+            }
+
+            if (null != failure) {
+                throw failure;
+            }
+        }
+
+        private void write(byte[] chunk) {
+            if (DRAIN == chunk) {
+                drained.complete(null);
+                return;
+            }
+
+            if (null != failure) {
+                return;
+            }
+
+            try {
+                if (FLUSH == chunk) {
+                    stream.flush();
+                } else {
+                    stream.write(chunk);
+                }
+            } catch (IOException | RuntimeException ex) {
+                failure = ex;
+            }
+        }
+    }
+
+    /**
+     * Collects small writes into chunks and hands chunks to writers of all replicas, same chunk is shared
+     * by all replicas as it is never modified. Writers of all replicas are finished in parallel on close,
+     * abort aborts streams of all replicas.
+     */
+    private final class ReplicatingOutputStream extends OutputStream implements AbortableOutputStream {
+
+        private final List<ReplicaWriter> writers;
+        private final byte[] buffer = new byte[CHUNK_SIZE];
+
+        private int buffered;
+        private boolean incomplete;
+        private boolean closed;
+
+        private ReplicatingOutputStream(List<ReplicaWriter> writers) {
+            this.writers = writers;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            ensureOpen();
+            buffer[buffered++] = (byte) b;
+            if (buffered == buffer.length) {
+                sendBuffer();
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int off, int len) throws IOException {
+            if ((off < 0) || (len < 0) || (len > bytes.length - off)) {
+                throw new IndexOutOfBoundsException();
+            }
+
+            ensureOpen();
+            if (len > buffer.length - buffered) {
+                sendBuffer();
+            }
+
+            if (len >= buffer.length) {
+                send(Arrays.copyOfRange(bytes, off, off + len));
+                return;
+            }
+
+            System.arraycopy(bytes, off, buffer, buffered, len);
+            buffered += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            ensureOpen();
+            sendBuffer();
+            send(FLUSH);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            IOException failure = null;
+            try {
+                sendBuffer();
+            } catch (IOException ex) {
+                failure = ex;
+            }
+
+            for (ReplicaWriter writer : writers) {
+                try {
+                    writer.drain().join();
+                } catch (IOException ex) {
+                    failure = addFailure(failure, ex);
+                }
+            }
+
+            // content is incomplete, so replicas should keep what they had
+            boolean abort = incomplete || null != failure || writers.stream().anyMatch(it -> null != it.failure());
+            List<CompletableFuture<Void>> finishing = new ArrayList<>(writers.size());
+            for (ReplicaWriter writer : writers) {
+                try {
+                    finishing.add(writer.finish(abort));
+                } catch (IOException ex) {
+                    failure = addFailure(failure, ex);
+                }
+            }
+
+            for (CompletableFuture<Void> replica : finishing) {
+                try {
+                    replica.join();
+                } catch (CompletionException ex) {
+                    failure = addFailure(failure, asIOException(ex.getCause()));
+                }
+            }
+
+            if (null != failure) {
+                throw failure;
+            }
+        }
+
+        @Override
+        public void abort() throws IOException {
+            if (closed) {
+                return;
+            }
+
+            buffered = 0;
+            incomplete = true;
+            close();
+        }
+
+        private void sendBuffer() throws IOException {
+            if (0 == buffered) {
+                return;
+            }
+
+            send(Arrays.copyOf(buffer, buffered));
+            buffered = 0;
+        }
+
+        /**
+         * Fails fast if some replica has failed, whole write would fail on close anyway.
+         */
+        private void send(byte[] chunk) throws IOException {
+            try {
+                for (ReplicaWriter writer : writers) {
+                    if (null != writer.failure()) {
+                        throw asIOException(writer.failure());
+                    }
+                }
+
+                for (ReplicaWriter writer : writers) {
+                    writer.send(chunk);
+                }
+            } catch (IOException ex) {
+                incomplete = true;
+                throw ex;
+            }
+        }
+
+        private void ensureOpen() throws IOException {
+            if (closed) {
+                throw new IOException("Stream is closed");
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package de.adorsys.datasafe.storage.api;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Hedged read policy of {@link ReplicatingStorageService}.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class ReplicationConfig {
+
+    /**
+     * Quantile of replica read latency that is used as hedge delay - if replica hasn't responded within it, same
+     * read is sent to next replica and the first response wins.
+     */
+    @Builder.Default
+    private final double hedgeQuantile = 0.95;
+
+    /**
+     * Hedge delay of replica that has less than {@link #minLatencySamples} latency samples.
+     */
+    @Builder.Default
+    private final Duration initialHedgeDelay = Duration.ofMillis(100);
+
+    /**
+     * Lower bound of hedge delay, so that latency jitter of fast replica doesn't cause hedged reads.
+     */
+    @Builder.Default
+    private final Duration minHedgeDelay = Duration.ofMillis(5);
+
+    /**
+     * Count of most recent read latencies per replica that hedge delay and read order are computed from.
+     */
+    @Builder.Default
+    private final int latencyWindow = 256;
+
+    /**
+     * Count of latency samples that replica needs before its latency quantile is used as hedge delay.
+     */
+    @Builder.Default
+    private final int minLatencySamples = 20;
+}
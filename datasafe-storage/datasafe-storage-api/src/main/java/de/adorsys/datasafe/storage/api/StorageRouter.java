@@ -0,0 +1,16 @@
+package de.adorsys.datasafe.storage.api;
+
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+
+/**
+ * Resolves storage that handles given location, can be used by {@link BaseDelegatingStorage} implementations.
+ */
+@FunctionalInterface
+public interface StorageRouter {
+
+    /**
+     * @param location Location to route
+     * @return Storage that handles this location or {@code null} if there is none
+     */
+    StorageService route(AbsoluteLocation location);
+}
@@ -0,0 +1,226 @@
+package de.adorsys.datasafe.storage.api;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Bounded LRU cache of storage services that also evicts services that were idle for too long.
+ * Evicted services that are {@link AutoCloseable} are closed, so that their clients and connection pools
+ * are released. Services are handed out as {@link Lease}, evicted service is closed only after all its leases
+ * are released, so that streams and operations that still use it are not broken.
+ */
+@Slf4j
+class StorageServiceCache<K> implements AutoCloseable {
+
+    private final int maxSize;
+    private final long expireAfterAccessMillis;
+    private final Clock clock;
+
+    // access-ordered, so eldest entries are the ones that were idle for the longest time
+    private final LinkedHashMap<K, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    StorageServiceCache(StorageServiceCacheConfig config, Clock clock) {
+        if (config.getMaxSize() <= 0) {
+            throw new IllegalArgumentException("Cache size must be > 0: " + config.getMaxSize());
+        }
+
+        this.maxSize = config.getMaxSize();
+        this.expireAfterAccessMillis = config.getExpireAfterAccess().toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * Returns cached storage service or creates new one. Service is created outside of cache lock, so slow
+     * client creation does not block lookups of other keys.
+     * @return Lease of storage service, it should be closed when operation with the service (including returned
+     * streams) is completed
+     */
+    Lease acquire(K key, Function<K, StorageService> builder) {
+        Lease cached = acquireIfPresent(key);
+        if (null != cached) {
+            return cached;
+        }
+
+        StorageService created = builder.apply(key);
+        List<StorageService> toClose = new ArrayList<>();
+        Lease result;
+        synchronized (entries) {
+            Entry raced = entries.get(key);
+            if (null != raced) {
+                raced.lastAccess = clock.millis();
+                toClose.add(created);
+                result = lease(raced);
+            } else {
+                misses++;
+                Entry entry = new Entry(created, clock.millis());
+                entries.put(key, entry);
+                result = lease(entry);
+                evictOverflow(toClose);
+            }
+        }
+
+        closeAll(toClose);
+        return result;
+    }
+
+    StorageServiceCacheStats stats() {
+        synchronized (entries) {
+            return new StorageServiceCacheStats(entries.size(), hits, misses, evictions);
+        }
+    }
+
+    /**
+     * Closes all cached services, services that are leased are closed when their leases are released.
+     */
+    @Override
+    public void close() {
+        List<StorageService> toClose = new ArrayList<>();
+        synchronized (entries) {
+            entries.values().forEach(it -> retire(it, toClose));
+            entries.clear();
+        }
+
+        closeAll(toClose);
+    }
+
+    private Lease acquireIfPresent(K key) {
+        List<StorageService> toClose = new ArrayList<>();
+        Lease result = null;
+        synchronized (entries) {
+            evictExpired(toClose);
+            Entry entry = entries.get(key);
+            if (null != entry) {
+                hits++;
+                entry.lastAccess = clock.millis();
+                result = lease(entry);
+            }
+        }
+
+        closeAll(toClose);
+        return result;
+    }
+
+    private Lease lease(Entry entry) {
+        entry.leases++;
+        return new Lease(entry.service, () -> release(entry));
+    }
+
+    private void release(Entry entry) {
+        boolean close;
+        synchronized (entries) {
+            entry.leases--;
+            // release counts as access, otherwise service that was used by long operation looks idle
+            entry.lastAccess = clock.millis();
+            close = entry.evicted && 0 == entry.leases;
+        }
+
+        if (close) {
+            closeAll(Collections.singletonList(entry.service));
+        }
+    }
+
+    private void evictExpired(List<StorageService> toClose) {
+        long now = clock.millis();
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            if (now - eldest.lastAccess < expireAfterAccessMillis) {
+                return;
+            }
+
+            // service that is in use is not idle
+            if (eldest.leases > 0) {
+                continue;
+            }
+
+            retire(eldest, toClose);
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    private void evictOverflow(List<StorageService> toClose) {
+        Iterator<Map.Entry<K, Entry>> iterator = entries.entrySet().iterator();
+        while (entries.size() > maxSize && iterator.hasNext()) {
+            retire(iterator.next().getValue(), toClose);
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    private static void retire(Entry entry, List<StorageService> toClose) {
+        entry.evicted = true;
+        if (0 == entry.leases) {
+            toClose.add(entry.service);
+        }
+    }
+
+    private static void closeAll(List<StorageService> services) {
+        for (StorageService service : services) {
+            if (!(service instanceof AutoCloseable)) {
+                continue;
+            }
+
+            try {
+                ((AutoCloseable) service).close();
+            } catch (Exception ex) {
+                log.warn("Failed to close evicted storage service", ex);
+            }
+        }
+    }
+
+    /**
+     * Storage service that is in use, service is not closed until lease is released.
+     */
+    static final class Lease implements AutoCloseable {
+
+        private final StorageService service;
+        private final Runnable release;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Lease(StorageService service, Runnable release) {
+            this.service = service;
+            this.release = release;
+        }
+
+        StorageService service() {
+            return service;
+        }
+
+        /**
+         * Releases the lease, can be called many times.
+         */
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                release.run();
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        private final StorageService service;
+        private long lastAccess;
+        private int leases;
+        private boolean evicted;
+
+        private Entry(StorageService service, long lastAccess) {
+            this.service = service;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package de.adorsys.datasafe.storage.api;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Limits of storage services (and their clients) that are kept by {@link UriBasedAuthStorageService}.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class StorageServiceCacheConfig {
+
+    /**
+     * Maximum count of cached storage services, least recently used one is evicted when exceeded.
+     * Should be larger than count of credentials that are used concurrently.
+     */
+    @Builder.Default
+    private final int maxSize = 128;
+
+    /**
+     * Storage service that was not used for this duration is evicted.
+     */
+    @Builder.Default
+    private final Duration expireAfterAccess = Duration.ofMinutes(30);
+}
@@ -0,0 +1,30 @@
+package de.adorsys.datasafe.storage.api;
+
+import lombok.Value;
+
+/**
+ * Snapshot of {@link UriBasedAuthStorageService} storage service cache counters.
+ */
+@Value
+public class StorageServiceCacheStats {
+
+    /**
+     * Count of currently cached storage services.
+     */
+    private final int size;
+
+    /**
+     * Count of lookups that were served by cached storage service.
+     */
+    private final long hits;
+
+    /**
+     * Count of lookups that created new storage service.
+     */
+    private final long misses;
+
+    /**
+     * Count of storage services that were evicted due to size limit or expiration.
+     */
+    private final long evictions;
+}
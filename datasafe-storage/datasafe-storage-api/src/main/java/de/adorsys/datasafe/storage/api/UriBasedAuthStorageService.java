@@ -1,27 +1,57 @@
 package de.adorsys.datasafe.storage.api;
 
+import de.adorsys.datasafe.types.api.callback.ResourceWriteCallback;
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.ByteRange;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.resource.WithCallback;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Storage connection pool that creates S3/or other clients on the fly, based on provided credentials in URI.
  * URI format that is expected:
  * s3://access-key:secret-key@region/bucket/path/in/bucket
+ * Percent-encoded access and secret keys are decoded.
+ * Created storage services are kept in bounded cache, storage services that are evicted from it and implement
+ * {@link AutoCloseable} are closed once operations and streams that use them are completed.
+ * Parsed credentials, region and bucket are cached by URI authority and first two path segments.
  */
-@RequiredArgsConstructor
-public class UriBasedAuthStorageService extends BaseDelegatingStorage {
+public class UriBasedAuthStorageService extends BaseDelegatingStorage implements AutoCloseable {
 
-    private final Map<AccessId, StorageService> clientByItsAccessKey = new ConcurrentHashMap<>();
-    private final Function<URI, String> bucketExtractor;
-    private final Function<URI, String> regionExtractor;
+    private static final Pattern LEADING_SLASH = Pattern.compile("^/");
+    private static final int ACCESS_ID_CACHE_SIZE = 1024;
+    private static final int ACCESS_ID_PATH_SEGMENTS = 2;
+
+    private final StorageServiceCache<AccessId> clientByItsAccessKey;
+    private final Function<URI, String[]> segmentator;
     private final Function<URI, String> endpointExtractor;
+    private final Map<String, AccessId> accessIdByPrefix = new ConcurrentHashMap<>();
+    // Cached access id prefixes in insertion order
+    private final Queue<String> accessIdOrder = new ConcurrentLinkedQueue<>();
 
     // Builder to create S3 or other kind of Storage service
     private final Function<AccessId, StorageService> storageServiceBuilder;
@@ -30,46 +60,349 @@ public class UriBasedAuthStorageService extends BaseDelegatingStorage {
      * Expects bucket name to be first part of URI part, and endpoint to host + bucket name.
      */
     public UriBasedAuthStorageService(Function<AccessId, StorageService> storageServiceBuilder) {
-        this.storageServiceBuilder = storageServiceBuilder;
-        Function<URI, String[]> segmentator = location -> location.getPath().replaceAll("^/", "").split("/");
-        this.regionExtractor = location -> segmentator.apply(location)[0];
-        this.bucketExtractor = location -> segmentator.apply(location)[1];
-        this.endpointExtractor = location ->
-            location.getScheme() + "://" + location.getHost() + portValue(location) + "/";
+        this(
+                storageServiceBuilder,
+                location -> LEADING_SLASH.matcher(location.getPath()).replaceFirst("").split("/")
+        );
     }
 
     public UriBasedAuthStorageService(Function<AccessId, StorageService> storageServiceBuilder,
                                       Function<URI, String[]> segmentator) {
+        this(storageServiceBuilder, segmentator, StorageServiceCacheConfig.builder().build());
+    }
+
+    /**
+     * @param storageServiceBuilder Creates storage service for credentials and bucket
+     * @param segmentator Splits URI path into region and bucket name segments, these must be defined by URI host
+     *                    and first two path segments, as parsed locations are cached by them
+     * @param cacheConfig Limits of created storage services cache
+     */
+    public UriBasedAuthStorageService(Function<AccessId, StorageService> storageServiceBuilder,
+                                      Function<URI, String[]> segmentator,
+                                      StorageServiceCacheConfig cacheConfig) {
+        this(storageServiceBuilder, segmentator, cacheConfig, Clock.systemUTC());
+    }
+
+    UriBasedAuthStorageService(Function<AccessId, StorageService> storageServiceBuilder,
+                               Function<URI, String[]> segmentator,
+                               StorageServiceCacheConfig cacheConfig,
+                               Clock clock) {
         this.storageServiceBuilder = storageServiceBuilder;
-        this.regionExtractor = location -> segmentator.apply(location)[0];
-        this.bucketExtractor = location -> segmentator.apply(location)[1];
+        this.clientByItsAccessKey = new StorageServiceCache<>(cacheConfig, clock);
+        this.segmentator = segmentator;
         this.endpointExtractor = location ->
                 location.getScheme() + "://" + location.getHost() + portValue(location) + "/";
     }
 
+    /**
+     * @return Current counters of storage service cache.
+     */
+    public StorageServiceCacheStats cacheStats() {
+        return clientByItsAccessKey.stats();
+    }
+
+    /**
+     * Closes all cached storage services that are {@link AutoCloseable}.
+     */
+    @Override
+    public void close() {
+        clientByItsAccessKey.close();
+    }
+
+    @Override
+    public boolean objectExists(AbsoluteLocation location) {
+        return withService(location, it -> it.objectExists(location));
+    }
+
+    @Override
+    public List<Boolean> existsAll(List<? extends AbsoluteLocation> locations) {
+        Boolean[] result = new Boolean[locations.size()];
+        byAccessId(locations).forEach((accessId, indexes) -> {
+            List<Boolean> exists = withService(
+                    accessId, it -> it.existsAll(select(locations, indexes))
+            );
+            for (int i = 0; i < indexes.size(); i++) {
+                result[indexes.get(i)] = exists.get(i);
+            }
+        });
+
+        return Arrays.asList(result);
+    }
+
+    /**
+     * Returned stream uses storage service until it is closed.
+     */
+    @Override
+    public Stream<AbsoluteLocation<ResolvedResource>> list(AbsoluteLocation location) {
+        StorageServiceCache.Lease lease = lease(accessId(location));
+        try {
+            return lease.service().list(location).onClose(lease::close);
+        } catch (RuntimeException ex) {
+            lease.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Returned stream uses storage service until it is closed.
+     */
+    @Override
+    public InputStream read(AbsoluteLocation location) {
+        return leasedStream(location, it -> it.read(location));
+    }
+
+    /**
+     * Returned stream uses storage service until it is closed.
+     */
+    @Override
+    public InputStream read(AbsoluteLocation location, ByteRange range) {
+        return leasedStream(location, it -> it.read(location, range));
+    }
+
+    @Override
+    public boolean supportsRangeRead(AbsoluteLocation location) {
+        return withService(location, it -> it.supportsRangeRead(location));
+    }
+
+    @Override
+    public void remove(AbsoluteLocation location) {
+        withService(location, it -> {
+            it.remove(location);
+            return null;
+        });
+    }
+
+    @Override
+    public void removeAll(List<? extends AbsoluteLocation> locations) {
+        byAccessId(locations).forEach((accessId, indexes) -> withService(accessId, it -> {
+            it.removeAll(select(locations, indexes));
+            return null;
+        }));
+    }
+
+    /**
+     * Returned stream uses storage service until it is closed.
+     */
+    @Override
+    public OutputStream write(WithCallback<AbsoluteLocation, ? extends ResourceWriteCallback> locationWithCallback) {
+        StorageServiceCache.Lease lease = lease(accessId(locationWithCallback.getWrapped()));
+        try {
+            return new LeasedOutputStream(lease.service().write(locationWithCallback), lease);
+        } catch (RuntimeException ex) {
+            lease.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Lookup without lease, returned service can be closed once it is evicted from cache - operations of this
+     * class lease service for the whole time they (or streams they return) use it.
+     */
     @Override
     protected StorageService service(AbsoluteLocation location) {
-        String[] authority = location.location().asURI().getAuthority().split("@")[0].split(":");
+        try (StorageServiceCache.Lease lease = lease(accessId(location))) {
+            return lease.service();
+        }
+    }
+
+    private StorageServiceCache.Lease lease(AccessId accessId) {
+        return clientByItsAccessKey.acquire(accessId, storageServiceBuilder);
+    }
+
+    private <T> T withService(AbsoluteLocation location, Function<StorageService, T> operation) {
+        return withService(accessId(location), operation);
+    }
+
+    private <T> T withService(AccessId accessId, Function<StorageService, T> operation) {
+        try (StorageServiceCache.Lease lease = lease(accessId)) {
+            return operation.apply(lease.service());
+        }
+    }
+
+    private InputStream leasedStream(AbsoluteLocation location, Function<StorageService, InputStream> read) {
+        StorageServiceCache.Lease lease = lease(accessId(location));
+        try {
+            return new LeasedInputStream(read.apply(lease.service()), lease);
+        } catch (RuntimeException ex) {
+            lease.close();
+            throw ex;
+        }
+    }
+
+    private Map<AccessId, List<Integer>> byAccessId(List<? extends AbsoluteLocation> locations) {
+        Map<AccessId, List<Integer>> indexesByAccessId = new LinkedHashMap<>();
+        for (int i = 0; i < locations.size(); i++) {
+            indexesByAccessId.computeIfAbsent(accessId(locations.get(i)), it -> new ArrayList<>()).add(i);
+        }
+
+        return indexesByAccessId;
+    }
+
+    private static List<AbsoluteLocation> select(List<? extends AbsoluteLocation> locations, List<Integer> indexes) {
+        return indexes.stream().map(locations::get).collect(Collectors.toList());
+    }
+
+    private AccessId accessId(AbsoluteLocation location) {
+        URI raw = location.location().asURI();
+        String prefix = accessIdPrefix(raw);
+        AccessId cached = accessIdByPrefix.get(prefix);
+        if (null != cached) {
+            return cached;
+        }
+
+        AccessId parsed = parseAccessId(location, raw.getRawAuthority());
+        if (null == accessIdByPrefix.putIfAbsent(prefix, parsed)) {
+            accessIdOrder.add(prefix);
+            while (accessIdByPrefix.size() > ACCESS_ID_CACHE_SIZE) {
+                String oldest = accessIdOrder.poll();
+                if (null == oldest) {
+                    break;
+                }
+
+                accessIdByPrefix.remove(oldest);
+            }
+        }
+
+        return parsed;
+    }
+
+    private AccessId parseAccessId(AbsoluteLocation location, String authority) {
+        // credentials are parsed without regex or intermediate arrays, raw authority is used so that encoded
+        // ':' or '@' within keys do not split them
+        int credentialsEnd = null == authority ? -1 : authority.indexOf('@');
+        int keyEnd = null == authority ? -1 : authority.indexOf(':');
+        if (credentialsEnd < 0 || keyEnd < 0 || keyEnd > credentialsEnd) {
+            throw new IllegalArgumentException(
+                    "Location should contain credentials as access-key:secret-key@ in its authority"
+            );
+        }
+
         URI uri = location.getResource().location().withoutAuthority();
-        AccessId accessId = new AccessId(
-                authority[0],
-                authority[1],
-                regionExtractor.apply(uri),
-                bucketExtractor.apply(uri),
+        String[] segments = segmentator.apply(uri);
+        return new AccessId(
+                decode(authority.substring(0, keyEnd)),
+                decode(authority.substring(keyEnd + 1, credentialsEnd)),
+                segments[0],
+                segments[1],
                 endpointExtractor.apply(uri),
                 uri,
                 URI.create(
                     uri.getScheme() + "://" + uri.getHost() + portValue(uri)
                 )
         );
+    }
+
+    /**
+     * Scheme, raw authority (with credentials) and first path segments - everything that defines access id.
+     */
+    private static String accessIdPrefix(URI uri) {
+        String path = null == uri.getRawPath() ? "" : uri.getRawPath();
+        int end = 0;
+        for (int segment = 0; segment < ACCESS_ID_PATH_SEGMENTS && end >= 0; segment++) {
+            end = path.indexOf('/', end + 1);
+        }
+
+        return uri.getScheme() + "://" + uri.getRawAuthority() + (end < 0 ? path : path.substring(0, end));
+    }
+
+    /**
+     * Decodes %XX escapes as UTF-8, unlike {@link java.net.URLDecoder} keeps '+' as is.
+     */
+    private static String decode(String encoded) {
+        if (encoded.indexOf('%') < 0) {
+            return encoded;
+        }
 
-        return clientByItsAccessKey.computeIfAbsent(accessId, storageServiceBuilder);
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream(encoded.length());
+        for (int i = 0; i < encoded.length(); i++) {
+            char current = encoded.charAt(i);
+            if ('%' == current && i + 2 < encoded.length()) {
+                decoded.write(Integer.parseInt(encoded.substring(i + 1, i + 3), 16));
+                i += 2;
+            } else {
+                byte[] bytes = String.valueOf(current).getBytes(StandardCharsets.UTF_8);
+                decoded.write(bytes, 0, bytes.length);
+            }
+        }
+
+        return new String(decoded.toByteArray(), StandardCharsets.UTF_8);
     }
 
-    private String portValue(URI uri) {
+    private static String portValue(URI uri) {
         return uri.getPort() != - 1 ? ":" + uri.getPort() : "";
     }
 
+    /**
+     * Releases lease of storage service when stream is closed.
+     */
+    private static final class LeasedInputStream extends FilterInputStream {
+
+        private final StorageServiceCache.Lease lease;
+
+        private LeasedInputStream(InputStream in, StorageServiceCache.Lease lease) {
+            super(in);
+            this.lease = lease;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                lease.close();
+            }
+        }
+    }
+
+    /**
+     * Releases lease of storage service when stream is closed or aborted.
+     */
+    private static final class LeasedOutputStream extends FilterOutputStream implements AbortableOutputStream {
+
+        private final StorageServiceCache.Lease lease;
+
+        private boolean closed;
+
+        private LeasedOutputStream(OutputStream out, StorageServiceCache.Lease lease) {
+            super(out);
+            this.lease = lease;
+        }
+
+        // FilterOutputStream writes arrays byte by byte
+        @Override
+        public void write(byte[] bytes, int off, int len) throws IOException {
+            out.write(bytes, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            try {
+                out.close();
+            } finally {
+                lease.close();
+            }
+        }
+
+        @Override
+        public void abort() throws IOException {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            try {
+                AbortableOutputStream.abortOrClose(out);
+            } finally {
+                lease.close();
+            }
+        }
+    }
+
     @Getter
     @RequiredArgsConstructor
     @EqualsAndHashCode(of = {"accessKey", "secretKey", "bucketName", "endpoint"})
@@ -81,6 +414,7 @@ public class UriBasedAuthStorageService extends BaseDelegatingStorage {
         private final String bucketName;
         private final String endpoint;
 
+        // location this access id was first parsed for
         private final URI withoutCreds;
         private final URI onlyHostPart;
     }
@@ -2,6 +2,9 @@ package de.adorsys.datasafe.storage.api.actions;
 
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 /**
  * Represents operation that checks if specified resource exists.
  */
@@ -13,4 +16,13 @@ public interface StorageCheckService {
      * @return Does the resource at {@code location} exists
      */
     boolean objectExists(AbsoluteLocation location);
+
+    /**
+     * Checks many resources, storages override it to use batch requests.
+     * @param locations Resource locations with credentials (if necessary)
+     * @return Does each resource exist, in order of {@code locations}
+     */
+    default List<Boolean> existsAll(List<? extends AbsoluteLocation> locations) {
+        return locations.stream().map(this::objectExists).collect(Collectors.toList());
+    }
 }
@@ -14,7 +14,8 @@ public interface StorageListService {
     /**
      * Lists bucket contents.
      * @param location absolute bucket path with credentials (if necessary) where to list data
-     * @return stream of available absolute bucket paths
+     * @return stream of available absolute bucket paths, it may hold storage resources (i.e. database connection)
+     * until it is exhausted, so callers that don't consume it till the end (i.e. {@code findFirst}) must close it
      */
     Stream<AbsoluteLocation<ResolvedResource>> list(AbsoluteLocation location);
 }
@@ -1,8 +1,13 @@
 package de.adorsys.datasafe.storage.api.actions;
 
+import de.adorsys.datasafe.storage.api.LazyInputStream;
+import de.adorsys.datasafe.storage.api.RangeInputStream;
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.ByteRange;
 
 import java.io.InputStream;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Raw file read operation at a given location. Paths use URL-encoding.
@@ -16,4 +21,38 @@ public interface StorageReadService {
      * @apiNote Resulting stream should be closed properly
      */
     InputStream read(AbsoluteLocation location);
+
+    /**
+     * Reads part of resource. Default implementation reads resource from its start and skips bytes before
+     * {@code range}, storages that can start reading at any position override it together with
+     * {@link #supportsRangeRead(AbsoluteLocation)}.
+     * @param location absolute bucket path with credentials (if necessary)
+     * @param range part of resource to read, range that starts after resource end yields empty stream
+     * @return data stream of range bytes
+     * @apiNote Resulting stream should be closed properly
+     */
+    default InputStream read(AbsoluteLocation location, ByteRange range) {
+        return new RangeInputStream(read(location), range);
+    }
+
+    /**
+     * @param location resource to read
+     * @return {@code true} if {@link #read(AbsoluteLocation, ByteRange)} fetches only requested bytes from storage
+     */
+    default boolean supportsRangeRead(AbsoluteLocation location) {
+        return false;
+    }
+
+    /**
+     * Reads many resources, each stream is opened on its first use, so that only streams that are being read
+     * hold storage connection.
+     * @param locations absolute bucket paths with credentials (if necessary)
+     * @return data streams in order of {@code locations}
+     * @apiNote Resulting streams should be closed properly
+     */
+    default List<InputStream> readAll(List<? extends AbsoluteLocation> locations) {
+        return locations.stream()
+                .<InputStream>map(it -> new LazyInputStream(() -> read(it)))
+                .collect(Collectors.toList());
+    }
 }
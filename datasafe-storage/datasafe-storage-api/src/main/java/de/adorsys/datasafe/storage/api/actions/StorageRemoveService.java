@@ -2,6 +2,8 @@ package de.adorsys.datasafe.storage.api.actions;
 
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
 
+import java.util.List;
+
 /**
  * Remove operation at a given location with all subdirs. Paths use URL-encoding.
  */
@@ -13,4 +15,12 @@ public interface StorageRemoveService {
      * @param location absolute bucket path, with credentials (if necessary), which should be removed
      */
     void remove(AbsoluteLocation location);
+
+    /**
+     * Removes contents of many locations, storages override it to use batch requests.
+     * @param locations absolute bucket paths, with credentials (if necessary), which should be removed
+     */
+    default void removeAll(List<? extends AbsoluteLocation> locations) {
+        locations.forEach(this::remove);
+    }
 }
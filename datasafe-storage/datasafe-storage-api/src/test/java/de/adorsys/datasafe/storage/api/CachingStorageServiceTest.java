@@ -0,0 +1,244 @@
+package de.adorsys.datasafe.storage.api;
+
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.BaseResolvedResource;
+import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.resource.StorageVersion;
+import de.adorsys.datasafe.types.api.resource.Uri;
+import de.adorsys.datasafe.types.api.resource.VersionedPrivateResource;
+import de.adorsys.datasafe.types.api.resource.WithCallback;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachingStorageServiceTest extends BaseMockitoTest {
+
+    private static final AbsoluteLocation<PrivateResource> PROFILE = location("s3://host/bucket/profiles/user");
+    private static final AbsoluteLocation<PrivateResource> KEYSTORE = location("s3://host/bucket/keystore/user");
+
+    @Mock
+    private StorageService storage;
+
+    @Mock
+    private Clock clock;
+
+    @BeforeEach
+    void init() {
+        when(clock.millis()).thenReturn(0L);
+        when(storage.read(any())).thenAnswer(inv -> content(inv.getArgument(0)));
+    }
+
+    @Test
+    void servesRepeatedReadsFromMemory() {
+        CachingStorageService tested = cached(BlobCacheConfig.builder().build());
+
+        assertThat(read(tested, PROFILE)).isEqualTo(expected(PROFILE));
+        assertThat(read(tested, PROFILE)).isEqualTo(expected(PROFILE));
+        assertThat(tested.objectExists(PROFILE)).isTrue();
+
+        verify(storage).read(PROFILE);
+        verify(storage, times(0)).objectExists(any());
+        assertThat(tested.cacheStats()).isEqualTo(new BlobCacheStats(1, 21, 0, 0, 1, 1, 0));
+    }
+
+    @Test
+    void separatesStorageVersions() {
+        CachingStorageService tested = cached(BlobCacheConfig.builder().validateLastModified(true).build());
+        AbsoluteLocation<PrivateResource> versioned = new AbsoluteLocation<>(
+                new VersionedPrivateResource<>(PROFILE.getResource(), new StorageVersion("v1"))
+        );
+
+        read(tested, versioned);
+        read(tested, versioned);
+        read(tested, PROFILE);
+
+        verify(storage).read(versioned);
+        verify(storage).read(PROFILE);
+        verify(storage, times(0)).list(versioned);
+    }
+
+    @Test
+    @SneakyThrows
+    void writeInvalidatesCachedBlob() {
+        CachingStorageService tested = cached(BlobCacheConfig.builder().build());
+        when(storage.write(any())).thenReturn(new ByteArrayOutputStream());
+        read(tested, PROFILE);
+
+        try (OutputStream os = tested.write(WithCallback.noCallback(PROFILE))) {
+            os.write(1);
+        }
+        read(tested, PROFILE);
+
+        verify(storage, times(2)).read(PROFILE);
+    }
+
+    @Test
+    @SneakyThrows
+    void readDuringWriteIsNotCached() {
+        CachingStorageService tested = cached(BlobCacheConfig.builder().build());
+        when(storage.write(any())).thenReturn(new ByteArrayOutputStream());
+
+        OutputStream os = tested.write(WithCallback.noCallback(PROFILE));
+        InputStream is = tested.read(PROFILE);
+        drain(is);
+        os.close();
+        read(tested, PROFILE);
+
+        verify(storage, times(2)).read(PROFILE);
+    }
+
+    @Test
+    void removeInvalidatesNestedBlobs() {
+        CachingStorageService tested = cached(BlobCacheConfig.builder().build());
+        read(tested, PROFILE);
+        read(tested, KEYSTORE);
+
+        tested.remove(location("s3://host/bucket/profiles/"));
+        read(tested, PROFILE);
+        read(tested, KEYSTORE);
+
+        verify(storage, times(2)).read(PROFILE);
+        verify(storage).read(KEYSTORE);
+    }
+
+    @Test
+    @SneakyThrows
+    void doesNotCacheLargeOrPartiallyReadBlobs() {
+        CachingStorageService tested = cached(BlobCacheConfig.builder().maxEntryBytes(10).build());
+        read(tested, PROFILE);
+        read(tested, PROFILE);
+
+        CachingStorageService partial = cached(BlobCacheConfig.builder().build());
+        try (InputStream is = partial.read(KEYSTORE)) {
+            assertThat(is.read()).isNotEqualTo(-1);
+        }
+        read(partial, KEYSTORE);
+
+        verify(storage, times(2)).read(PROFILE);
+        verify(storage, times(2)).read(KEYSTORE);
+    }
+
+    @Test
+    @SneakyThrows
+    void movesLeastRecentlyUsedBlobsToDisk(@TempDir Path dir) {
+        Files.write(dir.resolve("stale.blob"), new byte[] {1});
+        CachingStorageService tested = cached(
+                BlobCacheConfig.builder().maxMemoryBytes(40).diskDirectory(dir).maxDiskBytes(40).build()
+        );
+
+        read(tested, PROFILE);
+        read(tested, KEYSTORE);
+
+        assertThat(tested.cacheStats()).isEqualTo(new BlobCacheStats(1, 21, 1, 21, 0, 2, 0));
+        assertThat(dir.resolve("stale.blob")).doesNotExist();
+        assertThat(read(tested, PROFILE)).isEqualTo(expected(PROFILE));
+        assertThat(read(tested, KEYSTORE)).isEqualTo(expected(KEYSTORE));
+        verify(storage).read(PROFILE);
+        verify(storage).read(KEYSTORE);
+
+        tested.close();
+        assertThat(Files.list(dir)).isEmpty();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedBlobs() {
+        CachingStorageService tested = cached(BlobCacheConfig.builder().maxMemoryBytes(40).build());
+
+        read(tested, PROFILE);
+        read(tested, KEYSTORE);
+        read(tested, PROFILE);
+
+        verify(storage, times(2)).read(PROFILE);
+        assertThat(tested.cacheStats().getEvictions()).isEqualTo(2);
+    }
+
+    @Test
+    void expiresBlobsAfterTimeToLive() {
+        CachingStorageService tested = cached(BlobCacheConfig.builder().timeToLive(Duration.ofMinutes(1)).build());
+        read(tested, PROFILE);
+
+        when(clock.millis()).thenReturn(Duration.ofMinutes(1).toMillis());
+        read(tested, PROFILE);
+
+        verify(storage, times(2)).read(PROFILE);
+    }
+
+    @Test
+    void validatesLastModified() {
+        CachingStorageService tested = cached(BlobCacheConfig.builder().validateLastModified(true).build());
+        when(storage.list(PROFILE)).thenAnswer(inv -> listed(PROFILE, Instant.EPOCH));
+        read(tested, PROFILE);
+        read(tested, PROFILE);
+
+        when(storage.list(PROFILE)).thenAnswer(inv -> listed(PROFILE, Instant.EPOCH.plusSeconds(1)));
+        read(tested, PROFILE);
+        read(tested, PROFILE);
+
+        verify(storage, times(2)).read(PROFILE);
+        // stale blob is replaced using date it was validated with
+        verify(storage, times(4)).list(PROFILE);
+    }
+
+    private CachingStorageService cached(BlobCacheConfig config) {
+        return new CachingStorageService(storage, config, clock);
+    }
+
+    private static Stream<AbsoluteLocation<ResolvedResource>> listed(AbsoluteLocation<PrivateResource> location,
+                                                                     Instant modifiedAt) {
+        return Stream.of(new AbsoluteLocation<>(new BaseResolvedResource(location.getResource(), modifiedAt)));
+    }
+
+    private static InputStream content(AbsoluteLocation location) {
+        return new ByteArrayInputStream(expected(location));
+    }
+
+    private static byte[] expected(AbsoluteLocation location) {
+        return location.location().getPath().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @SneakyThrows
+    private static byte[] read(StorageService service, AbsoluteLocation location) {
+        try (InputStream is = service.read(location)) {
+            return drain(is);
+        }
+    }
+
+    @SneakyThrows
+    private static byte[] drain(InputStream is) {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        byte[] buffer = new byte[7];
+        int read;
+        while ((read = is.read(buffer)) != -1) {
+            result.write(buffer, 0, read);
+        }
+
+        return result.toByteArray();
+    }
+
+    private static AbsoluteLocation<PrivateResource> location(String uri) {
+        return new AbsoluteLocation<>(BasePrivateResource.forPrivate(new Uri(uri)));
+    }
+}
@@ -0,0 +1,89 @@
+package de.adorsys.datasafe.storage.api;
+
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures routing cost per storage call of pattern-by-pattern matching and {@link PatternStorageRouter}.
+ * Each router is measured with warm route cache (locations fit into the cache) and cold one (locations outnumber
+ * cache size many times, so nearly every call misses and evicts). Run it using:
+ * mvn test -pl datasafe-storage/datasafe-storage-api -Dtest=PatternStorageRouterBenchmarkTest
+ *     -DRUN_ROUTING_BENCHMARK=true
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = PatternStorageRouterBenchmarkTest.RUN_ROUTING_BENCHMARK, matches = "true")
+class PatternStorageRouterBenchmarkTest extends BaseMockitoTest {
+
+    static final String RUN_ROUTING_BENCHMARK = "RUN_ROUTING_BENCHMARK";
+
+    private static final int TENANTS = 64;
+    private static final int WARM_LOCATIONS = PatternStorageRouter.DEFAULT_CACHE_SIZE / 2;
+    private static final int COLD_LOCATIONS = PatternStorageRouter.DEFAULT_CACHE_SIZE * 64;
+    private static final int CALLS = 500_000;
+    private static final int ROUNDS = 5;
+
+    @Test
+    void compareRouting() {
+        Map<Pattern, StorageService> patterns = new LinkedHashMap<>();
+        for (int i = 0; i < TENANTS; i++) {
+            patterns.put(Pattern.compile("s3://bucket/tenant-" + i + "/.+"), mock(StorageService.class));
+        }
+        patterns.put(Pattern.compile("file:/.+"), mock(StorageService.class));
+
+        compareRouting(patterns, "warm", locations(WARM_LOCATIONS));
+        compareRouting(patterns, "cold", locations(COLD_LOCATIONS));
+    }
+
+    private void compareRouting(Map<Pattern, StorageService> patterns, String cache, AbsoluteLocation[] locations) {
+        benchmark("match each pattern, " + cache, locations, location -> {
+            String uri = location.location().asString();
+            return patterns.entrySet().stream()
+                    .filter(it -> it.getKey().matcher(uri).matches())
+                    .map(Map.Entry::getValue)
+                    .findFirst()
+                    .orElse(null);
+        });
+        benchmark("prefix trie, " + cache, locations, new PatternStorageRouter(patterns, 0)::route);
+        benchmark("prefix trie + cache, " + cache, locations,
+                new PatternStorageRouter(patterns, PatternStorageRouter.DEFAULT_CACHE_SIZE)::route);
+    }
+
+    private static AbsoluteLocation[] locations(int count) {
+        AbsoluteLocation[] locations = new AbsoluteLocation[count];
+        for (int i = 0; i < locations.length; i++) {
+            locations[i] = new AbsoluteLocation<>(BasePrivateResource.forPrivate(
+                    "s3://bucket/tenant-" + (i % TENANTS) + "/users/user-" + i + "/private/files/file.txt"
+            ));
+        }
+
+        return locations;
+    }
+
+    private void benchmark(String name, AbsoluteLocation[] locations,
+                           Function<AbsoluteLocation, StorageService> route) {
+        long best = Long.MAX_VALUE;
+        int routed = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < CALLS; i++) {
+                if (null != route.apply(locations[i % locations.length])) {
+                    routed++;
+                }
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        log.info("{}: {} ns per call ({} routed)", name, best / CALLS, routed);
+    }
+}
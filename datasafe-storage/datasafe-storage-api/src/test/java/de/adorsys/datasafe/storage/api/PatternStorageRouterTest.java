@@ -0,0 +1,109 @@
+package de.adorsys.datasafe.storage.api;
+
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class PatternStorageRouterTest extends BaseMockitoTest {
+
+    private final StorageService tenantA = mock(StorageService.class);
+    private final StorageService tenantB = mock(StorageService.class);
+    private final StorageService s3 = mock(StorageService.class);
+    private final StorageService fallback = mock(StorageService.class);
+
+    @Test
+    void literalPrefix() {
+        assertThat(PatternStorageRouter.literalPrefix(Pattern.compile("s3://bucket/.+"))).isEqualTo("s3://bucket/");
+        assertThat(PatternStorageRouter.literalPrefix(Pattern.compile("^file:/tmp/.*"))).isEqualTo("file:/tmp/");
+        assertThat(PatternStorageRouter.literalPrefix(Pattern.compile("s3://a\\.b/.*"))).isEqualTo("s3://a.b/");
+        assertThat(PatternStorageRouter.literalPrefix(Pattern.compile("s3://ab?/.*"))).isEqualTo("s3://a");
+        assertThat(PatternStorageRouter.literalPrefix(Pattern.compile("s3://a\\.?b"))).isEqualTo("s3://a");
+        assertThat(PatternStorageRouter.literalPrefix(Pattern.compile("s3\\d://.*"))).isEqualTo("s3");
+        assertThat(PatternStorageRouter.literalPrefix(Pattern.compile("s3://a/.*|file:.*"))).isEmpty();
+        assertThat(PatternStorageRouter.literalPrefix(Pattern.compile("s3://.*", Pattern.CASE_INSENSITIVE)))
+                .isEmpty();
+    }
+
+    @Test
+    void routesToFirstMatchingPatternInOrder() {
+        Map<Pattern, StorageService> patterns = new LinkedHashMap<>();
+        patterns.put(Pattern.compile("s3://bucket/tenant-a/.+"), tenantA);
+        patterns.put(Pattern.compile("s3://bucket/tenant-b/.+"), tenantB);
+        patterns.put(Pattern.compile("s3://.+"), s3);
+        patterns.put(Pattern.compile(".+/fallback/.*"), fallback);
+        PatternStorageRouter router = new PatternStorageRouter(patterns, 16);
+
+        assertThat(router.route(location("s3://bucket/tenant-a/file.txt"))).isSameAs(tenantA);
+        assertThat(router.route(location("s3://bucket/tenant-b/file.txt"))).isSameAs(tenantB);
+        assertThat(router.route(location("s3://bucket/tenant-c/file.txt"))).isSameAs(s3);
+        assertThat(router.route(location("s3://bucket/fallback/file.txt"))).isSameAs(s3);
+        assertThat(router.route(location("file:///root/fallback/file.txt"))).isSameAs(fallback);
+        assertThat(router.route(location("file:///root/other/file.txt"))).isNull();
+    }
+
+    @Test
+    void routesSameAsMatchingEachPattern() {
+        Map<Pattern, StorageService> patterns = new LinkedHashMap<>();
+        for (int i = 0; i < 50; i++) {
+            patterns.put(Pattern.compile("s3://bucket-" + i + "/users/.+"), mock(StorageService.class));
+        }
+        patterns.put(Pattern.compile("s3://bucket-1\\d?/profiles/.+"), tenantA);
+        patterns.put(Pattern.compile("(s3|file)://.+"), fallback);
+        PatternStorageRouter router = new PatternStorageRouter(patterns, 0);
+
+        for (int i = 0; i < 60; i++) {
+            for (String path : new String[] {"/users/john/file", "/profiles/john", "/other"}) {
+                String uri = "s3://bucket-" + i + path;
+                StorageService expected = patterns.entrySet().stream()
+                        .filter(it -> it.getKey().matcher(uri).matches())
+                        .map(Map.Entry::getValue)
+                        .findFirst()
+                        .orElse(null);
+
+                assertThat(router.route(location(uri))).as(uri).isSameAs(expected);
+            }
+        }
+        assertThat(router.cachedRoutes()).isZero();
+    }
+
+    @Test
+    void cacheIsBounded() {
+        PatternStorageRouter router = new PatternStorageRouter(
+                Collections.singletonMap(Pattern.compile("s3://.+"), s3),
+                8
+        );
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(router.route(location("s3://bucket/file" + i))).isSameAs(s3);
+            assertThat(router.route(location("s3://bucket/file" + i))).isSameAs(s3);
+        }
+
+        assertThat(router.cachedRoutes()).isEqualTo(8);
+    }
+
+    @Test
+    void cacheIgnoresCredentials() {
+        PatternStorageRouter router = new PatternStorageRouter(
+                Collections.singletonMap(Pattern.compile("s3://host/bucket/.+"), s3),
+                8
+        );
+
+        assertThat(router.route(location("s3://key-a:secret-a@host/bucket/file"))).isSameAs(s3);
+        assertThat(router.route(location("s3://key-b:secret-b@host/bucket/file"))).isSameAs(s3);
+
+        assertThat(router.cachedRoutes()).isEqualTo(1);
+    }
+
+    private static AbsoluteLocation location(String uri) {
+        return new AbsoluteLocation<>(BasePrivateResource.forPrivate(uri));
+    }
+}
@@ -0,0 +1,80 @@
+package de.adorsys.datasafe.storage.api;
+
+import de.adorsys.datasafe.types.api.resource.ByteRange;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RangeInputStreamTest extends BaseMockitoTest {
+
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    @SneakyThrows
+    void readsRange() {
+        try (InputStream is = new RangeInputStream(new ByteArrayInputStream(CONTENT), ByteRange.of(2, 3))) {
+            assertThat(is).hasContent("234");
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void readsTillEnd() {
+        try (InputStream is = new RangeInputStream(new ByteArrayInputStream(CONTENT), ByteRange.from(7))) {
+            assertThat(is.read()).isEqualTo('7');
+            assertThat(is).hasContent("89");
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void rangeAfterEndIsEmpty() {
+        try (InputStream is = new RangeInputStream(new ByteArrayInputStream(CONTENT), ByteRange.of(20, 5))) {
+            assertThat(is.read()).isEqualTo(-1);
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void skipsEvenIfSourceDoesNotSkip() {
+        InputStream noSkip = new FilterInputStream(new ByteArrayInputStream(CONTENT)) {
+            @Override
+            public long skip(long count) {
+                return 0;
+            }
+        };
+
+        try (InputStream is = new RangeInputStream(noSkip, ByteRange.of(8, 5))) {
+            assertThat(is).hasContent("89");
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void doesNotReadSourceAfterRange() {
+        AtomicInteger read = new AtomicInteger();
+        InputStream counting = new FilterInputStream(new ByteArrayInputStream(CONTENT)) {
+            @Override
+            public int read(byte[] bytes, int off, int len) throws IOException {
+                int count = super.read(bytes, off, len);
+                read.addAndGet(Math.max(0, count));
+                return count;
+            }
+        };
+
+        try (InputStream is = new RangeInputStream(counting, 0, 4L)) {
+            assertThat(is).hasContent("0123");
+        }
+
+        assertThat(read).hasValue(4);
+    }
+}
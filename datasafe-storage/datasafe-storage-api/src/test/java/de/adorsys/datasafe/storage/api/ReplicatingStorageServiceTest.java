@@ -0,0 +1,303 @@
+package de.adorsys.datasafe.storage.api;
+
+import de.adorsys.datasafe.types.api.callback.PhysicalVersionCallback;
+import de.adorsys.datasafe.types.api.callback.ResourceWriteCallback;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.WithCallback;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class ReplicatingStorageServiceTest extends BaseMockitoTest {
+
+    private final AbsoluteLocation location = new AbsoluteLocation<>(
+            BasePrivateResource.forPrivate("s3://bucket/file.txt")
+    );
+
+    private final StorageService first = mock(StorageService.class);
+    private final StorageService second = mock(StorageService.class);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @SneakyThrows
+    void writeGoesToAllReplicasAndCallbacksOnlyToFirst() {
+        ByteArrayOutputStream firstContent = new ByteArrayOutputStream();
+        ByteArrayOutputStream secondContent = new ByteArrayOutputStream();
+        when(first.write(any())).thenReturn(firstContent);
+        ArgumentCaptor<WithCallback<AbsoluteLocation, ResourceWriteCallback>> secondWrite =
+                ArgumentCaptor.forClass(WithCallback.class);
+        when(second.write(secondWrite.capture())).thenReturn(secondContent);
+
+        WithCallback<AbsoluteLocation, ResourceWriteCallback> withCallback = WithCallback
+                .<AbsoluteLocation, ResourceWriteCallback>builder()
+                .wrapped(location)
+                .callback(mock(PhysicalVersionCallback.class))
+                .build();
+        try (OutputStream os = tested(Duration.ofMinutes(1)).write(withCallback)) {
+            os.write("hello".getBytes(StandardCharsets.UTF_8));
+        }
+
+        verify(first).write(withCallback);
+        assertThat(secondWrite.getValue().getWrapped()).isEqualTo(location);
+        assertThat(secondWrite.getValue().getCallbacks()).isEmpty();
+        assertThat(firstContent.toString("UTF-8")).isEqualTo("hello");
+        assertThat(secondContent.toString("UTF-8")).isEqualTo("hello");
+    }
+
+    @Test
+    @SneakyThrows
+    void writeFailsIfAnyReplicaFails() {
+        OutputStream firstStream = mock(OutputStream.class);
+        OutputStream secondStream = mock(OutputStream.class);
+        doThrow(new IOException("upload failed")).when(secondStream).close();
+        when(first.write(any())).thenReturn(firstStream);
+        when(second.write(any())).thenReturn(secondStream);
+
+        OutputStream os = tested(Duration.ofMinutes(1)).write(WithCallback.noCallback(location));
+
+        assertThrows(IOException.class, os::close);
+        verify(firstStream).close();
+    }
+
+    @Test
+    @SneakyThrows
+    void replicasAreWrittenInParallel() {
+        CountDownLatch secondWritten = new CountDownLatch(1);
+        ByteArrayOutputStream secondContent = new ByteArrayOutputStream();
+        // first replica completes its write only after second replica has got the content
+        when(first.write(any())).thenReturn(new OutputStream() {
+            @Override
+            @SneakyThrows
+            public void write(int b) {
+                if (!secondWritten.await(10, TimeUnit.SECONDS)) {
+                    throw new IOException("Second replica was not written in parallel");
+                }
+            }
+        });
+        when(second.write(any())).thenReturn(new OutputStream() {
+            @Override
+            public void write(int b) {
+                secondContent.write(b);
+                secondWritten.countDown();
+            }
+        });
+
+        try (OutputStream os = tested(Duration.ofMinutes(1)).write(WithCallback.noCallback(location))) {
+            os.write("hello".getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertThat(secondContent.toString("UTF-8")).isEqualTo("hello");
+    }
+
+    @Test
+    @SneakyThrows
+    void failedReplicaWriteAbortsOtherReplicas() {
+        OutputStream firstStream = abortableStream();
+        OutputStream secondStream = mock(OutputStream.class);
+        doThrow(new IOException("upload failed")).when(secondStream).write(any(byte[].class));
+        when(first.write(any())).thenReturn(firstStream);
+        when(second.write(any())).thenReturn(secondStream);
+
+        OutputStream os = tested(Duration.ofMinutes(1)).write(WithCallback.noCallback(location));
+        os.write("hello".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IOException.class, os::close);
+        verify((AbortableOutputStream) firstStream).abort();
+        verify(firstStream, never()).close();
+    }
+
+    @Test
+    @SneakyThrows
+    void openedReplicaStreamsAreAbortedWhenWriteCantBeStarted() {
+        OutputStream firstStream = abortableStream();
+        when(first.write(any())).thenReturn(firstStream);
+        when(second.write(any())).thenThrow(new IllegalStateException("unavailable"));
+
+        ReplicatingStorageService tested = tested(Duration.ofMinutes(1));
+        assertThrows(IllegalStateException.class, () -> tested.write(WithCallback.noCallback(location)));
+
+        verify((AbortableOutputStream) firstStream).abort();
+        verify(firstStream, never()).close();
+    }
+
+    @Test
+    @SneakyThrows
+    void failedReplicaWriteAbortsStreamOfWrappedReplica() {
+        StorageService backend = mock(StorageService.class);
+        OutputStream backendStream = abortableStream();
+        when(backend.write(any())).thenReturn(backendStream);
+        // S3 with credentials in URI, that is cached
+        StorageService wrapped = new CachingStorageService(
+                new UriBasedAuthStorageService(accessId -> backend),
+                BlobCacheConfig.builder().build()
+        );
+        OutputStream secondStream = mock(OutputStream.class);
+        doThrow(new IOException("upload failed")).when(secondStream).write(any(byte[].class));
+        when(second.write(any())).thenReturn(secondStream);
+
+        ReplicatingStorageService tested = new ReplicatingStorageService(
+                Arrays.asList(wrapped, second),
+                executor,
+                ReplicationConfig.builder().build()
+        );
+        OutputStream os = tested.write(WithCallback.noCallback(
+                BasePrivateResource.forAbsolutePrivate("s3://key:secret@host/region/bucket/file.txt")
+        ));
+        os.write("hello".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IOException.class, os::close);
+        verify((AbortableOutputStream) backendStream).abort();
+        verify(backendStream, never()).close();
+    }
+
+    @Test
+    @SneakyThrows
+    void abortedWriteAbortsAllReplicas() {
+        OutputStream firstStream = abortableStream();
+        OutputStream secondStream = abortableStream();
+        when(first.write(any())).thenReturn(firstStream);
+        when(second.write(any())).thenReturn(secondStream);
+
+        OutputStream os = tested(Duration.ofMinutes(1)).write(WithCallback.noCallback(location));
+        os.write("hello".getBytes(StandardCharsets.UTF_8));
+        ((AbortableOutputStream) os).abort();
+        os.close();
+
+        for (OutputStream replica : Arrays.asList(firstStream, secondStream)) {
+            verify((AbortableOutputStream) replica).abort();
+            verify(replica, never()).close();
+        }
+    }
+
+    @Test
+    void removeGoesToAllReplicas() {
+        tested(Duration.ofMinutes(1)).remove(location);
+
+        verify(first).remove(location);
+        verify(second).remove(location);
+    }
+
+    @Test
+    @SneakyThrows
+    void readIsHedgedToNextReplicaWhenFirstIsSlow() {
+        CountDownLatch firstResponds = new CountDownLatch(1);
+        InputStream lateResponse = mock(InputStream.class);
+        when(first.read(any(AbsoluteLocation.class))).thenAnswer(inv -> {
+            firstResponds.await();
+            return lateResponse;
+        });
+        when(second.read(any(AbsoluteLocation.class))).thenReturn(content("second"));
+
+        try (InputStream is = tested(Duration.ofMillis(20)).read(location)) {
+            assertThat(is).hasContent("second");
+        }
+
+        firstResponds.countDown();
+        verify(lateResponse, timeout(1000)).close();
+    }
+
+    @Test
+    void readIsNotHedgedWhenReplicaRespondsWithinDelay() {
+        when(first.read(any(AbsoluteLocation.class))).thenReturn(content("first"));
+
+        assertThat(tested(Duration.ofMinutes(1)).read(location)).hasContent("first");
+        verify(second, never()).read(any(AbsoluteLocation.class));
+    }
+
+    @Test
+    void failedReadIsRetriedOnNextReplica() {
+        when(first.read(any(AbsoluteLocation.class))).thenThrow(new IllegalStateException("unavailable"));
+        when(second.read(any(AbsoluteLocation.class))).thenReturn(content("second"));
+
+        assertThat(tested(Duration.ofMinutes(1)).read(location)).hasContent("second");
+    }
+
+    @Test
+    void readFailsIfAllReplicasFail() {
+        IllegalStateException firstFailure = new IllegalStateException("first");
+        when(first.read(any(AbsoluteLocation.class))).thenThrow(firstFailure);
+        when(second.read(any(AbsoluteLocation.class))).thenThrow(new IllegalStateException("second"));
+
+        ReplicatingStorageService tested = tested(Duration.ofMinutes(1));
+        IllegalStateException failure = assertThrows(IllegalStateException.class, () -> tested.read(location));
+
+        assertThat(failure).isSameAs(firstFailure);
+        assertThat(failure.getSuppressed()).extracting(Throwable::getMessage).containsExactly("second");
+    }
+
+    @Test
+    void readsAreRoutedToReplicaWithLowerLatency() {
+        when(first.read(any(AbsoluteLocation.class))).thenAnswer(inv -> {
+            Thread.sleep(50);
+            return content("first");
+        });
+        when(second.read(any(AbsoluteLocation.class))).thenAnswer(inv -> content("second"));
+
+        ReplicatingStorageService tested = tested(Duration.ofMinutes(1));
+        for (int i = 0; i < 5; i++) {
+            tested.read(location);
+        }
+
+        // first read goes to first replica, second read probes replica without latency samples
+        verify(first, times(1)).read(location);
+        verify(second, times(4)).read(location);
+    }
+
+    @Test
+    void listFallsBackToNextReplica() {
+        when(first.list(location)).thenThrow(new IllegalStateException("unavailable"));
+        when(second.list(location)).thenReturn(Stream.empty());
+
+        assertThat(tested(Duration.ofMinutes(1)).list(location)).isEmpty();
+    }
+
+    private ReplicatingStorageService tested(Duration hedgeDelay) {
+        return new ReplicatingStorageService(
+                Arrays.asList(first, second),
+                executor,
+                ReplicationConfig.builder().initialHedgeDelay(hedgeDelay).build()
+        );
+    }
+
+    private static OutputStream abortableStream() {
+        return mock(OutputStream.class, withSettings().extraInterfaces(AbortableOutputStream.class));
+    }
+
+    private static InputStream content(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
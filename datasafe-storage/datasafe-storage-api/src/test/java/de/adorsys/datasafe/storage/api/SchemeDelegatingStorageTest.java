@@ -7,14 +7,18 @@ import de.adorsys.datasafe.types.api.resource.WithCallback;
 import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 class SchemeDelegatingStorageTest extends BaseMockitoTest {
 
@@ -40,6 +44,28 @@ class SchemeDelegatingStorageTest extends BaseMockitoTest {
 
     private SchemeDelegatingStorage tested = new SchemeDelegatingStorage(storageServices);
 
+    @Test
+    void existsAllSplitsBatchByStorage() {
+        StorageService other = mock(StorageService.class);
+        AbsoluteLocation otherLocation = new AbsoluteLocation<>(BasePrivateResource.forPrivate("other://bucket"));
+        when(service.existsAll(Arrays.asList(locationExists, locationExists))).thenReturn(Arrays.asList(true, false));
+        when(other.existsAll(Collections.singletonList(otherLocation))).thenReturn(Collections.singletonList(true));
+        Map<String, StorageService> byScheme = new HashMap<>(storageServices);
+        byScheme.put("other", other);
+        SchemeDelegatingStorage storage = new SchemeDelegatingStorage(byScheme);
+
+        assertThat(storage.existsAll(Arrays.asList(locationExists, otherLocation, locationExists)))
+                .containsExactly(true, true, false);
+    }
+
+    @Test
+    void removeAllSplitsBatchByStorage() {
+        tested.removeAll(Arrays.asList(locationExists, locationExists));
+
+        verify(service).removeAll(Arrays.asList(locationExists, locationExists));
+        verify(service, never()).remove(any());
+    }
+
     @Test
     void objectExistsDelegates() {
         tested.objectExists(locationExists);
@@ -0,0 +1,124 @@
+package de.adorsys.datasafe.storage.api;
+
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class StorageServiceCacheTest extends BaseMockitoTest {
+
+    @Mock
+    private Clock clock;
+
+    private AtomicInteger created;
+    private Function<String, StorageService> builder;
+
+    private StorageServiceCache<String> tested;
+
+    @BeforeEach
+    void init() {
+        created = new AtomicInteger();
+        builder = key -> {
+            created.incrementAndGet();
+            return mock(StorageService.class, withSettings().extraInterfaces(AutoCloseable.class));
+        };
+        when(clock.millis()).thenReturn(0L);
+        tested = new StorageServiceCache<>(
+                StorageServiceCacheConfig.builder().maxSize(2).expireAfterAccess(Duration.ofMinutes(1)).build(),
+                clock
+        );
+    }
+
+    @Test
+    void reusesCachedService() {
+        StorageService first = get("a", builder);
+
+        assertThat(get("a", builder)).isSameAs(first);
+        assertThat(created).hasValue(1);
+        assertThat(tested.stats()).isEqualTo(new StorageServiceCacheStats(1, 1, 1, 0));
+    }
+
+    @Test
+    @SneakyThrows
+    void evictsAndClosesLeastRecentlyUsed() {
+        StorageService first = get("a", builder);
+        StorageService second = get("b", builder);
+        get("a", builder);
+
+        get("c", builder);
+
+        verify((AutoCloseable) second).close();
+        verify((AutoCloseable) first, never()).close();
+        assertThat(get("a", builder)).isSameAs(first);
+        assertThat(tested.stats().getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    @SneakyThrows
+    void evictsAndClosesIdleService() {
+        StorageService first = get("a", builder);
+        when(clock.millis()).thenReturn(Duration.ofMinutes(1).toMillis());
+
+        StorageService recreated = get("a", builder);
+
+        verify((AutoCloseable) first).close();
+        assertThat(recreated).isNotSameAs(first);
+        assertThat(tested.stats()).isEqualTo(new StorageServiceCacheStats(1, 0, 2, 1));
+    }
+
+    @Test
+    @SneakyThrows
+    void evictedServiceIsClosedWhenItsLeaseIsReleased() {
+        StorageServiceCache.Lease lease = tested.acquire("a", builder);
+        get("b", builder);
+
+        get("c", builder);
+
+        verify((AutoCloseable) lease.service(), never()).close();
+        lease.close();
+        lease.close();
+        verify((AutoCloseable) lease.service()).close();
+    }
+
+    @Test
+    @SneakyThrows
+    void leasedServiceDoesNotExpire() {
+        StorageServiceCache.Lease lease = tested.acquire("a", builder);
+        when(clock.millis()).thenReturn(Duration.ofMinutes(1).toMillis());
+
+        assertThat(get("a", builder)).isSameAs(lease.service());
+        verify((AutoCloseable) lease.service(), never()).close();
+    }
+
+    @Test
+    @SneakyThrows
+    void closeClosesAllServices() {
+        StorageService first = get("a", builder);
+        StorageService second = get("b", builder);
+
+        tested.close();
+
+        verify((AutoCloseable) first).close();
+        verify((AutoCloseable) second).close();
+        assertThat(tested.stats().getSize()).isZero();
+    }
+
+    private StorageService get(String key, Function<String, StorageService> builder) {
+        try (StorageServiceCache.Lease lease = tested.acquire(key, builder)) {
+            return lease.service();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package de.adorsys.datasafe.storage.impl.db;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
 import liquibase.Contexts;
 import liquibase.LabelExpression;
@@ -19,28 +20,37 @@ import javax.sql.DataSource;
 import java.net.URI;
 import java.sql.Connection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class acts as higher-level DataSource cache.
+ * Connection pools are configured by URI prefix, database schema is migrated once per database (JDBC URL) no matter
+ * how many connection keys point to it.
  */
 @Slf4j
 public class DatabaseConnectionRegistry {
+
+    private static final DatabasePoolConfig DEFAULT_POOL_CONFIG = DatabasePoolConfig.builder().build();
+
     private final DbUriExtractor uriExtractor;
     private final Map<String, JdbcDaoSupport> dataSourceCache;
     private final Map<String, DatabaseCredentials> providedCredentials;
+    private final Map<String, DatabasePoolConfig> poolConfigs;
+    private final MetricsTrackerFactory metricsTrackerFactory;
+
+    /**
+     * JDBC URLs of databases that have been migrated
+     */
+    private final Map<String, Boolean> migratedDatabases = new ConcurrentHashMap<>();
 
     public DatabaseConnectionRegistry() {
-        this.uriExtractor = new DefaultDbUriExtractor();
-        this.dataSourceCache = new ConcurrentHashMap<>();
-        this.providedCredentials = Collections.emptyMap();
+        this(new DefaultDbUriExtractor(), Collections.emptyMap());
     }
 
     public DatabaseConnectionRegistry(Map<String, DatabaseCredentials> providedCredentials) {
-        this.uriExtractor = new DefaultDbUriExtractor();
-        this.dataSourceCache = new ConcurrentHashMap<>();
-        this.providedCredentials = providedCredentials;
+        this(new DefaultDbUriExtractor(), providedCredentials);
     }
 
     /**
@@ -50,9 +60,25 @@ public class DatabaseConnectionRegistry {
      */
     public DatabaseConnectionRegistry(DbUriExtractor uriExtractor,
                                       Map<String, DatabaseCredentials> providedCredentials) {
+        this(uriExtractor, providedCredentials, Collections.emptyMap(), null);
+    }
+
+    /**
+     * @param providedCredentials Prefix-based matcher for db URI - connection credentials
+     * @param poolConfigs Prefix-based matcher for db URI - pool configuration, longest matching prefix wins,
+     *                    databases without match use {@link DatabasePoolConfig} defaults
+     * @param metricsTrackerFactory Hikari pool metrics tracker (i.e. Micrometer or Dropwizard), {@code null}
+     *                              disables pool metrics
+     */
+    public DatabaseConnectionRegistry(DbUriExtractor uriExtractor,
+                                      Map<String, DatabaseCredentials> providedCredentials,
+                                      Map<String, DatabasePoolConfig> poolConfigs,
+                                      MetricsTrackerFactory metricsTrackerFactory) {
         this.dataSourceCache = new ConcurrentHashMap<>();
         this.providedCredentials = providedCredentials;
         this.uriExtractor = uriExtractor;
+        this.poolConfigs = poolConfigs;
+        this.metricsTrackerFactory = metricsTrackerFactory;
     }
 
     /**
@@ -93,17 +119,43 @@ public class DatabaseConnectionRegistry {
     protected JdbcDaoSupport acquireDaoSupport(AbsoluteLocation location, DatabaseCredentials credentials) {
         JdbcDaoSupport daoSupport = new JdbcDaoSupport() {};
 
+        String url = uriExtractor.extract(location);
+        DatabasePoolConfig poolConfig = getPoolConfig(location);
         DataSource dataSource = getHikariDataSource(
-                uriExtractor.extract(location),
+                url,
                 credentials.getUsername(),
-                credentials.getPassword()
+                credentials.getPassword(),
+                poolConfig,
+                "datasafe-db-" + connectionKey(location)
         );
 
         daoSupport.setDataSource(dataSource);
-        updateDbSchema(dataSource);
+        if (poolConfig.isMigrateSchema()) {
+            // blocks concurrent users of same database until migration completes, failed migration is retried
+            migratedDatabases.computeIfAbsent(url, key -> {
+                updateDbSchema(dataSource);
+                return Boolean.TRUE;
+            });
+        }
+
         return daoSupport;
     }
 
+    /**
+     * Finds pool configuration with longest prefix matching location URI.
+     * @param location URI to get pool configuration for.
+     * @return Pool configuration for that URI.
+     */
+    protected DatabasePoolConfig getPoolConfig(AbsoluteLocation location) {
+        String uri = location.location().asURI().toASCIIString();
+
+        return poolConfigs.entrySet().stream()
+                .filter(it -> uri.startsWith(it.getKey()))
+                .max(Comparator.comparingInt(it -> it.getKey().length()))
+                .map(Map.Entry::getValue)
+                .orElse(DEFAULT_POOL_CONFIG);
+    }
+
     /**
      * Extracts credentials from path URI or uses {@code providedCredentials} to get them
      * @param location URI to get credentials for.
@@ -131,14 +183,33 @@ public class DatabaseConnectionRegistry {
         return target.getScheme() + target.getHost();
     }
 
-    private static HikariDataSource getHikariDataSource(String url, String user, String password) {
-        log.debug("Setup config for DB url: {0}", url);
+    private HikariDataSource getHikariDataSource(String url, String user, String password,
+                                                 DatabasePoolConfig poolConfig, String poolName) {
+        log.debug("Setup config for DB url: {}", url);
 
         HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
         config.setJdbcUrl(url);
         config.setConnectionTestQuery("SELECT 1");
         config.addDataSourceProperty("user", user);
         config.addDataSourceProperty("password", password);
+        config.setMaximumPoolSize(poolConfig.getMaximumPoolSize());
+        if (null != poolConfig.getMinimumIdle()) {
+            config.setMinimumIdle(poolConfig.getMinimumIdle());
+        }
+
+        config.setConnectionTimeout(poolConfig.getConnectionTimeout().toMillis());
+        config.setIdleTimeout(poolConfig.getIdleTimeout().toMillis());
+        config.setMaxLifetime(poolConfig.getMaxLifetime().toMillis());
+        if (poolConfig.getPreparedStatementCacheSize() > 0) {
+            config.addDataSourceProperty("cachePrepStmts", "true");
+            config.addDataSourceProperty("prepStmtCacheSize", poolConfig.getPreparedStatementCacheSize());
+            config.addDataSourceProperty("prepStmtCacheSqlLimit", poolConfig.getPreparedStatementCacheSqlLimit());
+        }
+
+        if (null != metricsTrackerFactory) {
+            config.setMetricsTrackerFactory(metricsTrackerFactory);
+        }
 
         return new HikariDataSource(config);
     }
@@ -0,0 +1,61 @@
+package de.adorsys.datasafe.storage.impl.db;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Connection pool and schema settings of databases matched by URI prefix in {@link DatabaseConnectionRegistry}.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class DatabasePoolConfig {
+
+    @Builder.Default
+    private final int maximumPoolSize = 10;
+
+    /**
+     * Minimum count of idle connections, {@code null} keeps pool fixed at {@link #maximumPoolSize}.
+     */
+    private final Integer minimumIdle;
+
+    /**
+     * How long caller waits for a connection from the pool.
+     */
+    @Builder.Default
+    private final Duration connectionTimeout = Duration.ofSeconds(30);
+
+    /**
+     * How long connection above {@link #minimumIdle} may stay idle in the pool.
+     */
+    @Builder.Default
+    private final Duration idleTimeout = Duration.ofMinutes(10);
+
+    /**
+     * Maximum lifetime of pooled connection, should be shorter than database connection timeout.
+     */
+    @Builder.Default
+    private final Duration maxLifetime = Duration.ofMinutes(30);
+
+    /**
+     * Count of prepared statements cached per connection by the driver, {@code 0} leaves driver default.
+     * Passed as MySQL Connector/J {@code cachePrepStmts}/{@code prepStmtCacheSize} properties - other drivers
+     * may reject them.
+     */
+    @Builder.Default
+    private final int preparedStatementCacheSize = 0;
+
+    /**
+     * Maximum length of SQL statement that is cached by the driver, only used with
+     * {@link #preparedStatementCacheSize}.
+     */
+    @Builder.Default
+    private final int preparedStatementCacheSqlLimit = 2048;
+
+    /**
+     * Run Liquibase schema migration when database is first used, disable it for read replicas.
+     */
+    @Builder.Default
+    private final boolean migrateSchema = true;
+}
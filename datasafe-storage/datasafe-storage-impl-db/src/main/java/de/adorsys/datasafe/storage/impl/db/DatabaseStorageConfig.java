@@ -0,0 +1,44 @@
+package de.adorsys.datasafe.storage.impl.db;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.nio.file.Path;
+
+/**
+ * I/O configuration of {@link DatabaseStorageService}.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class DatabaseStorageConfig {
+
+    /**
+     * Written documents are buffered in memory up to this size, larger documents are spilled to temporary file
+     * before they are streamed to database.
+     */
+    @Builder.Default
+    private final int inMemoryWriteThreshold = 1024 * 1024;
+
+    /**
+     * Directory for temporary files of spilled writes, {@code null} uses default temporary-file directory.
+     */
+    private final Path spillDirectory;
+
+    /**
+     * Count of keys fetched by single listing query, database connection is released between these queries.
+     */
+    @Builder.Default
+    private final int listFetchSize = 1000;
+
+    /**
+     * Maximum count of keys in single {@code IN (...)} statement of {@code existsAll} and {@code removeAll}.
+     */
+    @Builder.Default
+    private final int batchQuerySize = 500;
+
+    /**
+     * SQL dialect of all databases that are accessed, {@code null} detects it from database metadata. Set it
+     * i.e. to {@link SqlDialect#MYSQL} for H2 running in MySQL mode.
+     */
+    private final SqlDialect dialect;
+}
@@ -0,0 +1,183 @@
+package de.adorsys.datasafe.storage.impl.db;
+
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Collects many small documents (i.e. profiles, keystores) and stores them using one JDBC batch per table and one
+ * transaction per database on {@link #commit()}. Documents that are written to same key replace each other, the
+ * last one wins. Documents that were not committed are discarded on {@link #close()}.
+ */
+@Slf4j
+public class DatabaseWriteBatch implements AutoCloseable {
+
+    private final Function<AbsoluteLocation, PendingWrite> newWrite;
+    private final List<PendingWrite> pending = new ArrayList<>();
+
+    DatabaseWriteBatch(Function<AbsoluteLocation, PendingWrite> newWrite) {
+        this.newWrite = newWrite;
+    }
+
+    /**
+     * Opens stream for document at {@code location}, stream must be closed before batch is committed.
+     */
+    public OutputStream write(AbsoluteLocation location) {
+        PendingWrite write = newWrite.apply(location);
+        pending.add(write);
+        return write;
+    }
+
+    /**
+     * Stores all written documents. If any statement fails, transaction of its database is rolled back.
+     */
+    public void commit() {
+        Map<DataSource, DatabaseBatch> byDatabase = new IdentityHashMap<>();
+        for (PendingWrite write : pending) {
+            if (!write.closed) {
+                throw new IllegalStateException("Batch has unclosed write stream");
+            }
+
+            byDatabase
+                    .computeIfAbsent(write.jdbcTemplate.getDataSource(), it -> new DatabaseBatch(write.jdbcTemplate))
+                    .add(write);
+        }
+
+        try {
+            byDatabase.values().forEach(DatabaseBatch::execute);
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Discards all pending documents.
+     */
+    @Override
+    public void close() {
+        pending.forEach(PendingWrite::discard);
+        pending.clear();
+    }
+
+    /**
+     * Buffered document that waits for batch commit.
+     */
+    @RequiredArgsConstructor
+    static final class PendingWrite extends OutputStream {
+
+        private final JdbcTemplate jdbcTemplate;
+        private final String upsertSql;
+        private final String key;
+        private final SpillingBuffer buffer;
+
+        private boolean closed;
+
+        @Override
+        public void write(int b) throws IOException {
+            buffer.write(b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int off, int len) throws IOException {
+            buffer.write(bytes, off, len);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        /**
+         * Stores this document alone, without explicit transaction.
+         */
+        @SneakyThrows
+        void store() {
+            try (InputStream content = buffer.openInputStream()) {
+                jdbcTemplate.update(upsertSql, ps -> {
+                    ps.setString(1, key);
+                    ps.setBinaryStream(2, content, buffer.size());
+                });
+            } finally {
+                buffer.discard();
+            }
+        }
+
+        /**
+         * Drops buffered document without storing it.
+         */
+        void discard() {
+            buffer.discard();
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static final class DatabaseBatch {
+
+        private final JdbcTemplate jdbcTemplate;
+        private final Map<String, List<PendingWrite>> byStatement = new LinkedHashMap<>();
+
+        void add(PendingWrite write) {
+            byStatement.computeIfAbsent(write.upsertSql, it -> new ArrayList<>()).add(write);
+        }
+
+        void execute() {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                boolean autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+                try {
+                    byStatement.forEach((sql, writes) -> executeBatch(connection, sql, writes));
+                    connection.commit();
+                } catch (Exception ex) {
+                    connection.rollback();
+                    throw ex;
+                } finally {
+                    connection.setAutoCommit(autoCommit);
+                }
+
+                return null;
+            });
+        }
+
+        @SneakyThrows
+        private static void executeBatch(Connection connection, String sql, List<PendingWrite> writes) {
+            List<InputStream> contents = new ArrayList<>(writes.size());
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                for (PendingWrite write : writes) {
+                    InputStream content = write.buffer.openInputStream();
+                    contents.add(content);
+                    ps.setString(1, write.key);
+                    ps.setBinaryStream(2, content, write.buffer.size());
+                    ps.addBatch();
+                }
+
+                ps.executeBatch();
+            } finally {
+                contents.forEach(DatabaseBatch::closeQuietly);
+            }
+        }
+
+        private static void closeQuietly(InputStream stream) {
+            try {
+                stream.close();
+            } catch (IOException ex) {
+                log.debug("Failed to close buffered content", ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package de.adorsys.datasafe.storage.impl.db;
+
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.JdbcUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Forward-only read-only query whose result set outlives the call that opened it. Holds the pooled connection
+ * until closed, so that results can be streamed to caller.
+ */
+final class OpenQuery implements AutoCloseable {
+
+    private final DataSource dataSource;
+    private final Connection connection;
+    private final PreparedStatement statement;
+    private final ResultSet resultSet;
+
+    private boolean closed;
+
+    private OpenQuery(DataSource dataSource, Connection connection, PreparedStatement statement,
+                      ResultSet resultSet) {
+        this.dataSource = dataSource;
+        this.connection = connection;
+        this.statement = statement;
+        this.resultSet = resultSet;
+    }
+
+    /**
+     * Executes query, releasing all acquired resources if that fails.
+     * @param fetchSize Driver fetch size hint, {@code 0} to use driver default
+     * @param params Parameters bound in order
+     */
+    static OpenQuery execute(DataSource dataSource, String sql, int fetchSize, Object... params)
+            throws SQLException {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        PreparedStatement statement = null;
+        try {
+            statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            for (int i = 0; i < params.length; i++) {
+                statement.setObject(i + 1, params[i]);
+            }
+
+            return new OpenQuery(dataSource, connection, statement, statement.executeQuery());
+        } catch (SQLException | RuntimeException ex) {
+            JdbcUtils.closeStatement(statement);
+            DataSourceUtils.releaseConnection(connection, dataSource);
+            throw ex;
+        }
+    }
+
+    ResultSet resultSet() {
+        return resultSet;
+    }
+
+    /**
+     * Closes result set and statement and returns connection to the pool, subsequent calls do nothing.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        JdbcUtils.closeResultSet(resultSet);
+        JdbcUtils.closeStatement(statement);
+        DataSourceUtils.releaseConnection(connection, dataSource);
+    }
+}
@@ -0,0 +1,141 @@
+package de.adorsys.datasafe.storage.impl.db;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Collects written bytes in memory until threshold is exceeded, then moves them to temporary file and keeps
+ * writing there. Collected content can be read back (without copying in-memory buffer) until buffer is discarded.
+ */
+@Slf4j
+class SpillingBuffer extends OutputStream {
+
+    private static final String SPILL_PREFIX = "datasafe-db-";
+    private static final int FILE_BUFFER_SIZE = 64 * 1024;
+
+    private final int threshold;
+    private final Path spillDirectory;
+
+    private ExposedByteArrayOutputStream memory = new ExposedByteArrayOutputStream();
+    private Path spillFile;
+    private OutputStream spill;
+    private long size;
+
+    /**
+     * @param threshold Maximum count of bytes kept in memory
+     * @param spillDirectory Directory for temporary file, {@code null} for default temporary-file directory
+     */
+    SpillingBuffer(int threshold, Path spillDirectory) {
+        this.threshold = threshold;
+        this.spillDirectory = spillDirectory;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        target(1).write(b);
+        size++;
+    }
+
+    @Override
+    public void write(byte[] bytes, int off, int len) throws IOException {
+        target(len).write(bytes, off, len);
+        size += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (null != spill) {
+            spill.flush();
+        }
+    }
+
+    /**
+     * @return Count of bytes written
+     */
+    long size() {
+        return size;
+    }
+
+    boolean isSpilled() {
+        return null != spillFile;
+    }
+
+    /**
+     * Finishes writing and opens collected content for reading.
+     */
+    InputStream openInputStream() throws IOException {
+        if (null == spillFile) {
+            return new ByteArrayInputStream(memory.buffer(), 0, memory.size());
+        }
+
+        spill.close();
+        return Files.newInputStream(spillFile);
+    }
+
+    /**
+     * Releases in-memory buffer and removes temporary file, if any.
+     */
+    void discard() {
+        memory = null;
+        if (null == spillFile) {
+            return;
+        }
+
+        try {
+            spill.close();
+            Files.deleteIfExists(spillFile);
+        } catch (IOException ex) {
+            log.warn("Failed to remove temporary file {}", spillFile, ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        discard();
+    }
+
+    private OutputStream target(int len) throws IOException {
+        if (null != spill) {
+            return spill;
+        }
+
+        if (null == memory) {
+            throw new IOException("Buffer is discarded");
+        }
+
+        if (memory.size() + (long) len <= threshold) {
+            return memory;
+        }
+
+        spillFile = null == spillDirectory
+                ? Files.createTempFile(SPILL_PREFIX, null)
+                : Files.createTempFile(spillDirectory, SPILL_PREFIX, null);
+        spill = new BufferedOutputStream(Files.newOutputStream(spillFile), FILE_BUFFER_SIZE);
+        memory.writeTo(spill);
+        memory = new ExposedByteArrayOutputStream(0);
+        return spill;
+    }
+
+    private static final class ExposedByteArrayOutputStream extends ByteArrayOutputStream {
+
+        ExposedByteArrayOutputStream() {
+            super();
+        }
+
+        ExposedByteArrayOutputStream(int size) {
+            super(size);
+        }
+
+        byte[] buffer() {
+            return buf;
+        }
+    }
+}
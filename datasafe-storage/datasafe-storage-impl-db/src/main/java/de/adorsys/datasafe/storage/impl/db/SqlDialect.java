@@ -0,0 +1,74 @@
+package de.adorsys.datasafe.storage.impl.db;
+
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+
+/**
+ * Database-specific statements used by {@link DatabaseStorageService}.
+ */
+public enum SqlDialect {
+
+    /**
+     * MySQL and MariaDB, also H2 running in MySQL compatibility mode.
+     */
+    MYSQL {
+        @Override
+        public String upsertSql(String tableName) {
+            return "INSERT INTO " + tableName + " (`key`, `value`) VALUES (?, ?)"
+                    + " ON DUPLICATE KEY UPDATE `value` = VALUES(`value`), `last_modified` = CURRENT_TIMESTAMP";
+        }
+
+        @Override
+        public String valuePartSql(boolean withLength) {
+            return withLength ? "SUBSTRING(`value`, ?, ?)" : "SUBSTRING(`value`, ?)";
+        }
+    },
+
+    /**
+     * H2 in its native mode.
+     */
+    H2 {
+        @Override
+        public String upsertSql(String tableName) {
+            return "MERGE INTO " + tableName + " (`key`, `value`, `last_modified`) KEY (`key`)"
+                    + " VALUES (?, ?, CURRENT_TIMESTAMP)";
+        }
+
+        // SUBSTRING treats BLOB as string, but LOB locators of H2 read only requested part
+        @Override
+        public String valuePartSql(boolean withLength) {
+            return null;
+        }
+    };
+
+    /**
+     * @return Statement that inserts or replaces value of a key, binds key as first and value as second parameter.
+     */
+    public abstract String upsertSql(String tableName);
+
+    /**
+     * @param withLength If part length is bound as second parameter, otherwise part ends with the value
+     * @return Expression that selects part of {@code value} starting at 1-based position bound as first parameter,
+     * so that only that part is sent by database; {@code null} if part should be read using
+     * {@link java.sql.Blob#getBinaryStream(long, long)}
+     */
+    public abstract String valuePartSql(boolean withLength);
+
+    /**
+     * Detects dialect using database product name.
+     */
+    static SqlDialect detect(DatabaseMetaData metaData) throws SQLException {
+        String product = metaData.getDatabaseProductName();
+
+        if ("H2".equalsIgnoreCase(product)) {
+            return H2;
+        }
+
+        if (product.toLowerCase().contains("mysql") || product.toLowerCase().contains("mariadb")) {
+            return MYSQL;
+        }
+
+        throw new IllegalStateException("Unsupported database: " + product
+                + ", configure dialect explicitly using DatabaseStorageConfig");
+    }
+}
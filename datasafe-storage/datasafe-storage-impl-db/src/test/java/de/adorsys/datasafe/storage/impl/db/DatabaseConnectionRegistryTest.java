@@ -0,0 +1,128 @@
+package de.adorsys.datasafe.storage.impl.db;
+
+import com.google.common.collect.ImmutableMap;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.resource.Uri;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DatabaseConnectionRegistryTest extends BaseMockitoTest {
+
+    private static final DbUriExtractor SAME_DATABASE = location -> "jdbc:h2:mem:registry";
+
+    private static final AbsoluteLocation<PrivateResource> PRIMARY = location("jdbc://sa:sa@primary:9999/db/t/a");
+    private static final AbsoluteLocation<PrivateResource> REPLICA = location("jdbc://sa:sa@replica:9999/db/t/a");
+
+    @Mock
+    private MetricsTrackerFactory metricsTrackerFactory;
+
+    @Mock
+    private IMetricsTracker metricsTracker;
+
+    private CountingRegistry registry;
+
+    @AfterEach
+    void cleanup() {
+        registry.jdbcTemplate(PRIMARY).execute("DROP ALL OBJECTS DELETE FILES");
+    }
+
+    @Test
+    void migratesOncePerDatabase() {
+        registry = new CountingRegistry(Collections.emptyMap(), null);
+
+        registry.jdbcTemplate(PRIMARY);
+        registry.jdbcTemplate(REPLICA);
+        registry.jdbcTemplate(PRIMARY);
+
+        assertThat(registry.migrations).hasValue(1);
+        assertThat(registry.jdbcTemplate(PRIMARY).getDataSource())
+                .isNotSameAs(registry.jdbcTemplate(REPLICA).getDataSource());
+    }
+
+    @Test
+    void skipsMigrationWhenDisabled() {
+        registry = new CountingRegistry(
+                ImmutableMap.of("jdbc://sa:sa@replica", DatabasePoolConfig.builder().migrateSchema(false).build()),
+                null
+        );
+
+        registry.jdbcTemplate(REPLICA);
+
+        assertThat(registry.migrations).hasValue(0);
+    }
+
+    @Test
+    void appliesLongestMatchingPoolConfig() {
+        registry = new CountingRegistry(
+                ImmutableMap.of(
+                        "jdbc://", DatabasePoolConfig.builder().maximumPoolSize(3).build(),
+                        "jdbc://sa:sa@replica", DatabasePoolConfig.builder()
+                                .maximumPoolSize(7)
+                                .minimumIdle(1)
+                                .connectionTimeout(Duration.ofSeconds(5))
+                                .build()
+                ),
+                null
+        );
+
+        HikariDataSource primary = (HikariDataSource) registry.jdbcTemplate(PRIMARY).getDataSource();
+        HikariDataSource replica = (HikariDataSource) registry.jdbcTemplate(REPLICA).getDataSource();
+
+        assertThat(primary.getMaximumPoolSize()).isEqualTo(3);
+        assertThat(replica.getMaximumPoolSize()).isEqualTo(7);
+        assertThat(replica.getMinimumIdle()).isEqualTo(1);
+        assertThat(replica.getConnectionTimeout()).isEqualTo(5000L);
+    }
+
+    @Test
+    void registersPoolMetrics() throws Exception {
+        when(metricsTrackerFactory.create(any(), any())).thenReturn(metricsTracker);
+        registry = new CountingRegistry(Collections.emptyMap(), metricsTrackerFactory);
+
+        DataSource dataSource = registry.jdbcTemplate(PRIMARY).getDataSource();
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(connection.isValid(1)).isTrue();
+        }
+
+        verify(metricsTrackerFactory).create(eq("datasafe-db-jdbcprimary"), any());
+    }
+
+    private static AbsoluteLocation<PrivateResource> location(String uri) {
+        return new AbsoluteLocation<>(BasePrivateResource.forPrivate(new Uri(uri)));
+    }
+
+    private static class CountingRegistry extends DatabaseConnectionRegistry {
+
+        private final AtomicInteger migrations = new AtomicInteger();
+
+        CountingRegistry(Map<String, DatabasePoolConfig> poolConfigs, MetricsTrackerFactory metrics) {
+            super(SAME_DATABASE, Collections.emptyMap(), poolConfigs, metrics);
+        }
+
+        @Override
+        protected void updateDbSchema(DataSource dataSource) {
+            migrations.incrementAndGet();
+            super.updateDbSchema(dataSource);
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package de.adorsys.datasafe.storage.impl.db;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.io.ByteStreams;
+import de.adorsys.datasafe.storage.api.AbortableOutputStream;
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
 import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.ByteRange;
 import de.adorsys.datasafe.types.api.resource.PrivateResource;
 import de.adorsys.datasafe.types.api.resource.ResolvedResource;
 import de.adorsys.datasafe.types.api.resource.Uri;
@@ -13,14 +17,22 @@ import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.Random;
 import java.util.Set;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @Slf4j
 class DatabaseStorageServiceTest extends BaseMockitoTest {
@@ -94,6 +106,105 @@ class DatabaseStorageServiceTest extends BaseMockitoTest {
         }
     }
 
+    @Test
+    void listReturnsSize() {
+        try (Stream<AbsoluteLocation<ResolvedResource>> ls = storageService.list(FILE)) {
+            assertThat(ls)
+                    .extracting(it -> it.getResource().getSize())
+                    .containsOnly((long) MESSAGE.length());
+        }
+    }
+
+    @Test
+    void listTreatsPathLiterally() {
+        writeData(location("pa_h/hello.txt"), MESSAGE);
+        writeData(location("path0/hello.txt"), MESSAGE);
+
+        try (Stream<AbsoluteLocation<ResolvedResource>> ls = storageService.list(location("pa_h/"))) {
+            assertThat(ls)
+                    .extracting(it -> it.getResource().location().asString())
+                    .containsExactly("jdbc://localhost:9999/h2:mem:test/private_profiles/pa_h/hello.txt");
+        }
+
+        try (Stream<AbsoluteLocation<ResolvedResource>> ls = storageService.list(location("path/"))) {
+            assertThat(ls)
+                    .extracting(it -> it.getResource().location().asString())
+                    .containsExactly("jdbc://localhost:9999/h2:mem:test/private_profiles/path/hello.txt");
+        }
+    }
+
+    @Test
+    void listStreamsRowsInKeyOrder() {
+        storageService = new DatabaseStorageService(
+                ALLOWED_TABLES,
+                connectionRegistry,
+                DatabaseStorageConfig.builder().listFetchSize(7).build()
+        );
+        for (int i = 0; i < 100; i++) {
+            writeData(location(String.format("many/%03d.txt", i)), MESSAGE);
+        }
+
+        try (Stream<AbsoluteLocation<ResolvedResource>> ls = storageService.list(location("many/"))) {
+            assertThat(ls)
+                    .extracting(it -> it.getResource().location().asString())
+                    .hasSize(100)
+                    .isSorted();
+        }
+    }
+
+    @Test
+    void listReleasesConnectionOnClose() {
+        writeData(OTHER_FILE, MESSAGE);
+
+        // more partially consumed listings than default pool size
+        for (int i = 0; i < 50; i++) {
+            try (Stream<AbsoluteLocation<ResolvedResource>> ls = storageService.list(ROOT)) {
+                assertThat(ls.findFirst()).isPresent();
+            }
+        }
+    }
+
+    @Test
+    void nestedListingNeedsSingleConnection() {
+        DatabaseConnectionRegistry singleConnection = new DatabaseConnectionRegistry(
+                uri -> uri.location().getWrapped().getScheme() + ":" + uri.location().getPath().split("/")[1],
+                Collections.emptyMap(),
+                ImmutableMap.of(
+                        "jdbc://",
+                        DatabasePoolConfig.builder().maximumPoolSize(1).connectionTimeout(Duration.ofSeconds(1)).build()
+                ),
+                null
+        );
+        storageService = new DatabaseStorageService(
+                ALLOWED_TABLES,
+                singleConnection,
+                DatabaseStorageConfig.builder().listFetchSize(3).build()
+        );
+        for (int i = 0; i < 10; i++) {
+            writeData(location(String.format("versions/%03d.txt", i)), MESSAGE);
+            writeData(location(String.format("latest/%03d.txt", i)), MESSAGE);
+        }
+
+        // same as versioned listing, that resolves latest version of each listed file
+        try (Stream<AbsoluteLocation<ResolvedResource>> versions = storageService.list(location("versions/"))) {
+            assertThat(versions.map(it -> {
+                String name = it.location().asURI().getPath().replaceFirst(".*/", "");
+                try (Stream<AbsoluteLocation<ResolvedResource>> latest = storageService.list(
+                        location("latest/" + name))) {
+                    return latest.findFirst().isPresent();
+                }
+            })).hasSize(10).containsOnly(true);
+        }
+    }
+
+    @Test
+    void prefixUpperBound() {
+        assertThat(DatabaseStorageService.prefixUpperBound("path/")).isEqualTo("path0");
+        assertThat(DatabaseStorageService.prefixUpperBound("a" + Character.MAX_VALUE)).isEqualTo("b");
+        assertThat(DatabaseStorageService.prefixUpperBound("")).isNull();
+        assertThat(DatabaseStorageService.prefixUpperBound(String.valueOf(Character.MAX_VALUE))).isNull();
+    }
+
     @Test
     @SneakyThrows
     void read() {
@@ -102,6 +213,20 @@ class DatabaseStorageServiceTest extends BaseMockitoTest {
         }
     }
 
+    @Test
+    @SneakyThrows
+    void readRange() {
+        try (InputStream read = storageService.read(FILE, ByteRange.of(1, 3))) {
+            assertThat(read).hasContent("ell");
+        }
+        try (InputStream read = storageService.read(FILE, ByteRange.from(4))) {
+            assertThat(read).hasContent("o!");
+        }
+        try (InputStream read = storageService.read(FILE, ByteRange.of(MESSAGE.length(), 10))) {
+            assertThat(read.read()).isEqualTo(-1);
+        }
+    }
+
     @Test
     void remove() {
         storageService.remove(FILE);
@@ -117,6 +242,204 @@ class DatabaseStorageServiceTest extends BaseMockitoTest {
         }
     }
 
+    @Test
+    @SneakyThrows
+    void writeReplacesExistingValue() {
+        writeData(FILE, "Replaced");
+
+        try (InputStream read = storageService.read(FILE)) {
+            assertThat(read).hasContent("Replaced");
+        }
+        assertThat(countRows()).isEqualTo(1);
+    }
+
+    @Test
+    @SneakyThrows
+    void writeReplacesExistingValueInMySqlMode() {
+        DatabaseConnectionRegistry mySqlRegistry = new DatabaseConnectionRegistry(
+                uri -> uri.location().getWrapped().getScheme() + ":" + uri.location().getPath().split("/")[1]
+                        + ";MODE=MySQL",
+                Collections.emptyMap()
+        );
+        storageService = new DatabaseStorageService(
+                ALLOWED_TABLES,
+                mySqlRegistry,
+                DatabaseStorageConfig.builder().dialect(SqlDialect.MYSQL).build()
+        );
+        AbsoluteLocation<PrivateResource> file = new AbsoluteLocation<>(
+                BasePrivateResource.forPrivate(
+                        new Uri("jdbc://sa:sa@localhost:9999/h2:mem:mysql/private_profiles/path/hello.txt")
+                )
+        );
+
+        writeData(file, MESSAGE);
+        writeData(file, "Replaced");
+
+        try (InputStream read = storageService.read(file)) {
+            assertThat(read).hasContent("Replaced");
+        }
+        mySqlRegistry.jdbcTemplate(file).execute("DROP ALL OBJECTS DELETE FILES");
+    }
+
+    @Test
+    @SneakyThrows
+    void abortedWriteKeepsExistingValue() {
+        OutputStream os = storageService.write(WithCallback.noCallback(FILE));
+        os.write("Replaced".getBytes());
+        ((AbortableOutputStream) os).abort();
+        os.close();
+
+        try (InputStream read = storageService.read(FILE)) {
+            assertThat(read).hasContent(MESSAGE);
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void writeBatch() {
+        try (DatabaseWriteBatch batch = storageService.writeBatch()) {
+            for (int i = 0; i < 20; i++) {
+                try (OutputStream os = batch.write(location("batch/" + i))) {
+                    os.write(("batch " + i).getBytes());
+                }
+            }
+            try (OutputStream os = batch.write(FILE)) {
+                os.write("Replaced".getBytes());
+            }
+
+            batch.commit();
+        }
+
+        try (Stream<AbsoluteLocation<ResolvedResource>> ls = storageService.list(location("batch/"))) {
+            assertThat(ls).hasSize(20);
+        }
+        try (InputStream read = storageService.read(location("batch/7"))) {
+            assertThat(read).hasContent("batch 7");
+        }
+        try (InputStream read = storageService.read(FILE)) {
+            assertThat(read).hasContent("Replaced");
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void writeBatchIsDiscardedWithoutCommit() {
+        try (DatabaseWriteBatch batch = storageService.writeBatch()) {
+            try (OutputStream os = batch.write(OTHER_FILE)) {
+                os.write(MESSAGE.getBytes());
+            }
+        }
+
+        assertThat(storageService.objectExists(OTHER_FILE)).isFalse();
+    }
+
+    @Test
+    void writeBatchRequiresClosedStreams() {
+        try (DatabaseWriteBatch batch = storageService.writeBatch()) {
+            batch.write(OTHER_FILE);
+
+            assertThatThrownBy(batch::commit).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    void existsAllAndRemoveAllUseChunkedQueries() {
+        storageService = new DatabaseStorageService(
+                ALLOWED_TABLES,
+                connectionRegistry,
+                DatabaseStorageConfig.builder().batchQuerySize(3).build()
+        );
+        List<AbsoluteLocation<PrivateResource>> locations = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            locations.add(location("many/" + i));
+            if (0 == i % 2) {
+                writeData(locations.get(i), MESSAGE);
+            }
+        }
+
+        assertThat(storageService.existsAll(locations)).containsExactly(true, false, true, false, true, false, true);
+
+        storageService.removeAll(locations.subList(0, 5));
+
+        assertThat(storageService.existsAll(locations))
+                .containsExactly(false, false, false, false, false, false, true);
+        assertThat(storageService.objectExists(FILE)).isTrue();
+    }
+
+    @Test
+    @SneakyThrows
+    void writeAndReadBinaryContent() {
+        byte[] content = new byte[256];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+
+        writeBytes(OTHER_FILE, content);
+
+        try (InputStream read = storageService.read(OTHER_FILE)) {
+            assertThat(ByteStreams.toByteArray(read)).isEqualTo(content);
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void writeSpillsLargeContentToDisk(@TempDir Path spillDir) {
+        storageService = new DatabaseStorageService(
+                ALLOWED_TABLES,
+                connectionRegistry,
+                DatabaseStorageConfig.builder().inMemoryWriteThreshold(1024).spillDirectory(spillDir).build()
+        );
+        byte[] content = new byte[100 * 1024 + 13];
+        new Random().nextBytes(content);
+
+        writeBytes(OTHER_FILE, content);
+
+        try (InputStream read = storageService.read(OTHER_FILE)) {
+            assertThat(ByteStreams.toByteArray(read)).isEqualTo(content);
+        }
+        try (Stream<Path> spilled = Files.list(spillDir)) {
+            assertThat(spilled).isEmpty();
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void readReleasesConnectionOnClose() {
+        // more reads than default pool size, each read holds connection until stream is closed
+        for (int i = 0; i < 50; i++) {
+            try (InputStream read = storageService.read(FILE)) {
+                assertThat(read).hasContent(MESSAGE);
+            }
+        }
+    }
+
+    @Test
+    void readMissingReleasesConnection() {
+        for (int i = 0; i < 50; i++) {
+            assertThatThrownBy(() -> storageService.read(OTHER_FILE)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    private int countRows() {
+        return connectionRegistry.jdbcTemplate(FILE)
+                .queryForObject("SELECT COUNT(*) FROM private_profiles", Integer.class);
+    }
+
+    private static AbsoluteLocation<PrivateResource> location(String path) {
+        return new AbsoluteLocation<>(
+                BasePrivateResource.forPrivate(
+                        new Uri("jdbc://sa:sa@localhost:9999/h2:mem:test/private_profiles/" + path)
+                )
+        );
+    }
+
+    @SneakyThrows
+    private void writeBytes(AbsoluteLocation path, byte[] content) {
+        try (OutputStream os = storageService.write(WithCallback.noCallback(path))) {
+            os.write(content);
+        }
+    }
+
     @SneakyThrows
     private void writeData(AbsoluteLocation path, String message) {
         try (OutputStream os = storageService.write(WithCallback.noCallback(path))) {
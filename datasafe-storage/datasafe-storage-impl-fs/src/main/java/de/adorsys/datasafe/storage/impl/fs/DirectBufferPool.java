@@ -0,0 +1,46 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Bounded pool of direct buffers, direct buffers are expensive to allocate and are released only by garbage
+ * collector, so they are reused between write streams.
+ */
+class DirectBufferPool {
+
+    private final int bufferSize;
+    private final Queue<ByteBuffer> idle;
+
+    DirectBufferPool(int bufferSize, int maxIdle) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be > 0: " + bufferSize);
+        }
+
+        this.bufferSize = bufferSize;
+        this.idle = new ArrayBlockingQueue<>(Math.max(1, maxIdle));
+    }
+
+    /**
+     * @return Cleared buffer of {@code bufferSize} bytes.
+     */
+    ByteBuffer borrow() {
+        ByteBuffer buffer = idle.poll();
+        if (null == buffer) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Returns buffer to pool, buffer that does not fit is left to garbage collector.
+     */
+    void release(ByteBuffer buffer) {
+        if (null != buffer) {
+            idle.offer(buffer);
+        }
+    }
+}
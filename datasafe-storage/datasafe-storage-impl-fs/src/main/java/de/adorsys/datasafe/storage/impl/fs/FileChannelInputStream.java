@@ -0,0 +1,83 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import de.adorsys.datasafe.storage.api.ChannelTransferable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Reads file using its channel, remaining content can be transferred to another channel by the kernel.
+ */
+class FileChannelInputStream extends InputStream implements ChannelTransferable {
+
+    private final FileChannel channel;
+
+    FileChannelInputStream(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int read = read(single, 0, 1);
+        return -1 == read ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int off, int len) throws IOException {
+        if ((off < 0) || (len < 0) || (len > bytes.length - off)) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        if (0 == len) {
+            return 0;
+        }
+
+        return channel.read(ByteBuffer.wrap(bytes, off, len));
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+
+        long position = channel.position();
+        long skipped = Math.min(n, Math.max(0, channel.size() - position));
+        channel.position(position + skipped);
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(0, channel.size() - channel.position()));
+    }
+
+    @Override
+    public long transferTo(WritableByteChannel target) throws IOException {
+        long transferred = transfer(channel, channel.position(), target);
+        channel.position(channel.position() + transferred);
+        return transferred;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Transfers file content starting at {@code position} till its end to {@code target}.
+     */
+    static long transfer(FileChannel channel, long position, WritableByteChannel target) throws IOException {
+        long size = channel.size();
+        long current = position;
+        while (current < size) {
+            current += channel.transferTo(current, size - current, target);
+        }
+
+        return current - position;
+    }
+}
@@ -0,0 +1,141 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import de.adorsys.datasafe.storage.api.AbortableOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+/**
+ * Collects written bytes in direct buffer and writes it to file channel when it is full, so that channel
+ * writes do not copy heap arrays into temporary direct buffers. Write is completed by {@link FileCommitter}
+ * when stream is closed. Aborted atomic write removes its temporary file, while aborted in-place write leaves
+ * the file with content that was written so far.
+ */
+class FileChannelOutputStream extends OutputStream implements AbortableOutputStream {
+
+    private final FileChannel channel;
+    private final DirectBufferPool bufferPool;
+    private final FileCommitter committer;
+    private final Path written;
+    private final Path target;
+
+    // Borrowed from bufferPool on first write
+    private ByteBuffer buffer;
+    private boolean closed;
+
+    /**
+     * @param channel Channel of {@code written} file
+     * @param bufferPool Pool to borrow write buffer from
+     * @param committer Completes the write on close
+     * @param written File that is written
+     * @param target File to atomically replace with {@code written} on close, {@code null} for in-place write
+     */
+    FileChannelOutputStream(FileChannel channel, DirectBufferPool bufferPool, FileCommitter committer,
+                            Path written, Path target) {
+        this.channel = channel;
+        this.bufferPool = bufferPool;
+        this.committer = committer;
+        this.written = written;
+        this.target = target;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        borrowBufferIfNeeded();
+        if (!buffer.hasRemaining()) {
+            flushBuffer();
+        }
+
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] bytes, int off, int len) throws IOException {
+        if ((off < 0) || (len < 0) || (len > bytes.length - off)) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        ensureOpen();
+        borrowBufferIfNeeded();
+        int position = off;
+        int remaining = len;
+        while (remaining > 0) {
+            if (!buffer.hasRemaining()) {
+                flushBuffer();
+            }
+
+            int toCopy = Math.min(remaining, buffer.remaining());
+            buffer.put(bytes, position, toCopy);
+            position += toCopy;
+            remaining -= toCopy;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        flushBuffer();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        try {
+            flushBuffer();
+            releaseBuffer();
+            committer.commit(channel, written, target);
+        } catch (IOException | RuntimeException ex) {
+            releaseBuffer();
+            committer.abort(channel, written, target);
+            throw ex;
+        }
+    }
+
+    @Override
+    public void abort() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        releaseBuffer();
+        committer.abort(channel, written, target);
+    }
+
+    private void releaseBuffer() {
+        bufferPool.release(buffer);
+        buffer = null;
+    }
+
+    private void borrowBufferIfNeeded() {
+        if (null == buffer) {
+            buffer = bufferPool.borrow();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (null == buffer || 0 == buffer.position()) {
+            return;
+        }
+
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream is closed");
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Completes file writes according to {@link WriteDurability}: flushes written file, renames temporary file
+ * to its target in atomic write mode and flushes directory that got the new file.
+ * Group commit is done by single daemon thread that collects files closed within configured interval, writer
+ * that was not committed by it within configured timeout commits its file itself.
+ */
+@Slf4j
+class FileCommitter {
+
+    private final WriteDurability durability;
+    private final long groupCommitIntervalNanos;
+    private final long groupCommitTimeoutNanos;
+    private final BlockingQueue<PendingCommit> pending = new LinkedBlockingQueue<>();
+
+    private Thread groupCommitThread;
+
+    FileCommitter(WriteDurability durability, Duration groupCommitInterval, Duration groupCommitTimeout) {
+        this.durability = durability;
+        this.groupCommitIntervalNanos = groupCommitInterval.toNanos();
+        this.groupCommitTimeoutNanos = groupCommitTimeout.toNanos();
+    }
+
+    /**
+     * Completes write of {@code channel}, channel is closed afterwards.
+     * @param channel Channel with all file content written
+     * @param written File that was written
+     * @param target File to atomically move {@code written} to, {@code null} if it was written in-place
+     */
+    void commit(FileChannel channel, Path written, Path target) throws IOException {
+        switch (durability) {
+            case FSYNC:
+                commitInline(channel, written, target);
+                return;
+            case GROUP_COMMIT:
+                commitInGroup(new PendingCommit(channel, written, target));
+                return;
+            default:
+                channel.close();
+                moveIfNeeded(written, target);
+        }
+    }
+
+    /**
+     * Discards failed write of {@code channel}, temporary file is removed.
+     */
+    void abort(FileChannel channel, Path written, Path target) {
+        try {
+            channel.close();
+            if (null != target) {
+                Files.deleteIfExists(written);
+            }
+        } catch (IOException ex) {
+            log.warn("Failed to clean up failed write", ex);
+        }
+    }
+
+    private void commitInGroup(PendingCommit commit) throws IOException {
+        startGroupCommitIfNeeded();
+        pending.add(commit);
+
+        try {
+            awaitGroupCommit(commit);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for group commit");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            }
+
+            throw new IOException("Group commit failed", ex.getCause());
+        }
+    }
+
+    /**
+     * Waits for group commit of {@code commit}, if group commit thread hasn't taken it within timeout (i.e. it is
+     * stuck flushing slow disk or has died), the file is committed by calling thread.
+     */
+    private void awaitGroupCommit(PendingCommit commit)
+            throws IOException, InterruptedException, ExecutionException {
+        try {
+            commit.done.get(groupCommitTimeoutNanos, TimeUnit.NANOSECONDS);
+            return;
+        } catch (TimeoutException ex) {
+            if (!commit.claim()) {
+                // group commit thread is already flushing this file, inline commit would not be faster
+                commit.done.get();
+                return;
+            }
+        }
+
+        log.debug("Group commit of {} timed out, committing it inline", commit.written);
+        pending.remove(commit);
+        commitInline(commit.channel, commit.written, commit.target);
+    }
+
+    private synchronized void startGroupCommitIfNeeded() {
+        if (null != groupCommitThread && groupCommitThread.isAlive()) {
+            return;
+        }
+
+        groupCommitThread = new Thread(this::groupCommitLoop, "fs-group-commit");
+        groupCommitThread.setDaemon(true);
+        groupCommitThread.start();
+    }
+
+    private void groupCommitLoop() {
+        List<PendingCommit> batch = new ArrayList<>();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(pending.take());
+                collectBatch(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            commitBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void collectBatch(List<PendingCommit> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + groupCommitIntervalNanos;
+        long remaining = groupCommitIntervalNanos;
+        while (remaining > 0) {
+            PendingCommit next = pending.poll(remaining, TimeUnit.NANOSECONDS);
+            if (null == next) {
+                return;
+            }
+
+            batch.add(next);
+            pending.drainTo(batch);
+            remaining = deadline - System.nanoTime();
+        }
+    }
+
+    private void commitBatch(List<PendingCommit> batch) {
+        Set<Path> directories = new LinkedHashSet<>();
+        List<PendingCommit> moved = new ArrayList<>(batch.size());
+        for (PendingCommit commit : batch) {
+            // writer has given up waiting and commits its file itself
+            if (!commit.claim()) {
+                continue;
+            }
+
+            try {
+                try {
+                    commit.channel.force(true);
+                } finally {
+                    commit.channel.close();
+                }
+                moveIfNeeded(commit.written, commit.target);
+                directories.add(committedFile(commit.written, commit.target).getParent());
+                moved.add(commit);
+            } catch (IOException | RuntimeException ex) {
+                commit.done.completeExceptionally(ex);
+            }
+        }
+
+        IOException directoryFailure = null;
+        for (Path directory : directories) {
+            try {
+                forceDirectory(directory);
+            } catch (IOException ex) {
+                directoryFailure = ex;
+            }
+        }
+
+        for (PendingCommit commit : moved) {
+            if (null != directoryFailure) {
+                commit.done.completeExceptionally(directoryFailure);
+            } else {
+                commit.done.complete(null);
+            }
+        }
+
+        log.debug("Group committed {} files in {} directories", moved.size(), directories.size());
+    }
+
+    /**
+     * Flushes file, moves it to target and flushes directory of committed file, so that newly created file
+     * (written in-place or renamed) survives power failure.
+     */
+    private static void commitInline(FileChannel channel, Path written, Path target) throws IOException {
+        try {
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+        moveIfNeeded(written, target);
+        forceDirectory(committedFile(written, target).getParent());
+    }
+
+    private static Path committedFile(Path written, Path target) {
+        return null == target ? written : target;
+    }
+
+    private static void moveIfNeeded(Path written, Path target) throws IOException {
+        if (null == target) {
+            return;
+        }
+
+        Files.move(written, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Flushes directory entries, so that renamed file survives power failure. Not all platforms allow opening
+     * directories, there rename durability is left to operating system.
+     */
+    private static void forceDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (NoSuchFileException ex) {
+            throw ex;
+        } catch (IOException ex) {
+            log.debug("Directory {} can't be fsync'ed on this platform", directory, ex);
+        }
+    }
+
+    private static final class PendingCommit {
+
+        private final FileChannel channel;
+        private final Path written;
+        private final Path target;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private PendingCommit(FileChannel channel, Path written, Path target) {
+            this.channel = channel;
+            this.written = written;
+            this.target = target;
+        }
+
+        /**
+         * Makes either group commit thread or waiting writer the only one that commits this file.
+         */
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Converts existing {@link FileSystemStorageService} storage to layout with given
+ * {@link FileSystemStorageConfig#getShardLevels()}, storage can have any layout (or be partially converted) before.
+ * Entries are moved (renamed) in place, so storage must reside on single filesystem. Storage must not be used
+ * while it is migrated, migration that was interrupted can be resumed by running it again.
+ * Usage: {@code java -cp <classpath> de.adorsys.datasafe.storage.impl.fs.FileSystemLayoutMigrator <storage root>
+ * <new shard levels>}
+ */
+@Slf4j
+public class FileSystemLayoutMigrator {
+
+    private final ShardedLayout to;
+
+    /**
+     * @param toLevels Shard levels to convert storage to
+     */
+    public FileSystemLayoutMigrator(int toLevels) {
+        this.to = new ShardedLayout(toLevels);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (2 != args.length) {
+            throw new IllegalArgumentException("Expected arguments: <storage root> <new shard levels>");
+        }
+
+        long moved = new FileSystemLayoutMigrator(Integer.parseInt(args[1]))
+                .migrate(Paths.get(args[0]));
+        log.info("Moved {} entries", moved);
+    }
+
+    /**
+     * Moves all entries under {@code root} to their location in the new layout, removes emptied fan-out
+     * directories and abandoned temporary files of atomic writes.
+     * @return Count of moved entries
+     */
+    public long migrate(Path root) throws IOException {
+        long moved = 0;
+        // physical directories of logical directories, their entries are still in old layout
+        Deque<Path> directories = new ArrayDeque<>();
+        directories.add(root);
+
+        while (!directories.isEmpty()) {
+            Path directory = directories.poll();
+            for (Path entry : entriesInOldLayout(directory)) {
+                Path target = to.child(directory, entry.getFileName().toString());
+                if (!target.equals(entry)) {
+                    Files.createDirectories(target.getParent());
+                    Files.move(entry, target, StandardCopyOption.ATOMIC_MOVE);
+                    moved++;
+                }
+
+                if (Files.isDirectory(target, LinkOption.NOFOLLOW_LINKS)) {
+                    directories.add(target);
+                }
+            }
+
+            removeEmptyShardDirectories(directory);
+        }
+
+        return moved;
+    }
+
+    /**
+     * Collects entries of logical directory before they are moved, as new fan-out directories may appear
+     * inside old ones.
+     */
+    private List<Path> entriesInOldLayout(Path directory) throws IOException {
+        List<Path> entries = new ArrayList<>();
+        collectEntries(directory, entries);
+        return entries;
+    }
+
+    private void collectEntries(Path directory, List<Path> entries) throws IOException {
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(directory)) {
+            for (Path child : children) {
+                String name = child.getFileName().toString();
+                boolean isDirectory = Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS);
+                if (isDirectory && ShardedLayout.isShardDirectory(name)) {
+                    // fan-out directory of old or already migrated (interrupted run) layout
+                    collectEntries(child, entries);
+                } else if (!isDirectory && name.endsWith(FileSystemStorageService.TEMP_SUFFIX)) {
+                    log.debug("Removing abandoned temporary file {}", child);
+                    Files.delete(child);
+                } else {
+                    entries.add(child);
+                }
+            }
+        }
+    }
+
+    private void removeEmptyShardDirectories(Path directory) throws IOException {
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(directory)) {
+            for (Path child : children) {
+                if (ShardedLayout.isShardDirectory(child.getFileName().toString())
+                        && Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                    removeEmptyShardDirectories(child);
+                    deleteIfEmpty(child);
+                }
+            }
+        }
+    }
+
+    private static void deleteIfEmpty(Path directory) throws IOException {
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(directory)) {
+            if (children.iterator().hasNext()) {
+                return;
+            }
+        }
+
+        Files.delete(directory);
+    }
+}
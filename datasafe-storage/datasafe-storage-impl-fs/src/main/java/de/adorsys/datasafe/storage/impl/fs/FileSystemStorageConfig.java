@@ -0,0 +1,84 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * File I/O configuration of {@link FileSystemStorageService}.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class FileSystemStorageConfig {
+
+    /**
+     * Read and write files using {@link java.nio.channels.FileChannel} instead of stream wrappers. Streams that
+     * are returned by read implement {@link de.adorsys.datasafe.storage.api.ChannelTransferable}.
+     */
+    @Builder.Default
+    private final boolean channelIo = false;
+
+    /**
+     * Files of this size or larger are memory-mapped for reading, {@code null} disables memory mapping.
+     * Only used with {@link #channelIo}.
+     */
+    private final Long memoryMapReadThreshold;
+
+    /**
+     * Size of direct buffer that collects written bytes before they are written to file channel.
+     * Only used with {@link #channelIo}.
+     */
+    @Builder.Default
+    private final int writeBufferSize = 1024 * 1024;
+
+    /**
+     * Write files to temporary sibling file that replaces target file on stream close, so that readers and
+     * crashes never observe partially written file. Temporary files are not listed.
+     */
+    @Builder.Default
+    private final boolean atomicWrites = false;
+
+    /**
+     * When written files are flushed to disk. Atomic writes and durability other than
+     * {@link WriteDurability#NONE} write files through {@link java.nio.channels.FileChannel} regardless of
+     * {@link #channelIo}.
+     */
+    @Builder.Default
+    private final WriteDurability durability = WriteDurability.NONE;
+
+    /**
+     * How long group commit waits for other files to be closed before flushing the batch.
+     */
+    @Builder.Default
+    private final Duration groupCommitInterval = Duration.ofMillis(5);
+
+    /**
+     * How long writer waits for group commit of its file before it flushes the file itself.
+     */
+    @Builder.Default
+    private final Duration groupCommitTimeout = Duration.ofSeconds(1);
+
+    /**
+     * Temporary files of atomic writes that were not modified for this long are considered abandoned (i.e. left
+     * by crash) and are removed when storage service is created, {@code null} disables the cleanup.
+     * Only used with {@link #atomicWrites}.
+     */
+    @Builder.Default
+    private final Duration abandonedTempFileAge = Duration.ofHours(1);
+
+    /**
+     * Count of hash-prefix fan-out directory levels (256 directories each) that entries of each logical directory
+     * are spread over, so that huge folders do not degrade directory lookups. {@code 0} keeps logical layout.
+     * Existing storage is converted between layouts using {@link FileSystemLayoutMigrator}.
+     */
+    @Builder.Default
+    private final int shardLevels = 0;
+
+    /**
+     * Check and remove files of batch operations ({@code existsAll}, {@code removeAll}) in parallel using common
+     * fork-join pool, which pays off on network and SSD-backed filesystems.
+     */
+    @Builder.Default
+    private final boolean parallelBatches = true;
+}
@@ -2,29 +2,43 @@ package de.adorsys.datasafe.storage.impl.fs;
 
 import com.google.common.io.MoreFiles;
 import com.google.common.io.RecursiveDeleteOption;
+import de.adorsys.datasafe.storage.api.ChannelTransferable;
+import de.adorsys.datasafe.storage.api.RangeInputStream;
 import de.adorsys.datasafe.storage.api.StorageService;
 import de.adorsys.datasafe.types.api.callback.ResourceWriteCallback;
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocationWithCapability;
 import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
 import de.adorsys.datasafe.types.api.resource.BaseResolvedResource;
+import de.adorsys.datasafe.types.api.resource.ByteRange;
 import de.adorsys.datasafe.types.api.resource.ResolvedResource;
 import de.adorsys.datasafe.types.api.resource.StorageCapability;
 import de.adorsys.datasafe.types.api.resource.Uri;
 import de.adorsys.datasafe.types.api.resource.UriEncoderDecoder;
 import de.adorsys.datasafe.types.api.resource.WithCallback;
-import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -32,17 +46,95 @@ import java.util.stream.Stream;
  * Note: Stores paths in URL-encoded form.
  */
 @Slf4j
-@RequiredArgsConstructor
 public class FileSystemStorageService implements StorageService {
 
+    // '~' is always URL-encoded in stored names, so this suffix never clashes with stored resource
+    static final String TEMP_SUFFIX = "~tmp";
+
     private final Uri dir;
+    private final FileSystemStorageConfig config;
+    private final DirectBufferPool writeBuffers;
+    private final FileCommitter committer;
+    private final ShardedLayout layout;
+
+    // Physical storage root, only used to shard paths
+    private final Path shardedRoot;
+
+    public FileSystemStorageService(Uri dir) {
+        this(dir, FileSystemStorageConfig.builder().build());
+    }
 
     public FileSystemStorageService(Path dir) {
-        this.dir = new Uri(dir.toUri());
+        this(new Uri(dir.toUri()));
+    }
+
+    public FileSystemStorageService(Path dir, FileSystemStorageConfig config) {
+        this(new Uri(dir.toUri()), config);
+    }
+
+    /**
+     * @param dir Storage root
+     * @param config File I/O mode configuration
+     */
+    public FileSystemStorageService(Uri dir, FileSystemStorageConfig config) {
+        this.dir = dir;
+        this.config = config;
+        this.writeBuffers = new DirectBufferPool(
+                config.getWriteBufferSize(),
+                2 * Runtime.getRuntime().availableProcessors()
+        );
+        this.committer = new FileCommitter(
+                config.getDurability(),
+                config.getGroupCommitInterval(),
+                config.getGroupCommitTimeout()
+        );
+        this.layout = new ShardedLayout(config.getShardLevels());
+        this.shardedRoot = layout.isSharded() ? Paths.get(dir.asURI()) : null;
+
+        if (config.isAtomicWrites() && null != config.getAbandonedTempFileAge()) {
+            removeAbandonedTempFiles(Paths.get(dir.asURI()), config.getAbandonedTempFileAge());
+        }
+    }
+
+    /**
+     * Removes temporary files of atomic writes that were interrupted by crash. Only files that were not modified
+     * for {@code age} are removed, so that in-progress writes of other service instances are not broken.
+     */
+    private static void removeAbandonedTempFiles(Path root, Duration age) {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+
+        long modifiedBefore = System.currentTimeMillis() - age.toMillis();
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    if (attrs.isRegularFile() && file.getFileName().toString().endsWith(TEMP_SUFFIX)
+                            && attrs.lastModifiedTime().toMillis() < modifiedBefore) {
+                        log.debug("Removing abandoned temporary file {}", file);
+                        Files.deleteIfExists(file);
+                    }
+
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException ex) {
+                    log.debug("Can't check {} for abandoned temporary files", file, ex);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException ex) {
+            log.warn("Failed to remove abandoned temporary files in {}", root, ex);
+        }
     }
 
     /**
      * Lists resources and returns their location without access credentials.
+     * If location has {@link StorageCapability#LIST_SHALLOW} capability, only direct children are listed and
+     * nested directories are returned as resources ending with '/'.
+     * Recursive listing walks directory tree in parallel, so resources are returned in no particular order.
      */
     @SneakyThrows
     @Override
@@ -50,45 +142,122 @@ public class FileSystemStorageService implements StorageService {
         log.debug("List file request: {}", path.location());
         Path filePath = resolve(path.location().getRawPath(), false);
 
-        // FS should be compatible with s3 behavior:
-        if (!filePath.toFile().exists()) {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(filePath, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (NoSuchFileException ex) {
+            // FS should be compatible with s3 behavior:
             return Stream.empty();
         }
 
-        boolean shouldReturnDir = shouldReturnDir(path);
-        return Files.walk(filePath)
-                // filter directories out based on setting
-                .filter(it -> (shouldReturnDir && allowableDir(it)) || !it.toFile().isDirectory())
-                .map(it -> new AbsoluteLocation<>(
-                        new BaseResolvedResource(
-                                // We store path in uri-encoded form, so toUri calls will fail
-                                new BasePrivateResource(
-                                        new Uri(URI.create(UriEncoderDecoder.decodeAndDropAuthority(it.toUri())))
-                                ),
-                                Instant.ofEpochMilli(it.toFile().lastModified()))
-                        )
-                );
+        boolean shallow = hasCapability(path, StorageCapability.LIST_SHALLOW);
+        boolean shouldReturnDir = shallow || hasCapability(path, StorageCapability.LIST_RETURNS_DIR);
+        // We store path in uri-encoded form, so entry names are used as-is and only walk root is decoded
+        Path logicalPath = logicalPath(path.location().getRawPath());
+        String location = UriEncoderDecoder.decodeAndDropAuthority(logicalPath.toUri());
+
+        if (!attributes.isDirectory()) {
+            return shallow ? Stream.empty() : Stream.of(resolved(location, attributes));
+        }
+
+        String dirLocation = location.endsWith("/") ? location : location + "/";
+        FileTreeWalker.Mapper<AbsoluteLocation<ResolvedResource>> mapper = (entry, attrs) -> {
+            // filter directories out based on setting, in-progress atomic writes are never listed
+            if ((attrs.isDirectory() && !shouldReturnDir) || entry.endsWith(TEMP_SUFFIX)) {
+                return null;
+            }
+
+            return resolved(entry, attrs);
+        };
+
+        if (shallow && !layout.isSharded()) {
+            return FileTreeWalker.list(filePath, dirLocation, mapper);
+        }
+
+        Stream<AbsoluteLocation<ResolvedResource>> children = FileTreeWalker.walk(
+                filePath,
+                dirLocation,
+                mapper,
+                !shallow,
+                name -> layout.isSharded() && ShardedLayout.isShardDirectory(name)
+        );
+        if (!shallow && shouldReturnDir && allowableDir(logicalPath)) {
+            return Stream.concat(Stream.of(resolved(dirLocation, attributes)), children);
+        }
+
+        return children;
+    }
+
+    private static AbsoluteLocation<ResolvedResource> resolved(String location, BasicFileAttributes attributes) {
+        return new AbsoluteLocation<>(
+                new BaseResolvedResource(
+                        new BasePrivateResource(new Uri(URI.create(location))),
+                        Instant.ofEpochMilli(attributes.lastModifiedTime().toMillis()),
+                        attributes.isDirectory() ? null : attributes.size(),
+                        null
+                )
+        );
     }
 
     private boolean allowableDir(Path it) {
-        String name = it.getFileName().toString();
-        return !".".equals(name)
-                && !"..".equals(name)
-                // prevents root folder to appear
-                && !(it.toString() + "/").equals(dir.getRawPath());
+        // prevents root folder to appear
+        return !(it.toString() + "/").equals(dir.getRawPath());
     }
 
-    private boolean shouldReturnDir(AbsoluteLocation path) {
+    private boolean hasCapability(AbsoluteLocation path, StorageCapability capability) {
         return path instanceof AbsoluteLocationWithCapability
-                && ((AbsoluteLocationWithCapability) path).getCapability().equals(StorageCapability.LIST_RETURNS_DIR);
+                && ((AbsoluteLocationWithCapability) path).getCapability().equals(capability);
     }
 
+    /**
+     * Reads file, with channel I/O enabled returned stream is {@link ChannelTransferable} and files that are
+     * larger than configured threshold are memory-mapped.
+     */
     @SneakyThrows
     @Override
     public InputStream read(AbsoluteLocation path) {
         log.debug("Read file request: {}",path.location());
         Path filePath = resolve(path.location().getRawPath(), false);
-        return MoreFiles.asByteSource(filePath, StandardOpenOption.READ).openStream();
+        if (!config.isChannelIo()) {
+            return MoreFiles.asByteSource(filePath, StandardOpenOption.READ).openStream();
+        }
+
+        FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ);
+        try {
+            Long mapThreshold = config.getMemoryMapReadThreshold();
+            if (null != mapThreshold && channel.size() >= mapThreshold) {
+                return new MappedFileInputStream(channel);
+            }
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+
+        return new FileChannelInputStream(channel);
+    }
+
+    /**
+     * Reads file part by positioning file channel at range start.
+     */
+    @SneakyThrows
+    @Override
+    public InputStream read(AbsoluteLocation path, ByteRange range) {
+        log.debug("Read file range {}-{} request: {}", range.getOffset(), range.getLastPosition(), path.location());
+        FileChannel channel = FileChannel.open(resolve(path.location().getRawPath(), false), StandardOpenOption.READ);
+        try {
+            channel.position(range.getOffset());
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+
+        InputStream content = new FileChannelInputStream(channel);
+        return null == range.getLength() ? content : new RangeInputStream(content, 0, range.getLength());
+    }
+
+    @Override
+    public boolean supportsRangeRead(AbsoluteLocation location) {
+        return true;
     }
 
     @SneakyThrows
@@ -97,6 +266,34 @@ public class FileSystemStorageService implements StorageService {
         log.debug("Write file request: {}", locationWithCallback.getWrapped().location());
         Path filePath = resolve(locationWithCallback.getWrapped().location().getRawPath(), true);
         log.debug("Write file: {}", locationWithCallback.getWrapped().location());
+        if (config.isAtomicWrites()) {
+            Path tempPath = filePath.resolveSibling(
+                    filePath.getFileName().toString() + "." + UUID.randomUUID().toString() + TEMP_SUFFIX
+            );
+            return new FileChannelOutputStream(
+                    FileChannel.open(tempPath, StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW),
+                    writeBuffers,
+                    committer,
+                    tempPath,
+                    filePath
+            );
+        }
+
+        if (config.isChannelIo() || WriteDurability.NONE != config.getDurability()) {
+            return new FileChannelOutputStream(
+                    FileChannel.open(
+                            filePath,
+                            StandardOpenOption.WRITE,
+                            StandardOpenOption.TRUNCATE_EXISTING,
+                            StandardOpenOption.CREATE
+                    ),
+                    writeBuffers,
+                    committer,
+                    filePath,
+                    null
+            );
+        }
+
         return MoreFiles
                 .asByteSink(filePath, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.CREATE)
                 .openStream();
@@ -123,13 +320,46 @@ public class FileSystemStorageService implements StorageService {
         return exists;
     }
 
+    /**
+     * Checks files in parallel unless {@link FileSystemStorageConfig#isParallelBatches()} is disabled.
+     */
+    @Override
+    public List<Boolean> existsAll(List<? extends AbsoluteLocation> locations) {
+        return batch(locations).map(this::objectExists).collect(Collectors.toList());
+    }
+
+    /**
+     * Removes files in parallel unless {@link FileSystemStorageConfig#isParallelBatches()} is disabled.
+     * Directories are removed recursively one by one after files, so that their content is not removed
+     * concurrently.
+     */
+    @Override
+    public void removeAll(List<? extends AbsoluteLocation> locations) {
+        Map<Boolean, List<AbsoluteLocation>> byIsDirectory = locations.stream().collect(Collectors.partitioningBy(
+                it -> Files.isDirectory(resolve(it.location().getRawPath(), false)),
+                Collectors.<AbsoluteLocation>toList()
+        ));
+
+        batch(byIsDirectory.get(false)).forEach(this::remove);
+        byIsDirectory.get(true).forEach(this::remove);
+    }
+
+    private Stream<? extends AbsoluteLocation> batch(List<? extends AbsoluteLocation> locations) {
+        return config.isParallelBatches() ? locations.parallelStream() : locations.stream();
+    }
+
     protected Path resolve(String uriPath, boolean mkDirs) {
-        Path path = Paths.get(dir.resolve(uriPath).asURI());
+        Path logical = logicalPath(uriPath);
+        Path path = layout.isSharded() ? layout.physical(shardedRoot, logical) : logical;
         if (!path.getParent().toFile().exists() && mkDirs) {
             log.debug("Creating directories for: {}", uriPath);
             path.getParent().toFile().mkdirs();
         }
 
+        return path;
+    }
+
+    private Path logicalPath(String uriPath) {
         return Paths.get(dir.resolve(uriPath).asURI());
     }
 }
@@ -0,0 +1,278 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lists directory trees reading attributes of each entry exactly once. Recursive walk uses fork-join pool where
+ * each directory is listed by separate task, so that latency of directory reads and stat calls on network
+ * filesystems overlaps.
+ */
+@Slf4j
+class FileTreeWalker {
+
+    private static final ForkJoinPool WALK_POOL = new ForkJoinPool(
+            Math.max(8, 2 * Runtime.getRuntime().availableProcessors())
+    );
+
+    /**
+     * Count of entries walk may find ahead of consumer, once they are buffered pool threads wait for consumer.
+     */
+    static final int BUFFERED_ENTRIES = 1024;
+
+    private static final Object END = new Object();
+    private static final long POLL_INTERVAL_MS = 100;
+    private static final long ABANDONED_AFTER_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private FileTreeWalker() {
+    }
+
+    /**
+     * Lazily lists direct children of directory in the calling thread.
+     * @param dir Directory to list, it is not included into results
+     * @param dirLocation URI-string of {@code dir} that ends with '/', child entries are resolved against it
+     * @param mapper Converts listed entry to result, returns {@code null} if entry should be skipped
+     */
+    static <T> Stream<T> list(Path dir, String dirLocation, Mapper<T> mapper) throws IOException {
+        DirectoryStream<Path> children = Files.newDirectoryStream(dir);
+        return StreamSupport.stream(children.spliterator(), false)
+                .map(child -> {
+                    BasicFileAttributes attributes = readAttributes(child);
+                    if (null == attributes) {
+                        return null;
+                    }
+
+                    return mapper.map(location(dirLocation, child, attributes), attributes);
+                })
+                .filter(Objects::nonNull)
+                .onClose(() -> closeQuietly(children));
+    }
+
+    /**
+     * Recursively walks directory tree in parallel. Entries are streamed as soon as they are found, in no
+     * particular order. Walk gets at most {@link #BUFFERED_ENTRIES} ahead of consumer, then it waits for consumer
+     * to take them; closing the stream stops the walk. Walk of stream that was neither consumed nor closed for
+     * 5 minutes is stopped too, so that abandoned stream does not hold pool threads forever - consuming it
+     * afterwards fails.
+     * @param start Directory to walk, it is not included into results
+     * @param startLocation URI-string of {@code start} that ends with '/', child entries are resolved against it
+     * @param mapper Converts walked entry to result, returns {@code null} if entry should be skipped
+     */
+    static <T> Stream<T> walk(Path start, String startLocation, Mapper<T> mapper) {
+        return walk(start, startLocation, mapper, true, name -> false);
+    }
+
+    /**
+     * Walks directory tree in parallel, see {@link #walk(Path, String, Mapper)}.
+     * @param recursive Descend into child directories, otherwise only direct children are listed
+     * @param transparent Directories with matching names are always descended into, but they are neither
+     *                    returned nor make part of child location
+     */
+    static <T> Stream<T> walk(Path start, String startLocation, Mapper<T> mapper, boolean recursive,
+                              Predicate<String> transparent) {
+        Walk<T> walk = new Walk<>(mapper, recursive, transparent);
+        walk.pending.incrementAndGet();
+        WALK_POOL.execute(() -> walk.listDirectory(start, startLocation));
+
+        return StreamSupport.stream(walk, false).onClose(walk::cancel);
+    }
+
+    @FunctionalInterface
+    interface Mapper<T> {
+
+        /**
+         * @param location URI-string of entry, directories end with '/'
+         * @param attributes Entry attributes
+         * @return Mapped entry or {@code null} to skip it
+         */
+        T map(String location, BasicFileAttributes attributes);
+    }
+
+    /**
+     * @return Entry attributes or {@code null} if entry was removed concurrently
+     */
+    private static BasicFileAttributes readAttributes(Path entry) {
+        try {
+            return Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (NoSuchFileException ex) {
+            return null;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static String location(String parentLocation, Path entry, BasicFileAttributes attributes) {
+        String location = parentLocation + entry.getFileName().toString();
+        return attributes.isDirectory() ? location + "/" : location;
+    }
+
+    private static void closeQuietly(DirectoryStream<Path> stream) {
+        try {
+            stream.close();
+        } catch (IOException ex) {
+            log.debug("Failed to close directory stream", ex);
+        }
+    }
+
+    private static final class Walk<T> extends Spliterators.AbstractSpliterator<T> {
+
+        private final Mapper<T> mapper;
+        private final boolean recursive;
+        private final Predicate<String> transparent;
+        private final BlockingQueue<Object> found = new ArrayBlockingQueue<>(BUFFERED_ENTRIES);
+
+        // count of directories that are not fully listed yet
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile boolean abandoned;
+        private boolean finished;
+
+        private Walk(Mapper<T> mapper, boolean recursive, Predicate<String> transparent) {
+            super(Long.MAX_VALUE, Spliterator.NONNULL);
+            this.mapper = mapper;
+            this.recursive = recursive;
+            this.transparent = transparent;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (finished) {
+                return false;
+            }
+
+            Object next;
+            try {
+                next = found.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                while (null == next) {
+                    if (abandoned) {
+                        finished = true;
+                        throw new IllegalStateException("Listing was stopped as it was not consumed in time");
+                    }
+
+                    next = found.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                cancel();
+                throw new IllegalStateException("Interrupted while listing files", ex);
+            }
+
+            if (END == next) {
+                finished = true;
+                return false;
+            }
+
+            if (next instanceof RuntimeException) {
+                finished = true;
+                cancel();
+                throw (RuntimeException) next;
+            }
+
+            action.accept((T) next);
+            return true;
+        }
+
+        private void cancel() {
+            cancelled = true;
+        }
+
+        private void listDirectory(Path dir, String dirLocation) {
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(dir)) {
+                for (Path child : children) {
+                    if (cancelled) {
+                        break;
+                    }
+
+                    visit(child, dirLocation);
+                }
+            } catch (NoSuchFileException ex) {
+                // directory was removed while walking, same as with S3 listing it simply is not there
+                log.debug("Directory disappeared during listing: {}", ex.getFile());
+            } catch (IOException ex) {
+                fail(new UncheckedIOException(ex));
+            } catch (RuntimeException ex) {
+                fail(ex);
+            } finally {
+                if (0 == pending.decrementAndGet()) {
+                    publish(END);
+                }
+            }
+        }
+
+        private void fail(RuntimeException ex) {
+            publish(ex);
+            cancelled = true;
+        }
+
+        /**
+         * Waits for consumer to take buffered entries, unless walk is cancelled or consumer is gone.
+         */
+        private void publish(Object entry) {
+            long abandonedAt = System.nanoTime() + ABANDONED_AFTER_NANOS;
+            try {
+                while (!cancelled) {
+                    if (found.offer(entry, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+
+                    if (System.nanoTime() - abandonedAt > 0) {
+                        log.warn("Stopping file listing that was neither consumed nor closed");
+                        abandoned = true;
+                        cancelled = true;
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                cancelled = true;
+            }
+        }
+
+        private void descend(Path dir, String dirLocation) {
+            pending.incrementAndGet();
+            WALK_POOL.execute(() -> listDirectory(dir, dirLocation));
+        }
+
+        private void visit(Path child, String parentLocation) {
+            BasicFileAttributes attributes = readAttributes(child);
+            if (null == attributes) {
+                return;
+            }
+
+            if (attributes.isDirectory() && transparent.test(child.getFileName().toString())) {
+                descend(child, parentLocation);
+                return;
+            }
+
+            String location = location(parentLocation, child, attributes);
+            if (attributes.isDirectory() && recursive) {
+                descend(child, location);
+            }
+
+            T mapped = mapper.map(location, attributes);
+            if (null != mapped) {
+                publish(mapped);
+            }
+        }
+    }
+}
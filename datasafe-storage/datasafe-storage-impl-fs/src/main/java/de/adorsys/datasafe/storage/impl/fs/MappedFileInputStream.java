@@ -0,0 +1,121 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import de.adorsys.datasafe.storage.api.ChannelTransferable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Reads file by mapping it into memory in windows of up to {@link #MAX_WINDOW} bytes, so that large files are
+ * read without system call per buffer. Mapped windows are released by garbage collector.
+ */
+class MappedFileInputStream extends InputStream implements ChannelTransferable {
+
+    static final long MAX_WINDOW = 1L << 30;
+
+    private final FileChannel channel;
+    private final long size;
+
+    private long windowStart;
+    private MappedByteBuffer window;
+
+    MappedFileInputStream(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!nextWindowIfNeeded()) {
+            return -1;
+        }
+
+        return window.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int off, int len) throws IOException {
+        if ((off < 0) || (len < 0) || (len > bytes.length - off)) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        if (0 == len) {
+            return 0;
+        }
+
+        if (!nextWindowIfNeeded()) {
+            return -1;
+        }
+
+        int read = Math.min(len, window.remaining());
+        window.get(bytes, off, read);
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+
+        long position = position();
+        long skipped = Math.min(n, size - position);
+        seek(position + skipped);
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, size - position());
+    }
+
+    @Override
+    public long transferTo(WritableByteChannel target) throws IOException {
+        long transferred = FileChannelInputStream.transfer(channel, position(), target);
+        seek(size);
+        return transferred;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    private long position() {
+        return null == window ? windowStart : windowStart + window.position();
+    }
+
+    private void seek(long position) throws IOException {
+        if (null != window && position >= windowStart && position < windowStart + window.limit()) {
+            window.position((int) (position - windowStart));
+            return;
+        }
+
+        map(position);
+    }
+
+    private boolean nextWindowIfNeeded() throws IOException {
+        if (null != window && window.hasRemaining()) {
+            return true;
+        }
+
+        long next = position();
+        if (next >= size) {
+            return false;
+        }
+
+        map(next);
+        return true;
+    }
+
+    private void map(long position) throws IOException {
+        windowStart = position;
+        window = position >= size ? null : channel.map(
+                FileChannel.MapMode.READ_ONLY, position, Math.min(MAX_WINDOW, size - position)
+        );
+    }
+}
@@ -0,0 +1,81 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Maps logical paths to physical ones by placing each entry of logical directory into hash-prefix fan-out
+ * directories, e.g. {@code a/b/file} is stored as {@code ~3f/a/~c1/b/~07/file} with single shard level.
+ * Each shard level splits directory into up to 256 sub-directories. Shard directories start with '~' that is
+ * always URL-encoded in stored names, so they never clash with stored resources.
+ */
+class ShardedLayout {
+
+    static final char SHARD_PREFIX = '~';
+
+    private static final HashFunction HASH = Hashing.murmur3_32();
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final int levels;
+
+    /**
+     * @param levels Count of fan-out directory levels, {@code 0} keeps logical layout, at most 4
+     */
+    ShardedLayout(int levels) {
+        if (levels < 0 || levels > 4) {
+            throw new IllegalArgumentException("Shard levels must be in [0, 4]: " + levels);
+        }
+
+        this.levels = levels;
+    }
+
+    boolean isSharded() {
+        return levels > 0;
+    }
+
+    /**
+     * @return Physical path of {@code logical} that is located under {@code root}, paths outside of root are
+     * returned as-is.
+     */
+    Path physical(Path root, Path logical) {
+        Path normalized = logical.normalize();
+        if (!isSharded() || !normalized.startsWith(root) || normalized.equals(root)) {
+            return logical;
+        }
+
+        Path physical = root;
+        for (Path segment : root.relativize(normalized)) {
+            physical = child(physical, segment.toString());
+        }
+
+        return physical;
+    }
+
+    /**
+     * @return Physical path of entry {@code name} that is located in physical directory {@code parent}.
+     */
+    Path child(Path parent, String name) {
+        if (!isSharded()) {
+            return parent.resolve(name);
+        }
+
+        byte[] hash = HASH.hashString(name, StandardCharsets.UTF_8).asBytes();
+        Path result = parent;
+        for (int level = 0; level < levels; level++) {
+            int value = hash[level] & 0xFF;
+            result = result.resolve(new String(new char[] {SHARD_PREFIX, HEX[value >>> 4], HEX[value & 0x0F]}));
+        }
+
+        return result.resolve(name);
+    }
+
+    /**
+     * @return If {@code name} is name of fan-out directory.
+     */
+    static boolean isShardDirectory(String name) {
+        return 3 == name.length() && SHARD_PREFIX == name.charAt(0);
+    }
+}
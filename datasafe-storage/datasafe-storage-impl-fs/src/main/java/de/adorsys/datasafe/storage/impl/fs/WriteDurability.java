@@ -0,0 +1,25 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+/**
+ * When written file content (and its rename in atomic write mode) is flushed to the disk.
+ */
+public enum WriteDurability {
+
+    /**
+     * Flushing is left to operating system, written file can be lost on power failure.
+     */
+    NONE,
+
+    /**
+     * Each file and its directory are fsync'ed before its stream close returns.
+     */
+    FSYNC,
+
+    /**
+     * Files are fsync'ed in batches by background thread, stream close returns when the batch containing the
+     * file is durable. Directories that got several files in a batch are fsync'ed only once. If the batch
+     * is not durable within {@link FileSystemStorageConfig#getGroupCommitTimeout()}, file is fsync'ed by the
+     * closing thread.
+     */
+    GROUP_COMMIT
+}
@@ -0,0 +1,94 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.resource.WithCallback;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares stream based I/O with channel and memory-mapped I/O of {@link FileSystemStorageService}.
+ * Run it using:
+ * mvn test -pl datasafe-storage/datasafe-storage-impl-fs -Dtest=FileSystemIoBenchmarkTest -DRUN_FS_IO_BENCHMARK=true
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = FileSystemIoBenchmarkTest.RUN_FS_IO_BENCHMARK, matches = "true")
+class FileSystemIoBenchmarkTest extends BaseMockitoTest {
+
+    static final String RUN_FS_IO_BENCHMARK = "RUN_FS_IO_BENCHMARK";
+
+    private static final int ROUNDS = 5;
+    private static final int[] FILE_SIZES = {4 * 1024, 1024 * 1024, 64 * 1024 * 1024};
+    private static final int CLIENT_BUFFER = 8 * 1024;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void compareIoModes() {
+        for (int size : FILE_SIZES) {
+            byte[] content = new byte[size];
+            new Random(size).nextBytes(content);
+            int files = Math.max(1, 256 * 1024 * 1024 / size / 4);
+
+            benchmark("stream", size, files, content, FileSystemStorageConfig.builder().build());
+            benchmark("channel", size, files, content, FileSystemStorageConfig.builder().channelIo(true).build());
+            benchmark("mmap", size, files, content,
+                    FileSystemStorageConfig.builder().channelIo(true).memoryMapReadThreshold(0L).build());
+        }
+    }
+
+    @SneakyThrows
+    private void benchmark(String mode, int size, int files, byte[] content, FileSystemStorageConfig config) {
+        FileSystemStorageService storage = new FileSystemStorageService(dir.resolve(mode + size), config);
+        long writeNanos = Long.MAX_VALUE;
+        long readNanos = Long.MAX_VALUE;
+        byte[] buffer = new byte[CLIENT_BUFFER];
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < files; i++) {
+                try (OutputStream os = storage.write(WithCallback.noCallback(location(mode + size, i)))) {
+                    for (int pos = 0; pos < content.length; pos += CLIENT_BUFFER) {
+                        os.write(content, pos, Math.min(CLIENT_BUFFER, content.length - pos));
+                    }
+                }
+            }
+            writeNanos = Math.min(writeNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (int i = 0; i < files; i++) {
+                try (InputStream is = storage.read(location(mode + size, i))) {
+                    while (-1 != is.read(buffer)) {
+                        // reading only
+                    }
+                }
+            }
+            readNanos = Math.min(readNanos, System.nanoTime() - start);
+        }
+
+        log.info("{} x {} bytes, {}: write {} MB/s, read {} MB/s", files, size, mode,
+                throughput(files, size, writeNanos), throughput(files, size, readNanos));
+    }
+
+    private AbsoluteLocation<PrivateResource> location(String folder, int index) {
+        return new AbsoluteLocation<>(
+                BasePrivateResource.forPrivate(dir.toUri().resolve(folder + "/file" + index))
+        );
+    }
+
+    private static long throughput(int files, int size, long nanos) {
+        return (long) files * size * TimeUnit.SECONDS.toNanos(1) / Math.max(1, nanos) / (1024 * 1024);
+    }
+}
@@ -0,0 +1,165 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.resource.WithCallback;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class FileSystemStorageServiceAtomicWriteTest extends BaseMockitoTest {
+
+    private Path storageDir;
+    private AbsoluteLocation<PrivateResource> root;
+    private AbsoluteLocation<PrivateResource> file;
+
+    @BeforeEach
+    void prepare(@TempDir Path dir) {
+        this.storageDir = dir;
+        this.root = new AbsoluteLocation<>(BasePrivateResource.forPrivate(dir.toUri()));
+        this.file = location("file");
+    }
+
+    @Test
+    @SneakyThrows
+    void contentIsReplacedOnlyOnClose() {
+        Files.write(storageDir.resolve("file"), "old".getBytes());
+        FileSystemStorageService tested = storage(WriteDurability.NONE);
+
+        try (OutputStream os = tested.write(WithCallback.noCallback(file))) {
+            os.write("new content".getBytes());
+            os.flush();
+
+            assertThat(storageDir.resolve("file")).hasContent("old");
+            try (Stream<AbsoluteLocation<ResolvedResource>> ls = tested.list(root)) {
+                assertThat(ls).extracting(it -> it.location().asURI().getPath())
+                        .containsExactly(storageDir.resolve("file").toUri().getPath());
+            }
+        }
+
+        assertThat(storageDir.resolve("file")).hasContent("new content");
+        try (Stream<Path> files = Files.list(storageDir)) {
+            assertThat(files).containsExactly(storageDir.resolve("file"));
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(WriteDurability.class)
+    @SneakyThrows
+    void writesWithDurability(WriteDurability durability) {
+        FileSystemStorageService tested = storage(durability);
+
+        try (OutputStream os = tested.write(WithCallback.noCallback(file))) {
+            os.write("hello".getBytes());
+        }
+
+        assertThat(storageDir.resolve("file")).hasContent("hello");
+    }
+
+    @ParameterizedTest
+    @EnumSource(WriteDurability.class)
+    @SneakyThrows
+    void writesInPlaceWithDurability(WriteDurability durability) {
+        FileSystemStorageService tested = new FileSystemStorageService(
+                storageDir,
+                FileSystemStorageConfig.builder().durability(durability).build()
+        );
+
+        write(tested, "dir/file");
+
+        assertThat(storageDir.resolve("dir/file")).hasContent("file");
+    }
+
+    @Test
+    void writeIsCommittedInlineWhenGroupCommitTimesOut() {
+        // group commit thread keeps collecting the batch for a minute, so writer doesn't get its commit in time
+        FileSystemStorageService tested = new FileSystemStorageService(
+                storageDir,
+                FileSystemStorageConfig.builder()
+                        .atomicWrites(true)
+                        .durability(WriteDurability.GROUP_COMMIT)
+                        .groupCommitInterval(Duration.ofMinutes(1))
+                        .groupCommitTimeout(Duration.ofMillis(10))
+                        .build()
+        );
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> write(tested, "file"));
+
+        assertThat(storageDir.resolve("file")).hasContent("file");
+    }
+
+    @Test
+    @SneakyThrows
+    void abandonedTempFilesAreRemovedOnStartup() {
+        String suffix = FileSystemStorageService.TEMP_SUFFIX;
+        Path abandoned = Files.write(storageDir.resolve("abandoned" + suffix), new byte[1]);
+        Files.setLastModifiedTime(abandoned, FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+        Path inProgress = Files.write(storageDir.resolve("in-progress" + suffix), new byte[1]);
+
+        storage(WriteDurability.NONE);
+
+        assertThat(abandoned).doesNotExist();
+        assertThat(inProgress).exists();
+    }
+
+    @Test
+    @SneakyThrows
+    void groupCommitsConcurrentWrites() {
+        FileSystemStorageService tested = storage(WriteDurability.GROUP_COMMIT);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            List<CompletableFuture<Void>> writes = IntStream.range(0, 50)
+                    .mapToObj(i -> CompletableFuture.runAsync(() -> write(tested, "dir/file" + i), executor))
+                    .collect(Collectors.toList());
+            CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).join();
+        } finally {
+            executor.shutdown();
+        }
+
+        try (Stream<Path> files = Files.list(storageDir.resolve("dir"))) {
+            assertThat(files).hasSize(50).allSatisfy(it -> assertThat(it).hasContent(it.getFileName().toString()));
+        }
+    }
+
+    @SneakyThrows
+    private void write(FileSystemStorageService storage, String path) {
+        try (OutputStream os = storage.write(WithCallback.noCallback(location(path)))) {
+            os.write(path.substring(path.lastIndexOf('/') + 1).getBytes());
+        }
+    }
+
+    private AbsoluteLocation<PrivateResource> location(String path) {
+        return new AbsoluteLocation<>(BasePrivateResource.forPrivate(storageDir.toUri().resolve(path)));
+    }
+
+    private FileSystemStorageService storage(WriteDurability durability) {
+        return new FileSystemStorageService(
+                storageDir,
+                FileSystemStorageConfig.builder().atomicWrites(true).durability(durability).build()
+        );
+    }
+}
@@ -0,0 +1,110 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import de.adorsys.datasafe.storage.api.ChannelTransferable;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.resource.WithCallback;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileSystemStorageServiceChannelIoTest extends BaseMockitoTest {
+
+    private static final String CHANNEL = "CHANNEL";
+    private static final String MEMORY_MAPPED = "MEMORY_MAPPED";
+    private static final int WRITE_BUFFER_SIZE = 1024;
+
+    private Path storageDir;
+    private AbsoluteLocation<PrivateResource> file;
+    private byte[] content;
+
+    @BeforeEach
+    void prepare(@TempDir Path dir) {
+        this.storageDir = dir;
+        this.file = new AbsoluteLocation<>(BasePrivateResource.forPrivate(dir.toUri().resolve("file")));
+        this.content = new byte[10 * WRITE_BUFFER_SIZE + 17];
+        new Random(1).nextBytes(content);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {CHANNEL, MEMORY_MAPPED})
+    @SneakyThrows
+    void writeAndRead(String mode) {
+        FileSystemStorageService tested = storage(mode);
+
+        try (OutputStream os = tested.write(WithCallback.noCallback(file))) {
+            os.write(content, 0, 10);
+            os.write(content[10]);
+            os.write(content, 11, content.length - 11);
+        }
+
+        assertThat(Files.readAllBytes(storageDir.resolve("file"))).isEqualTo(content);
+        try (InputStream is = tested.read(file)) {
+            assertThat(is).isInstanceOf(MEMORY_MAPPED.equals(mode) ? MappedFileInputStream.class : FileChannelInputStream.class);
+            assertThat(is).hasSameContentAs(new ByteArrayInputStream(content));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {CHANNEL, MEMORY_MAPPED})
+    @SneakyThrows
+    void skipAndTransferRemaining(String mode) {
+        Files.write(storageDir.resolve("file"), content);
+        FileSystemStorageService tested = storage(mode);
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+
+        try (InputStream is = tested.read(file)) {
+            assertThat(is.read()).isEqualTo(content[0] & 0xFF);
+            assertThat(is.skip(99)).isEqualTo(99);
+            long transferred = ((ChannelTransferable) is).transferTo(Channels.newChannel(target));
+
+            assertThat(transferred).isEqualTo(content.length - 100);
+            assertThat(is.read()).isEqualTo(-1);
+        }
+
+        byte[] expected = new byte[content.length - 100];
+        System.arraycopy(content, 100, expected, 0, expected.length);
+        assertThat(target.toByteArray()).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {CHANNEL, MEMORY_MAPPED})
+    @SneakyThrows
+    void overwriteTruncates(String mode) {
+        Files.write(storageDir.resolve("file"), content);
+        FileSystemStorageService tested = storage(mode);
+
+        try (OutputStream os = tested.write(WithCallback.noCallback(file))) {
+            os.write(new byte[] {1, 2, 3});
+        }
+
+        assertThat(Files.readAllBytes(storageDir.resolve("file"))).containsExactly(1, 2, 3);
+    }
+
+    private FileSystemStorageService storage(String mode) {
+        boolean memoryMapped = MEMORY_MAPPED.equals(mode);
+        return new FileSystemStorageService(
+                storageDir,
+                FileSystemStorageConfig.builder()
+                        .channelIo(true)
+                        .memoryMapReadThreshold(memoryMapped ? 0L : null)
+                        .writeBufferSize(WRITE_BUFFER_SIZE)
+                        .build()
+        );
+    }
+}
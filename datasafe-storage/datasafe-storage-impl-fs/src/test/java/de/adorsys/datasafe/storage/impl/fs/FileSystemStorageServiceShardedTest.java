@@ -0,0 +1,135 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocationWithCapability;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.resource.StorageCapability;
+import de.adorsys.datasafe.types.api.resource.WithCallback;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileSystemStorageServiceShardedTest extends BaseMockitoTest {
+
+    private static final List<String> FILES = Arrays.asList(
+            "in/some.txt", "in/deeper/some.txt", "in/deeper/and_deeper/some.txt", "other.txt"
+    );
+
+    private Path storageDir;
+    private FileSystemStorageService tested;
+
+    @BeforeEach
+    void prepare(@TempDir Path dir) {
+        this.storageDir = dir;
+        this.tested = sharded(2);
+    }
+
+    @Test
+    @SneakyThrows
+    void writesAndReadsThroughFanOutDirectories() {
+        writeAll(tested);
+
+        for (String file : FILES) {
+            try (InputStream is = tested.read(location(file))) {
+                assertThat(is).hasContent(file);
+            }
+            assertThat(tested.objectExists(location(file))).isTrue();
+        }
+
+        assertThat(storageDir.resolve("other.txt")).doesNotExist();
+        try (Stream<Path> physical = Files.walk(storageDir)) {
+            assertThat(physical.filter(Files::isRegularFile).map(it -> storageDir.relativize(it).getNameCount()))
+                    .containsOnly(3, 6, 9, 12);
+        }
+    }
+
+    @Test
+    void listsLogicalLocations() {
+        writeAll(tested);
+
+        assertThat(list(tested, location(""))).containsExactlyInAnyOrderElementsOf(FILES);
+    }
+
+    @Test
+    void listsShallowLogicalLocations() {
+        writeAll(tested);
+
+        AbsoluteLocation<PrivateResource> in = new AbsoluteLocationWithCapability<>(
+                BasePrivateResource.forPrivate(storageDir.toUri().resolve("in/")),
+                StorageCapability.LIST_SHALLOW
+        );
+
+        assertThat(list(tested, in)).containsExactlyInAnyOrder("in/some.txt", "in/deeper/");
+    }
+
+    @Test
+    void removesLogicalDirectory() {
+        writeAll(tested);
+
+        tested.remove(location("in/deeper"));
+
+        assertThat(list(tested, location(""))).containsExactlyInAnyOrder("in/some.txt", "other.txt");
+    }
+
+    @Test
+    @SneakyThrows
+    void migratesBetweenLayouts() {
+        FileSystemStorageService plain = sharded(0);
+        writeAll(plain);
+
+        assertThat(new FileSystemLayoutMigrator(1).migrate(storageDir)).isPositive();
+        assertThat(new FileSystemLayoutMigrator(2).migrate(storageDir)).isPositive();
+        assertThat(list(tested, location(""))).containsExactlyInAnyOrderElementsOf(FILES);
+        try (InputStream is = tested.read(location("in/deeper/some.txt"))) {
+            assertThat(is).hasContent("in/deeper/some.txt");
+        }
+
+        new FileSystemLayoutMigrator(0).migrate(storageDir);
+        try (Stream<Path> physical = Files.walk(storageDir)) {
+            assertThat(physical.filter(Files::isRegularFile).map(it -> storageDir.relativize(it).toString()))
+                    .containsExactlyInAnyOrderElementsOf(FILES);
+        }
+        try (Stream<Path> physical = Files.walk(storageDir)) {
+            assertThat(physical.map(it -> it.getFileName().toString())).noneMatch(it -> it.startsWith("~"));
+        }
+    }
+
+    @SneakyThrows
+    private void writeAll(FileSystemStorageService storage) {
+        for (String file : FILES) {
+            try (OutputStream os = storage.write(WithCallback.noCallback(location(file)))) {
+                os.write(file.getBytes());
+            }
+        }
+    }
+
+    private List<String> list(FileSystemStorageService storage, AbsoluteLocation<PrivateResource> location) {
+        try (Stream<AbsoluteLocation<ResolvedResource>> ls = storage.list(location)) {
+            return ls.map(it -> storageDir.toUri().relativize(it.location().asURI()).toString())
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private AbsoluteLocation<PrivateResource> location(String path) {
+        return new AbsoluteLocation<>(BasePrivateResource.forPrivate(storageDir.toUri().resolve(path)));
+    }
+
+    private FileSystemStorageService sharded(int levels) {
+        return new FileSystemStorageService(storageDir, FileSystemStorageConfig.builder().shardLevels(levels).build());
+    }
+}
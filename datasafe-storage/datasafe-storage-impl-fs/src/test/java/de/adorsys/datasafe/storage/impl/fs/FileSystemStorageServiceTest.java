@@ -1,9 +1,12 @@
 package de.adorsys.datasafe.storage.impl.fs;
 
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocationWithCapability;
 import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.ByteRange;
 import de.adorsys.datasafe.types.api.resource.PrivateResource;
 import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.resource.StorageCapability;
 import de.adorsys.datasafe.types.api.resource.Uri;
 import de.adorsys.datasafe.types.api.resource.WithCallback;
 import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
@@ -23,7 +26,11 @@ import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -140,6 +147,119 @@ class FileSystemStorageServiceTest extends BaseMockitoTest {
         }
     }
 
+    @Test
+    void listShallow() {
+        createFileWithMessage("in/some.txt", true);
+        createFileWithMessage("in/deeper/some.txt", true);
+        createFileWithMessage("in/deeper/and_deeper/some.txt", true);
+
+        AbsoluteLocation<PrivateResource> in = new AbsoluteLocationWithCapability<>(
+                BasePrivateResource.forPrivate(storageDir.toUri().resolve("in/")),
+                StorageCapability.LIST_SHALLOW
+        );
+
+        try (Stream<AbsoluteLocation<ResolvedResource>> lsStorageService = storageService.list(in)) {
+            assertThat(lsStorageService)
+                    .extracting(it -> it.location().asURI().getPath())
+                    .containsExactlyInAnyOrder(
+                            storageDir.toUri().resolve("in/some.txt").getPath(),
+                            storageDir.toUri().resolve("in/deeper/").getPath()
+                    );
+        }
+    }
+
+    @Test
+    void listLargeTreeRecursively() {
+        List<String> expected = new ArrayList<>();
+        for (int dir = 0; dir < 10; dir++) {
+            for (int file = 0; file < 20; file++) {
+                String path = "in/" + dir + "/nested/" + file + ".txt";
+                createFileWithMessage(path, true);
+                expected.add(storageDir.toUri().resolve(path).getPath());
+            }
+        }
+
+        AbsoluteLocation<PrivateResource> in = new AbsoluteLocation<>(
+                BasePrivateResource.forPrivate(storageDir.toUri().resolve("in/"))
+        );
+
+        try (Stream<AbsoluteLocation<ResolvedResource>> lsStorageService = storageService.list(in)) {
+            assertThat(lsStorageService)
+                    .extracting(it -> it.location().asURI().getPath())
+                    .containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void walkDoesNotGetFarAheadOfConsumer() {
+        int files = 3 * FileTreeWalker.BUFFERED_ENTRIES;
+        for (int file = 0; file < files; file++) {
+            createFileWithMessage("in/" + file % 4 + "/" + file + ".txt", true);
+        }
+
+        AtomicInteger walked = new AtomicInteger();
+        FileTreeWalker.Mapper<String> mapper = (location, attributes) -> {
+            walked.incrementAndGet();
+            return attributes.isDirectory() ? null : location;
+        };
+
+        try (Stream<String> walk = FileTreeWalker.walk(storageDir.resolve("in"), "in/", mapper)) {
+            assertThat(walk.findFirst()).isPresent();
+            Thread.sleep(500);
+            // each waiting walk thread has mapped one entry that is not buffered yet
+            assertThat(walked.get()).isLessThan(2 * FileTreeWalker.BUFFERED_ENTRIES);
+        }
+
+        try (Stream<String> walk = FileTreeWalker.walk(storageDir.resolve("in"), "in/", mapper)) {
+            assertThat(walk.count()).isEqualTo(files);
+        }
+    }
+
+    @Test
+    void listReturnsDirectories() {
+        createFileWithMessage("in/some.txt", true);
+        createFileWithMessage("in/deeper/some.txt", true);
+
+        AbsoluteLocation<PrivateResource> in = new AbsoluteLocationWithCapability<>(
+                BasePrivateResource.forPrivate(storageDir.toUri().resolve("in/")),
+                StorageCapability.LIST_RETURNS_DIR
+        );
+
+        try (Stream<AbsoluteLocation<ResolvedResource>> lsStorageService = storageService.list(in)) {
+            assertThat(lsStorageService)
+                    .extracting(it -> it.location().asURI().getPath())
+                    .containsExactlyInAnyOrder(
+                            storageDir.toUri().resolve("in/").getPath(),
+                            storageDir.toUri().resolve("in/some.txt").getPath(),
+                            storageDir.toUri().resolve("in/deeper/").getPath(),
+                            storageDir.toUri().resolve("in/deeper/some.txt").getPath()
+                    );
+        }
+    }
+
+    @Test
+    void listSingleFile() {
+        createFileWithMessage();
+
+        try (Stream<AbsoluteLocation<ResolvedResource>> lsStorageService = storageService.list(fileWithMsg)) {
+            assertThat(lsStorageService)
+                    .extracting(AbsoluteLocation::location)
+                    .containsExactly(fileWithMsg.location());
+        }
+    }
+
+    @Test
+    void listReturnsFileSize() {
+        createFileWithMessage();
+
+        try (Stream<AbsoluteLocation<ResolvedResource>> lsStorageService = storageService.list(fileWithMsg)) {
+            assertThat(lsStorageService)
+                    .extracting(it -> it.getResource().getSize())
+                    .containsExactly((long) MESSAGE.length());
+        }
+    }
+
     @Test
     void listOnNonExisting() {
         try (Stream<AbsoluteLocation<ResolvedResource>> lsStorageService = storageService.list(root)) {
@@ -193,6 +313,54 @@ class FileSystemStorageServiceTest extends BaseMockitoTest {
         assertThat(Files.walk(storageDir)).containsOnly(storageDir);
     }
 
+    @Test
+    @SneakyThrows
+    void existsAllAndRemoveAll() {
+        createFileWithMessage("in/some.txt", true);
+        createFileWithMessage("in/deeper/some.txt", true);
+        List<AbsoluteLocation<PrivateResource>> locations = new ArrayList<>();
+        for (String path : new String[] {"in/some.txt", "in/missing.txt", "in/deeper/some.txt"}) {
+            locations.add(BasePrivateResource.forAbsolutePrivate(storageDir.toUri().resolve(path)));
+        }
+
+        assertThat(storageService.existsAll(locations)).containsExactly(true, false, true);
+
+        storageService.removeAll(locations);
+
+        assertThat(storageService.existsAll(locations)).containsExactly(false, false, false);
+        assertThat(Files.walk(storageDir.resolve("in"))).hasSize(2);
+    }
+
+    @Test
+    @SneakyThrows
+    void removeAllRemovesDirectoryWithItsListedContent() {
+        createFileWithMessage("in/deeper/some.txt", true);
+        createFileWithMessage("in/deeper/and_deeper/some_other.txt", true);
+
+        try (Stream<AbsoluteLocation<ResolvedResource>> ls = storageService.list(
+                new AbsoluteLocationWithCapability<>(root.getResource(), StorageCapability.LIST_RETURNS_DIR))) {
+            storageService.removeAll(ls.collect(Collectors.toList()));
+        }
+
+        assertThat(Files.walk(storageDir)).containsOnly(storageDir);
+    }
+
+    @Test
+    @SneakyThrows
+    void readRange() {
+        createFileWithMessage();
+
+        try (InputStream is = storageService.read(fileWithMsg, ByteRange.of(1, 3))) {
+            assertThat(is).hasContent("ell");
+        }
+        try (InputStream is = storageService.read(fileWithMsg, ByteRange.from(3))) {
+            assertThat(is).hasContent("lo");
+        }
+        try (InputStream is = storageService.read(fileWithMsg, ByteRange.from(10))) {
+            assertThat(is.read()).isEqualTo(-1);
+        }
+    }
+
     @SneakyThrows
     private void createFileWithMessage() {
         createFileWithMessage(FILE, false);
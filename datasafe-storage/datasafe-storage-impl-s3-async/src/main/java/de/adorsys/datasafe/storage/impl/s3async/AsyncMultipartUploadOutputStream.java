@@ -0,0 +1,312 @@
+package de.adorsys.datasafe.storage.impl.s3async;
+
+import de.adorsys.datasafe.storage.api.AbortableOutputStream;
+import de.adorsys.datasafe.storage.impl.s3.PartBufferPool;
+import de.adorsys.datasafe.storage.impl.s3.PartSizePolicy;
+import de.adorsys.datasafe.types.api.callback.PhysicalVersionCallback;
+import de.adorsys.datasafe.types.api.callback.ResourceWriteCallback;
+import de.adorsys.datasafe.types.api.utils.Obfuscate;
+import lombok.Synchronized;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Writes object using non-blocking S3 client. Content that fits into the first part is sent using single PUT
+ * request, otherwise parts are sent using multipart upload as soon as they are filled. Multipart upload
+ * initiation, part uploads and their completion are chained on client futures, so no thread waits for them
+ * except the writer that exceeds in-flight part limit or closes the stream.
+ */
+@Slf4j
+class AsyncMultipartUploadOutputStream extends OutputStream implements AbortableOutputStream {
+
+    private final String bucketName;
+    private final String objectName;
+    private final S3AsyncClient s3;
+    private final PartBufferPool partBufferPool;
+    private final PartSizePolicy partSizePolicy;
+    private final Semaphore inFlightParts;
+    private final List<? extends ResourceWriteCallback> callbacks;
+
+    // Size of the first part, all following part sizes are multiples of it
+    private final int initialPartSize;
+
+    // Size of the part that is being filled, grows with part count
+    private int partSize;
+
+    // Borrowed from partBufferPool when first byte of the part is written
+    private byte[] currentPart;
+
+    private int currentPartSize;
+
+    private int partCounter = 1;
+
+    private boolean closed;
+
+    private CompletableFuture<String> uploadId;
+
+    private final List<CompletableFuture<CompletedPart>> parts = new ArrayList<>();
+
+    AsyncMultipartUploadOutputStream(String bucketName, String objectKey, S3AsyncClient s3,
+                                     S3AsyncStorageConfig config,
+                                     Long expectedSize,
+                                     List<? extends ResourceWriteCallback> callbacks) {
+        this.bucketName = bucketName;
+        this.objectName = objectKey;
+        this.s3 = s3;
+        this.partBufferPool = config.getPartBufferPool();
+        this.partSizePolicy = config.getPartSizePolicy();
+        this.inFlightParts = new Semaphore(config.getMaxInFlightPartsPerStream());
+        this.initialPartSize = initialPartSize(config, expectedSize);
+        this.partSize = initialPartSize;
+        this.callbacks = callbacks;
+
+        log.debug("Write to bucket: {} with name: {}", Obfuscate.secure(bucketName), Obfuscate.secure(objectName));
+    }
+
+    @Override
+    @Synchronized
+    public void write(byte[] bytes, int off, int len) throws IOException {
+        if ((off < 0) || (off > bytes.length) || (len < 0) || ((off + len) - bytes.length > 0)) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        int remainingSizeToWrite = len;
+        int inputPosition = off;
+
+        while (remainingSizeToWrite > 0) {
+            borrowPartBufferIfNeeded();
+            int bytesToWrite = Math.min(partSize - currentPartSize, remainingSizeToWrite);
+            System.arraycopy(bytes, inputPosition, currentPart, currentPartSize, bytesToWrite);
+            currentPartSize += bytesToWrite;
+            inputPosition += bytesToWrite;
+            remainingSizeToWrite -= bytesToWrite;
+
+            submitPartIfFull();
+        }
+    }
+
+    @Override
+    @Synchronized
+    public void write(int b) throws IOException {
+        borrowPartBufferIfNeeded();
+        currentPart[currentPartSize] = (byte) b;
+        currentPartSize++;
+        submitPartIfFull();
+    }
+
+    @Override
+    @Synchronized
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        if (null == uploadId) {
+            finishSimpleUpload();
+        } else {
+            finishMultiPartUpload();
+        }
+    }
+
+    /**
+     * Discards content, waits for parts that are being uploaded and aborts multipart upload if it was started.
+     */
+    @Override
+    @Synchronized
+    public void abort() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        try {
+            if (null != uploadId) {
+                // failed parts are irrelevant, the upload is aborted anyway
+                CompletableFuture.allOf(parts.toArray(new CompletableFuture[0])).handle((sent, error) -> null).join();
+                abortMultiPartUpload();
+            }
+        } finally {
+            releaseCurrentPart();
+        }
+    }
+
+    /**
+     * @return Size of the first part for upload of {@code expectedSize} bytes, multiple of pool buffer size.
+     */
+    static int initialPartSize(S3AsyncStorageConfig config, Long expectedSize) {
+        return config.getPartSizePolicy().initialPartSize(config.getPartBufferPool().getBufferSize(), expectedSize);
+    }
+
+    private void borrowPartBufferIfNeeded() {
+        if (null == currentPart) {
+            partSize = partSizePolicy.partSize(initialPartSize, partCounter);
+            currentPart = partBufferPool.borrow(partSize);
+            currentPartSize = 0;
+        }
+    }
+
+    private void submitPartIfFull() throws IOException {
+        if (currentPartSize != partSize) {
+            return;
+        }
+
+        initiateMultiPartIfNeeded();
+        submitCurrentPart();
+        ++partCounter;
+    }
+
+    private void initiateMultiPartIfNeeded() {
+        if (null == uploadId) {
+            log.debug("Initiate multi part");
+            uploadId = s3.createMultipartUpload(
+                    CreateMultipartUploadRequest.builder().bucket(bucketName).key(objectName).build()
+            ).thenApply(CreateMultipartUploadResponse::uploadId);
+        }
+    }
+
+    /**
+     * Hands current part buffer over to part upload, buffer is returned to the pool when upload completes.
+     * Blocks while this stream has too many parts in flight.
+     */
+    private void submitCurrentPart() throws IOException {
+        byte[] content = currentPart;
+        int size = currentPartSize;
+        int partNumber = partCounter;
+
+        try {
+            inFlightParts.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for part upload");
+        }
+
+        currentPart = null;
+        currentPartSize = 0;
+
+        CompletableFuture<CompletedPart> part = uploadId.thenCompose(id -> s3.uploadPart(
+                UploadPartRequest.builder()
+                        .bucket(bucketName)
+                        .key(objectName)
+                        .uploadId(id)
+                        .partNumber(partNumber)
+                        .contentLength((long) size)
+                        .build(),
+                AsyncRequestBody.fromByteBufferUnsafe(ByteBuffer.wrap(content, 0, size))
+        )).thenApply(uploaded -> CompletedPart.builder().partNumber(partNumber).eTag(uploaded.eTag()).build());
+
+        part.whenComplete((uploaded, error) -> {
+            partBufferPool.release(content);
+            inFlightParts.release();
+        });
+
+        parts.add(part);
+    }
+
+    private void finishSimpleUpload() throws IOException {
+        int size = currentPartSize;
+        ByteBuffer content = null == currentPart ? ByteBuffer.allocate(0) : ByteBuffer.wrap(currentPart, 0, size);
+
+        String version;
+        try {
+            version = s3.putObject(
+                    PutObjectRequest.builder().bucket(bucketName).key(objectName).contentLength((long) size).build(),
+                    AsyncRequestBody.fromByteBufferUnsafe(content)
+            ).join().versionId();
+        } catch (CompletionException ex) {
+            throw new IOException("Upload failed", ex.getCause());
+        } finally {
+            releaseCurrentPart();
+        }
+
+        notifyCommittedVersionIfPresent(version);
+        log.debug("Finished simple upload");
+    }
+
+    private void finishMultiPartUpload() throws IOException {
+        try {
+            // empty file can be created only using simple upload, so empty last part is not sent
+            if (currentPartSize > 0) {
+                submitCurrentPart();
+            }
+
+            String version = CompletableFuture.allOf(parts.toArray(new CompletableFuture[0]))
+                    .thenCompose(allSent -> uploadId)
+                    .thenCompose(id -> s3.completeMultipartUpload(
+                            CompleteMultipartUploadRequest.builder()
+                                    .bucket(bucketName)
+                                    .key(objectName)
+                                    .uploadId(id)
+                                    .multipartUpload(CompletedMultipartUpload.builder().parts(sentParts()).build())
+                                    .build()
+                    )).join().versionId();
+
+            notifyCommittedVersionIfPresent(version);
+            log.debug("Finished multi part upload");
+        } catch (CompletionException ex) {
+            abortMultiPartUpload();
+            log.error(ex.getMessage(), ex);
+            throw new IOException("Multi part upload failed ", ex.getCause());
+        } catch (InterruptedIOException ex) {
+            abortMultiPartUpload();
+            throw ex;
+        } finally {
+            releaseCurrentPart();
+        }
+    }
+
+    private List<CompletedPart> sentParts() {
+        List<CompletedPart> result = new ArrayList<>(parts.size());
+        // parts are listed in part number order and are already completed
+        parts.forEach(it -> result.add(it.join()));
+        return result;
+    }
+
+    private void abortMultiPartUpload() {
+        log.debug("Abort multi part");
+
+        try {
+            String id = uploadId.join();
+            s3.abortMultipartUpload(
+                    AbortMultipartUploadRequest.builder().bucket(bucketName).key(objectName).uploadId(id).build()
+            ).join();
+        } catch (CompletionException ex) {
+            log.warn("Failed to abort multi part upload of {}", Obfuscate.secure(objectName), ex.getCause());
+        }
+    }
+
+    private void notifyCommittedVersionIfPresent(String version) {
+        if (null == version) {
+            return;
+        }
+
+        callbacks.stream()
+                .filter(it -> it instanceof PhysicalVersionCallback)
+                .forEach(it -> ((PhysicalVersionCallback) it).handleVersionAssigned(version));
+    }
+
+    private void releaseCurrentPart() {
+        partBufferPool.release(currentPart);
+        currentPart = null;
+        currentPartSize = 0;
+    }
+}
@@ -0,0 +1,41 @@
+package de.adorsys.datasafe.storage.impl.s3async;
+
+import lombok.experimental.UtilityClass;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+
+import java.net.URI;
+
+@UtilityClass
+public class S3AsyncClientFactory {
+
+    /**
+     * Maximum count of concurrent HTTP connections of a client.
+     */
+    public static final int DEFAULT_MAX_CONCURRENCY = 512;
+
+    public S3AsyncClient getClient(String endpointUrl, String region, String accessKey, String secretKey) {
+        return S3AsyncClient.builder()
+                .endpointOverride(URI.create(endpointUrl))
+                .region(Region.of(region))
+                .credentialsProvider(
+                        StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey))
+                )
+                .serviceConfiguration(it -> it.pathStyleAccessEnabled(true))
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder().maxConcurrency(DEFAULT_MAX_CONCURRENCY))
+                .build();
+    }
+
+    public S3AsyncClient getAmazonClient(String region, String accessKey, String secretKey) {
+        return S3AsyncClient.builder()
+                .region(Region.of(region))
+                .credentialsProvider(
+                        StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey))
+                )
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder().maxConcurrency(DEFAULT_MAX_CONCURRENCY))
+                .build();
+    }
+}
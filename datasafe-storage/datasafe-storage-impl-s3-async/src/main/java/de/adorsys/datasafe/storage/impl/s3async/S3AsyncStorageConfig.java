@@ -0,0 +1,32 @@
+package de.adorsys.datasafe.storage.impl.s3async;
+
+import de.adorsys.datasafe.storage.impl.s3.PartBufferPool;
+import de.adorsys.datasafe.storage.impl.s3.PartSizePolicy;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Tuning options of {@link S3AsyncStorageService}.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class S3AsyncStorageConfig {
+
+    /**
+     * Multipart upload part buffers, buffer size defines minimal multipart chunk size and should be at least 5 MB.
+     */
+    @Builder.Default
+    private final PartBufferPool partBufferPool = PartBufferPool.defaultPool();
+
+    /**
+     * Multipart part size selection based on expected object size and part count.
+     */
+    @Builder.Default
+    private final PartSizePolicy partSizePolicy = PartSizePolicy.builder().build();
+
+    /**
+     * Maximum count of parts of a single stream that are being uploaded, writer blocks when limit is reached.
+     */
+    @Builder.Default
+    private final int maxInFlightPartsPerStream = 4;
+}
@@ -0,0 +1,452 @@
+package de.adorsys.datasafe.storage.impl.s3async;
+
+import de.adorsys.datasafe.storage.api.PartialRemoveException;
+import de.adorsys.datasafe.storage.api.StorageService;
+import de.adorsys.datasafe.storage.impl.s3.BucketRouter;
+import de.adorsys.datasafe.storage.impl.s3.StaticBucketRouter;
+import de.adorsys.datasafe.types.api.callback.ResourceWriteCallback;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocationWithCapability;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.BaseResolvedResource;
+import de.adorsys.datasafe.types.api.resource.ByteRange;
+import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.resource.StorageCapability;
+import de.adorsys.datasafe.types.api.resource.StorageVersion;
+import de.adorsys.datasafe.types.api.resource.VersionedResourceLocation;
+import de.adorsys.datasafe.types.api.resource.WithCallback;
+import de.adorsys.datasafe.types.api.utils.Obfuscate;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.S3Error;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Amazon S3, minio and CEPH compatible S3 interface adapter that uses non-blocking AWS SDK v2 client, so that
+ * requests in flight do not occupy threads. Calling thread waits only for the result it needs: response headers
+ * for reads (body is streamed by client event loop), in-flight part slot or upload completion for writes.
+ * Uses same bucket routing, versioning and multipart semantics as
+ * {@link de.adorsys.datasafe.storage.impl.s3.S3StorageService}.
+ */
+@Slf4j
+public class S3AsyncStorageService implements StorageService {
+
+    private static final String DELIMITER = "/";
+    private static final int NOT_FOUND = 404;
+    private static final int METHOD_NOT_ALLOWED = 405;
+    private static final int RANGE_NOT_SATISFIABLE = 416;
+    // S3 limit of keys per multi-object delete request
+    private static final int MAX_DELETE_BATCH = 1000;
+
+    private final S3AsyncClient s3;
+    private final BucketRouter router;
+    private final S3AsyncStorageConfig config;
+
+    /**
+     * @param s3 Non-blocking connection to S3
+     * @param bucketName Bucket to use
+     */
+    public S3AsyncStorageService(S3AsyncClient s3, String bucketName) {
+        this(s3, new StaticBucketRouter(bucketName));
+    }
+
+    /**
+     * @param s3 Non-blocking connection to S3
+     * @param router Bucket and object key resolver
+     */
+    public S3AsyncStorageService(S3AsyncClient s3, BucketRouter router) {
+        this(s3, router, S3AsyncStorageConfig.builder().build());
+    }
+
+    /**
+     * @param s3 Non-blocking connection to S3
+     * @param router Bucket and object key resolver
+     * @param config Upload buffers and upload limits configuration
+     */
+    public S3AsyncStorageService(S3AsyncClient s3, BucketRouter router, S3AsyncStorageConfig config) {
+        this.s3 = s3;
+        this.router = router;
+        this.config = config;
+    }
+
+    /**
+     * Lists all resources within bucket and returns absolute resource location for each entry without credentials.
+     * Does not include object versions, only latest are shown. Listing pages are requested lazily.
+     * If location has {@link StorageCapability#LIST_SHALLOW} capability, only direct children are listed using
+     * delimiter and nested directories (common prefixes) are returned as resources ending with '/'.
+     */
+    @Override
+    public Stream<AbsoluteLocation<ResolvedResource>> list(AbsoluteLocation location) {
+        log.debug("List at {}", location.location());
+        String prefix = router.resourceKey(location);
+        boolean shallow = isShallow(location);
+        String listPrefix = !shallow || prefix.isEmpty() || prefix.endsWith(DELIMITER) ? prefix : prefix + DELIMITER;
+
+        ListObjectsV2Request.Builder request = ListObjectsV2Request.builder()
+                .bucket(router.bucketName(location))
+                .prefix(listPrefix);
+        if (shallow) {
+            request.delimiter(DELIMITER);
+        }
+
+        return pages(request.build()).flatMap(page -> Stream.concat(
+                page.contents().stream()
+                        // directory marker object of listed directory itself
+                        .filter(os -> !shallow || !os.key().equals(listPrefix))
+                        .map(os -> new AbsoluteLocation<>(
+                                new BaseResolvedResource(
+                                        createPath(location, os.key(), prefix.length()),
+                                        os.lastModified(),
+                                        os.size(),
+                                        unquoted(os.eTag())
+                                ))
+                        ),
+                page.commonPrefixes().stream()
+                        // common prefixes have no modification date
+                        .map(dir -> new AbsoluteLocation<>(
+                                new BaseResolvedResource(
+                                        createPath(location, dir.prefix(), prefix.length()),
+                                        Instant.EPOCH
+                                ))
+                        )
+        ));
+    }
+
+    /**
+     * Reads resource by its location and uses its version if available in {@code location}.
+     * Waits only for response headers, body is delivered by client event loop while it is consumed.
+     */
+    @Override
+    public InputStream read(AbsoluteLocation location) {
+        log.debug("Read from {}", location);
+        return join(s3.getObject(getRequest(location).build(), AsyncResponseTransformer.toBlockingInputStream()));
+    }
+
+    /**
+     * Reads resource part using GET request with {@code Range} header.
+     */
+    @Override
+    public InputStream read(AbsoluteLocation location, ByteRange range) {
+        log.debug("Read range {}-{} from {}", range.getOffset(), range.getLastPosition(), location);
+
+        GetObjectRequest.Builder request = getRequest(location)
+                .range("bytes=" + range.getOffset() + "-" + (null == range.getLength() ? "" : range.getLastPosition()));
+        try {
+            return join(s3.getObject(request.build(), AsyncResponseTransformer.toBlockingInputStream()));
+        } catch (S3Exception ex) {
+            if (RANGE_NOT_SATISFIABLE != ex.statusCode()) {
+                throw ex;
+            }
+
+            // range starts after object end
+            return new ByteArrayInputStream(new byte[0]);
+        }
+    }
+
+    @Override
+    public boolean supportsRangeRead(AbsoluteLocation location) {
+        return true;
+    }
+
+    /**
+     * Writes data stream into resource and sends resource version into callback if S3 returns version id.
+     * Multipart chunk size is derived from expected size of the resource if it is provided.
+     */
+    @Override
+    public OutputStream write(WithCallback<AbsoluteLocation, ? extends ResourceWriteCallback> locationWithCallback) {
+        log.debug("Write data by path: {}", locationWithCallback.getWrapped().location());
+
+        return new AsyncMultipartUploadOutputStream(
+                router.bucketName(locationWithCallback.getWrapped()),
+                router.resourceKey(locationWithCallback.getWrapped()),
+                s3,
+                config,
+                locationWithCallback.getExpectedSize(),
+                locationWithCallback.getCallbacks()
+        );
+    }
+
+    /**
+     * Removes resource by its location (latest one if versioning enabled) or removes just one version of the
+     * resource if version if available in {@code location}.
+     * If location is a directory (ends with '/'), all resources within it are removed using multi-object delete
+     * request per listing page, requests are sent concurrently while the prefix is being listed.
+     */
+    @Override
+    public void remove(AbsoluteLocation location) {
+        log.debug("Remove from {}", location);
+
+        String bucketName = router.bucketName(location);
+        String key = router.resourceKey(location);
+        Optional<StorageVersion> version = extractVersion(location);
+
+        if (!version.isPresent() && key.endsWith(DELIMITER)) {
+            removePrefix(bucketName, key);
+            return;
+        }
+
+        DeleteObjectRequest.Builder request = DeleteObjectRequest.builder().bucket(bucketName).key(key);
+        version.ifPresent(it -> request.versionId(it.getVersionId()));
+        join(s3.deleteObject(request.build()));
+    }
+
+    /**
+     * Checks if resource exists by its location (latest one if versioning enabled)
+     * or checks if resource with given version exists if version is available in {@code location}.
+     */
+    @Override
+    public boolean objectExists(AbsoluteLocation location) {
+        boolean pathExists = join(exists(location));
+        log.debug("Path {} exists {}", location, pathExists);
+        return pathExists;
+    }
+
+    /**
+     * Sends HEAD requests of all locations concurrently.
+     */
+    @Override
+    public List<Boolean> existsAll(List<? extends AbsoluteLocation> locations) {
+        List<CompletableFuture<Boolean>> sent = locations.stream().map(this::exists).collect(Collectors.toList());
+        return sent.stream().map(S3AsyncStorageService::join).collect(Collectors.toList());
+    }
+
+    /**
+     * Removes resources using multi-object delete requests per bucket, that are sent concurrently. Directories
+     * (locations ending with '/') are removed same way as by {@link #remove(AbsoluteLocation)}.
+     */
+    @Override
+    public void removeAll(List<? extends AbsoluteLocation> locations) {
+        Map<String, List<ObjectIdentifier>> byBucket = new LinkedHashMap<>();
+        for (AbsoluteLocation location : locations) {
+            String key = router.resourceKey(location);
+            Optional<StorageVersion> version = extractVersion(location);
+            if (!version.isPresent() && key.endsWith(DELIMITER)) {
+                remove(location);
+                continue;
+            }
+
+            ObjectIdentifier.Builder identifier = ObjectIdentifier.builder().key(key);
+            version.ifPresent(it -> identifier.versionId(it.getVersionId()));
+            byBucket.computeIfAbsent(router.bucketName(location), id -> new ArrayList<>()).add(identifier.build());
+        }
+
+        List<CompletableFuture<DeleteObjectsResponse>> sent = new ArrayList<>();
+        byBucket.forEach((bucketName, identifiers) -> {
+            for (int from = 0; from < identifiers.size(); from += MAX_DELETE_BATCH) {
+                List<ObjectIdentifier> chunk = identifiers.subList(
+                        from,
+                        Math.min(identifiers.size(), from + MAX_DELETE_BATCH)
+                );
+                sent.add(deleteObjects(bucketName, chunk));
+            }
+        });
+
+        awaitDeletes(sent);
+    }
+
+    /**
+     * Reports initial part size for writes without size hint, all following parts are multiples of it.
+     */
+    @Override
+    public Optional<Integer> flushChunkSize(AbsoluteLocation location) {
+        return Optional.of(AsyncMultipartUploadOutputStream.initialPartSize(config, null));
+    }
+
+    private void removePrefix(String bucketName, String prefix) {
+        List<CompletableFuture<DeleteObjectsResponse>> sent = new ArrayList<>();
+        pages(ListObjectsV2Request.builder().bucket(bucketName).prefix(prefix).build())
+                .filter(page -> !page.contents().isEmpty())
+                .forEach(page -> sent.add(deleteObjects(
+                        bucketName,
+                        page.contents().stream()
+                                .map(os -> ObjectIdentifier.builder().key(os.key()).build())
+                                .collect(Collectors.toList())
+                )));
+
+        awaitDeletes(sent);
+    }
+
+    private CompletableFuture<DeleteObjectsResponse> deleteObjects(String bucketName,
+                                                                   List<ObjectIdentifier> identifiers) {
+        return s3.deleteObjects(DeleteObjectsRequest.builder()
+                .bucket(bucketName)
+                .delete(Delete.builder().quiet(true).objects(identifiers).build())
+                .build()
+        );
+    }
+
+    /**
+     * Waits for all delete requests, keys that could not be removed are reported by
+     * {@link PartialRemoveException} after all requests completed.
+     */
+    private static void awaitDeletes(List<CompletableFuture<DeleteObjectsResponse>> sent) {
+        List<S3Error> errors = new ArrayList<>();
+        for (CompletableFuture<DeleteObjectsResponse> batch : sent) {
+            errors.addAll(join(batch).errors());
+        }
+
+        if (!errors.isEmpty()) {
+            errors.forEach(it -> log.warn("Failed to remove {}: {}", Obfuscate.secure(it.key()), it.code()));
+            throw new PartialRemoveException(
+                    errors.stream().map(S3Error::key).collect(Collectors.toList()),
+                    errors.get(0).code(),
+                    null
+            );
+        }
+    }
+
+    private GetObjectRequest.Builder getRequest(AbsoluteLocation location) {
+        GetObjectRequest.Builder request = GetObjectRequest.builder()
+                .bucket(router.bucketName(location))
+                .key(router.resourceKey(location));
+        extractVersion(location).ifPresent(version -> request.versionId(version.getVersionId()));
+        return request;
+    }
+
+    private CompletableFuture<Boolean> exists(AbsoluteLocation location) {
+        HeadObjectRequest.Builder request = HeadObjectRequest.builder()
+                .bucket(router.bucketName(location))
+                .key(router.resourceKey(location));
+        extractVersion(location).ifPresent(version -> request.versionId(version.getVersionId()));
+
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        s3.headObject(request.build()).whenComplete((response, error) -> {
+            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            if (null == cause) {
+                result.complete(true);
+            } else if (cause instanceof S3Exception && NOT_FOUND == ((S3Exception) cause).statusCode()) {
+                result.complete(false);
+            } else if (cause instanceof S3Exception && METHOD_NOT_ALLOWED == ((S3Exception) cause).statusCode()) {
+                // version is a delete marker, it can't be HEAD-ed but exists in version history
+                result.complete(true);
+            } else {
+                result.completeExceptionally(cause);
+            }
+        });
+
+        return result;
+    }
+
+    private Stream<ListObjectsV2Response> pages(ListObjectsV2Request request) {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(new ListingPages(request), Spliterator.ORDERED), false
+        );
+    }
+
+    private static boolean isShallow(AbsoluteLocation location) {
+        return location instanceof AbsoluteLocationWithCapability
+                && StorageCapability.LIST_SHALLOW.equals(((AbsoluteLocationWithCapability) location).getCapability());
+    }
+
+    private PrivateResource createPath(AbsoluteLocation root, String key, int prefixLen) {
+        String relUrl = key.substring(prefixLen).replaceFirst("^/", "");
+        if ("".equals(relUrl)) {
+            return BasePrivateResource.forPrivate(root.location());
+        }
+
+        return BasePrivateResource.forPrivate(URI.create(relUrl)).resolveFrom(root);
+    }
+
+    /**
+     * SDK returns entity tag as is in header, with quotes, while synchronous client strips them.
+     */
+    private static String unquoted(String eTag) {
+        if (null == eTag || eTag.length() < 2 || !eTag.startsWith("\"") || !eTag.endsWith("\"")) {
+            return eTag;
+        }
+
+        return eTag.substring(1, eTag.length() - 1);
+    }
+
+    private Optional<StorageVersion> extractVersion(AbsoluteLocation location) {
+        if (!(location.getResource() instanceof VersionedResourceLocation)) {
+            return Optional.empty();
+        }
+
+        VersionedResourceLocation withVersion = (VersionedResourceLocation) location.getResource();
+
+        if (!(withVersion.getVersion() instanceof StorageVersion)) {
+            return Optional.empty();
+        }
+
+        return Optional.of((StorageVersion) withVersion.getVersion());
+    }
+
+    /**
+     * Waits for request result and rethrows client exception as is, instead of wrapping it.
+     */
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+
+            throw ex;
+        }
+    }
+
+    /**
+     * Lazily requests listing pages using continuation token.
+     */
+    private final class ListingPages implements Iterator<ListObjectsV2Response> {
+
+        private final ListObjectsV2Request request;
+        private ListObjectsV2Response current;
+
+        private ListingPages(ListObjectsV2Request request) {
+            this.request = request;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return null == current || Boolean.TRUE.equals(current.isTruncated());
+        }
+
+        @Override
+        public ListObjectsV2Response next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            ListObjectsV2Request pageRequest = null == current
+                    ? request
+                    : request.toBuilder().continuationToken(current.nextContinuationToken()).build();
+
+            current = join(s3.listObjectsV2(pageRequest));
+            return current;
+        }
+    }
+}
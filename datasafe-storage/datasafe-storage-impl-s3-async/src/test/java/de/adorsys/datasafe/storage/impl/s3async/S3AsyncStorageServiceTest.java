@@ -0,0 +1,311 @@
+package de.adorsys.datasafe.storage.impl.s3async;
+
+import de.adorsys.datasafe.storage.api.AbortableOutputStream;
+import de.adorsys.datasafe.storage.api.PartialRemoveException;
+import de.adorsys.datasafe.storage.impl.s3.PartBufferPool;
+import de.adorsys.datasafe.storage.impl.s3.StaticBucketRouter;
+import de.adorsys.datasafe.types.api.callback.PhysicalVersionCallback;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.ByteRange;
+import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.resource.Uri;
+import de.adorsys.datasafe.types.api.resource.WithCallback;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Error;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class S3AsyncStorageServiceTest extends BaseMockitoTest {
+
+    private static final String BUCKET = "bucket";
+    private static final int PART_SIZE = 10;
+
+    @Mock
+    private S3AsyncClient s3;
+
+    @Mock
+    private PhysicalVersionCallback versionCallback;
+
+    @Captor
+    private ArgumentCaptor<UploadPartRequest> uploadedParts;
+
+    @Captor
+    private ArgumentCaptor<CompleteMultipartUploadRequest> completed;
+
+    private S3AsyncStorageService tested;
+
+    @BeforeEach
+    void init() {
+        tested = new S3AsyncStorageService(
+                s3,
+                new StaticBucketRouter(BUCKET),
+                S3AsyncStorageConfig.builder().partBufferPool(new PartBufferPool(PART_SIZE, 0)).build()
+        );
+    }
+
+    @Test
+    void objectExistsIsFalseIfNotFound() {
+        when(s3.headObject(any(HeadObjectRequest.class))).thenReturn(failed(S3Exception.builder().statusCode(404)
+                .build()));
+
+        assertThat(tested.objectExists(location("file.txt"))).isFalse();
+    }
+
+    @Test
+    void objectExistsRethrowsClientError() {
+        when(s3.headObject(any(HeadObjectRequest.class))).thenReturn(failed(S3Exception.builder().statusCode(403)
+                .build()));
+
+        assertThrows(S3Exception.class, () -> tested.objectExists(location("file.txt")));
+    }
+
+    @Test
+    @SneakyThrows
+    void writeSmallUsesSinglePut() {
+        ArgumentCaptor<PutObjectRequest> put = ArgumentCaptor.forClass(PutObjectRequest.class);
+        when(s3.putObject(put.capture(), any(AsyncRequestBody.class)))
+                .thenReturn(CompletableFuture.completedFuture(PutObjectResponse.builder().versionId("v1").build()));
+
+        try (OutputStream os = tested.write(WithCallback.<AbsoluteLocation, PhysicalVersionCallback>builder()
+                .wrapped(location("file.txt"))
+                .callback(versionCallback)
+                .build())) {
+            os.write(new byte[PART_SIZE - 1]);
+        }
+
+        assertThat(put.getValue().bucket()).isEqualTo(BUCKET);
+        assertThat(put.getValue().key()).isEqualTo("file.txt");
+        assertThat(put.getValue().contentLength()).isEqualTo(PART_SIZE - 1);
+        verify(versionCallback).handleVersionAssigned("v1");
+    }
+
+    @Test
+    @SneakyThrows
+    void writeLargeUsesMultipartUpload() {
+        when(s3.createMultipartUpload(any(CreateMultipartUploadRequest.class))).thenReturn(
+                CompletableFuture.completedFuture(CreateMultipartUploadResponse.builder().uploadId("upload").build())
+        );
+        when(s3.uploadPart(uploadedParts.capture(), any(AsyncRequestBody.class))).thenAnswer(inv ->
+                CompletableFuture.completedFuture(UploadPartResponse.builder()
+                        .eTag("etag" + inv.getArgument(0, UploadPartRequest.class).partNumber())
+                        .build())
+        );
+        when(s3.completeMultipartUpload(completed.capture())).thenReturn(
+                CompletableFuture.completedFuture(CompleteMultipartUploadResponse.builder().build())
+        );
+
+        try (OutputStream os = tested.write(WithCallback.noCallback(location("file.txt")))) {
+            os.write(new byte[2 * PART_SIZE + 5]);
+        }
+
+        assertThat(uploadedParts.getAllValues()).extracting(UploadPartRequest::contentLength)
+                .containsExactly((long) PART_SIZE, (long) PART_SIZE, 5L);
+        assertThat(uploadedParts.getAllValues()).extracting(UploadPartRequest::uploadId).containsOnly("upload");
+        assertThat(completed.getValue().multipartUpload().parts())
+                .extracting(CompletedPart::partNumber, CompletedPart::eTag)
+                .containsExactly(
+                        tuple(1, "etag1"),
+                        tuple(2, "etag2"),
+                        tuple(3, "etag3")
+                );
+    }
+
+    @Test
+    void failedPartAbortsUpload() {
+        when(s3.createMultipartUpload(any(CreateMultipartUploadRequest.class))).thenReturn(
+                CompletableFuture.completedFuture(CreateMultipartUploadResponse.builder().uploadId("upload").build())
+        );
+        when(s3.uploadPart(any(UploadPartRequest.class), any(AsyncRequestBody.class)))
+                .thenReturn(failed(S3Exception.builder().statusCode(500).build()));
+        ArgumentCaptor<AbortMultipartUploadRequest> aborted =
+                ArgumentCaptor.forClass(AbortMultipartUploadRequest.class);
+        when(s3.abortMultipartUpload(aborted.capture())).thenReturn(
+                CompletableFuture.completedFuture(AbortMultipartUploadResponse.builder().build())
+        );
+
+        assertThrows(IOException.class, () -> {
+            try (OutputStream os = tested.write(WithCallback.noCallback(location("file.txt")))) {
+                os.write(new byte[PART_SIZE + 1]);
+            }
+        });
+
+        assertThat(aborted.getValue().uploadId()).isEqualTo("upload");
+    }
+
+    @Test
+    @SneakyThrows
+    void abortedWriteIsNotStored() {
+        when(s3.createMultipartUpload(any(CreateMultipartUploadRequest.class))).thenReturn(
+                CompletableFuture.completedFuture(CreateMultipartUploadResponse.builder().uploadId("upload").build())
+        );
+        when(s3.uploadPart(any(UploadPartRequest.class), any(AsyncRequestBody.class)))
+                .thenReturn(CompletableFuture.completedFuture(UploadPartResponse.builder().eTag("etag").build()));
+        ArgumentCaptor<AbortMultipartUploadRequest> aborted =
+                ArgumentCaptor.forClass(AbortMultipartUploadRequest.class);
+        when(s3.abortMultipartUpload(aborted.capture())).thenReturn(
+                CompletableFuture.completedFuture(AbortMultipartUploadResponse.builder().build())
+        );
+
+        OutputStream os = tested.write(WithCallback.noCallback(location("file.txt")));
+        os.write(new byte[PART_SIZE + 1]);
+        ((AbortableOutputStream) os).abort();
+        os.close();
+
+        assertThat(aborted.getValue().uploadId()).isEqualTo("upload");
+        verify(s3, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+        verify(s3, never()).putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class));
+    }
+
+    @Test
+    void listReturnsSizeAndUnquotedETag() {
+        when(s3.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(CompletableFuture.completedFuture(
+                ListObjectsV2Response.builder()
+                        .contents(S3Object.builder().key("dir/a").lastModified(Instant.EPOCH).size(42L)
+                                .eTag("\"etag\"").build())
+                        .isTruncated(false)
+                        .build()
+        ));
+
+        List<ResolvedResource> listed = tested.list(location("dir/"))
+                .map(AbsoluteLocation::getResource)
+                .collect(Collectors.toList());
+
+        assertThat(listed).extracting(ResolvedResource::getSize).containsExactly(42L);
+        assertThat(listed).extracting(ResolvedResource::getETag).containsExactly("etag");
+    }
+
+    @Test
+    void removeDirectoryDeletesListedObjects() {
+        ArgumentCaptor<ListObjectsV2Request> listed = ArgumentCaptor.forClass(ListObjectsV2Request.class);
+        when(s3.listObjectsV2(listed.capture())).thenReturn(CompletableFuture.completedFuture(
+                ListObjectsV2Response.builder()
+                        .contents(S3Object.builder().key("dir/a").build(), S3Object.builder().key("dir/b").build())
+                        .isTruncated(false)
+                        .build()
+        ));
+        ArgumentCaptor<DeleteObjectsRequest> deleted = ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+        when(s3.deleteObjects(deleted.capture()))
+                .thenReturn(CompletableFuture.completedFuture(DeleteObjectsResponse.builder().build()));
+
+        tested.remove(location("dir/"));
+
+        assertThat(listed.getValue().prefix()).isEqualTo("dir/");
+        assertThat(deleted.getValue().delete().objects()).extracting(ObjectIdentifier::key)
+                .containsExactly("dir/a", "dir/b");
+    }
+
+    @Test
+    void existsAllSendsHeadRequestsConcurrently() {
+        CompletableFuture<HeadObjectResponse> found = new CompletableFuture<>();
+        // completes first request only after both were sent
+        when(s3.headObject(any(HeadObjectRequest.class))).thenAnswer(inv -> {
+            if ("a.txt".equals(inv.getArgument(0, HeadObjectRequest.class).key())) {
+                return found;
+            }
+
+            found.complete(HeadObjectResponse.builder().build());
+            return failed(S3Exception.builder().statusCode(404).build());
+        });
+
+        assertThat(tested.existsAll(Arrays.asList(location("a.txt"), location("b.txt")))).containsExactly(true, false);
+    }
+
+    @Test
+    void removeAllUsesMultiObjectDelete() {
+        ArgumentCaptor<DeleteObjectsRequest> deleted = ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+        when(s3.deleteObjects(deleted.capture()))
+                .thenReturn(CompletableFuture.completedFuture(DeleteObjectsResponse.builder().build()));
+
+        tested.removeAll(Arrays.asList(location("a.txt"), location("b.txt")));
+
+        verify(s3).deleteObjects(any(DeleteObjectsRequest.class));
+        assertThat(deleted.getValue().bucket()).isEqualTo(BUCKET);
+        assertThat(deleted.getValue().delete().objects()).extracting(ObjectIdentifier::key)
+                .containsExactly("a.txt", "b.txt");
+    }
+
+    @Test
+    void removeAllReportsFailedKeys() {
+        when(s3.deleteObjects(any(DeleteObjectsRequest.class))).thenReturn(CompletableFuture.completedFuture(
+                DeleteObjectsResponse.builder()
+                        .errors(S3Error.builder().key("b.txt").code("AccessDenied").build())
+                        .build()
+        ));
+
+        PartialRemoveException ex = assertThrows(
+                PartialRemoveException.class,
+                () -> tested.removeAll(Arrays.asList(location("a.txt"), location("b.txt")))
+        );
+
+        assertThat(ex.getFailedKeys()).containsExactly("b.txt");
+    }
+
+    @Test
+    void readRangeSendsRangeHeader() {
+        ArgumentCaptor<GetObjectRequest> request = ArgumentCaptor.forClass(GetObjectRequest.class);
+        when(s3.getObject(request.capture(), any(AsyncResponseTransformer.class)))
+                .thenAnswer(inv -> CompletableFuture.completedFuture(null));
+
+        tested.read(location("file.txt"), ByteRange.of(10, 5));
+        tested.read(location("file.txt"), ByteRange.from(7));
+
+        assertThat(request.getAllValues()).extracting(GetObjectRequest::range)
+                .containsExactly("bytes=10-14", "bytes=7-");
+    }
+
+    private static AbsoluteLocation<PrivateResource> location(String key) {
+        return new AbsoluteLocation<>(BasePrivateResource.forPrivate(new Uri("s3://" + BUCKET + "/" + key)));
+    }
+
+    private static <T> CompletableFuture<T> failed(Throwable error) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        result.completeExceptionally(error);
+        return result;
+    }
+}
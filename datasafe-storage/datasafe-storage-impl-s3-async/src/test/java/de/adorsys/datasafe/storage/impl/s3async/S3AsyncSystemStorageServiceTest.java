@@ -0,0 +1,191 @@
+package de.adorsys.datasafe.storage.impl.s3async;
+
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.resource.Uri;
+import de.adorsys.datasafe.types.api.resource.WithCallback;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static de.adorsys.datasafe.types.api.shared.DockerUtil.getDockerUri;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs {@link S3AsyncStorageService} against minio as local S3-compatible storage.
+ */
+@Slf4j
+class S3AsyncSystemStorageServiceTest extends BaseMockitoTest {
+
+    private static final String FILE = "file";
+    private static final String MESSAGE = "hello";
+    private static final String BUCKET_NAME = "home";
+
+    private static String url = getDockerUri("http://localhost");
+    private static S3AsyncClient s3;
+    private static AbsoluteLocation<PrivateResource> root;
+    private static AbsoluteLocation<PrivateResource> fileWithMsg;
+
+    private static GenericContainer minio;
+
+    private S3AsyncStorageService storageService;
+
+    @BeforeAll
+    static void beforeAll() {
+        minio = new GenericContainer("minio/minio")
+                .withExposedPorts(9000)
+                .withEnv("MINIO_ACCESS_KEY", "admin")
+                .withEnv("MINIO_SECRET_KEY", "password")
+                .withCommand("server /data")
+                .waitingFor(Wait.defaultWaitStrategy());
+
+        minio.start();
+        Integer mappedPort = minio.getMappedPort(9000);
+        log.info("Mapped port: " + mappedPort);
+        s3 = S3AsyncClientFactory.getClient(url + ":" + mappedPort, "eu-central-1", "admin", "password");
+
+        s3.createBucket(it -> it.bucket(BUCKET_NAME)).join();
+        root = new AbsoluteLocation<>(BasePrivateResource.forPrivate(new Uri("s3://" + BUCKET_NAME)));
+        fileWithMsg = new AbsoluteLocation<>(BasePrivateResource.forPrivate(new Uri("./" + FILE))
+                .resolveFrom(root));
+    }
+
+    @BeforeEach
+    void init() {
+        this.storageService = new S3AsyncStorageService(s3, BUCKET_NAME);
+    }
+
+    @Test
+    void list() {
+        createFileWithMessage(FILE);
+
+        assertThat(storageService.list(root))
+                .hasSize(1)
+                .extracting(AbsoluteLocation::location)
+                .asString().contains(FILE);
+    }
+
+    @Test
+    void listOutOfStandardListFilesLimit() {
+        int numberOfFilesOverLimit = 1010;
+        CompletableFuture.allOf(IntStream.range(0, numberOfFilesOverLimit)
+                .mapToObj(i -> s3.putObject(
+                        it -> it.bucket(BUCKET_NAME).key("over_limit/" + FILE + i),
+                        AsyncRequestBody.fromString(MESSAGE))
+                ).toArray(CompletableFuture[]::new)
+        ).join();
+
+        List<AbsoluteLocation<ResolvedResource>> listed = storageService.list(
+                new AbsoluteLocation<>(BasePrivateResource.forPrivate(new Uri("s3://" + BUCKET_NAME + "/over_limit")))
+        ).collect(Collectors.toList());
+
+        assertThat(listed).hasSize(numberOfFilesOverLimit);
+    }
+
+    @Test
+    void read() {
+        createFileWithMessage(FILE);
+
+        assertThat(storageService.read(fileWithMsg)).hasContent(MESSAGE);
+    }
+
+    @Test
+    @SneakyThrows
+    void write() {
+        try (OutputStream os = storageService.write(WithCallback.noCallback(fileWithMsg))) {
+            os.write(MESSAGE.getBytes());
+        }
+
+        assertThat(storageService.read(fileWithMsg)).hasContent(MESSAGE);
+    }
+
+    @Test
+    @SneakyThrows
+    void writeMultipart() {
+        byte[] content = new byte[2 * storageService.flushChunkSize(fileWithMsg).get() + 100];
+        new Random().nextBytes(content);
+
+        try (OutputStream os = storageService.write(WithCallback.noCallback(fileWithMsg))) {
+            os.write(content);
+        }
+
+        try (InputStream is = storageService.read(fileWithMsg)) {
+            assertThat(is).hasSameContentAs(new ByteArrayInputStream(content));
+        }
+    }
+
+    @Test
+    void remove() {
+        createFileWithMessage(FILE);
+
+        storageService.remove(fileWithMsg);
+
+        assertThat(storageService.objectExists(fileWithMsg)).isFalse();
+    }
+
+    @Test
+    void removeCascades() {
+        createFileWithMessage("root/file1.txt");
+        createFileWithMessage("root/file2.txt");
+
+        AbsoluteLocation rootOfFiles = new AbsoluteLocation<>(BasePrivateResource.forPrivate(new Uri("./root/"))
+                .resolveFrom(root));
+
+        storageService.remove(rootOfFiles);
+
+        assertThat(storageService.list(rootOfFiles)).isEmpty();
+    }
+
+    private void createFileWithMessage(String path) {
+        s3.putObject(it -> it.bucket(BUCKET_NAME).key(path), AsyncRequestBody.fromString(MESSAGE)).join();
+    }
+
+    @AfterEach
+    void cleanup() {
+        log.info("Executing cleanup");
+        if (null == minio) {
+            return;
+        }
+
+        List<ObjectIdentifier> keys;
+        do {
+            keys = s3.listObjectsV2(it -> it.bucket(BUCKET_NAME)).join().contents().stream()
+                    .map(it -> ObjectIdentifier.builder().key(it.key()).build())
+                    .collect(Collectors.toList());
+            List<ObjectIdentifier> batch = keys;
+            if (!batch.isEmpty()) {
+                s3.deleteObjects(it -> it.bucket(BUCKET_NAME).delete(del -> del.objects(batch))).join();
+            }
+        } while (!keys.isEmpty());
+    }
+
+    @AfterAll
+    public static void afterAll() {
+        log.info("Stopping containers");
+        if (null != minio) {
+            minio.stop();
+            minio = null;
+        }
+    }
+}
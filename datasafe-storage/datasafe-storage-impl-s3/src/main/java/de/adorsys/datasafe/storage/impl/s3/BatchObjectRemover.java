@@ -0,0 +1,140 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.iterable.S3Objects;
+import com.amazonaws.services.s3.iterable.S3Versions;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest.KeyVersion;
+import com.amazonaws.services.s3.model.DeleteObjectsResult;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.services.s3.model.S3VersionSummary;
+import de.adorsys.datasafe.storage.api.PartialRemoveException;
+import de.adorsys.datasafe.types.api.utils.Obfuscate;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Removes all objects with given prefix using multi-object delete requests, each request removes up to
+ * {@link BatchObjectRemover#MAX_KEYS_PER_REQUEST} keys and requests are sent in parallel while the prefix
+ * is being listed.
+ * If some keys could not be removed, {@link PartialRemoveException} with each such key is thrown after all
+ * requests completed, its cause is {@link MultiObjectDeleteException} with errors of the keys.
+ */
+@Slf4j
+@RequiredArgsConstructor
+class BatchObjectRemover {
+
+    /**
+     * S3 limit of keys per multi-object delete request.
+     */
+    static final int MAX_KEYS_PER_REQUEST = 1000;
+
+    private final AmazonS3 s3;
+    private final ExecutorService executorService;
+
+    /**
+     * Removes given objects, keys that have version id remove only that version.
+     */
+    void removeKeys(String bucketName, List<KeyVersion> keys) {
+        Batches batches = new Batches(bucketName);
+        keys.forEach(batches::add);
+        batches.await();
+    }
+
+    /**
+     * Removes latest version of each object with given prefix (creates delete markers if bucket is versioned).
+     */
+    void removeLatest(String bucketName, String prefix) {
+        Batches batches = new Batches(bucketName);
+        for (S3ObjectSummary summary : S3Objects.withPrefix(s3, bucketName, prefix)) {
+            batches.add(new KeyVersion(summary.getKey()));
+        }
+
+        batches.await();
+    }
+
+    /**
+     * Removes all versions and delete markers of each object with given prefix.
+     */
+    void removeAllVersions(String bucketName, String prefix) {
+        Batches batches = new Batches(bucketName);
+        for (S3VersionSummary summary : S3Versions.withPrefix(s3, bucketName, prefix)) {
+            batches.add(new KeyVersion(summary.getKey(), summary.getVersionId()));
+        }
+
+        batches.await();
+    }
+
+    @RequiredArgsConstructor
+    private final class Batches {
+
+        private final String bucketName;
+        private final List<Future<DeleteObjectsResult>> sent = new ArrayList<>();
+        private List<KeyVersion> current = new ArrayList<>();
+
+        private void add(KeyVersion key) {
+            current.add(key);
+            if (current.size() == MAX_KEYS_PER_REQUEST) {
+                send();
+            }
+        }
+
+        private void send() {
+            DeleteObjectsRequest request = new DeleteObjectsRequest(bucketName).withKeys(current).withQuiet(true);
+            log.debug("Removing {} objects from bucket {}", current.size(), Obfuscate.secure(bucketName));
+            sent.add(executorService.submit(() -> s3.deleteObjects(request)));
+            current = new ArrayList<>();
+        }
+
+        @SneakyThrows
+        private void await() {
+            if (!current.isEmpty()) {
+                send();
+            }
+
+            List<MultiObjectDeleteException.DeleteError> errors = new ArrayList<>();
+            List<DeleteObjectsResult.DeletedObject> deleted = new ArrayList<>();
+            Throwable failure = null;
+            for (Future<DeleteObjectsResult> batch : sent) {
+                try {
+                    deleted.addAll(batch.get().getDeletedObjects());
+                } catch (ExecutionException ex) {
+                    if (ex.getCause() instanceof MultiObjectDeleteException) {
+                        MultiObjectDeleteException partial = (MultiObjectDeleteException) ex.getCause();
+                        errors.addAll(partial.getErrors());
+                        deleted.addAll(partial.getDeletedObjects());
+                    } else if (null == failure) {
+                        failure = ex.getCause();
+                    } else {
+                        failure.addSuppressed(ex.getCause());
+                    }
+                }
+            }
+
+            if (null != failure) {
+                throw failure;
+            }
+
+            if (!errors.isEmpty()) {
+                errors.forEach(it -> log.warn("Failed to remove {}: {}", Obfuscate.secure(it.getKey()), it.getCode()));
+                List<String> failedKeys = errors.stream()
+                        .map(MultiObjectDeleteException.DeleteError::getKey)
+                        .collect(Collectors.toList());
+                throw new PartialRemoveException(
+                        failedKeys,
+                        errors.get(0).getCode(),
+                        new MultiObjectDeleteException(errors, deleted)
+                );
+            }
+        }
+    }
+}
@@ -14,10 +14,16 @@ public class ChunkUploadRequest {
     @ToString.Exclude
     private byte[] content;
     private int contentSize;
+    @ToString.Exclude
+    private PartBufferPool partBufferPool;
+    @ToString.Exclude
+    private MultipartUploadLimits limits;
     private String bucketName;
     private String objectName;
     private String uploadId;
     private int chunkNumberCounter;
     private boolean lastChunk;
+    @ToString.Exclude
+    private PartRetryPolicy retryPolicy;
 
 }
@@ -0,0 +1,108 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import lombok.Getter;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Limits memory consumed by multipart upload parts that were submitted for sending but are not yet uploaded.
+ * Each upload stream can have at most {@code maxInFlightPartsPerStream} parts in flight, and all streams that
+ * share this instance (i.e. all streams of one {@link S3StorageService}) can hold at most
+ * {@code maxInFlightBytes} of part data. Writer thread blocks until limits allow it to submit the next part.
+ */
+public class MultipartUploadLimits {
+
+    // Semaphore permits are int-valued, so budget is accounted in kilobytes to allow budgets above 2 GB
+    private static final int PERMIT_SIZE = 1024;
+
+    /**
+     * Maximum count of parts that single upload stream can have in flight.
+     */
+    @Getter
+    private final int maxInFlightPartsPerStream;
+
+    /**
+     * Maximum amount of part bytes that can be in flight across all streams, {@code Long.MAX_VALUE} if unlimited.
+     */
+    @Getter
+    private final long maxInFlightBytes;
+
+    private final Semaphore bytesBudget;
+
+    /**
+     * @param maxInFlightPartsPerStream Maximum count of parts single upload stream can have in flight
+     * @param maxInFlightBytes Maximum amount of part bytes in flight across all streams, should be larger than
+     *                         multipart chunk size
+     */
+    public MultipartUploadLimits(int maxInFlightPartsPerStream, long maxInFlightBytes) {
+        if (maxInFlightPartsPerStream <= 0) {
+            throw new IllegalArgumentException("Max in-flight parts must be > 0: " + maxInFlightPartsPerStream);
+        }
+
+        if (maxInFlightBytes < PERMIT_SIZE) {
+            throw new IllegalArgumentException(
+                    "Max in-flight bytes must be >= " + PERMIT_SIZE + ": " + maxInFlightBytes
+            );
+        }
+
+        this.maxInFlightPartsPerStream = maxInFlightPartsPerStream;
+        this.maxInFlightBytes = maxInFlightBytes;
+        this.bytesBudget = Long.MAX_VALUE == maxInFlightBytes ?
+                null : new Semaphore((int) Math.min(Integer.MAX_VALUE, maxInFlightBytes / PERMIT_SIZE), true);
+    }
+
+    /**
+     * @return Limits that allow each stream to have processor count parts in flight with no global byte budget.
+     */
+    public static MultipartUploadLimits perStreamOnly() {
+        return new MultipartUploadLimits(Runtime.getRuntime().availableProcessors(), Long.MAX_VALUE);
+    }
+
+    /**
+     * Blocks until there is enough budget to submit part of {@code bytes} size.
+     * @param bytes Part size
+     * @throws InterruptedIOException if thread was interrupted while waiting
+     */
+    void acquire(int bytes) throws InterruptedIOException {
+        if (null == bytesBudget) {
+            return;
+        }
+
+        try {
+            bytesBudget.acquire(permits(bytes));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for multipart upload budget");
+        }
+    }
+
+    /**
+     * Returns part budget acquired by {@link MultipartUploadLimits#acquire(int)}.
+     * @param bytes Part size
+     */
+    void release(int bytes) {
+        if (null == bytesBudget) {
+            return;
+        }
+
+        bytesBudget.release(permits(bytes));
+    }
+
+    /**
+     * @return Amount of bytes that can be submitted without blocking, {@code Long.MAX_VALUE} if unlimited.
+     */
+    public long getAvailableBytes() {
+        if (null == bytesBudget) {
+            return Long.MAX_VALUE;
+        }
+
+        return (long) bytesBudget.availablePermits() * PERMIT_SIZE;
+    }
+
+    private int permits(int bytes) {
+        int permits = (bytes + PERMIT_SIZE - 1) / PERMIT_SIZE;
+        // part larger than whole budget should not block forever
+        return Math.max(1, Math.min(permits, (int) Math.min(Integer.MAX_VALUE, maxInFlightBytes / PERMIT_SIZE)));
+    }
+}
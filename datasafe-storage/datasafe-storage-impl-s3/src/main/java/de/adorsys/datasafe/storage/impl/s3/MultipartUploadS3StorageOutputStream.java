@@ -31,9 +31,9 @@ import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.PartETag;
 import com.amazonaws.services.s3.model.PutObjectResult;
 import com.amazonaws.services.s3.model.UploadPartResult;
+import de.adorsys.datasafe.storage.api.AbortableOutputStream;
 import de.adorsys.datasafe.types.api.callback.PhysicalVersionCallback;
 import de.adorsys.datasafe.types.api.callback.ResourceWriteCallback;
-import de.adorsys.datasafe.types.api.utils.CustomizableByteArrayOutputStream;
 import de.adorsys.datasafe.types.api.utils.Obfuscate;
 import lombok.SneakyThrows;
 import lombok.Synchronized;
@@ -41,6 +41,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
@@ -48,9 +49,10 @@ import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 @Slf4j
-public class MultipartUploadS3StorageOutputStream extends OutputStream {
+public class MultipartUploadS3StorageOutputStream extends OutputStream implements AbortableOutputStream {
 
     private String bucketName;
 
@@ -63,7 +65,31 @@ public class MultipartUploadS3StorageOutputStream extends OutputStream {
 
     private final CompletionService<UploadPartResult> completionService;
 
-    private CustomizableByteArrayOutputStream currentOutputStream = newOutputStream();
+    private final PartBufferPool partBufferPool;
+
+    private final MultipartUploadLimits limits;
+
+    private final PartSizePolicy partSizePolicy;
+
+    private final PartRetryPolicy retryPolicy;
+
+    // Size of the first part, all following part sizes are multiples of it
+    private final int initialPartSize;
+
+    // Size of the part that is being filled, grows with part count
+    private int partSize;
+
+    // Parts that were uploaded (or failed) while writer was waiting for in-flight part limit
+    private final List<Future<UploadPartResult>> completedParts = new ArrayList<>();
+
+    private int partsInFlight;
+
+    // Borrowed from partBufferPool when first byte of the part is written
+    private byte[] currentPart;
+
+    private int currentPartSize;
+
+    private boolean closed;
 
     private InitiateMultipartUploadResult multiPartUploadResult;
 
@@ -73,11 +99,19 @@ public class MultipartUploadS3StorageOutputStream extends OutputStream {
 
     MultipartUploadS3StorageOutputStream(String bucketName, String objectKey, AmazonS3 amazonS3,
                                          ExecutorService executorService,
+                                         S3StorageConfig config,
+                                         Long expectedSize,
                                          List<? extends ResourceWriteCallback> callbacks) {
         this.bucketName = bucketName;
         this.objectName = objectKey;
         this.amazonS3 = amazonS3;
         this.completionService = new ExecutorCompletionService<>(executorService);
+        this.partBufferPool = config.getPartBufferPool();
+        this.limits = config.getUploadLimits();
+        this.partSizePolicy = config.getPartSizePolicy();
+        this.retryPolicy = config.getPartRetryPolicy();
+        this.initialPartSize = initialPartSize(config, expectedSize);
+        this.partSize = initialPartSize;
         this.callbacks = callbacks;
 
         log.debug("Write to bucket: {} with name: {}", Obfuscate.secure(bucketName), Obfuscate.secure(objectName));
@@ -85,35 +119,44 @@ public class MultipartUploadS3StorageOutputStream extends OutputStream {
 
     @Override
     @Synchronized
-    public void write(byte[] bytes, int off, int len) {
+    public void write(byte[] bytes, int off, int len) throws IOException {
+        if ((off < 0) || (off > bytes.length) || (len < 0) || ((off + len) - bytes.length > 0)) {
+            throw new IndexOutOfBoundsException();
+        }
+
         int remainingSizeToWrite = len;
         int inputPosition = off;
 
-        do {
-            int availableCapacity = BUFFER_SIZE - currentOutputStream.size();
+        while (remainingSizeToWrite > 0) {
+            borrowPartBufferIfNeeded();
+            int availableCapacity = partSize - currentPartSize;
             int bytesToWrite = Math.min(availableCapacity, remainingSizeToWrite);
-            currentOutputStream.write(bytes, inputPosition, bytesToWrite);
+            System.arraycopy(bytes, inputPosition, currentPart, currentPartSize, bytesToWrite);
+            currentPartSize += bytesToWrite;
             inputPosition += bytesToWrite;
             remainingSizeToWrite -= bytesToWrite;
 
             initiateMultipartRequestAndCommitPartIfNeeded();
-        } while (remainingSizeToWrite > 0);
+        }
     }
 
     @Override
     @Synchronized
-    public void write(int b) {
-        currentOutputStream.write(b);
+    public void write(int b) throws IOException {
+        borrowPartBufferIfNeeded();
+        currentPart[currentPartSize] = (byte) b;
+        currentPartSize++;
         initiateMultipartRequestAndCommitPartIfNeeded();
     }
 
     @Override
     @Synchronized
     public void close() throws IOException {
-        if (currentOutputStream == null) {
+        if (closed) {
             return;
         }
 
+        closed = true;
         if (isMultiPartUpload()) {
             finishMultiPartUpload();
         } else {
@@ -121,17 +164,63 @@ public class MultipartUploadS3StorageOutputStream extends OutputStream {
         }
     }
 
-    private void initiateMultipartRequestAndCommitPartIfNeeded() {
-        if (currentOutputStream.size() != BUFFER_SIZE) {
+    /**
+     * Discards content, waits for parts that are being uploaded and aborts multipart upload if it was started.
+     */
+    @Override
+    @Synchronized
+    public void abort() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        try {
+            awaitPartsInFlight();
+            abortMultiPartUpload();
+        } finally {
+            releaseCurrentPart();
+        }
+    }
+
+    /**
+     * @return Size of the first part for upload of {@code expectedSize} bytes, multiple of pool buffer size.
+     */
+    static int initialPartSize(S3StorageConfig config, Long expectedSize) {
+        return config.getPartSizePolicy().initialPartSize(config.getPartBufferPool().getBufferSize(), expectedSize);
+    }
+
+    private void borrowPartBufferIfNeeded() {
+        if (null == currentPart) {
+            partSize = partSizePolicy.partSize(initialPartSize, partCounter);
+            currentPart = partBufferPool.borrow(partSize);
+            currentPartSize = 0;
+        }
+    }
+
+    private void initiateMultipartRequestAndCommitPartIfNeeded() throws IOException {
+        if (currentPartSize != partSize) {
             return;
         }
 
         initiateMultiPartIfNeeded();
+        submitCurrentPart(false);
+        ++partCounter;
+    }
 
-        byte[] content = currentOutputStream.getBufferOrCopy();
-        int size = currentOutputStream.size();
-        // Release the memory
-        currentOutputStream = newOutputStream();
+    /**
+     * Hands current part buffer over to chunk upload, which will return it to the pool.
+     * Blocks while this stream has too many parts in flight or global upload budget is exhausted.
+     */
+    private void submitCurrentPart(boolean lastChunk) throws IOException {
+        byte[] content = currentPart;
+        int size = currentPartSize;
+
+        awaitInFlightPartSlot();
+        limits.acquire(size);
+
+        currentPart = null;
+        currentPartSize = 0;
 
         completionService.submit(new UploadChunkResultCallable(
                 ChunkUploadRequest
@@ -139,15 +228,44 @@ public class MultipartUploadS3StorageOutputStream extends OutputStream {
                         .amazonS3(amazonS3)
                         .content(content)
                         .contentSize(size)
+                        .partBufferPool(partBufferPool)
+                        .limits(limits)
                         .bucketName(bucketName)
                         .objectName(objectName)
                         .uploadId(multiPartUploadResult.getUploadId())
                         .chunkNumberCounter(partCounter)
-                        .lastChunk(false)
+                        .lastChunk(lastChunk)
+                        .retryPolicy(retryPolicy)
                         .build()
         ));
 
-        ++partCounter;
+        ++partsInFlight;
+    }
+
+    private void awaitInFlightPartSlot() throws InterruptedIOException {
+        while (partsInFlight >= limits.getMaxInFlightPartsPerStream()) {
+            try {
+                completedParts.add(completionService.take());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for part upload");
+            }
+
+            --partsInFlight;
+        }
+    }
+
+    private void awaitPartsInFlight() throws InterruptedIOException {
+        while (partsInFlight > 0) {
+            try {
+                completionService.take();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for part upload");
+            }
+
+            --partsInFlight;
+        }
     }
 
     private boolean isMultiPartUpload() {
@@ -157,18 +275,20 @@ public class MultipartUploadS3StorageOutputStream extends OutputStream {
     @SneakyThrows
     private void finishSimpleUpload() {
         ObjectMetadata objectMetadata = new ObjectMetadata();
-        int size = currentOutputStream.size();
+        int size = currentPartSize;
         objectMetadata.setContentLength(size);
-        byte[] content = currentOutputStream.getBufferOrCopy();
-
-        // Release the memory
-        currentOutputStream = null;
+        byte[] content = null == currentPart ? new byte[0] : currentPart;
 
-        PutObjectResult upload = amazonS3.putObject(
-                bucketName,
-                objectName,
-                new ByteArrayInputStream(content, 0, size),
-                objectMetadata);
+        PutObjectResult upload;
+        try {
+            upload = amazonS3.putObject(
+                    bucketName,
+                    objectName,
+                    new ByteArrayInputStream(content, 0, size),
+                    objectMetadata);
+        } finally {
+            releaseCurrentPart();
+        }
 
         notifyCommittedVersionIfPresent(upload.getVersionId());
 
@@ -176,9 +296,8 @@ public class MultipartUploadS3StorageOutputStream extends OutputStream {
     }
 
     private void finishMultiPartUpload() throws IOException {
-        sendLastChunkOfMultipartIfNeeded();
-
         try {
+            sendLastChunkOfMultipartIfNeeded();
             List<PartETag> partETags = getMultiPartsUploadResults();
 
             log.debug("Send multipart request to S3");
@@ -199,40 +318,33 @@ public class MultipartUploadS3StorageOutputStream extends OutputStream {
 
             log.error(e.getMessage(), e);
             throw new IOException("Multi part upload failed ", e.getCause());
+        } catch (InterruptedIOException e) {
+            log.error(e.getMessage(), e);
+            abortMultiPartUpload();
+            throw e;
         } catch (InterruptedException e) {
             log.error(e.getMessage(), e);
             abortMultiPartUpload();
             Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // i.e. complete request was rejected, upload would otherwise be left on S3
+            log.error(e.getMessage(), e);
+            abortMultiPartUpload();
+            throw e;
         } finally {
-            currentOutputStream = null;
+            releaseCurrentPart();
         }
     }
 
-    private void sendLastChunkOfMultipartIfNeeded() {
+    private void sendLastChunkOfMultipartIfNeeded() throws IOException {
         // empty file can be created only using simple upload:
-        if (currentOutputStream.size() == 0) {
+        if (currentPartSize == 0) {
             partCounter--;
+            releaseCurrentPart();
             return;
         }
 
-        byte[] content = currentOutputStream.getBufferOrCopy();
-        int size = currentOutputStream.size();
-        // Release the memory
-        currentOutputStream = null;
-
-        completionService.submit(
-                new UploadChunkResultCallable(ChunkUploadRequest.builder()
-                        .amazonS3(amazonS3)
-                        .content(content)
-                        .contentSize(size)
-                        .bucketName(bucketName)
-                        .objectName(objectName)
-                        .uploadId(multiPartUploadResult.getUploadId())
-                        .chunkNumberCounter(partCounter)
-                        .lastChunk(true)
-                        .build()
-                )
-        );
+        submitCurrentPart(true);
     }
 
     private void notifyCommittedVersionIfPresent(String version) {
@@ -254,6 +366,11 @@ public class MultipartUploadS3StorageOutputStream extends OutputStream {
         }
     }
 
+    /**
+     * Aborts upload so that its parts are not kept (and billed) by S3. Uploads of writers that were never closed
+     * (i.e. process crashed) can't be aborted here - bucket should have lifecycle rule that aborts incomplete
+     * multipart uploads.
+     */
     private void abortMultiPartUpload() {
         log.debug("Abort multi part");
 
@@ -267,17 +384,24 @@ public class MultipartUploadS3StorageOutputStream extends OutputStream {
 
     private List<PartETag> getMultiPartsUploadResults() throws ExecutionException, InterruptedException {
         List<PartETag> result = new ArrayList<>(partCounter);
-        for (int i = 0; i < partCounter; i++) {
+        for (Future<UploadPartResult> completed : completedParts) {
+            result.add(completed.get().getPartETag());
+        }
+
+        while (partsInFlight > 0) {
             UploadPartResult partResult = completionService.take().get();
             result.add(partResult.getPartETag());
+            --partsInFlight;
 
-            log.debug("Get upload part #{} from {}", i, partCounter);
+            log.debug("Get upload part #{} from {}", result.size(), partCounter);
         }
         return result;
     }
 
-    private CustomizableByteArrayOutputStream newOutputStream() {
-        return new CustomizableByteArrayOutputStream(32, BUFFER_SIZE, 0.5);
+    private void releaseCurrentPart() {
+        partBufferPool.release(currentPart);
+        currentPart = null;
+        currentPartSize = 0;
     }
 }
 
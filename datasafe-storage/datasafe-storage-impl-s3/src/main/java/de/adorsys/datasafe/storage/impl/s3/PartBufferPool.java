@@ -0,0 +1,157 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded pool of fixed-size part buffers for multipart uploads, so that each part does not allocate
+ * (and grow by copying) its own array.
+ * If pool is empty, buffer is allocated on demand (miss); returned buffer that does not fit into the pool is
+ * left to garbage collector. Pool is thread-safe and is intended to be shared between all upload streams.
+ */
+@Slf4j
+public class PartBufferPool {
+
+    /**
+     * Pool that is shared by all {@link S3StorageService} that were not provided with their own pool.
+     */
+    private static final class DefaultHolder {
+        private static final PartBufferPool INSTANCE = new PartBufferPool(
+                MultipartUploadS3StorageOutputStream.BUFFER_SIZE,
+                2 * Runtime.getRuntime().availableProcessors()
+        );
+    }
+
+    /**
+     * Size of each buffer in bytes.
+     */
+    @Getter
+    private final int bufferSize;
+
+    /**
+     * Maximum count of idle buffers pool can hold.
+     */
+    @Getter
+    private final int maxIdle;
+
+    private final Deque<byte[]> idleBuffers = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final AtomicInteger borrowedCount = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param bufferSize Size of each buffer in bytes
+     * @param maxIdle Maximum count of idle buffers to retain, {@code 0} disables pooling
+     */
+    public PartBufferPool(int bufferSize, int maxIdle) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be > 0: " + bufferSize);
+        }
+
+        if (maxIdle < 0) {
+            throw new IllegalArgumentException("Max idle buffer count must be >= 0: " + maxIdle);
+        }
+
+        this.bufferSize = bufferSize;
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * @return JVM-wide pool of {@link MultipartUploadS3StorageOutputStream#BUFFER_SIZE} sized buffers.
+     */
+    public static PartBufferPool defaultPool() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Borrows buffer from pool or allocates new one if pool is empty.
+     * @return Buffer of {@link PartBufferPool#getBufferSize()} bytes, its contents are undefined.
+     */
+    public byte[] borrow() {
+        borrowedCount.incrementAndGet();
+        byte[] buffer = idleBuffers.pollFirst();
+        if (null != buffer) {
+            idleCount.decrementAndGet();
+            hits.increment();
+            return buffer;
+        }
+
+        misses.increment();
+        log.trace("Part buffer pool miss, allocating {} bytes", bufferSize);
+        return new byte[bufferSize];
+    }
+
+    /**
+     * Borrows buffer of requested size, only buffers of {@link PartBufferPool#getBufferSize()} are pooled, buffers
+     * of other size are allocated on each call.
+     * @param size Required buffer size in bytes
+     * @return Buffer of {@code size} bytes, its contents are undefined.
+     */
+    public byte[] borrow(int size) {
+        if (size == bufferSize) {
+            return borrow();
+        }
+
+        borrowedCount.incrementAndGet();
+        misses.increment();
+        log.trace("Part buffer size {} is not pooled, allocating", size);
+        return new byte[size];
+    }
+
+    /**
+     * Returns buffer to pool, buffer must not be used by the caller after this call.
+     * @param buffer Buffer previously obtained using {@link PartBufferPool#borrow()} or
+     *               {@link PartBufferPool#borrow(int)}
+     */
+    public void release(byte[] buffer) {
+        if (null == buffer) {
+            return;
+        }
+
+        borrowedCount.decrementAndGet();
+        if (buffer.length != bufferSize) {
+            return;
+        }
+
+        if (idleCount.incrementAndGet() > maxIdle) {
+            idleCount.decrementAndGet();
+            return;
+        }
+
+        idleBuffers.offerFirst(buffer);
+    }
+
+    /**
+     * @return Count of {@link PartBufferPool#borrow()} calls that were served with pooled buffer.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return Count of {@link PartBufferPool#borrow()} calls that had to allocate new buffer.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return Count of buffers that currently reside in pool and are ready to be borrowed.
+     */
+    public int getIdle() {
+        return idleCount.get();
+    }
+
+    /**
+     * @return Count of buffers that were borrowed and not yet released.
+     */
+    public int getBorrowed() {
+        return borrowedCount.get();
+    }
+}
@@ -0,0 +1,75 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.SdkClientException;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Retry of single multipart part upload with exponential backoff, so that transient failure of one part does not
+ * abort whole upload. Network errors, throttling, timeouts and server errors are retried, other client errors
+ * are not.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class PartRetryPolicy {
+
+    private static final int REQUEST_TIMEOUT = 408;
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int SERVER_ERROR = 500;
+
+    /**
+     * Maximum count of attempts to upload the part, {@code 1} disables retry.
+     */
+    @Builder.Default
+    private final int maxAttempts = 3;
+
+    /**
+     * Delay before the first retry, it doubles with each following retry.
+     */
+    @Builder.Default
+    private final Duration initialBackoff = Duration.ofMillis(200);
+
+    /**
+     * Upper bound of delay between retries.
+     */
+    @Builder.Default
+    private final Duration maxBackoff = Duration.ofSeconds(10);
+
+    /**
+     * @return Policy that makes single attempt only.
+     */
+    public static PartRetryPolicy noRetry() {
+        return PartRetryPolicy.builder().maxAttempts(1).build();
+    }
+
+    /**
+     * @param attempt Number of failed attempt, starting from 1
+     * @param ex Failure of the attempt
+     * @return If part upload should be attempted again
+     */
+    boolean shouldRetry(int attempt, SdkClientException ex) {
+        if (attempt >= maxAttempts) {
+            return false;
+        }
+
+        if (!(ex instanceof AmazonServiceException)) {
+            return ex.isRetryable();
+        }
+
+        int status = ((AmazonServiceException) ex).getStatusCode();
+        return status >= SERVER_ERROR || REQUEST_TIMEOUT == status || TOO_MANY_REQUESTS == status;
+    }
+
+    /**
+     * @param attempt Number of failed attempt, starting from 1
+     * @return Delay in milliseconds before next attempt
+     */
+    long backoffMillis(int attempt) {
+        int shift = Math.min(Integer.SIZE - 2, attempt - 1);
+        long backoff = initialBackoff.toMillis() << shift;
+        return backoff < 0 ? maxBackoff.toMillis() : Math.min(backoff, maxBackoff.toMillis());
+    }
+}
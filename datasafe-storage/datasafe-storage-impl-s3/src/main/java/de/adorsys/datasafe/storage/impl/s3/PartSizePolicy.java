@@ -0,0 +1,71 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Chooses multipart upload part sizes. S3 allows at most 10000 parts per upload, so fixed minimal part size
+ * limits object size to about 50 GB and makes large uploads issue far more requests than necessary.
+ * Initial part size is derived from expected object size (if it is known) and then part size doubles each
+ * {@code partsPerSizeStep} parts. Each part size is a multiple of initial part size, so callers that write
+ * in chunks of initial part size stay aligned with part boundaries.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class PartSizePolicy {
+
+    /**
+     * S3 limit of parts per multipart upload.
+     */
+    public static final int MAX_PARTS = 10_000;
+
+    /**
+     * Upper bound of part size in bytes, part buffer is held in memory.
+     */
+    @Builder.Default
+    private final int maxPartSize = 128 * 1024 * 1024;
+
+    /**
+     * Amount of parts that object of expected size should be split into.
+     */
+    @Builder.Default
+    private final int targetPartCount = 1_000;
+
+    /**
+     * Part size doubles each time this amount of parts was written, {@code 0} disables growth.
+     */
+    @Builder.Default
+    private final int partsPerSizeStep = 1_000;
+
+    /**
+     * @param minPartSize Minimal part size (part buffer pool buffer size)
+     * @param expectedSize Expected object size in bytes, {@code null} if unknown
+     * @return Size of the first part, multiple of {@code minPartSize}
+     */
+    public int initialPartSize(int minPartSize, Long expectedSize) {
+        if (null == expectedSize || expectedSize <= 0 || maxPartSize <= minPartSize) {
+            return minPartSize;
+        }
+
+        long perPart = (expectedSize + targetPartCount - 1) / targetPartCount;
+        long rounded = (perPart + minPartSize - 1) / minPartSize * minPartSize;
+        long capped = Math.min(rounded, (long) maxPartSize / minPartSize * minPartSize);
+        return (int) Math.max(minPartSize, capped);
+    }
+
+    /**
+     * @param initialPartSize Size of the first part, see {@link PartSizePolicy#initialPartSize(int, Long)}
+     * @param partNumber Number of part, starting from 1
+     * @return Size of the part, multiple of {@code initialPartSize}
+     */
+    public int partSize(int initialPartSize, int partNumber) {
+        if (partsPerSizeStep <= 0 || maxPartSize <= initialPartSize) {
+            return initialPartSize;
+        }
+
+        int step = Math.min(Integer.SIZE - 1, (partNumber - 1) / partsPerSizeStep);
+        long grown = (long) initialPartSize << step;
+        long capped = Math.min(grown, (long) maxPartSize / initialPartSize * initialPartSize);
+        return (int) Math.max(initialPartSize, capped);
+    }
+}
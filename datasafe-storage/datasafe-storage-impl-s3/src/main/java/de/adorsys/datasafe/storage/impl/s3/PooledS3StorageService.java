@@ -0,0 +1,36 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * S3 storage service that uses client from {@link S3ClientPool} and releases it when closed, intended to be
+ * created by {@link de.adorsys.datasafe.storage.api.UriBasedAuthStorageService} that closes evicted services.
+ */
+public class PooledS3StorageService extends S3StorageService implements AutoCloseable {
+
+    private final S3ClientPool pool;
+    private final S3ClientPool.ClientKey clientKey;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * @param pool Pool to acquire client from
+     * @param clientKey Endpoint, region and credentials of the client
+     * @param router Bucket and object key resolver
+     * @param executorService Multipart sending and read prefetching threadpool
+     * @param config Upload buffers, upload limits and read mode configuration
+     */
+    public PooledS3StorageService(S3ClientPool pool, S3ClientPool.ClientKey clientKey, BucketRouter router,
+                                  ExecutorService executorService, S3StorageConfig config) {
+        super(pool.acquire(clientKey), router, executorService, config);
+        this.pool = pool;
+        this.clientKey = clientKey;
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            pool.release(clientKey);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Configures reading S3 objects using parallel ranged GET requests that are issued ahead of the consumer.
+ * Memory used by single read stream is {@code (prefetchDepth + 1) * partSize} bytes.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class PrefetchReadConfig {
+
+    /**
+     * Size of single ranged GET request in bytes.
+     */
+    @Builder.Default
+    private final int partSize = 8 * 1024 * 1024;
+
+    /**
+     * How many parts are fetched concurrently ahead of the part that is being consumed.
+     */
+    @Builder.Default
+    private final int prefetchDepth = 4;
+
+    /**
+     * How many times failed part fetch is retried before read fails.
+     */
+    @Builder.Default
+    private final int partRetries = 2;
+}
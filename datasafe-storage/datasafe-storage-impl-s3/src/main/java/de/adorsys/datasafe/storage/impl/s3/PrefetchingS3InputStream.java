@@ -0,0 +1,282 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectInputStream;
+import de.adorsys.datasafe.types.api.resource.ByteRange;
+import de.adorsys.datasafe.types.api.utils.Obfuscate;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.Synchronized;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Reads S3 object using concurrent ranged GET requests that are issued ahead of the consumer into bounded ring of
+ * part buffers, bytes are returned in order.
+ * First request fetches first part and discovers object size; all following requests are pinned to the version
+ * (or ETag, if bucket is not versioned) of the first response so that concurrent overwrite can't mix data.
+ * If byte range is requested, only parts within the range are fetched.
+ */
+@Slf4j
+class PrefetchingS3InputStream extends InputStream {
+
+    private static final int RANGE_NOT_SATISFIABLE = 416;
+
+    private final AmazonS3 s3;
+    private final String bucketName;
+    private final String key;
+    private final ExecutorService executorService;
+    private final PrefetchReadConfig config;
+    private final long rangeStart;
+    private final long rangeEnd;
+
+    // Parts that are being fetched, in order of their position in object
+    private final Deque<PendingPart> fetching = new ArrayDeque<>();
+    // Buffers that can be used for next part fetch
+    private final Deque<byte[]> freeBuffers = new ArrayDeque<>();
+
+    private String versionId;
+    private String eTag;
+    // Position after last byte that should be read
+    private long objectEnd;
+    private long nextPartStart;
+
+    private byte[] current;
+    private int currentPosition;
+    private int currentLength;
+
+    private boolean closed;
+
+    PrefetchingS3InputStream(AmazonS3 s3, String bucketName, String key, String versionId,
+                             ExecutorService executorService, PrefetchReadConfig config) {
+        this(s3, bucketName, key, versionId, executorService, config, null);
+    }
+
+    /**
+     * @param range Part of object to read, {@code null} reads whole object
+     */
+    PrefetchingS3InputStream(AmazonS3 s3, String bucketName, String key, String versionId,
+                             ExecutorService executorService, PrefetchReadConfig config, ByteRange range) {
+        this.s3 = s3;
+        this.bucketName = bucketName;
+        this.key = key;
+        this.versionId = versionId;
+        this.executorService = executorService;
+        this.config = config;
+        this.rangeStart = null == range ? 0 : range.getOffset();
+        this.rangeEnd = null == range || null == range.getLength() ? Long.MAX_VALUE : rangeStart + range.getLength();
+
+        log.debug("Prefetching read from bucket: {} with name: {}",
+                Obfuscate.secure(bucketName), Obfuscate.secure(key));
+        openFirstPart();
+    }
+
+    @Override
+    @Synchronized
+    public int read() throws IOException {
+        if (!ensureCurrentPart()) {
+            return -1;
+        }
+
+        return current[currentPosition++] & 0xFF;
+    }
+
+    @Override
+    @Synchronized
+    public int read(byte[] bytes, int off, int len) throws IOException {
+        if ((off < 0) || (len < 0) || (len > bytes.length - off)) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        if (len == 0) {
+            return 0;
+        }
+
+        if (!ensureCurrentPart()) {
+            return -1;
+        }
+
+        int toRead = Math.min(len, currentLength - currentPosition);
+        System.arraycopy(current, currentPosition, bytes, off, toRead);
+        currentPosition += toRead;
+        return toRead;
+    }
+
+    @Override
+    @Synchronized
+    public int available() {
+        return null == current ? 0 : currentLength - currentPosition;
+    }
+
+    @Override
+    @Synchronized
+    public void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        fetching.forEach(it -> it.data.cancel(true));
+        fetching.clear();
+        freeBuffers.clear();
+        current = null;
+    }
+
+    @SneakyThrows
+    private void openFirstPart() {
+        S3Object first;
+        try {
+            first = s3.getObject(partRequest(rangeStart, (int) Math.min(config.getPartSize(), rangeEnd - rangeStart)));
+        } catch (AmazonS3Exception ex) {
+            if (RANGE_NOT_SATISFIABLE != ex.getStatusCode()) {
+                throw ex;
+            }
+
+            // zero-sized object (or range that starts after object end) has no satisfiable range
+            log.debug("Empty object or range, nothing to prefetch");
+            objectEnd = 0;
+            return;
+        }
+
+        ObjectMetadata metadata = first.getObjectMetadata();
+        objectEnd = Math.min(metadata.getInstanceLength(), rangeEnd);
+        eTag = metadata.getETag();
+        if (null == versionId) {
+            versionId = metadata.getVersionId();
+        }
+
+        int firstPartSize = (int) Math.min(config.getPartSize(), objectEnd - rangeStart);
+        nextPartStart = rangeStart + firstPartSize;
+        scheduleFetches();
+
+        // object may be smaller than part, all following parts have full size buffers
+        current = new byte[firstPartSize];
+        try (S3ObjectInputStream content = first.getObjectContent()) {
+            readFully(content, current, firstPartSize);
+        } catch (IOException ex) {
+            // first part will be re-fetched on demand
+            log.debug("Failed reading first part, retrying", ex);
+            current = fetchPart(rangeStart, firstPartSize, current);
+        }
+
+        currentLength = firstPartSize;
+        currentPosition = 0;
+    }
+
+    private boolean ensureCurrentPart() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+
+        while (null == current || currentPosition == currentLength) {
+            if (null != current) {
+                freeBuffers.push(current);
+                current = null;
+            }
+
+            if (fetching.isEmpty()) {
+                return false;
+            }
+
+            PendingPart next = fetching.poll();
+            current = awaitPart(next.data);
+            currentLength = next.length;
+            currentPosition = 0;
+            scheduleFetches();
+        }
+
+        return true;
+    }
+
+    private void scheduleFetches() {
+        while (fetching.size() < config.getPrefetchDepth() && nextPartStart < objectEnd) {
+            long start = nextPartStart;
+            int length = (int) Math.min(config.getPartSize(), objectEnd - start);
+            byte[] buffer = freeBuffers.isEmpty() ? new byte[config.getPartSize()] : freeBuffers.pop();
+            fetching.add(new PendingPart(executorService.submit(() -> fetchPart(start, length, buffer)), length));
+            nextPartStart += length;
+        }
+    }
+
+    private byte[] awaitPart(Future<byte[]> part) throws IOException {
+        try {
+            return part.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for part");
+        } catch (ExecutionException ex) {
+            throw new IOException("Failed to fetch object part", ex.getCause());
+        }
+    }
+
+    private byte[] fetchPart(long start, int length, byte[] buffer) throws IOException {
+        Exception lastError = null;
+        for (int attempt = 0; attempt <= config.getPartRetries(); attempt++) {
+            try {
+                return fetchPartOnce(start, length, buffer);
+            } catch (IOException | RuntimeException ex) {
+                lastError = ex;
+                log.debug("Failed fetching part at {} attempt {}", start, attempt, ex);
+            }
+        }
+
+        throw new IOException("Failed to fetch part at " + start, lastError);
+    }
+
+    private byte[] fetchPartOnce(long start, int length, byte[] buffer) throws IOException {
+        S3Object part = s3.getObject(partRequest(start, length));
+        // ETag constraint not met
+        if (null == part) {
+            throw new IOException("Object was modified while being read");
+        }
+
+        try (S3ObjectInputStream content = part.getObjectContent()) {
+            readFully(content, buffer, length);
+        }
+
+        return buffer;
+    }
+
+    private GetObjectRequest partRequest(long start, int length) {
+        GetObjectRequest request = null == versionId ?
+                new GetObjectRequest(bucketName, key) : new GetObjectRequest(bucketName, key, versionId);
+        request.withRange(start, start + length - 1);
+
+        if (null == versionId && null != eTag) {
+            request.withMatchingETagConstraint(eTag);
+        }
+
+        return request;
+    }
+
+    private static void readFully(InputStream is, byte[] buffer, int length) throws IOException {
+        int read = 0;
+        while (read < length) {
+            int count = is.read(buffer, read, length - read);
+            if (count < 0) {
+                throw new EOFException("Expected " + length + " bytes, got " + read);
+            }
+            read += count;
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static final class PendingPart {
+
+        private final Future<byte[]> data;
+        private final int length;
+    }
+}
@@ -0,0 +1,100 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import de.adorsys.datasafe.storage.api.UriBasedAuthStorageService;
+import lombok.Synchronized;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Reference counted S3 clients that are shared by storage services using same endpoint, region and credentials,
+ * so that they also share client connection pool. Client is shut down when its last user releases it.
+ */
+@Slf4j
+public class S3ClientPool {
+
+    private final Function<ClientKey, AmazonS3> clientFactory;
+    private final Map<ClientKey, PooledClient> clients = new HashMap<>();
+
+    /**
+     * @param clientFactory Creates new client for endpoint, region and credentials
+     */
+    public S3ClientPool(Function<ClientKey, AmazonS3> clientFactory) {
+        this.clientFactory = clientFactory;
+    }
+
+    /**
+     * @return Shared client for {@code key}, caller must {@link #release(ClientKey)} it when done.
+     */
+    @Synchronized
+    public AmazonS3 acquire(ClientKey key) {
+        PooledClient client = clients.computeIfAbsent(key, id -> new PooledClient(clientFactory.apply(id)));
+        client.users++;
+        return client.client;
+    }
+
+    /**
+     * Releases client that was acquired by {@code key}, client is shut down if it is not used anymore.
+     */
+    @Synchronized
+    public void release(ClientKey key) {
+        PooledClient client = clients.get(key);
+        if (null == client) {
+            return;
+        }
+
+        client.users--;
+        if (client.users > 0) {
+            return;
+        }
+
+        clients.remove(key);
+        log.debug("Shutting down unused S3 client for {}", key.getEndpoint());
+        client.client.shutdown();
+    }
+
+    /**
+     * @return Count of clients that are currently in use.
+     */
+    @Synchronized
+    public int size() {
+        return clients.size();
+    }
+
+    @Value
+    public static class ClientKey {
+
+        private final String endpoint;
+        private final String region;
+        private final String accessKey;
+        private final String secretKey;
+
+        public static ClientKey forAccess(UriBasedAuthStorageService.AccessId accessId) {
+            return new ClientKey(
+                    accessId.getEndpoint(),
+                    accessId.getRegion(),
+                    accessId.getAccessKey(),
+                    accessId.getSecretKey()
+            );
+        }
+
+        @Override
+        public String toString() {
+            return "ClientKey(endpoint=" + endpoint + ", region=" + region + ")";
+        }
+    }
+
+    private static final class PooledClient {
+
+        private final AmazonS3 client;
+        private int users;
+
+        private PooledClient(AmazonS3 client) {
+            this.client = client;
+        }
+    }
+}
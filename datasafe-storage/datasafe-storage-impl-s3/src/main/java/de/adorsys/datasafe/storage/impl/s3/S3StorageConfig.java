@@ -0,0 +1,55 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Tuning options of {@link S3StorageService}.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class S3StorageConfig {
+
+    /**
+     * Multipart upload part buffers, buffer size defines multipart chunk size and should be at least 5 MB.
+     */
+    @Builder.Default
+    private final PartBufferPool partBufferPool = PartBufferPool.defaultPool();
+
+    /**
+     * Limits of multipart parts in flight per stream and of part bytes in flight across all streams of the
+     * storage service. Writers block when limit is reached.
+     */
+    @Builder.Default
+    private final MultipartUploadLimits uploadLimits = MultipartUploadLimits.perStreamOnly();
+
+    /**
+     * Multipart part size selection based on expected object size and part count, part size is a multiple
+     * of part buffer pool buffer size.
+     */
+    @Builder.Default
+    private final PartSizePolicy partSizePolicy = PartSizePolicy.builder().build();
+
+    /**
+     * Retry of failed multipart part uploads.
+     */
+    @Builder.Default
+    private final PartRetryPolicy partRetryPolicy = PartRetryPolicy.builder().build();
+
+    /**
+     * If set, directory removal deletes all versions and delete markers of resources within it instead of
+     * only creating delete markers in versioned bucket.
+     */
+    private final boolean removeAllVersions;
+
+    /**
+     * Maximum count of cached object version existence checks, {@code 0} disables caching.
+     */
+    @Builder.Default
+    private final int versionExistenceCacheSize = 1024;
+
+    /**
+     * Enables reading objects using parallel ranged GET requests if not null.
+     */
+    private final PrefetchReadConfig prefetchRead;
+}
@@ -2,31 +2,51 @@ package de.adorsys.datasafe.storage.impl.s3;
 
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.iterable.S3Objects;
-import com.amazonaws.services.s3.iterable.S3Versions;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest.KeyVersion;
+import com.amazonaws.services.s3.model.GetObjectMetadataRequest;
 import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
 import de.adorsys.datasafe.storage.api.StorageService;
 import de.adorsys.datasafe.types.api.callback.ResourceWriteCallback;
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocationWithCapability;
 import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
 import de.adorsys.datasafe.types.api.resource.BaseResolvedResource;
+import de.adorsys.datasafe.types.api.resource.ByteRange;
 import de.adorsys.datasafe.types.api.resource.PrivateResource;
 import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.resource.StorageCapability;
 import de.adorsys.datasafe.types.api.resource.StorageVersion;
 import de.adorsys.datasafe.types.api.resource.VersionedResourceLocation;
 import de.adorsys.datasafe.types.api.resource.WithCallback;
-import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -36,12 +56,19 @@ import java.util.stream.StreamSupport;
  * https://docs.aws.amazon.com/AmazonS3/latest/dev/UsingMetadata.html
  */
 @Slf4j
-@RequiredArgsConstructor
 public class S3StorageService implements StorageService {
 
+    private static final String DELIMITER = "/";
+    private static final int NOT_FOUND = 404;
+    private static final int METHOD_NOT_ALLOWED = 405;
+    private static final int RANGE_NOT_SATISFIABLE = 416;
+
     private final AmazonS3 s3;
     private final BucketRouter router;
     private final ExecutorService executorService;
+    private final S3StorageConfig config;
+    private final BatchObjectRemover batchRemover;
+    private final VersionExistenceCache versionExistenceCache;
 
     /**
      * @param s3 Connection to S3
@@ -49,39 +76,74 @@ public class S3StorageService implements StorageService {
      * @param executorService Multipart sending threadpool (file chunks are sent in parallel)
      */
     public S3StorageService(AmazonS3 s3, String bucketName, ExecutorService executorService) {
+        this(s3, new StaticBucketRouter(bucketName), executorService);
+    }
+
+    /**
+     * @param s3 Connection to S3
+     * @param router Bucket and object key resolver
+     * @param executorService Multipart sending threadpool (file chunks are sent in parallel)
+     */
+    public S3StorageService(AmazonS3 s3, BucketRouter router, ExecutorService executorService) {
+        this(s3, router, executorService, S3StorageConfig.builder().build());
+    }
+
+    /**
+     * @param s3 Connection to S3
+     * @param router Bucket and object key resolver
+     * @param executorService Multipart sending and read prefetching threadpool
+     * @param config Upload buffers, upload limits and read mode configuration
+     */
+    public S3StorageService(AmazonS3 s3, BucketRouter router, ExecutorService executorService,
+                            S3StorageConfig config) {
         this.s3 = s3;
-        this.router = new StaticBucketRouter(bucketName);
+        this.router = router;
         this.executorService = executorService;
+        this.config = config;
+        this.batchRemover = new BatchObjectRemover(s3, executorService);
+        this.versionExistenceCache = new VersionExistenceCache(config.getVersionExistenceCacheSize());
     }
 
     /**
      * Lists all resources within bucket and returns absolute resource location for each entry without credentials.
      * Does not include object versions, only latest are shown.
+     * If location has {@link StorageCapability#LIST_SHALLOW} capability, only direct children are listed using
+     * delimiter and nested directories (common prefixes) are returned as resources ending with '/'.
      */
     @Override
     public Stream<AbsoluteLocation<ResolvedResource>> list(AbsoluteLocation location) {
         log.debug("List at {}", location.location());
         String prefix = router.resourceKey(location);
 
+        if (isShallow(location)) {
+            return listShallow(location, prefix);
+        }
+
         S3Objects s3ObjectSummaries = S3Objects.withPrefix(s3, router.bucketName(location), prefix);
         Stream<S3ObjectSummary> objectStream = StreamSupport.stream(s3ObjectSummaries.spliterator(), false);
-        return objectStream
-                .map(os -> new AbsoluteLocation<>(
-                        new BaseResolvedResource(
-                                createPath(location, os, prefix.length()),
-                                os.getLastModified().toInstant()
-                        ))
-                );
+        return objectStream.map(os -> resolved(location, os, prefix.length()));
     }
 
     /**
-     * Reads resource by its location and uses its version if available in {@code location}
+     * Reads resource by its location and uses its version if available in {@code location}.
+     * If prefetching read is enabled, resource is read using parallel ranged GET requests.
      */
     @Override
     public InputStream read(AbsoluteLocation location) {
         log.debug("Read from {}", location);
 
         String bucketName = router.bucketName(location);
+        PrefetchReadConfig prefetchRead = config.getPrefetchRead();
+        if (null != prefetchRead) {
+            return executeAndReturn(
+                    location,
+                    key -> new PrefetchingS3InputStream(s3, bucketName, key, null, executorService, prefetchRead),
+                    (key, version) -> new PrefetchingS3InputStream(
+                            s3, bucketName, key, version.getVersionId(), executorService, prefetchRead
+                    )
+            );
+        }
+
         return executeAndReturn(
                 location,
                 key -> s3.getObject(bucketName, key).getObjectContent(),
@@ -92,8 +154,59 @@ public class S3StorageService implements StorageService {
         );
     }
 
+    /**
+     * Reads resource part using GET request with {@code Range} header, or parallel ranged GET requests within
+     * the range if prefetching read is enabled.
+     */
+    @Override
+    public InputStream read(AbsoluteLocation location, ByteRange range) {
+        log.debug("Read range {}-{} from {}", range.getOffset(), range.getLastPosition(), location);
+
+        String bucketName = router.bucketName(location);
+        PrefetchReadConfig prefetchRead = config.getPrefetchRead();
+        if (null != prefetchRead) {
+            return executeAndReturn(
+                    location,
+                    key -> new PrefetchingS3InputStream(
+                            s3, bucketName, key, null, executorService, prefetchRead, range
+                    ),
+                    (key, version) -> new PrefetchingS3InputStream(
+                            s3, bucketName, key, version.getVersionId(), executorService, prefetchRead, range
+                    )
+            );
+        }
+
+        GetObjectRequest request = executeAndReturn(
+                location,
+                key -> new GetObjectRequest(bucketName, key),
+                (key, version) -> new GetObjectRequest(bucketName, key, version.getVersionId())
+        );
+        if (null == range.getLength()) {
+            request.withRange(range.getOffset());
+        } else {
+            request.withRange(range.getOffset(), range.getLastPosition());
+        }
+
+        try {
+            return s3.getObject(request).getObjectContent();
+        } catch (AmazonS3Exception ex) {
+            if (RANGE_NOT_SATISFIABLE != ex.getStatusCode()) {
+                throw ex;
+            }
+
+            // range starts after object end
+            return new ByteArrayInputStream(new byte[0]);
+        }
+    }
+
+    @Override
+    public boolean supportsRangeRead(AbsoluteLocation location) {
+        return true;
+    }
+
     /**
      * Writes data stream into resource and sends resource version into callback if S3 returns version id.
+     * Multipart chunk size is derived from expected size of the resource if it is provided.
      */
     @Override
     public OutputStream write(WithCallback<AbsoluteLocation, ? extends ResourceWriteCallback> locationWithCallback) {
@@ -105,13 +218,18 @@ public class S3StorageService implements StorageService {
                 router.resourceKey(locationWithCallback.getWrapped()),
                 s3,
                 executorService,
+                config,
+                locationWithCallback.getExpectedSize(),
                 locationWithCallback.getCallbacks()
         );
     }
 
     /**
      * Removes resource by its location (latest one if versioning enabled) or removes just one version of the
-     * resource if version if available in {@code location}
+     * resource if version if available in {@code location}.
+     * If location is a directory (ends with '/'), all resources within it are removed using parallel
+     * multi-object delete requests, all their versions are removed if
+     * {@link S3StorageConfig#isRemoveAllVersions()} is set.
      */
     @Override
     public void remove(AbsoluteLocation location) {
@@ -121,13 +239,47 @@ public class S3StorageService implements StorageService {
         execute(
                 location,
                 key -> doRemove(bucketName, key),
-                (key, version) -> s3.deleteVersion(bucketName, key, version.getVersionId())
+                (key, version) -> {
+                    s3.deleteVersion(bucketName, key, version.getVersionId());
+                    versionExistenceCache.invalidate(bucketName, key, version.getVersionId());
+                }
         );
     }
 
+    /**
+     * Removes objects using multi-object delete requests per bucket. Directories (keys ending with '/') are
+     * removed one by one, since their contents have to be listed first.
+     */
+    @Override
+    public void removeAll(List<? extends AbsoluteLocation> locations) {
+        Map<String, List<KeyVersion>> keysByBucket = new LinkedHashMap<>();
+        for (AbsoluteLocation location : locations) {
+            String bucketName = router.bucketName(location);
+            String key = router.resourceKey(location);
+            Optional<StorageVersion> version = extractVersion(location);
+            if (!version.isPresent() && key.endsWith(DELIMITER)) {
+                doRemove(bucketName, key);
+                continue;
+            }
+
+            keysByBucket.computeIfAbsent(bucketName, it -> new ArrayList<>()).add(
+                    version.map(it -> new KeyVersion(key, it.getVersionId())).orElseGet(() -> new KeyVersion(key))
+            );
+        }
+
+        log.debug("Remove {} objects in {} buckets", locations.size(), keysByBucket.size());
+        keysByBucket.forEach((bucketName, keys) -> {
+            batchRemover.removeKeys(bucketName, keys);
+            keys.stream()
+                    .filter(it -> null != it.getVersion())
+                    .forEach(it -> versionExistenceCache.invalidate(bucketName, it.getKey(), it.getVersion()));
+        });
+    }
+
     /**
      * Checks if resource exists by its location (latest one if versioning enabled)
-     * or checks if resource with given version exists if version is available in {@code location}
+     * or checks if resource with given version exists if version is available in {@code location}.
+     * Version is checked using single HEAD request and result is cached.
      */
     @Override
     public boolean objectExists(AbsoluteLocation location) {
@@ -136,32 +288,121 @@ public class S3StorageService implements StorageService {
         boolean pathExists = executeAndReturn(
                 location,
                 key -> s3.doesObjectExist(bucketName, key),
-                (key, version) ->
-                        StreamSupport.stream(
-                                S3Versions.withPrefix(s3, bucketName, key).spliterator(), false)
-                                .anyMatch(it -> it.getVersionId().equals(version.getVersionId()))
+                (key, version) -> versionExists(bucketName, key, version.getVersionId())
         );
 
         log.debug("Path {} exists {}", location, pathExists);
         return pathExists;
     }
 
+    /**
+     * Checks resources in parallel using {@code executorService}, one HEAD request per resource.
+     */
+    @Override
+    public List<Boolean> existsAll(List<? extends AbsoluteLocation> locations) {
+        List<Future<Boolean>> checks = locations.stream()
+                .map(it -> executorService.submit(() -> objectExists(it)))
+                .collect(Collectors.toList());
+
+        return checks.stream().map(S3StorageService::await).collect(Collectors.toList());
+    }
+
+    /**
+     * Reports initial part size for writes without size hint, all following parts are multiples of it.
+     */
     @Override
     public Optional<Integer> flushChunkSize(AbsoluteLocation location) {
-        return Optional.of(MultipartUploadS3StorageOutputStream.BUFFER_SIZE);
+        return Optional.of(MultipartUploadS3StorageOutputStream.initialPartSize(config, null));
+    }
+
+    @SneakyThrows
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private boolean versionExists(String bucketName, String key, String versionId) {
+        Boolean cached = versionExistenceCache.get(bucketName, key, versionId);
+        if (null != cached) {
+            return cached;
+        }
+
+        boolean exists;
+        try {
+            s3.getObjectMetadata(new GetObjectMetadataRequest(bucketName, key, versionId));
+            exists = true;
+        } catch (AmazonS3Exception ex) {
+            if (NOT_FOUND == ex.getStatusCode()) {
+                exists = false;
+            } else if (METHOD_NOT_ALLOWED == ex.getStatusCode()) {
+                // version is a delete marker, it can't be HEAD-ed but exists in version history
+                exists = true;
+            } else {
+                throw ex;
+            }
+        }
+
+        versionExistenceCache.put(bucketName, key, versionId, exists);
+        return exists;
     }
 
     private void doRemove(String bucket, String key) {
         if (key.endsWith("/")) {
-            S3Objects.withPrefix(s3, bucket, key).forEach(it -> s3.deleteObject(bucket, it.getKey()));
+            versionExistenceCache.invalidatePrefix(bucket, key);
+            if (config.isRemoveAllVersions()) {
+                batchRemover.removeAllVersions(bucket, key);
+            } else {
+                batchRemover.removeLatest(bucket, key);
+            }
             return;
         }
 
         s3.deleteObject(bucket, key);
     }
 
-    private PrivateResource createPath(AbsoluteLocation root, S3ObjectSummary os, int prefixLen) {
-        String relUrl = os.getKey().substring(prefixLen).replaceFirst("^/", "");
+    private Stream<AbsoluteLocation<ResolvedResource>> listShallow(AbsoluteLocation location, String prefix) {
+        String dirPrefix = prefix.isEmpty() || prefix.endsWith(DELIMITER) ? prefix : prefix + DELIMITER;
+        ListObjectsV2Request request = new ListObjectsV2Request()
+                .withBucketName(router.bucketName(location))
+                .withPrefix(dirPrefix)
+                .withDelimiter(DELIMITER);
+
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(new ListingPages(request), Spliterator.ORDERED), false
+        ).flatMap(page -> Stream.concat(
+                page.getObjectSummaries().stream()
+                        // directory marker object of listed directory itself
+                        .filter(os -> !os.getKey().equals(dirPrefix))
+                        .map(os -> resolved(location, os, prefix.length())),
+                page.getCommonPrefixes().stream()
+                        // common prefixes have no modification date
+                        .map(dir -> new AbsoluteLocation<>(
+                                new BaseResolvedResource(createPath(location, dir, prefix.length()), Instant.EPOCH)
+                        ))
+        ));
+    }
+
+    private AbsoluteLocation<ResolvedResource> resolved(AbsoluteLocation location, S3ObjectSummary os, int prefixLen) {
+        return new AbsoluteLocation<>(
+                new BaseResolvedResource(
+                        createPath(location, os.getKey(), prefixLen),
+                        os.getLastModified().toInstant(),
+                        os.getSize(),
+                        os.getETag()
+                )
+        );
+    }
+
+    private static boolean isShallow(AbsoluteLocation location) {
+        return location instanceof AbsoluteLocationWithCapability
+                && StorageCapability.LIST_SHALLOW.equals(((AbsoluteLocationWithCapability) location).getCapability());
+    }
+
+    private PrivateResource createPath(AbsoluteLocation root, String key, int prefixLen) {
+        String relUrl = key.substring(prefixLen).replaceFirst("^/", "");
         if ("".equals(relUrl)) {
             return BasePrivateResource.forPrivate(root.location());
         }
@@ -199,6 +440,38 @@ public class S3StorageService implements StorageService {
         return ifVersion.apply(key, version.get());
     }
 
+    /**
+     * Lazily requests listing pages using continuation token.
+     */
+    private final class ListingPages implements Iterator<ListObjectsV2Result> {
+
+        private final ListObjectsV2Request request;
+        private ListObjectsV2Result current;
+
+        private ListingPages(ListObjectsV2Request request) {
+            this.request = request;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return null == current || current.isTruncated();
+        }
+
+        @Override
+        public ListObjectsV2Result next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            if (null != current) {
+                request.setContinuationToken(current.getNextContinuationToken());
+            }
+
+            current = s3.listObjectsV2(request);
+            return current;
+        }
+    }
+
     private Optional<StorageVersion> extractVersion(AbsoluteLocation location) {
         if (!(location.getResource() instanceof VersionedResourceLocation)) {
             return Optional.empty();
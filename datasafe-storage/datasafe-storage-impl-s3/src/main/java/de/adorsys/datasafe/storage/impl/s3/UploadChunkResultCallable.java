@@ -21,6 +21,7 @@
 
 package de.adorsys.datasafe.storage.impl.s3;
 
+import com.amazonaws.SdkClientException;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.UploadPartRequest;
 import com.amazonaws.services.s3.model.UploadPartResult;
@@ -46,6 +47,12 @@ public class UploadChunkResultCallable implements Callable<UploadPartResult> {
 
     private final String chunkId;
 
+    private final PartBufferPool partBufferPool;
+
+    private final MultipartUploadLimits limits;
+
+    private final PartRetryPolicy retryPolicy;
+
     private byte[] content;
 
     UploadChunkResultCallable(ChunkUploadRequest request) {
@@ -57,27 +64,53 @@ public class UploadChunkResultCallable implements Callable<UploadPartResult> {
         this.bucketName = request.getBucketName();
         this.fileName = request.getObjectName();
         this.chunkId = request.getUploadId();
+        this.partBufferPool = request.getPartBufferPool();
+        this.limits = request.getLimits();
+        this.retryPolicy = null == request.getRetryPolicy() ? PartRetryPolicy.noRetry() : request.getRetryPolicy();
 
         log.debug("Chunk upload request: {}", request.toString());
     }
 
+    /**
+     * Uploads the part, retrying failed attempts according to retry policy. Each attempt re-reads part content
+     * from the buffer, which is held until the last attempt completes.
+     */
     @Override
-    public UploadPartResult call() {
+    public UploadPartResult call() throws InterruptedException {
         log.trace("Upload chunk result call with part: {}", partNumber);
         try {
-            return amazonS3.uploadPart(new UploadPartRequest()
-                    .withBucketName(bucketName).withKey(fileName)
-                    .withUploadId(chunkId)
-                    .withInputStream(new ByteArrayInputStream(content))
-                    .withPartNumber(partNumber).withLastPart(last)
-                    .withPartSize(contentLength)
-            );
+            for (int attempt = 1; ; ++attempt) {
+                try {
+                    return uploadPart();
+                } catch (SdkClientException ex) {
+                    if (!retryPolicy.shouldRetry(attempt, ex)) {
+                        throw ex;
+                    }
+
+                    long backoff = retryPolicy.backoffMillis(attempt);
+                    log.warn("Upload of part {} failed (attempt {}), retrying in {} ms: {}",
+                            partNumber, attempt, backoff, ex.getMessage());
+                    Thread.sleep(backoff);
+                }
+            }
         } finally {
             // Release the memory, as the callable may still live inside the
             // CompletionService which would cause
             // an exhaustive memory usage
+            partBufferPool.release(content);
+            limits.release(contentLength);
             content = null;
         }
     }
 
+    private UploadPartResult uploadPart() {
+        return amazonS3.uploadPart(new UploadPartRequest()
+                .withBucketName(bucketName).withKey(fileName)
+                .withUploadId(chunkId)
+                .withInputStream(new ByteArrayInputStream(content, 0, contentLength))
+                .withPartNumber(partNumber).withLastPart(last)
+                .withPartSize(contentLength)
+        );
+    }
+
 }
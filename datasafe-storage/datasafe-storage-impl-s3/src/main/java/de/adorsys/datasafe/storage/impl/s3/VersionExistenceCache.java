@@ -0,0 +1,79 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.Synchronized;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of object version existence checks. S3 version ids are never reused, so both positive and
+ * negative results stay valid until the version is removed - removal must invalidate the entry.
+ */
+class VersionExistenceCache {
+
+    private final int maxSize;
+    private final Map<VersionKey, Boolean> entries;
+
+    /**
+     * @param maxSize Maximum count of cached results, {@code 0} disables caching
+     */
+    VersionExistenceCache(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Cache size must be >= 0: " + maxSize);
+        }
+
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<VersionKey, Boolean>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<VersionKey, Boolean> eldest) {
+                return size() > VersionExistenceCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * @return Cached existence result or {@code null} if unknown
+     */
+    @Synchronized
+    Boolean get(String bucketName, String key, String versionId) {
+        return entries.get(new VersionKey(bucketName, key, versionId));
+    }
+
+    @Synchronized
+    void put(String bucketName, String key, String versionId, boolean exists) {
+        if (0 == maxSize) {
+            return;
+        }
+
+        entries.put(new VersionKey(bucketName, key, versionId), exists);
+    }
+
+    @Synchronized
+    void invalidate(String bucketName, String key, String versionId) {
+        entries.remove(new VersionKey(bucketName, key, versionId));
+    }
+
+    /**
+     * Invalidates all versions of keys that start with {@code prefix}.
+     */
+    @Synchronized
+    void invalidatePrefix(String bucketName, String prefix) {
+        entries.keySet().removeIf(it -> it.bucketName.equals(bucketName) && it.key.startsWith(prefix));
+    }
+
+    @Synchronized
+    int size() {
+        return entries.size();
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static final class VersionKey {
+
+        private final String bucketName;
+        private final String key;
+        private final String versionId;
+    }
+}
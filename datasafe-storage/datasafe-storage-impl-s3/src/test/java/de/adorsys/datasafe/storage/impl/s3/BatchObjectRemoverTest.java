@@ -0,0 +1,142 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest.KeyVersion;
+import com.amazonaws.services.s3.model.DeleteObjectsResult;
+import com.amazonaws.services.s3.model.ListObjectsRequest;
+import com.amazonaws.services.s3.model.ListVersionsRequest;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException;
+import com.amazonaws.services.s3.model.ObjectListing;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.services.s3.model.S3VersionSummary;
+import com.amazonaws.services.s3.model.VersionListing;
+import de.adorsys.datasafe.storage.api.PartialRemoveException;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BatchObjectRemoverTest extends BaseMockitoTest {
+
+    private static final String BUCKET = "bucket";
+    private static final String PREFIX = "users/john/";
+
+    @Mock
+    private AmazonS3 amazonS3;
+
+    @Captor
+    private ArgumentCaptor<DeleteObjectsRequest> deletes;
+
+    private ExecutorService executorService;
+
+    private BatchObjectRemover tested;
+
+    @BeforeEach
+    void init() {
+        executorService = Executors.newFixedThreadPool(2);
+        tested = new BatchObjectRemover(amazonS3, executorService);
+    }
+
+    @AfterEach
+    void shutdown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void removeLatestSendsBatches() {
+        when(amazonS3.listObjects(any(ListObjectsRequest.class))).thenReturn(objects(2500));
+        when(amazonS3.deleteObjects(deletes.capture())).thenReturn(new DeleteObjectsResult(Collections.emptyList()));
+
+        tested.removeLatest(BUCKET, PREFIX);
+
+        assertThat(deletes.getAllValues()).extracting(it -> it.getKeys().size())
+                .containsExactlyInAnyOrder(1000, 1000, 500);
+        assertThat(deletes.getAllValues()).allSatisfy(it -> {
+            assertThat(it.getBucketName()).isEqualTo(BUCKET);
+            assertThat(it.getQuiet()).isTrue();
+        });
+        assertThat(deletes.getAllValues()).flatExtracting(DeleteObjectsRequest::getKeys)
+                .extracting(KeyVersion::getKey)
+                .doesNotHaveDuplicates()
+                .hasSize(2500);
+    }
+
+    @Test
+    void removeLatestOfEmptyPrefixDoesNothing() {
+        when(amazonS3.listObjects(any(ListObjectsRequest.class))).thenReturn(objects(0));
+
+        tested.removeLatest(BUCKET, PREFIX);
+
+        verify(amazonS3, never()).deleteObjects(any());
+    }
+
+    @Test
+    void removeAllVersionsRemovesEachVersion() {
+        when(amazonS3.listVersions(any(ListVersionsRequest.class))).thenReturn(versions(3));
+        when(amazonS3.deleteObjects(deletes.capture())).thenReturn(new DeleteObjectsResult(Collections.emptyList()));
+
+        tested.removeAllVersions(BUCKET, PREFIX);
+
+        assertThat(deletes.getValue().getKeys())
+                .extracting(KeyVersion::getVersion)
+                .containsExactly("v0", "v1", "v2");
+    }
+
+    @Test
+    void reportsFailedKeys() {
+        MultiObjectDeleteException.DeleteError error = new MultiObjectDeleteException.DeleteError();
+        error.setKey(PREFIX + "file1");
+        error.setCode("AccessDenied");
+        when(amazonS3.listObjects(any(ListObjectsRequest.class))).thenReturn(objects(1500));
+        when(amazonS3.deleteObjects(deletes.capture()))
+                .thenThrow(new MultiObjectDeleteException(Collections.singletonList(error), Collections.emptyList()))
+                .thenReturn(new DeleteObjectsResult(Collections.emptyList()));
+
+        PartialRemoveException ex = assertThrows(
+                PartialRemoveException.class,
+                () -> tested.removeLatest(BUCKET, PREFIX)
+        );
+
+        assertThat(ex.getFailedKeys()).containsExactly(PREFIX + "file1");
+        assertThat(ex.getCause()).isInstanceOf(MultiObjectDeleteException.class);
+        assertThat(deletes.getAllValues()).hasSize(2);
+    }
+
+    private static ObjectListing objects(int count) {
+        ObjectListing listing = new ObjectListing();
+        listing.getObjectSummaries().addAll(IntStream.range(0, count).mapToObj(id -> {
+            S3ObjectSummary summary = new S3ObjectSummary();
+            summary.setKey(PREFIX + "file" + id);
+            return summary;
+        }).collect(Collectors.toList()));
+        return listing;
+    }
+
+    private static VersionListing versions(int count) {
+        VersionListing listing = new VersionListing();
+        listing.setVersionSummaries(IntStream.range(0, count).mapToObj(id -> {
+            S3VersionSummary summary = new S3VersionSummary();
+            summary.setKey(PREFIX + "file");
+            summary.setVersionId("v" + id);
+            return summary;
+        }).collect(Collectors.toList()));
+        return listing;
+    }
+}
@@ -0,0 +1,86 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MultipartUploadLimitsTest extends BaseMockitoTest {
+
+    private static final int KB = 1024;
+
+    @Test
+    @SneakyThrows
+    void acquireConsumesBudget() {
+        MultipartUploadLimits tested = new MultipartUploadLimits(1, 10 * KB);
+
+        tested.acquire(8 * KB);
+
+        assertThat(tested.getAvailableBytes()).isEqualTo(2 * KB);
+        tested.release(8 * KB);
+        assertThat(tested.getAvailableBytes()).isEqualTo(10 * KB);
+    }
+
+    @Test
+    @SneakyThrows
+    void partialKilobyteRoundsUp() {
+        MultipartUploadLimits tested = new MultipartUploadLimits(1, 10 * KB);
+
+        tested.acquire(1);
+
+        assertThat(tested.getAvailableBytes()).isEqualTo(9 * KB);
+    }
+
+    @Test
+    @SneakyThrows
+    void partLargerThanBudgetDoesNotDeadlock() {
+        MultipartUploadLimits tested = new MultipartUploadLimits(1, 10 * KB);
+
+        tested.acquire(100 * KB);
+
+        assertThat(tested.getAvailableBytes()).isZero();
+    }
+
+    @Test
+    @SneakyThrows
+    void acquireBlocksUntilReleased() {
+        MultipartUploadLimits tested = new MultipartUploadLimits(1, 10 * KB);
+        tested.acquire(10 * KB);
+        CountDownLatch acquired = new CountDownLatch(1);
+
+        Thread waiter = new Thread(() -> {
+            try {
+                tested.acquire(KB);
+                acquired.countDown();
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        waiter.start();
+
+        assertThat(acquired.await(100, TimeUnit.MILLISECONDS)).isFalse();
+        tested.release(10 * KB);
+        assertThat(acquired.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    @SneakyThrows
+    void unlimitedBudgetNeverBlocks() {
+        MultipartUploadLimits tested = MultipartUploadLimits.perStreamOnly();
+
+        tested.acquire(Integer.MAX_VALUE);
+
+        assertThat(tested.getAvailableBytes()).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void invalidLimitsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new MultipartUploadLimits(0, 10 * KB));
+        assertThrows(IllegalArgumentException.class, () -> new MultipartUploadLimits(1, KB - 1));
+    }
+}
@@ -1,6 +1,7 @@
 package de.adorsys.datasafe.storage.impl.s3;
 
 import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
 import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
 import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
 import com.amazonaws.services.s3.model.PutObjectResult;
@@ -15,18 +16,27 @@ import org.mockito.Captor;
 import org.mockito.Mock;
 import org.testcontainers.shaded.com.google.common.io.ByteStreams;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Random;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static de.adorsys.datasafe.storage.impl.s3.MultipartUploadS3StorageOutputStream.BUFFER_SIZE;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -52,12 +62,11 @@ class MultipartUploadS3StorageOutputStreamTest extends BaseMockitoTest {
 
     @BeforeEach
     void init() {
-        tested = new MultipartUploadS3StorageOutputStream(
-                "bucket",
-                "s3://path/to/file.txt",
-                amazonS3,
+        // captured part streams are read after upload completes, so buffers must not be reused here
+        tested = newStream(
                 executorService,
-                Collections.emptyList()
+                S3StorageConfig.builder().partBufferPool(new PartBufferPool(BUFFER_SIZE, 0)).build(),
+                null
         );
 
         when(amazonS3.putObject(anyString(), anyString(), bytesSentDirectly.capture(), any()))
@@ -209,6 +218,237 @@ class MultipartUploadS3StorageOutputStreamTest extends BaseMockitoTest {
     }
 
 
+    @Test
+    @SneakyThrows
+    void writeChunkedReturnsBuffersToPool() {
+        PartBufferPool pool = new PartBufferPool(BUFFER_SIZE, 2);
+        MultipartUploadS3StorageOutputStream pooled = newStream(
+                executorService, S3StorageConfig.builder().partBufferPool(pool).build(), null
+        );
+
+        pooled.write(multipartChunkWithTail, 0 , multipartChunkWithTail.length);
+        pooled.close();
+
+        assertThat(uploadChunk.getAllValues()).hasSize(2);
+        assertThat(uploadChunk.getAllValues().get(1).getPartSize()).isEqualTo(100);
+        assertThat(pool.getMisses()).isEqualTo(1);
+        assertThat(pool.getHits()).isEqualTo(1);
+        assertThat(pool.getBorrowed()).isZero();
+        assertThat(pool.getIdle()).isEqualTo(1);
+    }
+
+    @Test
+    @SneakyThrows
+    void writeNonChunkedReturnsBufferToPool() {
+        PartBufferPool pool = new PartBufferPool(BUFFER_SIZE, 2);
+        MultipartUploadS3StorageOutputStream pooled = newStream(
+                executorService, S3StorageConfig.builder().partBufferPool(pool).build(), null
+        );
+
+        pooled.write(shortChunk, 0 , shortChunk.length);
+        pooled.close();
+
+        assertThat(bytesSentDirectly.getValue()).hasContent(new String(shortChunk));
+        assertThat(pool.getBorrowed()).isZero();
+        assertThat(pool.getIdle()).isEqualTo(1);
+    }
+
+    @Test
+    @SneakyThrows
+    void writeChunkedRespectsInFlightPartLimit() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(amazonS3.uploadPart(any())).thenAnswer(inv -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            inFlight.decrementAndGet();
+            return new UploadPartResult();
+        });
+
+        ExecutorService realExecutor = Executors.newFixedThreadPool(4);
+        MultipartUploadLimits limits = new MultipartUploadLimits(1, Long.MAX_VALUE);
+        MultipartUploadS3StorageOutputStream limited = newStream(
+                realExecutor,
+                S3StorageConfig.builder()
+                        .partBufferPool(new PartBufferPool(BUFFER_SIZE, 0))
+                        .uploadLimits(limits)
+                        .build(),
+                null
+        );
+
+        try {
+            for (int i = 0; i < 3; i++) {
+                limited.write(exactOneMultipartChunk, 0, exactOneMultipartChunk.length);
+            }
+            limited.write(shortChunk, 0, shortChunk.length);
+            limited.close();
+        } finally {
+            realExecutor.shutdown();
+        }
+
+        verify(amazonS3, times(4)).uploadPart(any());
+        assertThat(maxInFlight.get()).isEqualTo(1);
+    }
+
+    @Test
+    @SneakyThrows
+    void writeChunkedReturnsUploadBudget() {
+        MultipartUploadLimits limits = new MultipartUploadLimits(2, 2L * BUFFER_SIZE);
+        MultipartUploadS3StorageOutputStream limited = newStream(
+                executorService,
+                S3StorageConfig.builder()
+                        .partBufferPool(new PartBufferPool(BUFFER_SIZE, 0))
+                        .uploadLimits(limits)
+                        .build(),
+                null
+        );
+
+        limited.write(multipartChunkWithTail, 0 , multipartChunkWithTail.length);
+        limited.close();
+
+        assertThat(uploadChunk.getAllValues()).hasSize(2);
+        assertThat(limits.getAvailableBytes()).isEqualTo(2L * BUFFER_SIZE);
+    }
+
+    @Test
+    @SneakyThrows
+    void writeChunkedUsesPartSizeFromExpectedSize() {
+        MultipartUploadS3StorageOutputStream hinted = newStream(
+                executorService,
+                S3StorageConfig.builder()
+                        .partBufferPool(new PartBufferPool(100, 0))
+                        .partSizePolicy(PartSizePolicy.builder().targetPartCount(10).build())
+                        .build(),
+                10_000L
+        );
+
+        hinted.write(multipartChunkWithTail, 0, 2500);
+        hinted.close();
+
+        assertThat(uploadChunk.getAllValues()).extracting(UploadPartRequest::getPartSize)
+                .containsExactly(1000L, 1000L, 500L);
+        assertThat(uploadChunk.getAllValues().get(2).getInputStream())
+                .hasContent(new String(Arrays.copyOfRange(multipartChunkWithTail, 2000, 2500)));
+    }
+
+    @Test
+    @SneakyThrows
+    void writeChunkedGrowsPartSize() {
+        MultipartUploadS3StorageOutputStream growing = newStream(
+                executorService,
+                S3StorageConfig.builder()
+                        .partBufferPool(new PartBufferPool(100, 0))
+                        .partSizePolicy(PartSizePolicy.builder().partsPerSizeStep(1).maxPartSize(400).build())
+                        .build(),
+                null
+        );
+
+        growing.write(multipartChunkWithTail, 0, 1050);
+        growing.close();
+
+        assertThat(uploadChunk.getAllValues()).extracting(UploadPartRequest::getPartSize)
+                .containsExactly(100L, 200L, 400L, 350L);
+        assertThat(uploadChunk.getAllValues()).extracting(UploadPartRequest::getPartNumber)
+                .containsExactly(1, 2, 3, 4);
+    }
+
+    @Test
+    @SneakyThrows
+    void failedPartIsRetried() {
+        doThrow(s3Error(503))
+                .doReturn(new UploadPartResult())
+                .when(amazonS3).uploadPart(uploadChunk.capture());
+        MultipartUploadS3StorageOutputStream retrying = newStream(
+                executorService,
+                S3StorageConfig.builder()
+                        .partBufferPool(new PartBufferPool(BUFFER_SIZE, 0))
+                        .partRetryPolicy(PartRetryPolicy.builder().initialBackoff(Duration.ZERO).build())
+                        .build(),
+                null
+        );
+
+        retrying.write(exactOneMultipartChunk, 0, exactOneMultipartChunk.length);
+        retrying.close();
+
+        assertThat(uploadChunk.getAllValues()).hasSize(2);
+        assertThat(uploadChunk.getAllValues().get(1).getInputStream())
+                .hasSameContentAs(new ByteArrayInputStream(exactOneMultipartChunk));
+        verify(amazonS3).completeMultipartUpload(any());
+        verify(amazonS3, never()).abortMultipartUpload(any());
+    }
+
+    @Test
+    void failedPartIsNotRetriedOnClientError() {
+        doThrow(s3Error(403)).when(amazonS3).uploadPart(uploadChunk.capture());
+        MultipartUploadS3StorageOutputStream retrying = newStream(
+                executorService,
+                S3StorageConfig.builder()
+                        .partRetryPolicy(PartRetryPolicy.builder().initialBackoff(Duration.ZERO).build())
+                        .build(),
+                null
+        );
+
+        assertThrows(IOException.class, () -> {
+            retrying.write(exactOneMultipartChunk, 0, exactOneMultipartChunk.length);
+            retrying.close();
+        });
+
+        assertThat(uploadChunk.getAllValues()).hasSize(1);
+        verify(amazonS3).abortMultipartUpload(any());
+    }
+
+    @Test
+    @SneakyThrows
+    void uploadIsAbortedWhenCompleteFails() {
+        doReturn(partResult(1, "etag1"), partResult(2, "etag2")).when(amazonS3).uploadPart(uploadChunk.capture());
+        doThrow(s3Error(400)).when(amazonS3).completeMultipartUpload(any());
+
+        tested.write(multipartChunkWithTail, 0, multipartChunkWithTail.length);
+
+        assertThrows(AmazonS3Exception.class, () -> tested.close());
+        verify(amazonS3).abortMultipartUpload(any());
+    }
+
+    @Test
+    @SneakyThrows
+    void abortedUploadIsNotStored() {
+        tested.write(multipartChunkWithTail, 0, multipartChunkWithTail.length);
+
+        tested.abort();
+        tested.close();
+
+        verify(amazonS3).abortMultipartUpload(any());
+        verify(amazonS3, never()).completeMultipartUpload(any());
+        verify(amazonS3, never()).putObject(anyString(), anyString(), any(InputStream.class), any());
+    }
+
+    private static UploadPartResult partResult(int partNumber, String eTag) {
+        UploadPartResult result = new UploadPartResult();
+        result.setPartNumber(partNumber);
+        result.setETag(eTag);
+        return result;
+    }
+
+    private static AmazonS3Exception s3Error(int statusCode) {
+        AmazonS3Exception error = new AmazonS3Exception("Error " + statusCode);
+        error.setStatusCode(statusCode);
+        return error;
+    }
+
+    private MultipartUploadS3StorageOutputStream newStream(ExecutorService executor, S3StorageConfig config,
+                                                           Long expectedSize) {
+        return new MultipartUploadS3StorageOutputStream(
+                "bucket",
+                "s3://path/to/file.txt",
+                amazonS3,
+                executor,
+                config,
+                expectedSize,
+                Collections.emptyList()
+        );
+    }
+
+    @SneakyThrows
     private void writeByteByByte(byte[] bytes) {
         for (byte b : bytes) {
             tested.write(b);
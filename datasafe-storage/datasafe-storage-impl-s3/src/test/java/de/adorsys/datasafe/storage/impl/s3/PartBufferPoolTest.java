@@ -0,0 +1,90 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PartBufferPoolTest extends BaseMockitoTest {
+
+    private static final int SIZE = 16;
+
+    @Test
+    void borrowAllocatesWhenEmpty() {
+        PartBufferPool tested = new PartBufferPool(SIZE, 1);
+
+        byte[] buffer = tested.borrow();
+
+        assertThat(buffer).hasSize(SIZE);
+        assertThat(tested.getMisses()).isEqualTo(1);
+        assertThat(tested.getHits()).isZero();
+        assertThat(tested.getBorrowed()).isEqualTo(1);
+    }
+
+    @Test
+    void releasedBufferIsReused() {
+        PartBufferPool tested = new PartBufferPool(SIZE, 1);
+        byte[] buffer = tested.borrow();
+
+        tested.release(buffer);
+
+        assertThat(tested.getIdle()).isEqualTo(1);
+        assertThat(tested.borrow()).isSameAs(buffer);
+        assertThat(tested.getHits()).isEqualTo(1);
+        assertThat(tested.getIdle()).isZero();
+    }
+
+    @Test
+    void poolIsBounded() {
+        PartBufferPool tested = new PartBufferPool(SIZE, 1);
+        byte[] first = tested.borrow();
+        byte[] second = tested.borrow();
+
+        tested.release(first);
+        tested.release(second);
+
+        assertThat(tested.getIdle()).isEqualTo(1);
+        assertThat(tested.getBorrowed()).isZero();
+    }
+
+    @Test
+    void zeroSizedPoolDoesNotRetain() {
+        PartBufferPool tested = new PartBufferPool(SIZE, 0);
+        byte[] buffer = tested.borrow();
+
+        tested.release(buffer);
+
+        assertThat(tested.getIdle()).isZero();
+        assertThat(tested.borrow()).isNotSameAs(buffer);
+    }
+
+    @Test
+    void foreignBufferIsNotRetained() {
+        PartBufferPool tested = new PartBufferPool(SIZE, 1);
+        tested.borrow();
+
+        tested.release(new byte[SIZE + 1]);
+
+        assertThat(tested.getIdle()).isZero();
+    }
+
+    @Test
+    void otherSizeIsAllocatedAndNotRetained() {
+        PartBufferPool tested = new PartBufferPool(SIZE, 1);
+        byte[] buffer = tested.borrow(2 * SIZE);
+
+        tested.release(buffer);
+
+        assertThat(buffer).hasSize(2 * SIZE);
+        assertThat(tested.getMisses()).isEqualTo(1);
+        assertThat(tested.getBorrowed()).isZero();
+        assertThat(tested.getIdle()).isZero();
+    }
+
+    @Test
+    void invalidSizesRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new PartBufferPool(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new PartBufferPool(SIZE, -1));
+    }
+}
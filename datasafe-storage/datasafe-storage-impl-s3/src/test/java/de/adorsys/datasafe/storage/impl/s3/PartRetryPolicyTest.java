@@ -0,0 +1,52 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PartRetryPolicyTest extends BaseMockitoTest {
+
+    private final PartRetryPolicy tested = PartRetryPolicy.builder()
+            .maxAttempts(3)
+            .initialBackoff(Duration.ofMillis(100))
+            .maxBackoff(Duration.ofMillis(300))
+            .build();
+
+    @ParameterizedTest
+    @CsvSource({"500, true", "503, true", "429, true", "408, true", "403, false", "404, false"})
+    void retriesServerErrorsAndThrottling(int statusCode, boolean retry) {
+        AmazonS3Exception error = new AmazonS3Exception("Error");
+        error.setStatusCode(statusCode);
+
+        assertThat(tested.shouldRetry(1, error)).isEqualTo(retry);
+    }
+
+    @Test
+    void retriesNetworkErrors() {
+        assertThat(tested.shouldRetry(1, new SdkClientException("Connection reset"))).isTrue();
+    }
+
+    @Test
+    void stopsAfterMaxAttempts() {
+        SdkClientException error = new SdkClientException("Connection reset");
+
+        assertThat(tested.shouldRetry(2, error)).isTrue();
+        assertThat(tested.shouldRetry(3, error)).isFalse();
+        assertThat(PartRetryPolicy.noRetry().shouldRetry(1, error)).isFalse();
+    }
+
+    @Test
+    void backoffDoublesUpToMax() {
+        assertThat(tested.backoffMillis(1)).isEqualTo(100);
+        assertThat(tested.backoffMillis(2)).isEqualTo(200);
+        assertThat(tested.backoffMillis(3)).isEqualTo(300);
+        assertThat(tested.backoffMillis(100)).isEqualTo(300);
+    }
+}
@@ -0,0 +1,67 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import org.junit.jupiter.api.Test;
+
+import static de.adorsys.datasafe.storage.impl.s3.MultipartUploadS3StorageOutputStream.BUFFER_SIZE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PartSizePolicyTest extends BaseMockitoTest {
+
+    private static final long GB = 1024L * 1024 * 1024;
+
+    private final PartSizePolicy tested = PartSizePolicy.builder().build();
+
+    @Test
+    void initialPartSizeWithoutHintIsMinimal() {
+        assertThat(tested.initialPartSize(BUFFER_SIZE, null)).isEqualTo(BUFFER_SIZE);
+    }
+
+    @Test
+    void initialPartSizeForSmallObjectIsMinimal() {
+        assertThat(tested.initialPartSize(BUFFER_SIZE, 1024L)).isEqualTo(BUFFER_SIZE);
+    }
+
+    @Test
+    void initialPartSizeIsDerivedFromHint() {
+        int partSize = tested.initialPartSize(BUFFER_SIZE, 20 * GB);
+
+        assertThat(partSize % BUFFER_SIZE).isZero();
+        assertThat(20 * GB / partSize).isLessThanOrEqualTo(tested.getTargetPartCount());
+    }
+
+    @Test
+    void initialPartSizeIsCapped() {
+        int partSize = tested.initialPartSize(BUFFER_SIZE, 5000 * GB);
+
+        assertThat(partSize).isLessThanOrEqualTo(tested.getMaxPartSize());
+        assertThat(partSize % BUFFER_SIZE).isZero();
+    }
+
+    @Test
+    void partSizeGrowsWithPartCount() {
+        assertThat(tested.partSize(BUFFER_SIZE, 1)).isEqualTo(BUFFER_SIZE);
+        assertThat(tested.partSize(BUFFER_SIZE, 1000)).isEqualTo(BUFFER_SIZE);
+        assertThat(tested.partSize(BUFFER_SIZE, 1001)).isEqualTo(2 * BUFFER_SIZE);
+        assertThat(tested.partSize(BUFFER_SIZE, 2001)).isEqualTo(4 * BUFFER_SIZE);
+        assertThat(tested.partSize(BUFFER_SIZE, PartSizePolicy.MAX_PARTS) % BUFFER_SIZE).isZero();
+        assertThat(tested.partSize(BUFFER_SIZE, PartSizePolicy.MAX_PARTS)).isLessThanOrEqualTo(tested.getMaxPartSize());
+    }
+
+    @Test
+    void maxObjectSizeWithoutHintExceedsFixedPartLimit() {
+        long total = 0;
+        for (int part = 1; part <= PartSizePolicy.MAX_PARTS; part++) {
+            total += tested.partSize(BUFFER_SIZE, part);
+        }
+
+        assertThat(total).isGreaterThan(500 * GB);
+    }
+
+    @Test
+    void growthCanBeDisabled() {
+        PartSizePolicy fixed = PartSizePolicy.builder().partsPerSizeStep(0).build();
+
+        assertThat(fixed.partSize(BUFFER_SIZE, PartSizePolicy.MAX_PARTS)).isEqualTo(BUFFER_SIZE);
+    }
+}
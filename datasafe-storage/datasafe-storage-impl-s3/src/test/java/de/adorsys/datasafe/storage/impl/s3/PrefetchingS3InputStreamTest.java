@@ -0,0 +1,228 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.Headers;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import de.adorsys.datasafe.types.api.resource.ByteRange;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.testcontainers.shaded.com.google.common.io.ByteStreams;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class PrefetchingS3InputStreamTest extends BaseMockitoTest {
+
+    private static final String BUCKET = "bucket";
+    private static final String KEY = "path/to/file.txt";
+    private static final String ETAG = "etag";
+    private static final int PART_SIZE = 100;
+
+    private final byte[] data = randomBytes(PART_SIZE * 7 + 33);
+    private final PrefetchReadConfig config = PrefetchReadConfig.builder()
+            .partSize(PART_SIZE)
+            .prefetchDepth(3)
+            .partRetries(1)
+            .build();
+
+    @Mock
+    private AmazonS3 amazonS3;
+
+    @Captor
+    private ArgumentCaptor<GetObjectRequest> requests;
+
+    private ExecutorService executorService;
+
+    @BeforeEach
+    void init() {
+        executorService = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void shutdown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    @SneakyThrows
+    void readsAllPartsInOrder() {
+        when(amazonS3.getObject(requests.capture())).thenAnswer(inv -> serve(inv.getArgument(0), data, null));
+
+        try (InputStream is = new PrefetchingS3InputStream(amazonS3, BUCKET, KEY, null, executorService, config)) {
+            assertThat(ByteStreams.toByteArray(is)).isEqualTo(data);
+        }
+
+        assertThat(requests.getAllValues()).hasSize(8);
+        assertThat(requests.getAllValues())
+                .allSatisfy(it -> assertThat(it.getRange()[1] - it.getRange()[0]).isLessThan(PART_SIZE));
+        // all following requests are pinned to first response
+        assertThat(requests.getAllValues().subList(1, 8))
+                .allSatisfy(it -> assertThat(it.getMatchingETagConstraints()).containsExactly(ETAG));
+    }
+
+    @Test
+    @SneakyThrows
+    void readsByteByByte() {
+        byte[] small = Arrays.copyOf(data, PART_SIZE + 1);
+        when(amazonS3.getObject(any(GetObjectRequest.class))).thenAnswer(inv -> serve(inv.getArgument(0), small, null));
+
+        try (InputStream is = new PrefetchingS3InputStream(amazonS3, BUCKET, KEY, null, executorService, config)) {
+            for (byte expected : small) {
+                assertThat(is.read()).isEqualTo(expected & 0xFF);
+            }
+            assertThat(is.read()).isEqualTo(-1);
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void readsSmallerThanPart() {
+        byte[] small = Arrays.copyOf(data, 10);
+        when(amazonS3.getObject(requests.capture())).thenAnswer(inv -> serve(inv.getArgument(0), small, null));
+
+        try (InputStream is = new PrefetchingS3InputStream(amazonS3, BUCKET, KEY, null, executorService, config)) {
+            assertThat(ByteStreams.toByteArray(is)).isEqualTo(small);
+        }
+
+        assertThat(requests.getAllValues()).hasSize(1);
+    }
+
+    @Test
+    @SneakyThrows
+    void readsEmpty() {
+        AmazonS3Exception notSatisfiable = new AmazonS3Exception("Range not satisfiable");
+        notSatisfiable.setStatusCode(416);
+        when(amazonS3.getObject(any(GetObjectRequest.class))).thenThrow(notSatisfiable);
+
+        try (InputStream is = new PrefetchingS3InputStream(amazonS3, BUCKET, KEY, null, executorService, config)) {
+            assertThat(is.read()).isEqualTo(-1);
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void readsVersionPinnedToVersion() {
+        when(amazonS3.getObject(requests.capture())).thenAnswer(inv -> serve(inv.getArgument(0), data, null));
+
+        try (InputStream is = new PrefetchingS3InputStream(amazonS3, BUCKET, KEY, "v1", executorService, config)) {
+            assertThat(ByteStreams.toByteArray(is)).isEqualTo(data);
+        }
+
+        assertThat(requests.getAllValues()).allSatisfy(it -> {
+            assertThat(it.getVersionId()).isEqualTo("v1");
+            assertThat(it.getMatchingETagConstraints()).isEmpty();
+        });
+    }
+
+    @Test
+    @SneakyThrows
+    void pinsToVersionOfFirstResponse() {
+        when(amazonS3.getObject(requests.capture())).thenAnswer(inv -> serve(inv.getArgument(0), data, "v2"));
+
+        try (InputStream is = new PrefetchingS3InputStream(amazonS3, BUCKET, KEY, null, executorService, config)) {
+            assertThat(ByteStreams.toByteArray(is)).isEqualTo(data);
+        }
+
+        assertThat(requests.getAllValues().subList(1, 8))
+                .allSatisfy(it -> assertThat(it.getVersionId()).isEqualTo("v2"));
+    }
+
+    @Test
+    @SneakyThrows
+    void retriesFailedPart() {
+        AtomicInteger calls = new AtomicInteger();
+        when(amazonS3.getObject(any(GetObjectRequest.class))).thenAnswer(inv -> {
+            // fail second request once
+            if (calls.incrementAndGet() == 2) {
+                throw new AmazonS3Exception("Connection reset");
+            }
+            return serve(inv.getArgument(0), data, null);
+        });
+
+        try (InputStream is = new PrefetchingS3InputStream(amazonS3, BUCKET, KEY, null, executorService, config)) {
+            assertThat(ByteStreams.toByteArray(is)).isEqualTo(data);
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void failsIfObjectModified() {
+        AtomicInteger calls = new AtomicInteger();
+        // S3 client returns null if ETag constraint is not met
+        when(amazonS3.getObject(any(GetObjectRequest.class))).thenAnswer(inv ->
+                calls.incrementAndGet() == 1 ? serve(inv.getArgument(0), data, null) : null
+        );
+
+        try (InputStream is = new PrefetchingS3InputStream(amazonS3, BUCKET, KEY, null, executorService, config)) {
+            assertThrows(IOException.class, () -> ByteStreams.toByteArray(is));
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void readsOnlyPartsWithinRange() {
+        when(amazonS3.getObject(requests.capture())).thenAnswer(inv -> serve(inv.getArgument(0), data, null));
+
+        ByteRange range = ByteRange.of(PART_SIZE * 2 + 50, PART_SIZE * 2);
+        try (InputStream is = new PrefetchingS3InputStream(
+                amazonS3, BUCKET, KEY, null, executorService, config, range)) {
+            assertThat(ByteStreams.toByteArray(is)).isEqualTo(Arrays.copyOfRange(data, 250, 450));
+        }
+
+        assertThat(requests.getAllValues()).extracting(it -> it.getRange()[0]).containsExactly(250L, 350L);
+    }
+
+    @Test
+    @SneakyThrows
+    void readsTailRange() {
+        when(amazonS3.getObject(requests.capture())).thenAnswer(inv -> serve(inv.getArgument(0), data, null));
+
+        ByteRange range = ByteRange.from(data.length - 10);
+        try (InputStream is = new PrefetchingS3InputStream(
+                amazonS3, BUCKET, KEY, null, executorService, config, range)) {
+            assertThat(ByteStreams.toByteArray(is)).isEqualTo(Arrays.copyOfRange(data, data.length - 10, data.length));
+        }
+
+        assertThat(requests.getAllValues()).hasSize(1);
+    }
+
+    private static S3Object serve(GetObjectRequest request, byte[] content, String version) {
+        long[] range = request.getRange();
+        int start = (int) range[0];
+        int end = (int) Math.min(range[1], content.length - 1);
+
+        S3Object object = new S3Object();
+        object.setObjectContent(new ByteArrayInputStream(Arrays.copyOfRange(content, start, end + 1)));
+        object.getObjectMetadata().setHeader(Headers.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + content.length);
+        object.getObjectMetadata().setHeader(Headers.ETAG, ETAG);
+        if (null != version) {
+            object.getObjectMetadata().setHeader(Headers.S3_VERSION_ID, version);
+        }
+        return object;
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] data = new byte[size];
+        new Random().nextBytes(data);
+        return data;
+    }
+}
@@ -0,0 +1,60 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class S3ClientPoolTest extends BaseMockitoTest {
+
+    private static final S3ClientPool.ClientKey KEY = new S3ClientPool.ClientKey("http://host/", "eu", "key", "secret");
+
+    private S3ClientPool tested;
+
+    @BeforeEach
+    void init() {
+        tested = new S3ClientPool(key -> mock(AmazonS3.class));
+    }
+
+    @Test
+    void sharesClientForSameKey() {
+        AmazonS3 first = tested.acquire(KEY);
+
+        assertThat(tested.acquire(new S3ClientPool.ClientKey("http://host/", "eu", "key", "secret"))).isSameAs(first);
+        assertThat(tested.acquire(new S3ClientPool.ClientKey("http://host/", "eu", "key", "other"))).isNotSameAs(first);
+        assertThat(tested.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shutsDownClientWhenLastUserReleases() {
+        AmazonS3 client = tested.acquire(KEY);
+        tested.acquire(KEY);
+
+        tested.release(KEY);
+        verify(client, never()).shutdown();
+
+        tested.release(KEY);
+        verify(client).shutdown();
+        assertThat(tested.size()).isZero();
+    }
+
+    @Test
+    void closingStorageServiceReleasesClientOnce() {
+        AmazonS3 client = tested.acquire(KEY);
+        PooledS3StorageService service = new PooledS3StorageService(
+                tested, KEY, new StaticBucketRouter("bucket"), null, S3StorageConfig.builder().build()
+        );
+
+        service.close();
+        service.close();
+        verify(client, never()).shutdown();
+
+        tested.release(KEY);
+        verify(client).shutdown();
+    }
+}
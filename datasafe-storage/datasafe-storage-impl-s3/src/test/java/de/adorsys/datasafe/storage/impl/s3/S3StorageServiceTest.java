@@ -0,0 +1,257 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest.KeyVersion;
+import com.amazonaws.services.s3.model.DeleteObjectsResult;
+import com.amazonaws.services.s3.model.GetObjectMetadataRequest;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocationWithCapability;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.ByteRange;
+import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.resource.StorageCapability;
+import de.adorsys.datasafe.types.api.resource.StorageVersion;
+import de.adorsys.datasafe.types.api.resource.Uri;
+import de.adorsys.datasafe.types.api.resource.VersionedPrivateResource;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class S3StorageServiceTest extends BaseMockitoTest {
+
+    private static final String BUCKET = "bucket";
+
+    @Mock
+    private AmazonS3 amazonS3;
+
+    @Mock
+    private ExecutorService executorService;
+
+    @Captor
+    private ArgumentCaptor<ListObjectsV2Request> listRequests;
+
+    private S3StorageService tested;
+
+    @BeforeEach
+    void init() {
+        tested = new S3StorageService(amazonS3, BUCKET, executorService);
+    }
+
+    @Test
+    void listShallowUsesDelimiterAndReturnsDirectories() {
+        ListObjectsV2Result firstPage = new ListObjectsV2Result();
+        firstPage.getObjectSummaries().add(summary("deeper/"));
+        firstPage.getObjectSummaries().add(summary("deeper/level1.txt"));
+        firstPage.setTruncated(true);
+        firstPage.setNextContinuationToken("next");
+        ListObjectsV2Result secondPage = new ListObjectsV2Result();
+        secondPage.getCommonPrefixes().add("deeper/more/");
+        List<String> tokens = new ArrayList<>();
+        when(amazonS3.listObjectsV2(listRequests.capture())).thenAnswer(inv -> {
+            // request object is reused between pages
+            tokens.add(inv.getArgument(0, ListObjectsV2Request.class).getContinuationToken());
+            return tokens.size() == 1 ? firstPage : secondPage;
+        });
+
+        List<String> listed = tested.list(
+                new AbsoluteLocationWithCapability<>(
+                        BasePrivateResource.forPrivate(new Uri("s3://" + BUCKET + "/deeper")),
+                        StorageCapability.LIST_SHALLOW
+                )
+        ).map(AbsoluteLocation::location).map(Uri::toASCIIString).collect(Collectors.toList());
+
+        assertThat(listed).containsExactly(
+                "s3://" + BUCKET + "/deeper/level1.txt",
+                "s3://" + BUCKET + "/deeper/more/"
+        );
+        assertThat(listRequests.getAllValues()).allSatisfy(it -> {
+            assertThat(it.getPrefix()).isEqualTo("deeper/");
+            assertThat(it.getDelimiter()).isEqualTo("/");
+        });
+        assertThat(tokens).containsExactly(null, "next");
+    }
+
+    @Test
+    void listShallowIsLazy() {
+        ListObjectsV2Result page = new ListObjectsV2Result();
+        page.getObjectSummaries().add(summary("file.txt"));
+        page.setTruncated(true);
+        page.setNextContinuationToken("next");
+        when(amazonS3.listObjectsV2(listRequests.capture())).thenReturn(page);
+
+        AbsoluteLocation<ResolvedResource> first = tested.list(
+                new AbsoluteLocationWithCapability<>(
+                        BasePrivateResource.forPrivate(new Uri("s3://" + BUCKET + "/")),
+                        StorageCapability.LIST_SHALLOW
+                )
+        ).findFirst().get();
+
+        assertThat(first.location().toASCIIString()).isEqualTo("s3://" + BUCKET + "/file.txt");
+        assertThat(listRequests.getAllValues()).hasSize(1);
+    }
+
+    @Test
+    void listShallowReturnsSizeAndETag() {
+        ListObjectsV2Result page = new ListObjectsV2Result();
+        S3ObjectSummary file = summary("file.txt");
+        file.setSize(42);
+        file.setETag("etag");
+        page.getObjectSummaries().add(file);
+        page.getCommonPrefixes().add("dir/");
+        when(amazonS3.listObjectsV2(listRequests.capture())).thenReturn(page);
+
+        List<ResolvedResource> listed = tested.list(
+                new AbsoluteLocationWithCapability<>(
+                        BasePrivateResource.forPrivate(new Uri("s3://" + BUCKET + "/")),
+                        StorageCapability.LIST_SHALLOW
+                )
+        ).map(AbsoluteLocation::getResource).collect(Collectors.toList());
+
+        assertThat(listed).extracting(ResolvedResource::getSize).containsExactly(42L, null);
+        assertThat(listed).extracting(ResolvedResource::getETag).containsExactly("etag", null);
+    }
+
+    @Test
+    void versionExistsUsesSingleCachedHead() {
+        ArgumentCaptor<GetObjectMetadataRequest> heads = ArgumentCaptor.forClass(GetObjectMetadataRequest.class);
+        when(amazonS3.getObjectMetadata(heads.capture())).thenReturn(new ObjectMetadata());
+
+        assertThat(tested.objectExists(versioned("v1"))).isTrue();
+        assertThat(tested.objectExists(versioned("v1"))).isTrue();
+
+        assertThat(heads.getAllValues()).hasSize(1);
+        assertThat(heads.getValue().getBucketName()).isEqualTo(BUCKET);
+        assertThat(heads.getValue().getKey()).isEqualTo("file.txt");
+        assertThat(heads.getValue().getVersionId()).isEqualTo("v1");
+    }
+
+    @Test
+    void versionDoesNotExist() {
+        AmazonS3Exception notFound = new AmazonS3Exception("Not found");
+        notFound.setStatusCode(404);
+        when(amazonS3.getObjectMetadata(any(GetObjectMetadataRequest.class))).thenThrow(notFound);
+
+        assertThat(tested.objectExists(versioned("v1"))).isFalse();
+        assertThat(tested.objectExists(versioned("v1"))).isFalse();
+
+        verify(amazonS3, times(1)).getObjectMetadata(any(GetObjectMetadataRequest.class));
+    }
+
+    @Test
+    void removeVersionInvalidatesCachedExistence() {
+        when(amazonS3.getObjectMetadata(any(GetObjectMetadataRequest.class))).thenReturn(new ObjectMetadata());
+
+        tested.objectExists(versioned("v1"));
+        tested.remove(versioned("v1"));
+        tested.objectExists(versioned("v1"));
+
+        verify(amazonS3).deleteVersion(BUCKET, "file.txt", "v1");
+        verify(amazonS3, times(2)).getObjectMetadata(any(GetObjectMetadataRequest.class));
+    }
+
+    @Test
+    void removeAllUsesMultiObjectDelete() {
+        ArgumentCaptor<DeleteObjectsRequest> deletes = ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+        when(amazonS3.deleteObjects(deletes.capture())).thenReturn(new DeleteObjectsResult(Collections.emptyList()));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            new S3StorageService(amazonS3, BUCKET, executor).removeAll(Arrays.asList(
+                    location("a.txt"), location("b.txt"), versioned("v1")
+            ));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(deletes.getValue().getKeys())
+                .extracting(KeyVersion::getKey, KeyVersion::getVersion)
+                .containsExactly(tuple("a.txt", null), tuple("b.txt", null), tuple("file.txt", "v1"));
+    }
+
+    @Test
+    void existsAllChecksInParallel() {
+        when(amazonS3.doesObjectExist(BUCKET, "a.txt")).thenReturn(true);
+        when(amazonS3.doesObjectExist(BUCKET, "b.txt")).thenReturn(false);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            assertThat(new S3StorageService(amazonS3, BUCKET, executor).existsAll(
+                    Arrays.asList(location("a.txt"), location("b.txt"))
+            )).containsExactly(true, false);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void readRangeSendsRangeHeader() {
+        ArgumentCaptor<GetObjectRequest> request = ArgumentCaptor.forClass(GetObjectRequest.class);
+        when(amazonS3.getObject(request.capture())).thenReturn(new S3Object());
+
+        tested.read(versioned("v1"), ByteRange.of(10, 5));
+        tested.read(location("file.txt"), ByteRange.from(7));
+
+        assertThat(request.getAllValues().get(0).getRange()).containsExactly(10L, 14L);
+        assertThat(request.getAllValues().get(0).getVersionId()).isEqualTo("v1");
+        assertThat(request.getAllValues().get(1).getRange()).containsExactly(7L, Long.MAX_VALUE - 1);
+        assertThat(tested.supportsRangeRead(location("file.txt"))).isTrue();
+    }
+
+    @Test
+    @SneakyThrows
+    void readRangeAfterObjectEndIsEmpty() {
+        AmazonS3Exception notSatisfiable = new AmazonS3Exception("Range not satisfiable");
+        notSatisfiable.setStatusCode(416);
+        when(amazonS3.getObject(any(GetObjectRequest.class))).thenThrow(notSatisfiable);
+
+        try (InputStream is = tested.read(location("file.txt"), ByteRange.from(100))) {
+            assertThat(is.read()).isEqualTo(-1);
+        }
+    }
+
+    private static AbsoluteLocation<PrivateResource> location(String key) {
+        return new AbsoluteLocation<>(BasePrivateResource.forPrivate(new Uri("s3://" + BUCKET + "/" + key)));
+    }
+
+    private static AbsoluteLocation<PrivateResource> versioned(String version) {
+        return new AbsoluteLocation<>(new VersionedPrivateResource<>(
+                BasePrivateResource.forPrivate(new Uri("s3://" + BUCKET + "/file.txt")),
+                new StorageVersion(version)
+        ));
+    }
+
+    private static S3ObjectSummary summary(String key) {
+        S3ObjectSummary summary = new S3ObjectSummary();
+        summary.setKey(key);
+        summary.setLastModified(new Date());
+        return summary;
+    }
+}
@@ -7,9 +7,11 @@ import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
 import com.amazonaws.services.s3.model.AmazonS3Exception;
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocationWithCapability;
 import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
 import de.adorsys.datasafe.types.api.resource.PrivateResource;
 import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.resource.StorageCapability;
 import de.adorsys.datasafe.types.api.resource.Uri;
 import de.adorsys.datasafe.types.api.resource.WithCallback;
 import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
@@ -25,6 +27,7 @@ import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.containers.wait.strategy.Wait;
 
 import java.io.OutputStream;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -131,6 +134,28 @@ class S3SystemStorageServiceTest extends BaseMockitoTest {
                 );
     }
 
+    @Test
+    void listShallow() {
+        s3.putObject(bucketName, "root.txt", "txt1");
+        s3.putObject(bucketName, "deeper/level1.txt", "txt2");
+        s3.putObject(bucketName, "deeper/more/level2.txt", "txt3");
+
+        List<AbsoluteLocation<ResolvedResource>> resources = storageService.list(
+                new AbsoluteLocationWithCapability<>(
+                        BasePrivateResource.forPrivate(new Uri("s3://" + bucketName + "/deeper")),
+                        StorageCapability.LIST_SHALLOW
+                )
+        ).collect(Collectors.toList());
+
+        assertThat(resources)
+                .extracting(AbsoluteLocation::location)
+                .extracting(Uri::toASCIIString)
+                .containsExactlyInAnyOrder(
+                        "s3://" + bucketName + "/deeper/level1.txt",
+                        "s3://" + bucketName + "/deeper/more/"
+                );
+    }
+
     @Test
     void listOnNonExisting() {
         assertThat(storageService.list(root)).isEmpty();
@@ -143,6 +168,23 @@ class S3SystemStorageServiceTest extends BaseMockitoTest {
         assertThat(storageService.read(fileWithMsg)).hasContent(MESSAGE);
     }
 
+    @Test
+    @SneakyThrows
+    void readWithPrefetch() {
+        String message = String.join("", Collections.nCopies(1000, MESSAGE));
+        createFileWithMessage(FILE, message);
+        S3StorageService prefetching = new S3StorageService(
+                s3,
+                new StaticBucketRouter(bucketName),
+                ExecutorServiceUtil.submitterExecutesOnStarvationExecutingService(),
+                S3StorageConfig.builder()
+                        .prefetchRead(PrefetchReadConfig.builder().partSize(128).prefetchDepth(3).build())
+                        .build()
+        );
+
+        assertThat(prefetching.read(fileWithMsg)).hasContent(message);
+    }
+
     @Test
     @SneakyThrows
     void write() {
@@ -178,7 +220,12 @@ class S3SystemStorageServiceTest extends BaseMockitoTest {
 
     @SneakyThrows
     private void createFileWithMessage(String path) {
-        s3.putObject(bucketName, path, MESSAGE);
+        createFileWithMessage(path, MESSAGE);
+    }
+
+    @SneakyThrows
+    private void createFileWithMessage(String path, String message) {
+        s3.putObject(bucketName, path, message);
     }
 
     @SneakyThrows
@@ -0,0 +1,62 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class VersionExistenceCacheTest extends BaseMockitoTest {
+
+    private static final String BUCKET = "bucket";
+
+    @Test
+    void cachesPositiveAndNegativeResults() {
+        VersionExistenceCache tested = new VersionExistenceCache(2);
+
+        tested.put(BUCKET, "key", "v1", true);
+        tested.put(BUCKET, "key", "v2", false);
+
+        assertThat(tested.get(BUCKET, "key", "v1")).isTrue();
+        assertThat(tested.get(BUCKET, "key", "v2")).isFalse();
+        assertThat(tested.get(BUCKET, "key", "v3")).isNull();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        VersionExistenceCache tested = new VersionExistenceCache(2);
+        tested.put(BUCKET, "key", "v1", true);
+        tested.put(BUCKET, "key", "v2", true);
+        tested.get(BUCKET, "key", "v1");
+
+        tested.put(BUCKET, "key", "v3", true);
+
+        assertThat(tested.size()).isEqualTo(2);
+        assertThat(tested.get(BUCKET, "key", "v1")).isTrue();
+        assertThat(tested.get(BUCKET, "key", "v2")).isNull();
+    }
+
+    @Test
+    void invalidatesByPrefix() {
+        VersionExistenceCache tested = new VersionExistenceCache(10);
+        tested.put(BUCKET, "dir/key", "v1", true);
+        tested.put(BUCKET, "other/key", "v1", true);
+        tested.put("other", "dir/key", "v1", true);
+
+        tested.invalidatePrefix(BUCKET, "dir/");
+
+        assertThat(tested.get(BUCKET, "dir/key", "v1")).isNull();
+        assertThat(tested.get(BUCKET, "other/key", "v1")).isTrue();
+        assertThat(tested.get("other", "dir/key", "v1")).isTrue();
+    }
+
+    @Test
+    void zeroSizeDisablesCaching() {
+        VersionExistenceCache tested = new VersionExistenceCache(0);
+
+        tested.put(BUCKET, "key", "v1", true);
+
+        assertThat(tested.get(BUCKET, "key", "v1")).isNull();
+        assertThrows(IllegalArgumentException.class, () -> new VersionExistenceCache(-1));
+    }
+}
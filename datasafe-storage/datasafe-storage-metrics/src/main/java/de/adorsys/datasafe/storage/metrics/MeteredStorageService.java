@@ -0,0 +1,359 @@
+package de.adorsys.datasafe.storage.metrics;
+
+import de.adorsys.datasafe.storage.api.AbortableOutputStream;
+import de.adorsys.datasafe.storage.api.StorageService;
+import de.adorsys.datasafe.types.api.callback.ResourceWriteCallback;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.ByteRange;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.resource.WithCallback;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Records Micrometer metrics of every operation of wrapped storage:
+ * <ul>
+ *     <li>{@value #REQUESTS} - latency histogram tagged by {@code outcome} ({@code success} or {@code error})</li>
+ *     <li>{@value #BYTES} - content bytes transferred by {@code read}, {@code readRange} and {@code write}</li>
+ *     <li>{@value #IN_FLIGHT} - count of operations that are in progress</li>
+ * </ul>
+ * All meters are tagged by {@code backend} name, location {@code scheme} and {@code operation}.
+ * Read and write are measured until returned stream is closed, so that their latency includes content transfer,
+ * list is measured until backend returns its (possibly lazy) stream. Batch operations ({@code existsAll},
+ * {@code removeAll}) are measured as a whole and tagged by scheme of their first location.
+ */
+public class MeteredStorageService implements StorageService, AutoCloseable {
+
+    public static final String REQUESTS = "datasafe.storage.requests";
+    public static final String BYTES = "datasafe.storage.bytes";
+    public static final String IN_FLIGHT = "datasafe.storage.inflight";
+
+    private static final String SUCCESS = "success";
+    private static final String ERROR = "error";
+
+    private final StorageService delegate;
+    private final MeterRegistry registry;
+    private final String backend;
+    private final Map<String, OperationMeters> meters = new ConcurrentHashMap<>();
+
+    /**
+     * @param delegate Storage to measure
+     * @param registry Registry where meters are registered
+     * @param backend Value of {@code backend} tag, i.e. {@code s3} or {@code db}
+     */
+    public MeteredStorageService(StorageService delegate, MeterRegistry registry, String backend) {
+        this.delegate = delegate;
+        this.registry = registry;
+        this.backend = backend;
+    }
+
+    @Override
+    public boolean objectExists(AbsoluteLocation location) {
+        return measure("exists", location, () -> delegate.objectExists(location));
+    }
+
+    @Override
+    public List<Boolean> existsAll(List<? extends AbsoluteLocation> locations) {
+        return measureBatch("existsAll", locations, () -> delegate.existsAll(locations));
+    }
+
+    @Override
+    public Stream<AbsoluteLocation<ResolvedResource>> list(AbsoluteLocation location) {
+        return measure("list", location, () -> delegate.list(location));
+    }
+
+    @Override
+    public InputStream read(AbsoluteLocation location) {
+        OperationMeters operation = meters("read", location);
+        Timer.Sample sample = operation.start();
+        try {
+            return new MeteredInputStream(delegate.read(location), operation, sample);
+        } catch (RuntimeException ex) {
+            operation.stop(sample, false, 0);
+            throw ex;
+        }
+    }
+
+    @Override
+    public InputStream read(AbsoluteLocation location, ByteRange range) {
+        OperationMeters operation = meters("readRange", location);
+        Timer.Sample sample = operation.start();
+        try {
+            return new MeteredInputStream(delegate.read(location, range), operation, sample);
+        } catch (RuntimeException ex) {
+            operation.stop(sample, false, 0);
+            throw ex;
+        }
+    }
+
+    @Override
+    public boolean supportsRangeRead(AbsoluteLocation location) {
+        return delegate.supportsRangeRead(location);
+    }
+
+    @Override
+    public OutputStream write(WithCallback<AbsoluteLocation, ? extends ResourceWriteCallback> locationWithCallback) {
+        OperationMeters operation = meters("write", locationWithCallback.getWrapped());
+        Timer.Sample sample = operation.start();
+        try {
+            return new MeteredOutputStream(delegate.write(locationWithCallback), operation, sample);
+        } catch (RuntimeException ex) {
+            operation.stop(sample, false, 0);
+            throw ex;
+        }
+    }
+
+    @Override
+    public void remove(AbsoluteLocation location) {
+        measure("remove", location, () -> {
+            delegate.remove(location);
+            return null;
+        });
+    }
+
+    @Override
+    public void removeAll(List<? extends AbsoluteLocation> locations) {
+        measureBatch("removeAll", locations, () -> {
+            delegate.removeAll(locations);
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<Integer> flushChunkSize(AbsoluteLocation location) {
+        return delegate.flushChunkSize(location);
+    }
+
+    /**
+     * Closes backing storage if it is {@link AutoCloseable}.
+     */
+    @Override
+    public void close() throws Exception {
+        if (delegate instanceof AutoCloseable) {
+            ((AutoCloseable) delegate).close();
+        }
+    }
+
+    private <T> T measure(String operationName, AbsoluteLocation location, Supplier<T> call) {
+        OperationMeters operation = meters(operationName, location);
+        Timer.Sample sample = operation.start();
+        boolean success = false;
+        try {
+            T result = call.get();
+            success = true;
+            return result;
+        } finally {
+            operation.stop(sample, success, 0);
+        }
+    }
+
+    private <T> T measureBatch(String operationName, List<? extends AbsoluteLocation> locations, Supplier<T> call) {
+        if (locations.isEmpty()) {
+            return call.get();
+        }
+
+        return measure(operationName, locations.get(0), call);
+    }
+
+    private OperationMeters meters(String operation, AbsoluteLocation location) {
+        String scheme = location.location().asURI().getScheme();
+        String schemeTag = null == scheme ? "none" : scheme;
+        return meters.computeIfAbsent(
+                operation + ":" + schemeTag,
+                key -> new OperationMeters(Tags.of("backend", backend, "scheme", schemeTag, "operation", operation))
+        );
+    }
+
+    /**
+     * Meters of one operation on one scheme, cached so that hot path does not look them up in registry.
+     */
+    private final class OperationMeters {
+
+        private final Timer success;
+        private final Timer error;
+        private final Counter bytes;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private OperationMeters(Tags tags) {
+            this.success = timer(tags.and("outcome", SUCCESS));
+            this.error = timer(tags.and("outcome", ERROR));
+            this.bytes = Counter.builder(BYTES).baseUnit("bytes").tags(tags).register(registry);
+            Gauge.builder(IN_FLIGHT, inFlight, AtomicInteger::get).tags(tags).register(registry);
+        }
+
+        private Timer.Sample start() {
+            inFlight.incrementAndGet();
+            return Timer.start(registry);
+        }
+
+        private void stop(Timer.Sample sample, boolean succeeded, long transferred) {
+            inFlight.decrementAndGet();
+            sample.stop(succeeded ? success : error);
+            if (0 != transferred) {
+                bytes.increment(transferred);
+            }
+        }
+
+        private Timer timer(Tags tags) {
+            return Timer.builder(REQUESTS).tags(tags).publishPercentileHistogram().register(registry);
+        }
+    }
+
+    /**
+     * Counts bytes that were read and stops operation timer when closed.
+     */
+    private static final class MeteredInputStream extends FilterInputStream {
+
+        private final OperationMeters operation;
+        private final Timer.Sample sample;
+
+        private long transferred;
+        private boolean failed;
+        private boolean closed;
+
+        private MeteredInputStream(InputStream in, OperationMeters operation, Timer.Sample sample) {
+            super(in);
+            this.operation = operation;
+            this.sample = sample;
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                int value = super.read();
+                if (-1 != value) {
+                    transferred++;
+                }
+
+                return value;
+            } catch (IOException | RuntimeException ex) {
+                failed = true;
+                throw ex;
+            }
+        }
+
+        @Override
+        public int read(byte[] bytes, int off, int len) throws IOException {
+            try {
+                int count = super.read(bytes, off, len);
+                if (count > 0) {
+                    transferred += count;
+                }
+
+                return count;
+            } catch (IOException | RuntimeException ex) {
+                failed = true;
+                throw ex;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            try {
+                super.close();
+            } catch (IOException | RuntimeException ex) {
+                failed = true;
+                throw ex;
+            } finally {
+                operation.stop(sample, !failed, transferred);
+            }
+        }
+    }
+
+    /**
+     * Counts bytes that were written and stops operation timer when closed, closing stream is what commits
+     * content in most storages, so its failure counts as operation error.
+     */
+    private static final class MeteredOutputStream extends FilterOutputStream implements AbortableOutputStream {
+
+        private final OperationMeters operation;
+        private final Timer.Sample sample;
+
+        private long transferred;
+        private boolean failed;
+        private boolean closed;
+
+        private MeteredOutputStream(OutputStream out, OperationMeters operation, Timer.Sample sample) {
+            super(out);
+            this.operation = operation;
+            this.sample = sample;
+        }
+
+        @Override
+        public void write(int value) throws IOException {
+            try {
+                out.write(value);
+                transferred++;
+            } catch (IOException | RuntimeException ex) {
+                failed = true;
+                throw ex;
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int off, int len) throws IOException {
+            try {
+                out.write(bytes, off, len);
+                transferred += len;
+            } catch (IOException | RuntimeException ex) {
+                failed = true;
+                throw ex;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            try {
+                super.close();
+            } catch (IOException | RuntimeException ex) {
+                failed = true;
+                throw ex;
+            } finally {
+                operation.stop(sample, !failed, transferred);
+            }
+        }
+
+        /**
+         * Aborted write is recorded as failed.
+         */
+        @Override
+        public void abort() throws IOException {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            try {
+                AbortableOutputStream.abortOrClose(out);
+            } finally {
+                operation.stop(sample, false, transferred);
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package de.adorsys.datasafe.storage.metrics;
+
+import de.adorsys.datasafe.storage.api.AbortableOutputStream;
+import de.adorsys.datasafe.storage.api.StorageService;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.resource.Uri;
+import de.adorsys.datasafe.types.api.resource.WithCallback;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class MeteredStorageServiceTest extends BaseMockitoTest {
+
+    private static final AbsoluteLocation<PrivateResource> FILE = new AbsoluteLocation<>(
+            BasePrivateResource.forPrivate(new Uri("s3://host/bucket/file"))
+    );
+
+    @Mock
+    private StorageService storage;
+
+    private SimpleMeterRegistry registry;
+    private MeteredStorageService tested;
+
+    @BeforeEach
+    void init() {
+        registry = new SimpleMeterRegistry();
+        tested = new MeteredStorageService(storage, registry, "minio");
+    }
+
+    @Test
+    @SneakyThrows
+    void recordsReadUntilStreamIsClosed() {
+        when(storage.read(FILE)).thenReturn(new ByteArrayInputStream(new byte[] {1, 2, 3}));
+
+        try (InputStream is = tested.read(FILE)) {
+            assertThat(inFlight("read")).isEqualTo(1);
+            assertThat(is.read(new byte[10])).isEqualTo(3);
+        }
+
+        assertThat(inFlight("read")).isEqualTo(0);
+        assertThat(requests("read", "success")).isEqualTo(1);
+        assertThat(bytes("read")).isEqualTo(3);
+    }
+
+    @Test
+    @SneakyThrows
+    void recordsWrittenBytes() {
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        when(storage.write(any())).thenReturn(written);
+
+        try (OutputStream os = tested.write(WithCallback.noCallback(FILE))) {
+            os.write(new byte[] {1, 2});
+            os.write(3);
+        }
+
+        assertThat(written.toByteArray()).containsExactly(1, 2, 3);
+        assertThat(requests("write", "success")).isEqualTo(1);
+        assertThat(bytes("write")).isEqualTo(3);
+    }
+
+    @Test
+    @SneakyThrows
+    void abortIsPassedToStorageStream() {
+        OutputStream written = mock(OutputStream.class, withSettings().extraInterfaces(AbortableOutputStream.class));
+        when(storage.write(any())).thenReturn(written);
+
+        try (OutputStream os = tested.write(WithCallback.noCallback(FILE))) {
+            os.write(1);
+            ((AbortableOutputStream) os).abort();
+        }
+
+        verify((AbortableOutputStream) written).abort();
+        verify(written, never()).close();
+        assertThat(requests("write", "error")).isEqualTo(1);
+    }
+
+    @Test
+    void recordsErrors() {
+        when(storage.objectExists(FILE)).thenReturn(true).thenThrow(new IllegalStateException("down"));
+        doThrow(new IllegalStateException("down")).when(storage).remove(FILE);
+
+        assertThat(tested.objectExists(FILE)).isTrue();
+        assertThatThrownBy(() -> tested.objectExists(FILE)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> tested.remove(FILE)).isInstanceOf(IllegalStateException.class);
+
+        assertThat(requests("exists", "success")).isEqualTo(1);
+        assertThat(requests("exists", "error")).isEqualTo(1);
+        assertThat(requests("remove", "error")).isEqualTo(1);
+        assertThat(inFlight("exists")).isEqualTo(0);
+    }
+
+    private long requests(String operation, String outcome) {
+        return registry.get(MeteredStorageService.REQUESTS)
+                .tags("backend", "minio", "scheme", "s3", "operation", operation, "outcome", outcome)
+                .timer()
+                .count();
+    }
+
+    private double bytes(String operation) {
+        return registry.get(MeteredStorageService.BYTES).tags("operation", operation).counter().count();
+    }
+
+    private double inFlight(String operation) {
+        return registry.get(MeteredStorageService.IN_FLIGHT).tags("operation", operation).gauge().value();
+    }
+}
@@ -32,10 +32,21 @@ public class ListRequest<T, L extends ResourceLocation> {
     @NonNull
     private final StorageIdentifier storageIdentifier;
 
+    /**
+     * List only direct children of the location, nested directories are returned as resources whose path
+     * ends with '/'. Storage that can't list shallow will list recursively.
+     */
+    private final boolean shallow;
+
+    public ListRequest(@NonNull T owner, @NonNull L location, @NonNull StorageIdentifier storageIdentifier) {
+        this(owner, location, storageIdentifier, false);
+    }
+
     private ListRequest(@NonNull T owner, @NonNull L location) {
         this.owner = owner;
         this.location = location;
         this.storageIdentifier = StorageIdentifier.DEFAULT;
+        this.shallow = false;
     }
 
     public static <T> ListRequest<T, PrivateResource> forDefaultPrivate(T owner, URI path) {
@@ -1,6 +1,7 @@
 package de.adorsys.datasafe.types.api.actions;
 
 import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.ByteRange;
 import de.adorsys.datasafe.types.api.resource.PrivateResource;
 import de.adorsys.datasafe.types.api.resource.ResourceLocation;
 import de.adorsys.datasafe.types.api.resource.StorageIdentifier;
@@ -33,10 +34,24 @@ public class ReadRequest<T, L extends ResourceLocation> {
     @NonNull
     private final StorageIdentifier storageIdentifier;
 
+    /**
+     * Part of (decrypted) content to read, {@code null} reads whole resource.
+     */
+    private final ByteRange range;
+
+    public ReadRequest(@NonNull T owner, @NonNull L location, @NonNull StorageIdentifier storageIdentifier) {
+        this(owner, location, storageIdentifier, null);
+    }
+
     private ReadRequest(@NonNull T owner, @NonNull L location) {
-        this.owner = owner;
-        this.location = location;
-        this.storageIdentifier = StorageIdentifier.DEFAULT;
+        this(owner, location, StorageIdentifier.DEFAULT);
+    }
+
+    /**
+     * @return Same request, that reads only {@code range} of resource content
+     */
+    public ReadRequest<T, L> withRange(ByteRange range) {
+        return toBuilder().range(range).build();
     }
 
     public static <T> ReadRequest<T, PrivateResource> forPrivate(T owner, PrivateResource path) {
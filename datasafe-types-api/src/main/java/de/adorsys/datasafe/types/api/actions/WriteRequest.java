@@ -40,11 +40,23 @@ public class WriteRequest<T, L extends ResourceLocation> {
     @Singular
     private final List<? extends ResourceWriteCallback> callbacks;
 
+    /**
+     * Expected amount of bytes to be written, {@code null} if unknown. It is only a hint that allows storage
+     * to tune its buffering, writing more or less data is allowed.
+     */
+    private final Long expectedSize;
+
+    public WriteRequest(@NonNull T owner, @NonNull L location, @NonNull StorageIdentifier storageIdentifier,
+                        List<? extends ResourceWriteCallback> callbacks) {
+        this(owner, location, storageIdentifier, callbacks, null);
+    }
+
     private WriteRequest(@NonNull T owner, @NonNull L location, List<? extends ResourceWriteCallback> callbacks) {
         this.owner = owner;
         this.location = location;
         this.callbacks = callbacks;
         this.storageIdentifier = StorageIdentifier.DEFAULT;
+        this.expectedSize = null;
     }
 
     public static <T> WriteRequest<T, PrivateResource> forDefaultPrivate(T owner, String path) {
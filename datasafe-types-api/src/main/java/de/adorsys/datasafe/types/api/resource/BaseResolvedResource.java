@@ -14,6 +14,15 @@ public class BaseResolvedResource implements ResolvedResource {
 
     private final PrivateResource resource;
     private final Instant modifiedAt;
+    private final Long size;
+    private final String eTag;
+
+    /**
+     * Resource with modification date only, size and entity tag are unknown.
+     */
+    public BaseResolvedResource(PrivateResource resource, Instant modifiedAt) {
+        this(resource, modifiedAt, null, null);
+    }
 
     /**
      * @param resource New root for this resource
@@ -21,7 +30,7 @@ public class BaseResolvedResource implements ResolvedResource {
      */
     @Override
     public ResolvedResource withResource(PrivateResource resource) {
-        return new BaseResolvedResource(resource, modifiedAt);
+        return new BaseResolvedResource(resource, modifiedAt, size, eTag);
     }
 
     /**
@@ -38,7 +47,7 @@ public class BaseResolvedResource implements ResolvedResource {
      */
     @Override
     public ResolvedResource resolveFrom(ResourceLocation absolute) {
-        return new BaseResolvedResource(resource.resolveFrom(absolute), modifiedAt);
+        return new BaseResolvedResource(resource.resolveFrom(absolute), modifiedAt, size, eTag);
     }
 
     /**
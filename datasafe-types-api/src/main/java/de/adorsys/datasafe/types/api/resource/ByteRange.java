@@ -0,0 +1,52 @@
+package de.adorsys.datasafe.types.api.resource;
+
+import lombok.Value;
+
+/**
+ * Part of resource content that should be read - {@code length} bytes starting at {@code offset}, or everything
+ * starting at {@code offset} if length is not defined. Range that starts after content end yields no bytes.
+ */
+@Value
+public class ByteRange {
+
+    private final long offset;
+
+    /**
+     * Count of bytes to read, {@code null} reads till end of resource.
+     */
+    private final Long length;
+
+    private ByteRange(long offset, Long length) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Range offset must be >= 0: " + offset);
+        }
+
+        if (null != length && length <= 0) {
+            throw new IllegalArgumentException("Range length must be > 0: " + length);
+        }
+
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * @return Range of {@code length} bytes starting at {@code offset}
+     */
+    public static ByteRange of(long offset, long length) {
+        return new ByteRange(offset, length);
+    }
+
+    /**
+     * @return Range of all bytes starting at {@code offset}
+     */
+    public static ByteRange from(long offset) {
+        return new ByteRange(offset, null);
+    }
+
+    /**
+     * @return Position of last byte in range (inclusive), {@code null} if range ends with resource
+     */
+    public Long getLastPosition() {
+        return null == length ? null : offset + length - 1;
+    }
+}
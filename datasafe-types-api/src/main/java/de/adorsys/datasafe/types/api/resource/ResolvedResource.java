@@ -13,6 +13,17 @@ public interface ResolvedResource extends ResourceLocation<ResolvedResource> {
      */
     Instant getModifiedAt();
 
+    /**
+     * @return Size of stored (encrypted) resource in bytes, {@code null} if storage listing doesn't provide it or
+     * resource is a directory.
+     */
+    Long getSize();
+
+    /**
+     * @return Entity tag of stored resource, {@code null} if storage doesn't provide it.
+     */
+    String getETag();
+
     /**
      * @param resource New path for this resource
      * @return Relocated resource (example: relative to absolute) that preserves metadata, but drops path.
@@ -2,5 +2,9 @@ package de.adorsys.datasafe.types.api.resource;
 
 public enum StorageCapability {
     // capability for filesystem to return directories in list function.
-    LIST_RETURNS_DIR
+    LIST_RETURNS_DIR,
+
+    // capability to list only direct children of location, nested directories are returned as resources
+    // whose path ends with '/'. Storages that do not support it list recursively.
+    LIST_SHALLOW
 }
@@ -22,7 +22,13 @@ public class WithCallback<T, C extends Callback> {
     @Singular
     private final List<C> callbacks;
 
+    /**
+     * Expected amount of bytes to be written (size hint), {@code null} if unknown. Storages may use it to
+     * choose their buffering, i.e. multipart chunk size.
+     */
+    private final Long expectedSize;
+
     public static <T, C extends Callback> WithCallback<T, C> noCallback(T wrapped) {
-        return new WithCallback<>(wrapped, new ArrayList<>());
+        return new WithCallback<>(wrapped, new ArrayList<>(), null);
     }
 }
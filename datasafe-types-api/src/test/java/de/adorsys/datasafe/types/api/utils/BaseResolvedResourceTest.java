@@ -3,6 +3,7 @@ package de.adorsys.datasafe.types.api.utils;
 import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
 import de.adorsys.datasafe.types.api.resource.BaseResolvedResource;
 import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
 import de.adorsys.datasafe.types.api.resource.Uri;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
@@ -29,4 +30,18 @@ class BaseResolvedResourceTest {
         Assertions.assertEquals(uriString, baseResolvedResource.asPrivate().location().toASCIIString());
         Assertions.assertEquals(uriString, baseResolvedResource.location().toASCIIString());
     }
+
+    @Test
+    void resolvePreservesMetadata() {
+        Uri uri = new Uri("uri");
+        PrivateResource privateResource = new BasePrivateResource(uri, uri, uri);
+        Instant modifiedAt = Instant.now();
+        BaseResolvedResource resource = new BaseResolvedResource(privateResource, modifiedAt, 10L, "etag");
+
+        ResolvedResource resolved = resource.resolveFrom(privateResource).withResource(privateResource);
+
+        Assertions.assertEquals(modifiedAt, resolved.getModifiedAt());
+        Assertions.assertEquals(Long.valueOf(10L), resolved.getSize());
+        Assertions.assertEquals("etag", resolved.getETag());
+    }
 }